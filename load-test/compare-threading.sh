@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Сравнивает пропускную способность и p99 двух запущенных экземпляров: на платформенных потоках
+# (профиль по умолчанию) и на виртуальных (SPRING_PROFILES_ACTIVE=virtual), при одинаковой нагрузке.
+#
+#   PLATFORM_URL=http://localhost:8080 VIRTUAL_URL=http://localhost:8081 \
+#   LOGIN=user PASSWORD=secret SET_ID=1 RATE=500 ./load-test/compare-threading.sh
+#
+# Нужны k6 и jq. Итоги каждого прогона сохраняются в load-test/results/<режим>.json.
+set -euo pipefail
+
+dir="$(cd "$(dirname "$0")" && pwd)"
+mkdir -p "$dir/results"
+
+run() {
+  local mode="$1" url="$2"
+  echo "== $mode: $url"
+  k6 run --quiet --summary-export "$dir/results/$mode.json" -e BASE_URL="$url" "$dir/flashcard-read.js" || true
+}
+
+run platform "${PLATFORM_URL:-http://localhost:8080}"
+run virtual "${VIRTUAL_URL:-http://localhost:8081}"
+
+printf '\n%-10s %12s %10s %10s %10s\n' mode 'req/s' 'p50, ms' 'p99, ms' 'failed'
+for mode in platform virtual; do
+  jq -r --arg mode "$mode" '[$mode,
+      (.metrics.http_reqs.rate | floor),
+      (.metrics.http_req_duration["p(50)"] * 100 | round / 100),
+      (.metrics.http_req_duration["p(99)"] * 100 | round / 100),
+      (.metrics.http_req_failed.value)] | @tsv' "$dir/results/$mode.json" \
+    | awk -F'\t' '{ printf "%-10s %12s %10s %10s %10s\n", $1, $2, $3, $4, $5 }'
+done
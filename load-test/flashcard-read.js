@@ -0,0 +1,53 @@
+// Нагрузочный профиль чтения: набор, страница карточек, очередь повторения и дельта-синхронизация.
+// Запуск: k6 run -e BASE_URL=http://localhost:8080 -e LOGIN=user -e PASSWORD=secret -e SET_ID=1 load-test/flashcard-read.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const SET_ID = __ENV.SET_ID || '1';
+const RATE = Number(__ENV.RATE || 300);
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+    discardResponseBodies: true,
+    scenarios: {
+        read: {
+            // постоянная интенсивность, чтобы p99 сравнивался при одной и той же нагрузке
+            executor: 'constant-arrival-rate',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: Number(__ENV.VUS || 200),
+            maxVUs: Number(__ENV.MAX_VUS || 1000),
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        'http_req_duration{endpoint:set}': ['p(99)<500'],
+        'http_req_duration{endpoint:cards}': ['p(99)<500'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ login: __ENV.LOGIN, password: __ENV.PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' }, responseType: 'text' });
+    check(res, { 'login ok': (r) => r.status === 200 });
+    // эндпоинт входа возвращает сам токен строкой
+    return { token: res.body };
+}
+
+export default function (data) {
+    const params = (endpoint) => ({
+        headers: { Authorization: `Bearer ${data.token}`, 'Accept-Encoding': 'gzip' },
+        tags: { endpoint },
+    });
+    const responses = http.batch([
+        ['GET', `${BASE_URL}/api/flashcardSet/${SET_ID}`, null, params('set')],
+        ['GET', `${BASE_URL}/api/flashcardSet/${SET_ID}/cards?limit=100`, null, params('cards')],
+        ['GET', `${BASE_URL}/api/study/due?limit=20`, null, params('due')],
+        ['GET', `${BASE_URL}/api/sync?since=${Date.now() - 60000}`, null, params('sync')],
+    ]);
+    responses.forEach((r) => check(r, { 'status 200': (res) => res.status === 200 }));
+}
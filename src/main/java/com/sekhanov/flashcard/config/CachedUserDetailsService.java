@@ -0,0 +1,122 @@
+package com.sekhanov.flashcard.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sekhanov.flashcard.event.UserChangedEvent;
+import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.UserCredentials;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link UserDetailsService} с локальным кэшем пользователей по логину.
+ * <p>
+ * Кэш ограничен по размеру и времени жизни записи. Запись сбрасывается после коммита
+ * транзакции, опубликовавшей {@link UserChangedEvent}. Статистика попаданий и промахов
+ * публикуется в Micrometer под именем кэша {@code userDetails}.
+ * </p>
+ * <p>
+ * Пользователь читается из БД в потоке запроса вне блокировок кэша: в кэш кладётся незавершённый
+ * {@link CompletableFuture}, который ждут одновременные входы с тем же логином. Сброс во время
+ * чтения удаляет этот future, и прочитанные до изменения данные в кэше не остаются.
+ * </p>
+ * <p>
+ * В кэше хранится неизменяемый снимок пользователя, а {@link SecurityConfig.CustomUserDetails}
+ * создаётся заново на каждый вызов: Spring Security стирает пароль у выданного объекта
+ * после аутентификации, и общий экземпляр сломал бы следующие входы.
+ * </p>
+ */
+@Slf4j
+public class CachedUserDetailsService implements UserDetailsService, MeterBinder {
+
+    private static final String CACHE_NAME = "userDetails";
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, CachedUser> cache;
+
+    public CachedUserDetailsService(UserRepository userRepository, long maxSize, Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        log.info("Кэш пользователей инициализирован: maxSize={}, ttl={}", maxSize, ttl);
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        CompletableFuture<CachedUser> created = new CompletableFuture<>();
+        CompletableFuture<CachedUser> cached = cache.get(username, (login, executor) -> created);
+        CachedUser user = cached == created ? load(username, created) : join(cached);
+        if (user == null) {
+            throw new UsernameNotFoundException("User Not Found");
+        }
+        return user.toUserDetails();
+    }
+
+    /**
+     * Сбрасывает запись пользователя после коммита транзакции, изменившей его данные.
+     *
+     * @param event событие изменения пользователя
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        log.debug("Сброс кэша пользователя login={}", event.login());
+        cache.synchronous().invalidate(event.login());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private CachedUser load(String login, CompletableFuture<CachedUser> created) {
+        log.debug("Загрузка пользователя login={} из базы данных", login);
+        try {
+            CachedUser user = userRepository.findCredentialsByLogin(login)
+                    .map(CachedUser::of)
+                    .orElse(null);
+            if (user == null) {
+                // отсутствующие логины не кэшируются, чтобы регистрация была видна сразу
+                cache.asMap().remove(login, created);
+            }
+            created.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            cache.asMap().remove(login, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static CachedUser join(CompletableFuture<CachedUser> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private record CachedUser(Long id, String login, String name, String surname, String password) {
+        static CachedUser of(UserCredentials credentials) {
+            return new CachedUser(credentials.id(), credentials.login(), credentials.name(),
+                    credentials.surname(), credentials.password());
+        }
+
+        SecurityConfig.CustomUserDetails toUserDetails() {
+            return new SecurityConfig.CustomUserDetails(id, login, name, surname, password, List.of());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.sekhanov.flashcard.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+import java.util.List;
+
+/**
+ * Регистрирует {@link CompressionFilter} раньше фильтров безопасности, чтобы сжимались и их ответы.
+ * Встроенное сжатие сервера ({@code server.compression}) при этом не включается: оно не даёт метрик.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.compression.enabled", havingValue = "true", matchIfMissing = true)
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<CompressionFilter> compressionFilter(
+            @Value("${app.compression.min-size:1KB}") DataSize minSize,
+            @Value("${app.compression.level:6}") int level,
+            @Value("${app.compression.mime-types:application/json,application/x-ndjson,text/csv,text/plain}") List<String> mimeTypes,
+            MeterRegistry registry) {
+        FilterRegistrationBean<CompressionFilter> registration =
+                new FilterRegistrationBean<>(new CompressionFilter((int) minSize.toBytes(), level, mimeTypes, registry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
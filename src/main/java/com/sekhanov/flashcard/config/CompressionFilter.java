@@ -0,0 +1,450 @@
+package com.sekhanov.flashcard.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Фильтр, сжимающий ответы gzip, если клиент это принимает.
+ *
+ * <p>Первые {@code minSize} байт ответа накапливаются в буфере. Если ответ закончился раньше, он уходит
+ * без сжатия и с {@code Content-Length}. Иначе, если тип содержимого входит в список разрешённых и ответ
+ * ещё не сжат (например, готовой копией общего набора), дальше данные сжимаются по мере записи, не собирая
+ * тело целиком. Пока порог не достигнут, {@code flush()} ничего не отправляет; после — сбрасывает
+ * сжатый поток, так что NDJSON-выгрузки продолжают идти клиенту частями.</p>
+ *
+ * <p>Сжатое тело побайтно отличается от исходного, поэтому сильный {@code ETag} ответа при сжатии
+ * заменяется слабым: проверка {@code If-None-Match} сравнивает ETag без учёта слабости и продолжает работать.
+ * Если обработчик ушёл в асинхронный режим, ответ дописывается при асинхронном диспатче; неблокирующий
+ * вывод через {@link WriteListener} идёт без буфера и без сжатия.</p>
+ *
+ * <p>gzip пишет во фрагментный буфер в памяти, и замеряется только работа deflate; готовый сжатый фрагмент
+ * копируется в ответ уже вне замера, поэтому медленный клиент не попадает во время сжатия.</p>
+ *
+ * <p>Метрики Micrometer: {@code http.server.compression.ratio} — отношение сжатого размера к исходному,
+ * {@code http.server.compression.bytes} с тегом {@code stage} ({@code raw}/{@code compressed}),
+ * {@code http.server.compression.time} — время работы deflate по часам и {@code http.server.compression.cpu} —
+ * процессорное время потока на сжатие. Для виртуальных потоков JVM процессорное время не измеряет,
+ * и такие ответы в {@code cpu} не учитываются.</p>
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final int minSize;
+    private final int level;
+    private final List<MimeType> mimeTypes;
+    private final DistributionSummary ratio;
+    private final Counter rawBytes;
+    private final Counter compressedBytes;
+    private final Timer time;
+    private final Timer cpu;
+
+    /**
+     * @param minSize   минимальный размер тела в байтах, с которого ответ сжимается
+     * @param level     уровень сжатия deflate от 1 до 9
+     * @param mimeTypes типы содержимого, которые разрешено сжимать
+     * @param registry  реестр метрик
+     */
+    public CompressionFilter(int minSize, int level, List<String> mimeTypes, MeterRegistry registry) {
+        this.minSize = minSize;
+        this.level = level;
+        this.mimeTypes = mimeTypes.stream().map(MimeTypeUtils::parseMimeType).toList();
+        this.ratio = DistributionSummary.builder("http.server.compression.ratio")
+                .description("Отношение сжатого размера ответа к исходному")
+                .publishPercentiles(0.5, 0.95)
+                .register(registry);
+        this.rawBytes = Counter.builder("http.server.compression.bytes").tag("stage", "raw")
+                .baseUnit("bytes").register(registry);
+        this.compressedBytes = Counter.builder("http.server.compression.bytes").tag("stage", "compressed")
+                .baseUnit("bytes").register(registry);
+        this.time = Timer.builder("http.server.compression.time")
+                .description("Время работы deflate над ответом без записи в сокет")
+                .register(registry);
+        this.cpu = Timer.builder("http.server.compression.cpu")
+                .description("Процессорное время, потраченное на сжатие ответа")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        CompressingResponse started = WebUtils.getNativeResponse(res, CompressingResponse.class);
+        if (started != null) {
+            // асинхронный диспатч запроса, обёрнутого при первом проходе
+            chain.doFilter(req, res);
+            if (!req.isAsyncStarted()) {
+                started.finish();
+            }
+            return;
+        }
+        if (!acceptsGzip(req.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            chain.doFilter(req, res);
+            return;
+        }
+        CompressingResponse response = new CompressingResponse(res);
+        chain.doFilter(req, response);
+        if (!req.isAsyncStarted()) {
+            response.finish();
+        }
+    }
+
+    /**
+     * Проверяет, что {@code Accept-Encoding} допускает gzip (явный {@code q=0} означает запрет).
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(GZIP) || name.equals("*")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MimeType type = MimeTypeUtils.parseMimeType(contentType);
+        return mimeTypes.stream().anyMatch(allowed -> allowed.includes(type));
+    }
+
+    /**
+     * @return процессорное время текущего потока или -1, если его нельзя измерить (в том числе для виртуального потока)
+     */
+    private static long cpuTime() {
+        return !Thread.currentThread().isVirtual() && THREADS.isCurrentThreadCpuTimeSupported()
+                ? THREADS.getCurrentThreadCpuTime()
+                : -1;
+    }
+
+    /**
+     * Шаг работы gzip над фрагментным буфером.
+     */
+    @FunctionalInterface
+    private interface DeflateStep {
+        void run() throws IOException;
+    }
+
+    /**
+     * Обёртка ответа, которая решает, сжимать ли тело, когда накоплено {@code minSize} байт или ответ закончен.
+     */
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private CompressingOutputStream stream;
+        private PrintWriter writer;
+        private long contentLength = -1;
+
+        CompressingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() уже вызван для этого ответа");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() уже вызван для этого ответа");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            // длина сжатого тела заранее неизвестна: заголовок выставляется, только если сжатия не будет
+            contentLength = len;
+            if (stream != null && stream.decided && !stream.compressing) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (stream != null) {
+                stream.flush();
+            }
+            if (stream == null || stream.decided) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (stream != null && !stream.decided) {
+                stream.buffer.reset();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            contentLength = -1;
+            if (stream != null && !stream.decided) {
+                stream.buffer.reset();
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            }
+        }
+
+        private CompressingOutputStream stream() throws IOException {
+            if (stream == null) {
+                stream = new CompressingOutputStream(this, (HttpServletResponse) getResponse());
+            }
+            return stream;
+        }
+    }
+
+    /**
+     * Поток тела ответа: буферизует начало, затем пишет напрямую или через gzip.
+     */
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        private final CompressingResponse wrapper;
+        private final HttpServletResponse response;
+        private final ByteArrayOutputStream buffer;
+        private OutputStream target;
+        private GZIPOutputStream gzip;
+        private ByteArrayOutputStream compressed;
+        private long raw;
+        private long compressedSize;
+        private long deflateNanos;
+        private long cpuNanos;
+        private boolean cpuMeasured = true;
+        private boolean decided;
+        private boolean compressing;
+        private boolean finished;
+
+        CompressingOutputStream(CompressingResponse wrapper, HttpServletResponse response) {
+            this.wrapper = wrapper;
+            this.response = response;
+            this.buffer = new ByteArrayOutputStream(Math.min(minSize, 8192));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!decided) {
+                buffer.write(b, off, len);
+                if (buffer.size() >= minSize) {
+                    decide();
+                }
+                return;
+            }
+            writeTarget(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // до порога данные держатся в буфере, иначе маленькие ответы сжимались бы из-за flush() конвертеров
+            if (decided) {
+                if (compressing) {
+                    deflate(gzip::flush);
+                }
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            if (!decided || compressing) {
+                return true;
+            }
+            try {
+                return response.getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            try {
+                if (!decided) {
+                    // буфер и gzip нарушили бы контракт isReady(), поэтому неблокирующий вывод идёт как есть
+                    start(false);
+                }
+                response.getOutputStream().setWriteListener(listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (!decided) {
+                decided = true;
+                // ответ целиком меньше порога: отправляется как есть с точной длиной
+                response.setContentLength(buffer.size());
+                buffer.writeTo(response.getOutputStream());
+                return;
+            }
+            if (compressing) {
+                deflate(gzip::finish);
+                record();
+            }
+            target.flush();
+        }
+
+        private void decide() throws IOException {
+            start(response.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                    && isCompressible(response.getContentType())
+                    && (wrapper.contentLength < 0 || wrapper.contentLength >= minSize));
+        }
+
+        private void start(boolean compress) throws IOException {
+            decided = true;
+            compressing = compress;
+            if (compressing) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                String eTag = response.getHeader(HttpHeaders.ETAG);
+                if (eTag != null && !eTag.startsWith("W/")) {
+                    response.setHeader(HttpHeaders.ETAG, "W/" + eTag);
+                }
+                compressed = new ByteArrayOutputStream(8192);
+                gzip = new GZIPOutputStream(compressed, 8192, true) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+            } else if (wrapper.contentLength >= 0) {
+                response.setContentLengthLong(wrapper.contentLength);
+            }
+            target = response.getOutputStream();
+            byte[] head = buffer.toByteArray();
+            buffer.reset();
+            writeTarget(head, 0, head.length);
+        }
+
+        private void writeTarget(byte[] b, int off, int len) throws IOException {
+            if (!compressing) {
+                target.write(b, off, len);
+                return;
+            }
+            deflate(() -> gzip.write(b, off, len));
+            raw += len;
+        }
+
+        /**
+         * Выполняет шаг gzip над фрагментным буфером под замером, затем вне замера отправляет
+         * готовый сжатый фрагмент в ответ.
+         */
+        private void deflate(DeflateStep step) throws IOException {
+            long cpuStart = cpuTime();
+            long start = System.nanoTime();
+            step.run();
+            deflateNanos += System.nanoTime() - start;
+            long cpuEnd = cpuTime();
+            if (cpuStart < 0 || cpuEnd < 0) {
+                cpuMeasured = false;
+            } else {
+                cpuNanos += cpuEnd - cpuStart;
+            }
+            compressedSize += compressed.size();
+            compressed.writeTo(target);
+            compressed.reset();
+        }
+
+        private void record() {
+            rawBytes.increment(raw);
+            compressedBytes.increment(compressedSize);
+            if (raw > 0) {
+                ratio.record((double) compressedSize / raw);
+            }
+            time.record(deflateNanos, TimeUnit.NANOSECONDS);
+            if (cpuMeasured) {
+                cpu.record(cpuNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,6 +17,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Фильтр для проверки JWT токена в заголовке Authorization HTTP-запроса.
@@ -24,6 +27,10 @@ import java.util.Date;
  * загружает пользователя через {@link UserService} и устанавливает
  * аутентификацию в контексте безопасности Spring Security.</p>
  *
+ * <p>В режиме {@code statelessPrincipal} пользователь восстанавливается из подписанных
+ * данных токена без обращения к базе данных. Токены без этих данных по-прежнему
+ * загружают пользователя через {@link UserDetailsService}.</p>
+ *
  * <p>Данный фильтр выполняется один раз на каждый запрос.</p>
  */
 @RequiredArgsConstructor
@@ -32,6 +39,8 @@ public class JwtFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
     private static final long REFRESH_THRESHOLD = Duration.ofMinutes(15).toMillis();
+    @Setter
+    private boolean statelessPrincipal;
 
     /**
      * Выполняет фильтрацию входящего HTTP-запроса.
@@ -54,13 +63,15 @@ public class JwtFilter extends OncePerRequestFilter {
         String h = req.getHeader("Authorization");
         if (h != null && h.startsWith("Bearer ")) {
             String token = h.substring(7);
-            if (jwtService.validateToken(token)) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(jwtService.extractLogin(token));
+            // подпись проверяется один раз, логин и срок действия берутся из одного разбора
+            Optional<JwtService.ParsedToken> parsed = jwtService.parse(token);
+            if (parsed.isPresent()) {
+                UserDetails userDetails = resolveUserDetails(parsed.get());
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                Date expiration = jwtService.extractExpiration(token);
+                Date expiration = parsed.get().expiration();
                 Date now = new Date();
                 if (expiration.getTime() - now.getTime() <= REFRESH_THRESHOLD) {
                     String refreshedToken = jwtService.refreshToken(token);
@@ -70,4 +81,12 @@ public class JwtFilter extends OncePerRequestFilter {
         }
         chain.doFilter(req, res);
     }
+
+    private UserDetails resolveUserDetails(JwtService.ParsedToken parsed) {
+        if (statelessPrincipal && parsed.hasPrincipalClaims()) {
+            return new SecurityConfig.CustomUserDetails(
+                    parsed.userId(), parsed.login(), parsed.name(), parsed.surname(), "", List.of());
+        }
+        return userDetailsService.loadUserByUsername(parsed.login());
+    }
 }
@@ -1,6 +1,6 @@
 package com.sekhanov.flashcard.config;
 
-import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.controller.FlashcardSetController;
 import com.sekhanov.flashcard.repository.UserRepository;
 import com.sekhanov.flashcard.service.JwtService;
 import lombok.Getter;
@@ -17,7 +17,6 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -26,6 +25,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 
@@ -46,6 +46,15 @@ public class SecurityConfig {
     private final UserRepository userRepository;
     private final JwtService jwtService;
 
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+
+    @Value("${app.security.user-details-cache.max-size:10000}")
+    private long userDetailsCacheMaxSize = 10_000;
+
+    @Value("${app.security.user-details-cache.ttl:5m}")
+    private Duration userDetailsCacheTtl = Duration.ofMinutes(5);
+
     private static final String[] WHITE_LIST_URLS = {
             "/api/auth/**",
             "/swagger-ui/**",
@@ -90,6 +99,7 @@ public class SecurityConfig {
         config.setAllowedMethods(List.of("GET","POST","PUT","PATCH","DELETE","OPTIONS"));
         config.setAllowCredentials(true);
         config.setAllowedHeaders(List.of("Authorization","Content-Type"));
+        config.setExposedHeaders(List.of(FlashcardSetController.NEXT_CURSOR_HEADER));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
         return source;
@@ -115,9 +125,17 @@ public class SecurityConfig {
         return authenticationProvider;
     }
 
+    /**
+     * Создает JWT-фильтр. При включённом {@code jwt.stateless-principal} пользователь
+     * восстанавливается из данных токена без запроса к таблице users.
+     *
+     * @return JWT-фильтр
+     */
     @Bean
     public JwtFilter jwtFilter() {
-        return new JwtFilter(jwtService, userDetailsService());
+        JwtFilter jwtFilter = new JwtFilter(jwtService, userDetailsService());
+        jwtFilter.setStatelessPrincipal(statelessPrincipal);
+        return jwtFilter;
     }
 
     @Bean
@@ -125,15 +143,15 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Создает {@link UserDetailsService} с кэшем пользователей по логину.
+     * Размер и время жизни кэша задаются свойствами {@code app.security.user-details-cache.*}.
+     *
+     * @return сервис загрузки пользователей
+     */
     @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> {
-            User user = userRepository.findByLogin(username);
-            if (user == null) {
-                throw new UsernameNotFoundException("User Not Found");
-            }
-            return new CustomUserDetails(user.getId(), user.getLogin(), user.getName(), user.getSurname(), user.getPassword(), List.of());
-        };
+    public CachedUserDetailsService userDetailsService() {
+        return new CachedUserDetailsService(userRepository, userDetailsCacheMaxSize, userDetailsCacheTtl);
     }
 
     /**
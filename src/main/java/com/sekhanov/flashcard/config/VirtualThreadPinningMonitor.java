@@ -0,0 +1,82 @@
+package com.sekhanov.flashcard.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Отслеживает закрепление виртуальных потоков за несущими через событие JFR {@code jdk.VirtualThreadPinned}.
+ *
+ * <p>Работает только при {@code spring.threads.virtual.enabled=true}. Событие возникает, когда виртуальный
+ * поток блокируется, удерживая монитор ({@code synchronized}, в том числе внутри драйверов и библиотек)
+ * или находясь в нативном вызове, дольше {@code app.virtual-threads.pinned-threshold}. Каждое такое
+ * закрепление пишется в лог со стеком и учитывается в таймере {@code jvm.threads.virtual.pinned}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final int stackDepth;
+    private final Timer pinned;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${app.virtual-threads.pinned-threshold:20ms}") Duration threshold,
+                                       @Value("${app.virtual-threads.pinned-stack-depth:12}") int stackDepth,
+                                       MeterRegistry registry) {
+        this.threshold = threshold;
+        this.stackDepth = stackDepth;
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Блокировки виртуальных потоков, закреплённых за несущим потоком")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Мониторинг закрепления виртуальных потоков включён: threshold={}", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        log.warn("Виртуальный поток закреплён за несущим на {} мс:\n{}",
+                event.getDuration().toMillis(), format(event));
+    }
+
+    private String format(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "\t(стек недоступен)";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(stackDepth)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
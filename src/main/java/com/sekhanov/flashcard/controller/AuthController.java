@@ -1,5 +1,6 @@
 package com.sekhanov.flashcard.controller;
 
+import com.sekhanov.flashcard.config.SecurityConfig;
 import com.sekhanov.flashcard.dto.AuthRequest;
 import com.sekhanov.flashcard.dto.AuthResponse;
 import com.sekhanov.flashcard.dto.CreateUserDTO;
@@ -11,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -37,6 +39,8 @@ public class AuthController {
      * <p>
      * Получает логин и пароль из тела запроса, проверяет их корректность,
      * и в случае успешной аутентификации возвращает JWT-токен.
+     * Токен содержит id, имя и фамилию пользователя, чтобы последующие запросы
+     * могли восстановить пользователя без обращения к базе данных.
      * Если логин или пароль неверны — возвращает ошибку 401 Unauthorized с сообщением.
      * </p>
      *
@@ -47,7 +51,12 @@ public class AuthController {
      */
     @PostMapping("/login")
     public String login(@RequestBody AuthRequest req) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(req.getLogin(), req.getPassword()));
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(req.getLogin(), req.getPassword()));
+        if (authentication != null && authentication.getPrincipal() instanceof SecurityConfig.CustomUserDetails userDetails) {
+            return jwtService.generateToken(new JwtService.TokenSubject(
+                    userDetails.getId(), userDetails.getUsername(), userDetails.getName(), userDetails.getSurname()));
+        }
         return jwtService.generateToken(req.getLogin());
     }
 
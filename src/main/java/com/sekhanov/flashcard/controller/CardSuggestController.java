@@ -0,0 +1,34 @@
+package com.sekhanov.flashcard.controller;
+
+import com.sekhanov.flashcard.service.CardSuggestService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.List;
+
+/**
+ * REST-контроллер подсказок для редактора карточек.
+ */
+@RestController
+@RequestMapping("/api/cards")
+@RequiredArgsConstructor
+public class CardSuggestController {
+
+    private final CardSuggestService cardSuggestService;
+
+    /**
+     * Подсказывает термины из наборов текущего пользователя по мере ввода.
+     *
+     * @param prefix введённое начало термина.
+     * @param limit  максимальное число подсказок (до 20).
+     * @return термины, начинающиеся с префикса.
+     */
+    @Operation(summary = "Подсказать термины по префиксу")
+    @GetMapping("/suggest")
+    public List<String> suggestTerms(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return cardSuggestService.suggestTerms(prefix, limit);
+    }
+}
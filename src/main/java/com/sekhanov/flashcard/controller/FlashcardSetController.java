@@ -1,16 +1,34 @@
 package com.sekhanov.flashcard.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.sekhanov.flashcard.dto.*;
 import com.sekhanov.flashcard.service.LastSeenFlashcardSetService;
+import com.sekhanov.flashcard.service.CardImportService;
+import com.sekhanov.flashcard.service.FlashcardSetExportService;
+import com.sekhanov.flashcard.utils.FlashcardSetExportWriter;
 import com.sekhanov.flashcard.service.FlashcardSetService;
 import com.sekhanov.flashcard.service.CardsService;
+import com.sekhanov.flashcard.service.SharedFlashcardSetJsonCache;
+import com.sekhanov.flashcard.service.SharedFlashcardSetJsonCache.SerializedFlashcardSet;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * REST-контроллер для управления списками слов и словами внутри этих списков.
@@ -27,9 +45,25 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FlashcardSetController {
 
+    /** Заголовок ответа с курсором следующей страницы; отсутствует на последней странице. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /** Тип содержимого потоковой выдачи: один JSON-объект на строку. */
+    public static final String NDJSON = "application/x-ndjson";
+    /**
+     * Политика кэширования набора и его карточек: ответ хранится только в кэше клиента
+     * и перед использованием сверяется с сервером по ETag.
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    /** Суффикс ETag сжатого gzip представления списка слов. */
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private final ObjectMapper objectMapper;
     private final FlashcardSetService flashcardSetService;
     private final CardsService cardsService;
     private final LastSeenFlashcardSetService lastSeenFlashcardSetService;
+    private final CardImportService cardImportService;
+    private final FlashcardSetExportService flashcardSetExportService;
+    private final SharedFlashcardSetJsonCache sharedFlashcardSetJsonCache;
 
     /**
      * Обрабатывает POST-запрос на создание нового списка слов.
@@ -65,15 +99,53 @@ public class FlashcardSetController {
 
     /**
      * Получает список слов по его ID.
+     * <p>
+     * Ответ содержит ETag по версии списка. Если клиент прислал тот же ETag в {@code If-None-Match},
+     * возвращается 304 Not Modified без сериализации; список всё равно отмечается просмотренным
+     * по его краткой строке, прочитанной вместе с версией. Общий список пишется в ответ готовыми байтами из кэша
+     * сериализованных наборов, сжатыми gzip, если клиент это принимает; у сжатого представления
+     * свой ETag с суффиксом {@code -gzip}, и {@code If-None-Match} принимается для любого из двух.
+     * </p>
      *
-     * @param id ID списка слов.
+     * @param id       ID списка слов.
+     * @param request  текущий запрос, по которому проверяется {@code If-None-Match}.
+     * @param response HTTP-ответ, в который пишется готовый JSON общего списка.
      * @return ResponseEntity с DTO списка слов или статусом 404, если список не найден.
+     * @throws IOException если не удалось записать ответ.
      */
     @Operation(summary = "Получить набор карточек по ID")
     @GetMapping("/{id}")
-    public FlashcardSetDTO getFlashcardSetById(@PathVariable Long id) {
-        return flashcardSetService.getFlashcardSetById(id)
+    public ResponseEntity<FlashcardSetDTO> getFlashcardSetById(@PathVariable Long id, WebRequest request,
+                                                               HttpServletResponse response) throws IOException {
+        Optional<FlashcardSetDTO> summary = flashcardSetService.getFlashcardSetSummary(id);
+        if (summary.isPresent()) {
+            long version = summary.get().getVersion();
+            if (request.checkNotModified(validator(request, id, version))) {
+                // просмотр записывается по той же строке, по которой проверен ETag, карточки не читаются
+                lastSeenFlashcardSetService.saveLastSeenSet(summary.get());
+                return null;
+            }
+            Optional<SerializedFlashcardSet> serialized = sharedFlashcardSetJsonCache.get(id, version);
+            if (serialized.isPresent()) {
+                lastSeenFlashcardSetService.saveLastSeenSet(serialized.get().summary());
+                writeSerialized(id, serialized.get(), request, response);
+                return null;
+            }
+        }
+        FlashcardSetDTO dto = flashcardSetService.getFlashcardSetById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Список слов с id " + id + " не найден"));
+        Optional<SerializedFlashcardSet> serialized = sharedFlashcardSetJsonCache.put(dto);
+        if (serialized.isPresent()) {
+            // тело уже сериализовано для кэша, повторно через Jackson оно не пишется
+            writeSerialized(id, serialized.get(), request, response);
+            return null;
+        }
+        ResponseEntity.BodyBuilder result = ResponseEntity.ok().cacheControl(REVALIDATE);
+        if (dto.getVersion() != null) {
+            // версия берётся из загруженного DTO: набор мог измениться после проверки
+            result.eTag(eTag(id, dto.getVersion()));
+        }
+        return result.body(dto);
     }
 
     /**
@@ -103,30 +175,116 @@ public class FlashcardSetController {
     }
 
     /**
-     * Получает все списки слов.
+     * Получает страницу списков слов, упорядоченных по ID.
+     * <p>
+     * Если есть следующая страница, её курсор возвращается в заголовке {@value #NEXT_CURSOR_HEADER}
+     * и передаётся в параметре {@code after} следующего запроса.
+     * </p>
      *
-     * @return ResponseEntity со списком DTO всех списков слов.
+     * @param after   ID последнего списка предыдущей страницы; не задаётся для первой страницы.
+     * @param limit   размер страницы (от 1 до 1000).
+     * @param summary если true, вместо карточек возвращается только их количество.
+     * @return ResponseEntity со списком DTO списков слов текущей страницы.
      */
-    @Operation(summary = "Получить все наборы карточек")
+    @Operation(summary = "Получить страницу наборов карточек")
     @GetMapping
-    public List<FlashcardSetDTO> getAllFlashcardSet() {
-        return flashcardSetService.getAllFlashcardSet();
+    public ResponseEntity<List<FlashcardSetDTO>> getAllFlashcardSet(@RequestParam(required = false) Long after,
+                                                                    @RequestParam(defaultValue = "100") int limit,
+                                                                    @RequestParam(defaultValue = "false") boolean summary) {
+        return toPageResponse(flashcardSetService.getFlashcardSetPage(after, limit, summary));
     }
 
     /**
-     * Получает все слова для указанного списка слов.
+     * Потоково выгружает краткие данные всех списков слов в формате NDJSON.
+     * <p>
+     * Строки пишутся в ответ по мере чтения курсора БД, без сборки всего результата в памяти.
+     * </p>
+     *
+     * @param response HTTP-ответ, в который пишутся строки.
+     * @throws IOException если не удалось записать ответ.
+     */
+    @Operation(summary = "Потоково выгрузить все наборы карточек (NDJSON, без карточек)")
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public void streamFlashcardSets(HttpServletResponse response) throws IOException {
+        writeNdjson(response, flashcardSetService::streamFlashcardSetSummaries);
+    }
+
+    /**
+     * Получает страницу слов указанного списка, упорядоченных по ID.
+     * <p>
+     * Если есть следующая страница, её курсор возвращается в заголовке {@value #NEXT_CURSOR_HEADER}.
+     * Страница помечается ETag по версии списка; при совпадении с {@code If-None-Match}
+     * возвращается 304 Not Modified без чтения карточек.
+     * </p>
      *
      * @param flashcardSetId ID списка слов.
-     * @return Список DTO всех слов в списке.
+     * @param after          ID последнего слова предыдущей страницы; не задаётся для первой страницы.
+     * @param limit          размер страницы (от 1 до 1000); по умолчанию максимальный,
+     *                       чтобы обычный набор по-прежнему приходил одним ответом.
+     * @param request        текущий запрос, по которому проверяется {@code If-None-Match}.
+     * @return ResponseEntity со списком DTO слов текущей страницы.
      */
-    @Operation(summary = "Получить все карточки из набора")
+    @Operation(summary = "Получить страницу карточек из набора")
     @GetMapping("/{flashcardSetId}/cards")
-    public List<CardsDTO> getAllCardsForFlashcardSet(@PathVariable Long flashcardSetId) {
-        return cardsService.getAllCardsForFlashcardSet(flashcardSetId);
+    public ResponseEntity<List<CardsDTO>> getAllCardsForFlashcardSet(@PathVariable Long flashcardSetId,
+                                                                     @RequestParam(required = false) Long after,
+                                                                     @RequestParam(defaultValue = "1000") int limit,
+                                                                     WebRequest request) {
+        Optional<String> eTag = flashcardSetService.getFlashcardSetVersion(flashcardSetId)
+                .map(version -> eTag(flashcardSetId, version));
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
+        // версия прочитана до страницы: при гонке клиент получит более новые данные со старым ETag
+        // и просто перезапросит их, но не наоборот
+        ResponseEntity<List<CardsDTO>> page = toPageResponse(cardsService.getCardsPage(flashcardSetId, after, limit));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().headers(page.getHeaders()).cacheControl(REVALIDATE);
+        eTag.ifPresent(response::eTag);
+        return response.body(page.getBody());
+    }
+
+    /**
+     * Потоково выгружает все слова указанного списка в формате NDJSON.
+     *
+     * @param flashcardSetId ID списка слов.
+     * @param response       HTTP-ответ, в который пишутся строки.
+     * @throws IOException если не удалось записать ответ.
+     */
+    @Operation(summary = "Потоково выгрузить все карточки набора (NDJSON)")
+    @GetMapping(value = "/{flashcardSetId}/cards/stream", produces = NDJSON)
+    public void streamCardsForFlashcardSet(@PathVariable Long flashcardSetId, HttpServletResponse response) throws IOException {
+        writeNdjson(response, (Consumer<CardsDTO> consumer) -> cardsService.streamCardsForFlashcardSet(flashcardSetId, consumer));
+    }
+
+    /**
+     * Выгружает список слов вместе со словами в файл CSV, JSON или NDJSON.
+     * <p>
+     * Данные пишутся в ответ по мере чтения курсора БД. CSV одного списка можно снова загрузить
+     * через {@code POST /import} с {@code skipHeader=true}.
+     * </p>
+     *
+     * @param id       ID списка слов.
+     * @param format   формат файла: {@code csv}, {@code json} или {@code ndjson}.
+     * @param response HTTP-ответ, в который пишется файл.
+     * @throws IOException если не удалось записать ответ.
+     */
+    @Operation(summary = "Выгрузить набор карточек в CSV, JSON или NDJSON")
+    @GetMapping("/{id}/export")
+    public void exportFlashcardSet(@PathVariable Long id, @RequestParam(defaultValue = "json") String format,
+                                   HttpServletResponse response) throws IOException {
+        FlashcardSetExportWriter.Format exportFormat = FlashcardSetExportWriter.Format.of(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(exportFormat.fileName("flashcard-set-" + id)).build().toString());
+        flashcardSetExportService.exportFlashcardSet(id, exportFormat, response.getOutputStream());
     }
 
     /**
      * Обновляет список слов с указанным ID.
+     * <p>
+     * Если в запросе есть слова, ответ содержит в поле {@code merge} итог их объединения со списком.
+     * </p>
      *
      * @param id        ID списка слов для обновления.
      * @param dto DTO с новыми данными списка слов.
@@ -181,6 +339,89 @@ public class FlashcardSetController {
         }
     }
 
+    /**
+     * Создаёт несколько слов в списке одной транзакцией.
+     *
+     * @param flashcardSetId ID списка слов.
+     * @param dtos           DTO новых слов.
+     * @return созданные слова в порядке запроса.
+     */
+    @Operation(summary = "Создать несколько карточек в наборе одной транзакцией")
+    @PostMapping("/{flashcardSetId}/cards:batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<CardsDTO> createCardsBatch(@PathVariable Long flashcardSetId, @RequestBody List<CreateCardsDTO> dtos) {
+        return cardsService.createCardsBatch(flashcardSetId, dtos);
+    }
+
+    /**
+     * Обновляет несколько слов списка одной транзакцией.
+     * Если хотя бы одно слово не найдено в списке, не обновляется ни одно.
+     *
+     * @param flashcardSetId ID списка слов.
+     * @param dtos           DTO слов с ID и новыми значениями.
+     * @return обновлённые слова.
+     */
+    @Operation(summary = "Обновить несколько карточек набора одной транзакцией")
+    @PatchMapping("/{flashcardSetId}/cards:batch")
+    public List<CardsDTO> updateCardsBatch(@PathVariable Long flashcardSetId, @RequestBody List<CardsDTO> dtos) {
+        return cardsService.updateCardsBatch(flashcardSetId, dtos);
+    }
+
+    /**
+     * Удаляет несколько слов списка одной транзакцией.
+     * Если хотя бы одно слово не найдено в списке, не удаляется ни одно.
+     *
+     * @param flashcardSetId ID списка слов.
+     * @param ids            ID удаляемых слов.
+     */
+    @Operation(summary = "Удалить несколько карточек набора одной транзакцией")
+    @DeleteMapping("/{flashcardSetId}/cards:batch")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteCardsBatch(@PathVariable Long flashcardSetId, @RequestBody List<Long> ids) {
+        cardsService.deleteCardsBatch(flashcardSetId, ids);
+    }
+
+    /**
+     * Создаёт набор карточек из файла CSV, TSV или текстового экспорта Anki.
+     * <p>
+     * Тело запроса — содержимое файла в UTF-8; оно читается потоково, без загрузки в память целиком.
+     * Пока импорт идёт, его прогресс можно получить по {@code importId} через {@code GET /import/{importId}}.
+     * </p>
+     *
+     * @param name        название нового набора.
+     * @param description описание нового набора.
+     * @param format      формат файла: {@code csv}, {@code tsv} или {@code anki}.
+     * @param skipHeader  пропустить первую запись (строку заголовков).
+     * @param importId    идентификатор импорта, заданный клиентом; если не указан, генерируется.
+     * @param body        содержимое файла.
+     * @return состояние импорта: 201 Created при успехе, 400 Bad Request если файл не удалось разобрать.
+     */
+    @Operation(summary = "Импортировать набор карточек из CSV, TSV или Anki")
+    @PostMapping("/import")
+    public ResponseEntity<ImportStatusDTO> importFlashcardSet(@RequestParam String name,
+                                                              @RequestParam(required = false) String description,
+                                                              @RequestParam(defaultValue = "csv") String format,
+                                                              @RequestParam(defaultValue = "false") boolean skipHeader,
+                                                              @RequestParam(required = false) String importId,
+                                                              InputStream body) {
+        ImportStatusDTO status = cardImportService.importFlashcardSet(importId, name, description, format, skipHeader, body);
+        HttpStatus httpStatus = status.getStatus() == ImportStatusDTO.Status.FAILED ? HttpStatus.BAD_REQUEST : HttpStatus.CREATED;
+        return ResponseEntity.status(httpStatus).body(status);
+    }
+
+    /**
+     * Возвращает прогресс или итог импорта текущего пользователя.
+     *
+     * @param importId идентификатор импорта.
+     * @return состояние импорта.
+     */
+    @Operation(summary = "Получить состояние импорта набора карточек")
+    @GetMapping("/import/{importId}")
+    public ImportStatusDTO getImportStatus(@PathVariable String importId) {
+        return cardImportService.getImportStatus(importId)
+                .orElseThrow(() -> new EntityNotFoundException("Импорт не найден"));
+    }
+
     /**
      * Добавляет список слов к пользователю.
      *
@@ -231,4 +472,97 @@ public class FlashcardSetController {
     public List<FlashcardSetDTO> getFlashcardSetsByOwner(@PathVariable Long ownerId) {
         return flashcardSetService.getFlashcardSetsByOwnerId(ownerId);
     }
+
+    /**
+     * Пишет в ответ заранее сериализованный список слов, выбирая сжатую копию, если клиент принимает gzip.
+     */
+    private static void writeSerialized(Long flashcardSetId, SerializedFlashcardSet serialized, WebRequest request,
+                                        HttpServletResponse response) throws IOException {
+        boolean gzip = serialized.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        byte[] body = gzip ? serialized.gzip() : serialized.json();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.ETAG, eTag(flashcardSetId, serialized.version(), gzip));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Проверяет, что {@code Accept-Encoding} допускает gzip (явный {@code q=0} означает запрет).
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Строит сильный ETag списка слов: его ID и версия однозначно определяют содержимое.
+     */
+    private static String eTag(Long flashcardSetId, long version) {
+        return eTag(flashcardSetId, version, false);
+    }
+
+    /**
+     * Строит сильный ETag представления списка слов; сжатое и несжатое тело различаются побайтно,
+     * поэтому у сжатого свой суффикс.
+     */
+    private static String eTag(Long flashcardSetId, long version, boolean gzip) {
+        return "\"" + flashcardSetId + "-" + version + (gzip ? GZIP_ETAG_SUFFIX : "") + "\"";
+    }
+
+    /**
+     * Выбирает ETag, с которым сверяется {@code If-None-Match}: у клиента может быть сохранено
+     * как несжатое, так и сжатое представление текущей версии.
+     */
+    private static String validator(WebRequest request, Long flashcardSetId, long version) {
+        String gzip = eTag(flashcardSetId, version, true);
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String value : ifNoneMatch) {
+                if (value.contains(gzip)) {
+                    return gzip;
+                }
+            }
+        }
+        return eTag(flashcardSetId, version);
+    }
+
+    private static <T> ResponseEntity<List<T>> toPageResponse(CursorPageDTO<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Пишет в ответ объекты, которые источник передаёт обработчику, по одному JSON-объекту на строку.
+     */
+    private <T> void writeNdjson(HttpServletResponse response, Consumer<Consumer<T>> source) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            source.accept(item -> {
+                try {
+                    writer.write(item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.sekhanov.flashcard.controller;
 import com.sekhanov.flashcard.service.impl.MailServiceException;
 import jakarta.persistence.EntityNotFoundException;
 import org.postgresql.util.PSQLException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -30,6 +31,17 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Object> handleIllegalArgument(IllegalArgumentException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLocking(OptimisticLockingFailureException ex) {
+        String message = "Запись изменена другим запросом, повторите изменение";
+        return new ResponseEntity<>(message, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(PSQLException.class)
     public ResponseEntity<Object> handleDataIntegrityViolation(PSQLException ex) {
         if (ex.getSQLState().equals(SQL_DUPLICATE_KEY_STATE)) {
@@ -0,0 +1,49 @@
+package com.sekhanov.flashcard.controller;
+
+import com.sekhanov.flashcard.dto.CursorPageDTO;
+import com.sekhanov.flashcard.dto.SearchHitDTO;
+import com.sekhanov.flashcard.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.List;
+
+/**
+ * REST-контроллер поиска по наборам карточек и карточкам.
+ */
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * Ищет наборы по названию и описанию и карточки по термину и определению с учётом опечаток.
+     * <p>
+     * Если есть следующая страница, её курсор возвращается в заголовке
+     * {@value FlashcardSetController#NEXT_CURSOR_HEADER}.
+     * </p>
+     *
+     * @param q      поисковый запрос; поддерживает кавычки для фраз и {@code -} для исключения слов.
+     * @param cursor курсор следующей страницы из предыдущего ответа.
+     * @param limit  размер страницы (от 1 до 50).
+     * @return результаты по убыванию релевантности.
+     */
+    @Operation(summary = "Найти наборы и карточки")
+    @GetMapping
+    public ResponseEntity<List<SearchHitDTO>> search(@RequestParam String q,
+                                                     @RequestParam(required = false) Long cursor,
+                                                     @RequestParam(defaultValue = "20") int limit) {
+        CursorPageDTO<SearchHitDTO> page = searchService.search(q, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(FlashcardSetController.NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        return response.body(page.getItems());
+    }
+}
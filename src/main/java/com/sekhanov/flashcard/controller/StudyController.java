@@ -0,0 +1,75 @@
+package com.sekhanov.flashcard.controller;
+
+import com.sekhanov.flashcard.dto.DueCardDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchResultDTO;
+import com.sekhanov.flashcard.dto.ReviewRequestDTO;
+import com.sekhanov.flashcard.dto.ReviewStateDTO;
+import com.sekhanov.flashcard.service.StudyService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST-контроллер интервального повторения карточек.
+ */
+@RestController
+@RequestMapping("/api/study")
+@RequiredArgsConstructor
+public class StudyController {
+
+    private final StudyService studyService;
+
+    /**
+     * Возвращает карточки, которые текущему пользователю пора повторить.
+     *
+     * @param limit максимальное число карточек (до 100).
+     * @return карточки, начиная с самых просроченных.
+     */
+    @Operation(summary = "Получить карточки к повторению")
+    @GetMapping("/due")
+    public List<DueCardDTO> getDueCards(@RequestParam(defaultValue = "20") int limit) {
+        return studyService.getDueCards(limit);
+    }
+
+    /**
+     * Принимает ответ на карточку и возвращает следующий срок её повторения.
+     *
+     * @param request карточка и оценка ответа: {@code AGAIN}, {@code HARD}, {@code GOOD} или {@code EASY}.
+     * @return новое состояние повторения карточки.
+     */
+    @Operation(summary = "Ответить на карточку")
+    @PostMapping("/review")
+    public ReviewStateDTO review(@RequestBody ReviewRequestDTO request) {
+        return studyService.review(request);
+    }
+
+    /**
+     * Принимает пакет ответов, накопленных клиентом без сети, и применяет их одной транзакцией
+     * в порядке времени ответа. Повторная отправка того же пакета ничего не меняет:
+     * ответы с уже принятыми ключами идемпотентности учитываются как повторные.
+     *
+     * @param batch ответы с ключами идемпотентности и временем ответа на устройстве (до 1000).
+     * @return итог применения и новые состояния изменённых карточек.
+     */
+    @Operation(summary = "Отправить пакет ответов")
+    @PostMapping("/reviews:batch")
+    public ReviewBatchResultDTO reviewBatch(@RequestBody ReviewBatchDTO batch) {
+        return studyService.reviewBatch(batch.getReviews());
+    }
+
+    /**
+     * Добавляет все карточки набора в изучение текущего пользователя.
+     * Уже изучаемые карточки не сбрасываются.
+     *
+     * @param flashcardSetId ID набора карточек.
+     * @return число добавленных карточек в поле {@code enrolled}.
+     */
+    @Operation(summary = "Добавить набор в изучение")
+    @PostMapping("/sets/{flashcardSetId}/enroll")
+    public Map<String, Integer> enrollFlashcardSet(@PathVariable Long flashcardSetId) {
+        return Map.of("enrolled", studyService.enrollFlashcardSet(flashcardSetId));
+    }
+}
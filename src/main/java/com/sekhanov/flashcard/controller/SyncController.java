@@ -0,0 +1,34 @@
+package com.sekhanov.flashcard.controller;
+
+import com.sekhanov.flashcard.dto.SyncDTO;
+import com.sekhanov.flashcard.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-контроллер синхронизации офлайн-клиентов.
+ */
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    /**
+     * Возвращает наборы и карточки текущего пользователя, изменённые после предыдущей синхронизации,
+     * и удалённые с тех пор записи.
+     *
+     * @param since токен из предыдущего ответа; без него возвращаются все данные пользователя.
+     * @return изменения и токен для следующего запроса.
+     */
+    @Operation(summary = "Получить изменения с последней синхронизации")
+    @GetMapping
+    public SyncDTO sync(@RequestParam(required = false) Long since) {
+        return syncService.sync(since);
+    }
+}
@@ -1,11 +1,18 @@
 package com.sekhanov.flashcard.controller;
 
 import com.sekhanov.flashcard.dto.UserDTO;
+import com.sekhanov.flashcard.service.FlashcardSetExportService;
 import com.sekhanov.flashcard.service.UserService;
+import com.sekhanov.flashcard.utils.FlashcardSetExportWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import java.io.IOException;
 
 /**
  * Контроллер для обработки запросов, связанных с пользователями.
@@ -16,6 +23,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class UserController {
 
     private final UserService userService;
+    private final FlashcardSetExportService flashcardSetExportService;
 
     /**
      * Возвращает информацию о текущем аутентифицированном пользователе.
@@ -31,4 +39,23 @@ public class UserController {
         }
         return currentUser;
     }
+
+    /**
+     * Выгружает все наборы карточек текущего пользователя одним файлом для резервного копирования.
+     * Данные пишутся в ответ по мере чтения курсора БД, поэтому размер выгрузки не ограничен памятью.
+     *
+     * @param format   формат файла: {@code csv}, {@code json} или {@code ndjson}
+     * @param response HTTP-ответ, в который пишется файл
+     * @throws IOException если не удалось записать ответ
+     */
+    @GetMapping("/me/export")
+    public void exportCurrentUserFlashcardSets(@RequestParam(defaultValue = "json") String format,
+                                               HttpServletResponse response) throws IOException {
+        FlashcardSetExportWriter.Format exportFormat = FlashcardSetExportWriter.Format.of(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(exportFormat.fileName("flashcards")).build().toString());
+        flashcardSetExportService.exportCurrentUserFlashcardSets(exportFormat, response.getOutputStream());
+    }
 }
@@ -0,0 +1,22 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO итога объединения карточек набора с присланным при обновлении списком.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardsMergeDTO {
+    /** Добавленные карточки: без ID, с неизвестным или повторённым ID. */
+    private int inserted;
+    /** Карточки, у которых изменились термин или определение. */
+    private int updated;
+    /** Карточки, отсутствующие в присланном списке. */
+    private int deleted;
+    /** Карточки, присланные без изменений. */
+    private int unchanged;
+}
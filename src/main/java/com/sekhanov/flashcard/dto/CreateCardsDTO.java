@@ -7,13 +7,19 @@ import lombok.AllArgsConstructor;
 /**
  * DTO для создания нового слова.
  * <p>
- * Содержит термин и его определение.
+ * Содержит термин и его определение. При обновлении набора {@code id} указывает
+ * существующее слово, которое нужно изменить; слово без {@code id} создаётся заново.
  * </p>
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class CreateCardsDTO {
+    private Long id;
     private String term;
     private String definition;
+
+    public CreateCardsDTO(String term, String definition) {
+        this(null, term, definition);
+    }
 }
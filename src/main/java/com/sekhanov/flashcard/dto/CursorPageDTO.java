@@ -0,0 +1,23 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Страница результатов при keyset-пагинации.
+ * <p>
+ * {@code nextCursor} — идентификатор последнего элемента страницы, который передаётся
+ * в параметре {@code after} следующего запроса; {@code null}, если страница последняя.
+ * </p>
+ *
+ * @param <T> тип элементов страницы
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private Long nextCursor;
+}
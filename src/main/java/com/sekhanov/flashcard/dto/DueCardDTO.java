@@ -0,0 +1,22 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * DTO карточки, которую пользователю пора повторить.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DueCardDTO {
+    private Long cardId;
+    private Long flashcardSetId;
+    private String term;
+    private String definition;
+    private LocalDateTime dueAt;
+    /** Карточка ещё ни разу не была успешно повторена. */
+    private boolean fresh;
+}
@@ -9,6 +9,7 @@ import java.util.List;
  * DTO для передачи данных списка слов.
  * <p>
  * Содержит идентификатор списка, его имя и список слов, входящих в этот список.
+ * В кратком режиме {@code cards} не заполняется, передаётся только {@code cardsCount}.
  * </p>
  */
 @Data
@@ -20,4 +21,11 @@ public class FlashcardSetDTO {
     private String description;
     private List<CardsDTO> cards;
     private String ownerName;
+    private Long cardsCount;
+    /** Версия набора вместе с карточками; заполняется для отдельного набора, в списках не передаётся. */
+    private Long version;
+    /** Набор открыт всем пользователям; заполняется для отдельного набора, в списках не передаётся. */
+    private Boolean shared;
+    /** Итог объединения карточек; заполняется только в ответе на обновление с карточками. */
+    private CardsMergeDTO merge;
 }
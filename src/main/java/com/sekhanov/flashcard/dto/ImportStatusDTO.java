@@ -0,0 +1,34 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO состояния импорта колоды карточек.
+ * <p>
+ * Пока импорт идёт, {@code cardsImported} растёт по мере записи пакетов карточек;
+ * {@code flashcardSetId} известен с начала импорта, но набор виден другим запросам
+ * только после успешного завершения.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportStatusDTO {
+    private String importId;
+    private Status status;
+    private Long flashcardSetId;
+    private long cardsImported;
+    private long rowsSkipped;
+    private String error;
+
+    /**
+     * Стадия импорта.
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,16 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO пакета ответов на карточки, отправляемого клиентом после восстановления связи.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewBatchDTO {
+    private List<ReviewBatchItemDTO> reviews;
+}
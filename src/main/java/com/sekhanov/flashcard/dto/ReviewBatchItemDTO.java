@@ -0,0 +1,24 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.OffsetDateTime;
+
+/**
+ * DTO одного ответа из пакета, накопленного клиентом без сети.
+ * <p>
+ * Ключ идемпотентности клиент генерирует один раз для каждого ответа (например, UUID)
+ * и не меняет его при повторной отправке.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewBatchItemDTO {
+    private String idempotencyKey;
+    private Long cardId;
+    private ReviewRequestDTO.Grade grade;
+    /** Время ответа на устройстве; если не указано, используется время сервера. */
+    private OffsetDateTime reviewedAt;
+}
@@ -0,0 +1,26 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO итога применения пакета ответов.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewBatchResultDTO {
+    /** Ответы, применённые этим запросом. */
+    private int applied;
+    /** Ответы, уже принятые ранее по тому же ключу идемпотентности. */
+    private int duplicates;
+    /**
+     * Ответы на карточки, удалённые на сервере, пока клиент был без сети, и ответы не новее
+     * последнего учтённого повторения карточки.
+     */
+    private int skipped;
+    /** Итоговые состояния карточек, изменённых этим запросом. */
+    private List<ReviewStateDTO> states;
+}
@@ -0,0 +1,36 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO ответа пользователя на карточку при повторении.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewRequestDTO {
+    private Long cardId;
+    private Grade grade;
+
+    /**
+     * Насколько легко пользователь вспомнил карточку. Соответствует оценке качества ответа SM-2 (0–5).
+     */
+    public enum Grade {
+        AGAIN(1),
+        HARD(3),
+        GOOD(4),
+        EASY(5);
+
+        private final int quality;
+
+        Grade(int quality) {
+            this.quality = quality;
+        }
+
+        public int getQuality() {
+            return quality;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * DTO состояния повторения карточки после ответа пользователя.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewStateDTO {
+    private Long cardId;
+    private double easeFactor;
+    private int intervalDays;
+    private int repetitions;
+    private int lapses;
+    private LocalDateTime dueAt;
+}
@@ -0,0 +1,30 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO результата поиска: найденный набор карточек или найденная карточка.
+ * Для карточки заполнены также идентификатор и название её набора.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDTO {
+    private Type type;
+    private Long flashcardSetId;
+    private String flashcardSetName;
+    private Long cardId;
+    private String term;
+    private String definition;
+    private double score;
+
+    /**
+     * Что найдено.
+     */
+    public enum Type {
+        SET,
+        CARD
+    }
+}
@@ -0,0 +1,22 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * DTO изменённой карточки в ответе синхронизации.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCardDTO {
+    private Long id;
+    private Long flashcardSetId;
+    private String term;
+    private String definition;
+    private LocalDateTime updatedAt;
+    /** Версия карточки; клиент заменяет локальную копию, только если она старше. */
+    private Long version;
+}
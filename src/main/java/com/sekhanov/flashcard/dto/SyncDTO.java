@@ -0,0 +1,29 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO ответа дельта-синхронизации.
+ * <p>
+ * Клиент сначала применяет удаления, затем записи наборов и карточек, и сохраняет {@code token}
+ * для следующего запроса. Соседние ответы могут пересекаться, поэтому записи применяются идемпотентно по ID и версии.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncDTO {
+    /** Токен для следующего запроса синхронизации. */
+    private long token;
+    /** Полная синхронизация: клиент заменяет локальные данные ответом целиком. */
+    private boolean full;
+    private List<SyncSetDTO> sets;
+    private List<SyncCardDTO> cards;
+    /** Наборы, удалённые или больше не доступные пользователю. */
+    private List<Long> deletedSetIds;
+    /** Удалённые карточки доступных пользователю наборов. */
+    private List<Long> deletedCardIds;
+}
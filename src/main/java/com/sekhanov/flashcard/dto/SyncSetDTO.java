@@ -0,0 +1,24 @@
+package com.sekhanov.flashcard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * DTO изменённого набора карточек в ответе синхронизации, без карточек.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncSetDTO {
+    private Long id;
+    private Long ownerId;
+    private String name;
+    private String description;
+    private boolean shared;
+    private int cardCount;
+    private LocalDateTime updatedAt;
+    /** Версия набора; клиент заменяет локальную копию, только если она старше. */
+    private Long version;
+}
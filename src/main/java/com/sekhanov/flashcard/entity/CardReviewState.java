@@ -0,0 +1,70 @@
+package com.sekhanov.flashcard.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Состояние интервального повторения карточки пользователем (алгоритм SM-2).
+ * Определяет, когда карточку нужно показать снова.
+ */
+@Entity
+@Table(name = "card_review_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class CardReviewState {
+
+    /** Коэффициент лёгкости новой карточки по SM-2. */
+    public static final double INITIAL_EASE_FACTOR = 2.5;
+
+    @EmbeddedId
+    @EqualsAndHashCode.Include
+    private CardReviewStateId id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("userId")
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("cardId")
+    @JoinColumn(name = "card_id", nullable = false)
+    @JsonIgnore
+    private Cards card;
+
+    @Column(name = "ease_factor", nullable = false)
+    private double easeFactor = INITIAL_EASE_FACTOR;
+
+    @Column(name = "interval_days", nullable = false)
+    private int intervalDays;
+
+    @Column(nullable = false)
+    private int repetitions;
+
+    @Column(nullable = false)
+    private int lapses;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    @Column(name = "last_reviewed_at")
+    private LocalDateTime lastReviewedAt;
+
+    /**
+     * Составной ключ для таблицы card_review_state.
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CardReviewStateId implements Serializable {
+        private Long userId;
+        private Long cardId;
+    }
+}
@@ -3,6 +3,8 @@ package com.sekhanov.flashcard.entity;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import lombok.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "cards") // ✅ новое имя таблицы
@@ -14,8 +16,13 @@ import lombok.*;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Cards {
 
+    /**
+     * Идентификатор из последовательности {@code cards_seq}, выдаётся блоками по 50,
+     * что позволяет Hibernate отправлять вставки карточек JDBC-пакетами.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -29,4 +36,19 @@ public class Cards {
     @JoinColumn(name = "flashcard_set_id", nullable = false) // ✅ новое имя колонки
     @JsonBackReference
     private FlashcardSet flashcardSet;
+
+    /** Время последнего изменения карточки, по нему клиенты забирают дельту синхронизации. */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /** Версия для оптимистической блокировки одновременных изменений карточки. */
+    @Version
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        // точность столбца TIMESTAMP — микросекунды: значение в памяти должно совпадать с записанным
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -20,8 +22,13 @@ import java.util.Set;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class FlashcardSet {
 
+    /**
+     * Идентификатор из последовательности {@code flashcard_set_seq}, выдаётся блоками по 50,
+     * что позволяет Hibernate отправлять вставки наборов JDBC-пакетами.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flashcard_set_seq")
+    @SequenceGenerator(name = "flashcard_set_seq", sequenceName = "flashcard_set_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -33,6 +40,13 @@ public class FlashcardSet {
     @Column(nullable = false)
     private boolean shared = false;
 
+    /**
+     * Число карточек в наборе. Поддерживается сервисами при каждом изменении карточек,
+     * чтобы списки наборов не загружали коллекцию {@link #cards}.
+     */
+    @Column(name = "card_count", nullable = false)
+    private int cardCount;
+
     @ManyToOne
     @JoinColumn(name = "owner_id")
     private User owner;
@@ -49,4 +63,29 @@ public class FlashcardSet {
     @OneToMany(mappedBy = "flashcardSet", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private Set<LastSeenFlashcardSet> lastSeenFlashcardSets = new HashSet<>();
+
+    /**
+     * Время последнего изменения набора, по нему клиенты забирают дельту синхронизации.
+     * Обновляется при каждой записи сущности и при изменении числа карточек.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Версия набора вместе с его карточками: для оптимистической блокировки и для ключей кэшей.
+     * Изменения карточек увеличивают её через {@code FlashcardSetRepository}.
+     */
+    @Version
+    private Long version;
+
+    /**
+     * Проставляет время изменения. Вызывается и явно, когда изменились только карточки набора:
+     * так набор становится изменённым, и Hibernate увеличивает его {@link #version}.
+     */
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        // точность столбца TIMESTAMP — микросекунды: значение в памяти должно совпадать с записанным
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
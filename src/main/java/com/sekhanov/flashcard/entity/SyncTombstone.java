@@ -0,0 +1,63 @@
+package com.sekhanov.flashcard.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Отметка об удалении, по которой офлайн-клиенты при синхронизации узнают об удалённых записях.
+ * <ul>
+ *     <li>удаление набора или его отвязка от пользователя — отметка с {@code userId} и {@code flashcardSetId};</li>
+ *     <li>удаление карточки — отметка с {@code flashcardSetId} и {@code cardId} без пользователя,
+ *     она видна всем, у кого есть набор.</li>
+ * </ul>
+ * Отметки старше срока хранения удаляются; клиент с более старым токеном получает полную синхронизацию.
+ */
+@Entity
+@Table(name = "sync_tombstone")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class SyncTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sync_tombstone_seq")
+    @SequenceGenerator(name = "sync_tombstone_seq", sequenceName = "sync_tombstone_seq", allocationSize = 50)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "flashcard_set_id", nullable = false)
+    private Long flashcardSetId;
+
+    @Column(name = "card_id")
+    private Long cardId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    @PrePersist
+    void onPersist() {
+        if (deletedAt == null) {
+            deletedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Отметка о том, что набор удалён или больше не доступен пользователю.
+     */
+    public static SyncTombstone ofSet(Long userId, Long flashcardSetId) {
+        return new SyncTombstone(null, userId, flashcardSetId, null, null);
+    }
+
+    /**
+     * Отметка об удалении карточки набора.
+     */
+    public static SyncTombstone ofCard(Long flashcardSetId, Long cardId) {
+        return new SyncTombstone(null, null, flashcardSetId, cardId, null);
+    }
+}
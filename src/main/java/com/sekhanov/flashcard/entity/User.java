@@ -17,8 +17,13 @@ import java.util.Set;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class User {
 
+    /**
+     * Идентификатор из последовательности {@code users_seq}, выдаётся блоками по 50,
+     * что позволяет Hibernate отправлять вставки пользователей JDBC-пакетами.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -41,7 +46,7 @@ public class User {
     @Column(name = "confirmation_token", unique = true)
     private String confirmationToken;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_flashcard_set",
             joinColumns = @JoinColumn(name = "user_id"),
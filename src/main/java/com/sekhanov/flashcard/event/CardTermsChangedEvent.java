@@ -0,0 +1,37 @@
+package com.sekhanov.flashcard.event;
+
+import java.util.List;
+
+/**
+ * Событие об изменении терминов карточек в наборах пользователя.
+ * <p>
+ * Несёт добавленные и удалённые термины; для массовых изменений, где термины заранее неизвестны
+ * (удаление набора, импорт, пакетное удаление), публикуется с {@code rebuild = true}.
+ * Индекс подсказок применяет добавленные и удалённые термины к уже построенному индексу,
+ * а по {@code rebuild} сбрасывает его.
+ * Как и {@link FlashcardSetChangedEvent}, обрабатывается после коммита.
+ * </p>
+ *
+ * @param ownerId идентификатор владельца наборов
+ * @param added   добавленные термины
+ * @param removed удалённые термины
+ * @param rebuild индекс пользователя нужно построить заново
+ */
+public record CardTermsChangedEvent(Long ownerId, List<String> added, List<String> removed, boolean rebuild) {
+
+    public static CardTermsChangedEvent added(Long ownerId, List<String> terms) {
+        return new CardTermsChangedEvent(ownerId, terms, List.of(), false);
+    }
+
+    public static CardTermsChangedEvent removed(Long ownerId, List<String> terms) {
+        return new CardTermsChangedEvent(ownerId, List.of(), terms, false);
+    }
+
+    public static CardTermsChangedEvent replaced(Long ownerId, List<String> oldTerms, List<String> newTerms) {
+        return new CardTermsChangedEvent(ownerId, newTerms, oldTerms, false);
+    }
+
+    public static CardTermsChangedEvent rebuild(Long ownerId) {
+        return new CardTermsChangedEvent(ownerId, List.of(), List.of(), true);
+    }
+}
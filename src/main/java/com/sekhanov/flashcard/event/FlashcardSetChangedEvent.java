@@ -0,0 +1,13 @@
+package com.sekhanov.flashcard.event;
+
+/**
+ * Событие об изменении набора карточек: переименование, удаление или изменение его карточек.
+ * <p>
+ * Публикуется сервисным слоем внутри транзакции; слушатели, сбрасывающие кэши,
+ * обрабатывают его только после успешного коммита.
+ * </p>
+ *
+ * @param flashcardSetId идентификатор набора
+ */
+public record FlashcardSetChangedEvent(Long flashcardSetId) {
+}
@@ -0,0 +1,15 @@
+package com.sekhanov.flashcard.event;
+
+/**
+ * Событие об изменении данных пользователя (подтверждение email, смена пароля или профиля).
+ * <p>
+ * Публикуется сервисным слоем внутри транзакции; слушатели, сбрасывающие кэши,
+ * обрабатывают его только после успешного коммита.
+ * </p>
+ *
+ * @param userId           идентификатор пользователя
+ * @param login            логин пользователя
+ * @param principalChanged изменились данные, подписываемые в JWT (id, имя, фамилия) или доступность учётной записи
+ */
+public record UserChangedEvent(Long userId, String login, boolean principalChanged) {
+}
@@ -0,0 +1,75 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.entity.CardReviewState;
+import com.sekhanov.flashcard.repository.projection.DueCardRow;
+import com.sekhanov.flashcard.repository.projection.ReviewStateRow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий состояний интервального повторения {@link CardReviewState}.
+ */
+public interface CardReviewStateRepository extends JpaRepository<CardReviewState, CardReviewState.CardReviewStateId>,
+        CardReviewStateRepositoryCustom {
+
+    /**
+     * Возвращает карточки, которые пользователю пора повторить, начиная с самых просроченных.
+     * Читает диапазон индекса {@code card_review_state(user_id, due_at)} без сортировки,
+     * карточки подтягиваются по первичному ключу.
+     *
+     * @param userId идентификатор пользователя
+     * @param now    текущее время; в выборку попадают карточки со сроком не позже него
+     * @param limit  максимальное число строк
+     * @return карточки, упорядоченные по сроку повторения
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.DueCardRow(
+                c.id, c.flashcardSet.id, c.term, c.definition, r.dueAt, r.repetitions)
+            from CardReviewState r join r.card c
+            where r.id.userId = :userId and r.dueAt <= :now
+            order by r.dueAt
+            """)
+    List<DueCardRow> findDueByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Возвращает состояния повторения указанных карточек пользователя одним запросом,
+     * минуя контекст персистентности.
+     *
+     * @param userId  идентификатор пользователя
+     * @param cardIds идентификаторы карточек
+     * @return состояния; карточки, ещё не добавленные в изучение, пропускаются
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.ReviewStateRow(
+                r.id.userId, r.id.cardId, r.easeFactor, r.intervalDays, r.repetitions, r.lapses, r.dueAt, r.lastReviewedAt)
+            from CardReviewState r
+            where r.id.userId = :userId and r.id.cardId in :cardIds
+            """)
+    List<ReviewStateRow> findRowsByUserIdAndCardIdIn(@Param("userId") Long userId, @Param("cardIds") Collection<Long> cardIds);
+
+    /**
+     * Добавляет в изучение пользователя все карточки набора, которых ещё нет в его очереди,
+     * одним запросом {@code INSERT ... SELECT}. Остальные поля берут значения по умолчанию новой карточки,
+     * к повторению она доступна сразу.
+     *
+     * @param userId         идентификатор пользователя
+     * @param flashcardSetId идентификатор набора
+     * @param now            срок первого повторения
+     * @return число добавленных карточек
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO card_review_state (user_id, card_id, due_at)
+            SELECT :userId, c.id, :now
+            FROM cards c
+            WHERE c.flashcard_set_id = :setId
+              AND NOT EXISTS (SELECT 1 FROM card_review_state r WHERE r.user_id = :userId AND r.card_id = c.id)
+            """, nativeQuery = true)
+    int enrollFlashcardSet(@Param("userId") Long userId, @Param("setId") Long flashcardSetId, @Param("now") LocalDateTime now);
+}
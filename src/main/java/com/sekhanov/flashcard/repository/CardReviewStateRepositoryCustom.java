@@ -0,0 +1,51 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.repository.projection.ReviewLogRow;
+import com.sekhanov.flashcard.repository.projection.ReviewStateRow;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Пакетная запись ответов на карточки напрямую через JDBC.
+ */
+public interface CardReviewStateRepositoryCustom {
+
+    /**
+     * Записывает ответы в журнал одним многострочным {@code INSERT ... ON CONFLICT DO NOTHING}.
+     * <p>
+     * Ответ с уже записанным ключом идемпотентности пропускается. Параллельная вставка того же ключа
+     * ждёт коммита другой транзакции, поэтому каждый ключ возвращается ровно одному вызову.
+     * </p>
+     *
+     * @param rows ответы; ключи идемпотентности не должны повторяться
+     * @return ключи идемпотентности ответов, записанных этим вызовом
+     */
+    Set<String> insertReviewLog(List<ReviewLogRow> rows);
+
+    /**
+     * Блокирует состояния повторения карточек пользователя до конца транзакции и возвращает их.
+     * <p>
+     * Состояния карточек, ещё не добавленных в изучение, сначала создаются
+     * {@code INSERT ... ON CONFLICT DO NOTHING}, затем все строки читаются {@code SELECT ... FOR UPDATE}
+     * в порядке ID карточки. Параллельный пакет того же пользователя ждёт коммита и читает уже
+     * применённое состояние, а одинаковый порядок блокировок исключает взаимоблокировку.
+     * </p>
+     *
+     * @param userId  идентификатор пользователя
+     * @param cardIds идентификаторы карточек
+     * @param now     срок первого повторения для создаваемых состояний
+     * @return состояния в порядке ID карточки; удалённые карточки пропускаются
+     */
+    List<ReviewStateRow> lockStates(Long userId, Collection<Long> cardIds, LocalDateTime now);
+
+    /**
+     * Добавляет или обновляет состояния повторения одним многострочным
+     * {@code INSERT ... ON CONFLICT DO UPDATE}.
+     *
+     * @param rows состояния; пары (userId, cardId) не должны повторяться
+     * @return число вставленных или обновлённых строк
+     */
+    int upsertAll(List<ReviewStateRow> rows);
+}
@@ -0,0 +1,131 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.repository.projection.ReviewLogRow;
+import com.sekhanov.flashcard.repository.projection.ReviewStateRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC-реализация {@link CardReviewStateRepositoryCustom} для PostgreSQL.
+ */
+@RequiredArgsConstructor
+public class CardReviewStateRepositoryImpl implements CardReviewStateRepositoryCustom {
+
+    private static final String LOG_VALUES_ROW = "(?, ?, ?, ?, ?)";
+
+    private static final String INSERT_LOG_SQL = """
+            INSERT INTO card_review_log (user_id, idempotency_key, card_id, grade, reviewed_at)
+            VALUES %s
+            ON CONFLICT (user_id, idempotency_key) DO NOTHING
+            RETURNING idempotency_key
+            """;
+
+    private static final String STATE_VALUES_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_STATE_SQL = """
+            INSERT INTO card_review_state
+                (user_id, card_id, ease_factor, interval_days, repetitions, lapses, due_at, last_reviewed_at)
+            VALUES %s
+            ON CONFLICT (user_id, card_id) DO UPDATE SET
+                ease_factor = EXCLUDED.ease_factor,
+                interval_days = EXCLUDED.interval_days,
+                repetitions = EXCLUDED.repetitions,
+                lapses = EXCLUDED.lapses,
+                due_at = EXCLUDED.due_at,
+                last_reviewed_at = EXCLUDED.last_reviewed_at
+            """;
+
+    private static final String ENSURE_STATE_SQL = """
+            INSERT INTO card_review_state (user_id, card_id, due_at)
+            SELECT ?, c.id, ?
+            FROM cards c
+            WHERE c.id IN (%s)
+            ORDER BY c.id
+            ON CONFLICT (user_id, card_id) DO NOTHING
+            """;
+
+    private static final String LOCK_STATE_SQL = """
+            SELECT user_id, card_id, ease_factor, interval_days, repetitions, lapses, due_at, last_reviewed_at
+            FROM card_review_state
+            WHERE user_id = ? AND card_id IN (%s)
+            ORDER BY card_id
+            FOR UPDATE
+            """;
+
+    private static final RowMapper<ReviewStateRow> STATE_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp lastReviewedAt = rs.getTimestamp("last_reviewed_at");
+        return new ReviewStateRow(rs.getLong("user_id"), rs.getLong("card_id"), rs.getDouble("ease_factor"),
+                rs.getInt("interval_days"), rs.getInt("repetitions"), rs.getInt("lapses"),
+                rs.getTimestamp("due_at").toLocalDateTime(),
+                lastReviewedAt == null ? null : lastReviewedAt.toLocalDateTime());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<String> insertReviewLog(List<ReviewLogRow> rows) {
+        if (rows.isEmpty()) {
+            return Set.of();
+        }
+        String sql = INSERT_LOG_SQL.formatted(String.join(", ", Collections.nCopies(rows.size(), LOG_VALUES_ROW)));
+        Object[] args = new Object[rows.size() * 5];
+        int i = 0;
+        for (ReviewLogRow row : rows) {
+            args[i++] = row.userId();
+            args[i++] = row.idempotencyKey();
+            args[i++] = row.cardId();
+            args[i++] = row.grade();
+            args[i++] = Timestamp.valueOf(row.reviewedAt());
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, args));
+    }
+
+    @Override
+    public List<ReviewStateRow> lockStates(Long userId, Collection<Long> cardIds, LocalDateTime now) {
+        if (cardIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> sorted = cardIds.stream().sorted().toList();
+        String placeholders = String.join(", ", Collections.nCopies(sorted.size(), "?"));
+        Object[] ensureArgs = new Object[sorted.size() + 2];
+        ensureArgs[0] = userId;
+        ensureArgs[1] = Timestamp.valueOf(now);
+        Object[] lockArgs = new Object[sorted.size() + 1];
+        lockArgs[0] = userId;
+        for (int i = 0; i < sorted.size(); i++) {
+            ensureArgs[i + 2] = sorted.get(i);
+            lockArgs[i + 1] = sorted.get(i);
+        }
+        jdbcTemplate.update(ENSURE_STATE_SQL.formatted(placeholders), ensureArgs);
+        return jdbcTemplate.query(LOCK_STATE_SQL.formatted(placeholders), STATE_ROW_MAPPER, lockArgs);
+    }
+
+    @Override
+    public int upsertAll(List<ReviewStateRow> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        String sql = UPSERT_STATE_SQL.formatted(String.join(", ", Collections.nCopies(rows.size(), STATE_VALUES_ROW)));
+        Object[] args = new Object[rows.size() * 8];
+        int i = 0;
+        for (ReviewStateRow row : rows) {
+            args[i++] = row.userId();
+            args[i++] = row.cardId();
+            args[i++] = row.easeFactor();
+            args[i++] = row.intervalDays();
+            args[i++] = row.repetitions();
+            args[i++] = row.lapses();
+            args[i++] = Timestamp.valueOf(row.dueAt());
+            args[i++] = row.lastReviewedAt() == null ? null : Timestamp.valueOf(row.lastReviewedAt());
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+}
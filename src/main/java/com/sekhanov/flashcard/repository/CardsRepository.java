@@ -1,9 +1,116 @@
 package com.sekhanov.flashcard.repository;
 
 import com.sekhanov.flashcard.entity.Cards;
+import com.sekhanov.flashcard.repository.projection.CardRow;
+import com.sekhanov.flashcard.repository.projection.SyncCardRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface CardsRepository extends JpaRepository<Cards, Long> {
+public interface CardsRepository extends JpaRepository<Cards, Long>, CardsRepositoryCustom {
     List<Cards> findByFlashcardSetId(Long flashcardSetId);
-}
\ No newline at end of file
+
+    /**
+     * Возвращает карточки сразу нескольких наборов одним запросом, минуя контекст персистентности.
+     *
+     * @param setIds идентификаторы наборов
+     * @return карточки, упорядоченные по ID
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.CardRow(
+                c.id, c.flashcardSet.id, c.term, c.definition)
+            from Cards c
+            where c.flashcardSet.id in :setIds
+            order by c.id
+            """)
+    List<CardRow> findRowsByFlashcardSetIdIn(@Param("setIds") Collection<Long> setIds);
+
+    /**
+     * Возвращает следующую страницу карточек набора после указанного ID (keyset-пагинация).
+     * Опирается на составной индекс {@code cards(flashcard_set_id, id)}.
+     *
+     * @param flashcardSetId идентификатор набора
+     * @param after          ID последней карточки предыдущей страницы; 0 для первой страницы
+     * @param limit          максимальное число строк
+     * @return карточки с ID больше {@code after}, упорядоченные по ID
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.CardRow(
+                c.id, c.flashcardSet.id, c.term, c.definition)
+            from Cards c
+            where c.flashcardSet.id = :setId and c.id > :after
+            order by c.id
+            """)
+    List<CardRow> findRowsByFlashcardSetIdAfter(@Param("setId") Long flashcardSetId, @Param("after") Long after, Limit limit);
+
+    /**
+     * Возвращает термины всех карточек в наборах, которыми владеет пользователь.
+     * Используется для построения индекса подсказок; опирается на индексы
+     * {@code flashcard_set(owner_id)} и {@code cards(flashcard_set_id, id)}.
+     *
+     * @param ownerId идентификатор владельца наборов
+     * @return термины, включая повторы
+     */
+    @Query("""
+            select c.term
+            from Cards c
+            where c.flashcardSet.owner.id = :ownerId
+            """)
+    List<String> findTermsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Находит карточки с указанными ID, принадлежащие заданному набору, одним запросом.
+     *
+     * @param flashcardSetId идентификатор набора
+     * @param ids            идентификаторы карточек
+     * @return найденные карточки; чужие и несуществующие ID пропускаются
+     */
+    List<Cards> findByFlashcardSetIdAndIdIn(Long flashcardSetId, Collection<Long> ids);
+
+    /**
+     * Удаляет карточки набора с указанными ID одним запросом, минуя контекст персистентности.
+     *
+     * @param flashcardSetId идентификатор набора
+     * @param ids            идентификаторы карточек
+     * @return число удалённых карточек
+     */
+    @Modifying
+    @Query("delete from Cards c where c.flashcardSet.id = :setId and c.id in :ids")
+    int deleteByFlashcardSetIdAndIdIn(@Param("setId") Long flashcardSetId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Возвращает карточки указанных наборов, изменённые после указанного момента.
+     * Читает диапазоны индекса {@code cards(flashcard_set_id, updated_at)}.
+     *
+     * @param setIds идентификаторы наборов
+     * @param since  момент, после которого ищутся изменения
+     * @return строки карточек
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.SyncCardRow(
+                c.id, c.flashcardSet.id, c.term, c.definition, c.updatedAt, c.version)
+            from Cards c
+            where c.flashcardSet.id in :setIds and c.updatedAt > :since
+            """)
+    List<SyncCardRow> findSyncRowsChangedSince(@Param("setIds") Collection<Long> setIds, @Param("since") LocalDateTime since);
+
+    /**
+     * Возвращает все карточки указанных наборов для полной синхронизации.
+     *
+     * @param setIds идентификаторы наборов
+     * @return строки карточек, упорядоченные по ID
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.SyncCardRow(
+                c.id, c.flashcardSet.id, c.term, c.definition, c.updatedAt, c.version)
+            from Cards c
+            where c.flashcardSet.id in :setIds
+            order by c.id
+            """)
+    List<SyncCardRow> findSyncRowsByFlashcardSetIdIn(@Param("setIds") Collection<Long> setIds);
+}
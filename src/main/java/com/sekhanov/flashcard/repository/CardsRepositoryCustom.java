@@ -0,0 +1,30 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.repository.projection.CardRow;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Запросы к карточкам, выполняемые напрямую через JDBC.
+ */
+public interface CardsRepositoryCustom {
+
+    /**
+     * Построчно читает карточки набора в порядке ID через серверный курсор и передаёт их обработчику,
+     * не собирая результат в память. Должен вызываться внутри транзакции, иначе драйвер
+     * PostgreSQL игнорирует fetch size и вычитывает весь результат сразу.
+     *
+     * @param flashcardSetId идентификатор набора
+     * @param consumer       обработчик очередной карточки
+     */
+    void streamByFlashcardSetId(Long flashcardSetId, Consumer<CardRow> consumer);
+
+    /**
+     * Вставляет карточки одним JDBC-пакетом в обход контекста персистентности.
+     * Идентификаторы берутся из значения по умолчанию столбца {@code cards.id}, поле {@code id} строк не используется.
+     * Число карточек набора ({@code card_count}) не изменяется.
+     *
+     * @param rows карточки с идентификатором набора, термином и определением
+     */
+    void insertAll(List<CardRow> rows);
+}
@@ -0,0 +1,66 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.repository.projection.CardRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JDBC-реализация {@link CardsRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class CardsRepositoryImpl implements CardsRepositoryCustom {
+
+    /** Сколько строк драйвер забирает с сервера за один раз. */
+    static final int FETCH_SIZE = 1000;
+
+    private static final String BY_SET_SQL = """
+            select id, flashcard_set_id, term, definition
+            from cards
+            where flashcard_set_id = ?
+            order by id
+            """;
+
+    private static final String INSERT_SQL = """
+            insert into cards (flashcard_set_id, term, definition, updated_at)
+            values (?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void streamByFlashcardSetId(Long flashcardSetId, Consumer<CardRow> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(BY_SET_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, flashcardSetId);
+            return ps;
+        }, rs -> {
+            consumer.accept(new CardRow(
+                    rs.getLong("id"),
+                    rs.getLong("flashcard_set_id"),
+                    rs.getString("term"),
+                    rs.getString("definition")));
+        });
+    }
+
+    @Override
+    public void insertAll(List<CardRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        // время изменения по часам приложения, как в сущностях: по нему карточки попадают в синхронизацию
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.flashcardSetId());
+            ps.setString(2, row.term());
+            ps.setString(3, row.definition());
+            ps.setTimestamp(4, updatedAt);
+        });
+    }
+}
@@ -1,14 +1,24 @@
 package com.sekhanov.flashcard.repository;
 
 import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetHeadRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetRow;
+import com.sekhanov.flashcard.repository.projection.SyncSetRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Репозиторий для работы с сущностями {@link FlashcardSet}.
  * Расширяет {@link JpaRepository} для базовых операций CRUD.
  */
-public interface FlashcardSetRepository extends JpaRepository<FlashcardSet, Long> {
+public interface FlashcardSetRepository extends JpaRepository<FlashcardSet, Long>, FlashcardSetRepositoryCustom {
 
     /**
      * Находит набор карточек по его уникальному имени.
@@ -25,4 +35,203 @@ public interface FlashcardSetRepository extends JpaRepository<FlashcardSet, Long
      * @return список наборов карточек {@link FlashcardSet}, принадлежащих владельцу
      */
     List<FlashcardSet> findByOwnerId(Long ownerId);
+
+    /**
+     * Возвращает следующую страницу наборов карточек после указанного ID (keyset-пагинация).
+     *
+     * @param after ID последнего набора предыдущей страницы; 0 для первой страницы
+     * @param limit максимальное число строк
+     * @return строки наборов с ID больше {@code after}, упорядоченные по ID
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.FlashcardSetRow(
+                s.id, s.name, s.description, o.name, o.surname, s.cardCount)
+            from FlashcardSet s left join s.owner o
+            where s.id > :after
+            order by s.id
+            """)
+    List<FlashcardSetRow> findRowsAfter(@Param("after") Long after, Limit limit);
+
+    /**
+     * Возвращает наборы карточек владельца с его именем одним запросом, минуя контекст персистентности.
+     *
+     * @param ownerId идентификатор владельца (пользователя)
+     * @return строки наборов, упорядоченные по ID
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.FlashcardSetRow(
+                s.id, s.name, s.description, o.name, o.surname, s.cardCount)
+            from FlashcardSet s join s.owner o
+            where o.id = :ownerId
+            order by s.id
+            """)
+    List<FlashcardSetRow> findRowsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Атомарно изменяет денормализованное число карточек набора, не загружая набор.
+     * Увеличивает версию и сдвигает время изменения набора: изменились его карточки.
+     *
+     * @param id    идентификатор набора
+     * @param delta на сколько изменить число карточек
+     * @return число обновлённых строк
+     */
+    default int adjustCardCount(Long id, int delta) {
+        return adjustCardCount(id, delta, LocalDateTime.now());
+    }
+
+    /**
+     * То же, что {@link #adjustCardCount(Long, int)}, с явным временем изменения: время берётся
+     * по часам приложения, как и в сущностях, а не по часам БД.
+     *
+     * @param id        идентификатор набора
+     * @param delta     на сколько изменить число карточек
+     * @param updatedAt новое время изменения набора
+     * @return число обновлённых строк
+     */
+    @Modifying
+    @Query("""
+            update FlashcardSet s
+            set s.cardCount = s.cardCount + :delta, s.version = s.version + 1, s.updatedAt = :updatedAt
+            where s.id = :id
+            """)
+    int adjustCardCount(@Param("id") Long id, @Param("delta") int delta, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Отмечает изменение карточек набора, не меняющее их число: увеличивает версию
+     * и сдвигает время изменения набора одним запросом, не загружая набор.
+     *
+     * @param id идентификатор набора
+     * @return число обновлённых строк
+     */
+    default int touch(Long id) {
+        return touch(id, LocalDateTime.now());
+    }
+
+    /**
+     * То же, что {@link #touch(Long)}, с явным временем изменения.
+     *
+     * @param id        идентификатор набора
+     * @param updatedAt новое время изменения набора
+     * @return число обновлённых строк
+     */
+    @Modifying
+    @Query("update FlashcardSet s set s.version = s.version + 1, s.updatedAt = :updatedAt where s.id = :id")
+    int touch(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Возвращает версию набора одним чтением по первичному ключу, не загружая набор.
+     *
+     * @param id идентификатор набора
+     * @return версия или пустой Optional, если набора нет
+     */
+    @Query("select s.version from FlashcardSet s where s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Возвращает краткие данные набора с версией одним чтением по первичному ключу, не загружая карточки:
+     * их число берётся из денормализованного столбца {@code card_count}.
+     *
+     * @param id идентификатор набора
+     * @return строка набора или пустой Optional, если набора нет
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.FlashcardSetHeadRow(
+                s.id, s.name, s.description, o.name, o.surname, s.cardCount, s.version, s.shared)
+            from FlashcardSet s left join s.owner o
+            where s.id = :id
+            """)
+    Optional<FlashcardSetHeadRow> findHeadById(@Param("id") Long id);
+
+    /**
+     * Возвращает идентификаторы наборов с указанным названием по индексу {@code flashcard_set(name)}.
+     *
+     * @param name  название набора
+     * @param limit максимальное число строк
+     * @return идентификаторы, упорядоченные по возрастанию
+     */
+    @Query("select s.id from FlashcardSet s where s.name = :name order by s.id")
+    List<Long> findIdsByName(@Param("name") String name, Limit limit);
+
+    /**
+     * Добавляет набор в список наборов пользователя, не загружая коллекцию {@code User.flashcardSets}.
+     *
+     * @param userId         идентификатор пользователя
+     * @param flashcardSetId идентификатор набора
+     */
+    @Modifying
+    @Query(value = "insert into user_flashcard_set (user_id, flashcard_set_id) values (:userId, :setId)", nativeQuery = true)
+    void linkUser(@Param("userId") Long userId, @Param("setId") Long flashcardSetId);
+
+    /**
+     * Возвращает идентификаторы наборов, которыми владеет пользователь.
+     *
+     * @param ownerId идентификатор владельца
+     * @return идентификаторы наборов
+     */
+    @Query("select s.id from FlashcardSet s where s.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Возвращает идентификаторы наборов, добавленных в список пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @return идентификаторы наборов
+     */
+    @Query(value = "select flashcard_set_id from user_flashcard_set where user_id = :userId", nativeQuery = true)
+    List<Long> findLinkedIds(@Param("userId") Long userId);
+
+    /**
+     * Возвращает идентификаторы наборов, добавленных в список пользователя после указанного момента.
+     *
+     * @param userId идентификатор пользователя
+     * @param since  момент, после которого ищутся привязки
+     * @return идентификаторы наборов
+     */
+    @Query(value = "select flashcard_set_id from user_flashcard_set where user_id = :userId and linked_at > :since", nativeQuery = true)
+    List<Long> findIdsLinkedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    /**
+     * Возвращает наборы владельца, изменённые после указанного момента.
+     * Читает диапазон индекса {@code flashcard_set(owner_id, updated_at)}.
+     *
+     * @param ownerId идентификатор владельца
+     * @param since   момент, после которого ищутся изменения
+     * @return строки наборов
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.SyncSetRow(
+                s.id, o.id, s.name, s.description, s.shared, s.cardCount, s.updatedAt, s.version)
+            from FlashcardSet s left join s.owner o
+            where o.id = :ownerId and s.updatedAt > :since
+            """)
+    List<SyncSetRow> findSyncRowsByOwnerIdChangedSince(@Param("ownerId") Long ownerId, @Param("since") LocalDateTime since);
+
+    /**
+     * Возвращает указанные наборы, изменённые после указанного момента.
+     *
+     * @param ids   идентификаторы наборов
+     * @param since момент, после которого ищутся изменения
+     * @return строки наборов
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.SyncSetRow(
+                s.id, o.id, s.name, s.description, s.shared, s.cardCount, s.updatedAt, s.version)
+            from FlashcardSet s left join s.owner o
+            where s.id in :ids and s.updatedAt > :since
+            """)
+    List<SyncSetRow> findSyncRowsByIdInChangedSince(@Param("ids") Collection<Long> ids, @Param("since") LocalDateTime since);
+
+    /**
+     * Возвращает указанные наборы целиком, для полной синхронизации и для только что добавленных наборов.
+     *
+     * @param ids идентификаторы наборов
+     * @return строки наборов
+     */
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.SyncSetRow(
+                s.id, o.id, s.name, s.description, s.shared, s.cardCount, s.updatedAt, s.version)
+            from FlashcardSet s left join s.owner o
+            where s.id in :ids
+            """)
+    List<SyncSetRow> findSyncRowsByIdIn(@Param("ids") Collection<Long> ids);
 }
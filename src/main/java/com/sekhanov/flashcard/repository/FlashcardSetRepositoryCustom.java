@@ -0,0 +1,57 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.repository.projection.ExportCardRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetSummaryRow;
+import com.sekhanov.flashcard.repository.projection.SearchHitRow;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Запросы к наборам карточек, выполняемые напрямую через JDBC.
+ */
+public interface FlashcardSetRepositoryCustom {
+
+    /**
+     * Построчно читает краткие данные всех наборов через серверный курсор и передаёт их обработчику,
+     * не собирая результат в память. Должен вызываться внутри транзакции, иначе драйвер
+     * PostgreSQL игнорирует fetch size и вычитывает весь результат сразу.
+     *
+     * @param consumer обработчик очередной строки
+     */
+    void streamSummaries(Consumer<FlashcardSetSummaryRow> consumer);
+
+    /**
+     * Построчно читает карточки набора вместе с данными набора через серверный курсор.
+     * Строки упорядочены по идентификатору карточки. Должен вызываться внутри транзакции.
+     *
+     * @param flashcardSetId идентификатор набора
+     * @param consumer       обработчик очередной строки
+     */
+    void streamExportRows(Long flashcardSetId, Consumer<ExportCardRow> consumer);
+
+    /**
+     * Построчно читает карточки всех наборов пользователя (созданных им и добавленных к нему)
+     * через серверный курсор. Строки упорядочены по набору, затем по карточке, так что карточки
+     * одного набора идут подряд. Должен вызываться внутри транзакции.
+     *
+     * @param userId   идентификатор пользователя
+     * @param consumer обработчик очередной строки
+     */
+    void streamExportRowsByUserId(Long userId, Consumer<ExportCardRow> consumer);
+
+    /**
+     * Ищет наборы по названию и описанию и карточки по термину и определению.
+     * <p>
+     * Только для PostgreSQL: использует сгенерированные tsvector-колонки и триграммы {@code pg_trgm}
+     * (changeset 018). Находятся совпадения по словам запроса и названия/термины, похожие на запрос
+     * с учётом опечаток. Учитываются только общие наборы, наборы пользователя и добавленные к нему.
+     * </p>
+     *
+     * @param query  поисковый запрос в синтаксисе {@code websearch_to_tsquery}
+     * @param userId идентификатор текущего пользователя
+     * @param offset сколько лучших результатов пропустить
+     * @param limit  сколько результатов вернуть
+     * @return результаты по убыванию релевантности
+     */
+    List<SearchHitRow> search(String query, Long userId, int offset, int limit);
+}
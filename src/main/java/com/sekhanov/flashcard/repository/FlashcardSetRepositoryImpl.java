@@ -0,0 +1,157 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.repository.projection.ExportCardRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetSummaryRow;
+import com.sekhanov.flashcard.repository.projection.SearchHitRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JDBC-реализация {@link FlashcardSetRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class FlashcardSetRepositoryImpl implements FlashcardSetRepositoryCustom {
+
+    /** Сколько строк драйвер забирает с сервера за один раз. */
+    static final int FETCH_SIZE = 500;
+    /** То же для выгрузки карточек: строки короткие, поэтому их забирается больше. */
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String SUMMARY_SQL = """
+            select s.id, s.name, s.description, u.name as owner_name, u.surname as owner_surname,
+                   s.card_count as cards_count
+            from flashcard_set s
+            left join users u on u.id = s.owner_id
+            order by s.id
+            """;
+
+    private static final String EXPORT_COLUMNS = """
+            select s.id as set_id, s.name as set_name, s.description as set_description,
+                   c.id as card_id, c.term, c.definition
+            from flashcard_set s
+            left join cards c on c.flashcard_set_id = s.id
+            """;
+
+    private static final String EXPORT_BY_SET_SQL = EXPORT_COLUMNS + """
+            where s.id = ?
+            order by c.id
+            """;
+
+    private static final String EXPORT_BY_USER_SQL = EXPORT_COLUMNS + """
+            where s.owner_id = ?
+               or s.id in (select us.flashcard_set_id from user_flashcard_set us where us.user_id = ?)
+            order by s.id, c.id
+            """;
+
+    private static final String VISIBLE_TO_USER = """
+            (s.shared
+             or s.owner_id = :userId
+             or exists (select 1 from user_flashcard_set us where us.flashcard_set_id = s.id and us.user_id = :userId))
+            """;
+
+    /*
+     * Каждая ветка отбирает свои лучшие offset + limit результатов по индексам GIN
+     * (BitmapOr полнотекстового и триграммного условий), затем ветки сливаются и режутся до страницы.
+     */
+    static final String SEARCH_SQL = """
+            (select 'SET' as hit_type, s.id as set_id, s.name as set_name,
+                    cast(null as bigint) as card_id, cast(null as varchar) as term, cast(null as varchar) as definition,
+                    ts_rank(s.search_vector, websearch_to_tsquery('simple', :query)) + similarity(s.name, :query) as score
+             from flashcard_set s
+             where (s.search_vector @@ websearch_to_tsquery('simple', :query) or s.name % :query)
+               and """ + VISIBLE_TO_USER + """
+             order by score desc, s.id
+             limit :branchLimit)
+            union all
+            (select 'CARD', s.id, s.name, c.id, c.term, c.definition,
+                    ts_rank(c.search_vector, websearch_to_tsquery('simple', :query)) + similarity(c.term, :query) as score
+             from cards c
+             join flashcard_set s on s.id = c.flashcard_set_id
+             where (c.search_vector @@ websearch_to_tsquery('simple', :query) or c.term % :query)
+               and """ + VISIBLE_TO_USER + """
+             order by score desc, c.id
+             limit :branchLimit)
+            order by score desc, set_id, card_id nulls first
+            offset :offset
+            limit :limit
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void streamSummaries(Consumer<FlashcardSetSummaryRow> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SUMMARY_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(new FlashcardSetSummaryRow(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getString("description"),
+                    rs.getString("owner_name"),
+                    rs.getString("owner_surname"),
+                    rs.getLong("cards_count")));
+        });
+    }
+
+    @Override
+    public void streamExportRows(Long flashcardSetId, Consumer<ExportCardRow> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_BY_SET_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            ps.setLong(1, flashcardSetId);
+            return ps;
+        }, rs -> {
+            consumer.accept(toExportRow(rs));
+        });
+    }
+
+    @Override
+    public void streamExportRowsByUserId(Long userId, Consumer<ExportCardRow> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_BY_USER_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            ps.setLong(1, userId);
+            ps.setLong(2, userId);
+            return ps;
+        }, rs -> {
+            consumer.accept(toExportRow(rs));
+        });
+    }
+
+    @Override
+    public List<SearchHitRow> search(String query, Long userId, int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("userId", userId)
+                .addValue("branchLimit", offset + limit)
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        return new NamedParameterJdbcTemplate(jdbcTemplate).query(SEARCH_SQL, params, (rs, rowNum) -> new SearchHitRow(
+                rs.getString("hit_type"),
+                rs.getLong("set_id"),
+                rs.getString("set_name"),
+                rs.getObject("card_id", Long.class),
+                rs.getString("term"),
+                rs.getString("definition"),
+                rs.getDouble("score")));
+    }
+
+    private static ExportCardRow toExportRow(ResultSet rs) throws SQLException {
+        return new ExportCardRow(
+                rs.getLong("set_id"),
+                rs.getString("set_name"),
+                rs.getString("set_description"),
+                rs.getObject("card_id", Long.class),
+                rs.getString("term"),
+                rs.getString("definition"));
+    }
+}
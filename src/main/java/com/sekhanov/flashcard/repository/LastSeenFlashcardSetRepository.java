@@ -1,11 +1,11 @@
 package com.sekhanov.flashcard.repository;
 
 import com.sekhanov.flashcard.entity.LastSeenFlashcardSet;
+import com.sekhanov.flashcard.repository.projection.RecentSetRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 /**
@@ -13,7 +13,7 @@ import java.util.List;
  * Предоставляет методы для получения и обновления информации
  * о последних просмотренных пользователем наборах карточек.
  */
-public interface LastSeenFlashcardSetRepository extends JpaRepository<LastSeenFlashcardSet, Long> {
+public interface LastSeenFlashcardSetRepository extends JpaRepository<LastSeenFlashcardSet, Long>, LastSeenFlashcardSetRepositoryCustom {
     /**
      * Возвращает 10 последних просмотренных пользователем наборов карточек,
      * отсортированных по времени открытия (по убыванию).
@@ -24,19 +24,19 @@ public interface LastSeenFlashcardSetRepository extends JpaRepository<LastSeenFl
     List<LastSeenFlashcardSet> findTop10ByUserIdOrderByOpenedAtDesc(Long userId);
 
     /**
-     * Добавляет или обновляет запись о просмотре набора карточек пользователем.
-     * Если такая пара (user_id, flashcard_set_id) уже существует, то обновляется поле opened_at.
+     * Возвращает последние просмотренные пользователем наборы вместе с владельцем и числом карточек
+     * одним запросом, не загружая сущности наборов и их карточки.
      *
-     * @param userId         идентификатор пользователя
-     * @param flashcardSetId идентификатор набора карточек
+     * @param userId идентификатор пользователя
+     * @param limit  максимальное число строк
+     * @return строки наборов, отсортированные по времени открытия (по убыванию)
      */
-    @Modifying
-    @Transactional
-    @Query(value = """
-    INSERT INTO last_seen_flashcard_set (user_id, flashcard_set_id, opened_at)
-    VALUES (:userId, :flashcardSetId, CURRENT_TIMESTAMP)
-    ON CONFLICT (user_id, flashcard_set_id)
-    DO UPDATE SET opened_at = EXCLUDED.opened_at
-""", nativeQuery = true)
-    void upsertLastSeenSet(@Param("userId") Long userId, @Param("flashcardSetId") Long flashcardSetId);
+    @Query("""
+            select new com.sekhanov.flashcard.repository.projection.RecentSetRow(
+                s.id, s.name, l.openedAt, o.name, o.surname, s.cardCount)
+            from LastSeenFlashcardSet l join l.flashcardSet s left join s.owner o
+            where l.id.userId = :userId
+            order by l.openedAt desc
+            """)
+    List<RecentSetRow> findRecentByUserId(@Param("userId") Long userId, Limit limit);
 }
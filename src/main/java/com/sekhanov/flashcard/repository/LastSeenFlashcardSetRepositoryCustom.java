@@ -0,0 +1,23 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.repository.projection.LastSeenRow;
+import java.util.List;
+
+/**
+ * Пакетная запись просмотров наборов карточек напрямую через JDBC.
+ */
+public interface LastSeenFlashcardSetRepositoryCustom {
+
+    /**
+     * Добавляет или обновляет записи о просмотрах одним многострочным
+     * {@code INSERT ... ON CONFLICT DO UPDATE}.
+     * <p>
+     * Время открытия никогда не откатывается назад. Просмотры удалённых наборов
+     * и пользователей молча пропускаются.
+     * </p>
+     *
+     * @param rows просмотры; пары (userId, flashcardSetId) не должны повторяться
+     * @return число вставленных или обновлённых строк
+     */
+    int upsertAll(List<LastSeenRow> rows);
+}
@@ -0,0 +1,45 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.repository.projection.LastSeenRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC-реализация {@link LastSeenFlashcardSetRepositoryCustom} для PostgreSQL.
+ */
+@RequiredArgsConstructor
+public class LastSeenFlashcardSetRepositoryImpl implements LastSeenFlashcardSetRepositoryCustom {
+
+    private static final String VALUES_ROW = "(CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS TIMESTAMP))";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO last_seen_flashcard_set (user_id, flashcard_set_id, opened_at)
+            SELECT v.user_id, v.flashcard_set_id, v.opened_at
+            FROM (VALUES %s) AS v(user_id, flashcard_set_id, opened_at)
+            JOIN users u ON u.id = v.user_id
+            JOIN flashcard_set s ON s.id = v.flashcard_set_id
+            ON CONFLICT (user_id, flashcard_set_id)
+            DO UPDATE SET opened_at = GREATEST(last_seen_flashcard_set.opened_at, EXCLUDED.opened_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int upsertAll(List<LastSeenRow> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        String sql = UPSERT_SQL.formatted(String.join(", ", Collections.nCopies(rows.size(), VALUES_ROW)));
+        Object[] args = new Object[rows.size() * 3];
+        int i = 0;
+        for (LastSeenRow row : rows) {
+            args[i++] = row.userId();
+            args[i++] = row.flashcardSetId();
+            args[i++] = Timestamp.valueOf(row.openedAt());
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+}
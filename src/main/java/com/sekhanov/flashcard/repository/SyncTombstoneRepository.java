@@ -0,0 +1,56 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.entity.SyncTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий отметок об удалении {@link SyncTombstone} для дельта-синхронизации.
+ */
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    /**
+     * Возвращает наборы, удалённые или отвязанные от пользователя после указанного момента.
+     * Опирается на индекс {@code sync_tombstone(user_id, deleted_at)}.
+     *
+     * @param userId идентификатор пользователя
+     * @param since  момент, после которого ищутся удаления
+     * @return идентификаторы наборов без повторов
+     */
+    @Query("""
+            select distinct t.flashcardSetId
+            from SyncTombstone t
+            where t.userId = :userId and t.deletedAt > :since
+            """)
+    List<Long> findDeletedSetIds(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    /**
+     * Возвращает карточки указанных наборов, удалённые после указанного момента.
+     * Опирается на индекс {@code sync_tombstone(flashcard_set_id, deleted_at)}.
+     *
+     * @param setIds идентификаторы наборов
+     * @param since  момент, после которого ищутся удаления
+     * @return идентификаторы карточек без повторов
+     */
+    @Query("""
+            select distinct t.cardId
+            from SyncTombstone t
+            where t.flashcardSetId in :setIds and t.deletedAt > :since and t.cardId is not null
+            """)
+    List<Long> findDeletedCardIds(@Param("setIds") Collection<Long> setIds, @Param("since") LocalDateTime since);
+
+    /**
+     * Удаляет отметки старше указанного момента одним запросом.
+     *
+     * @param before граница срока хранения
+     * @return число удалённых отметок
+     */
+    @Modifying
+    @Query("delete from SyncTombstone t where t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
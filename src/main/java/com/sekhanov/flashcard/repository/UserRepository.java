@@ -1,6 +1,9 @@
 package com.sekhanov.flashcard.repository;
 
 import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.repository.projection.MailRecipient;
+import com.sekhanov.flashcard.repository.projection.UserCredentials;
+import com.sekhanov.flashcard.repository.projection.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -8,7 +11,16 @@ import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByLogin(String login);
+    boolean existsByLogin(String login);
     Optional<User> findByConfirmationToken(String token);
     List<User> findAllByIsEmailConfirmedTrue();
-}
 
+    /** Логин, id, имя и хэш пароля — всё, что нужно для аутентификации. */
+    Optional<UserCredentials> findCredentialsByLogin(String login);
+
+    /** Профиль пользователя без связанных наборов карточек. */
+    Optional<UserProfile> findProfileById(Long id);
+
+    /** Адреса и имена пользователей с подтверждённым email для рассылки. */
+    List<MailRecipient> findRecipientsByIsEmailConfirmedTrue();
+}
@@ -0,0 +1,12 @@
+package com.sekhanov.flashcard.repository.projection;
+
+/**
+ * Карточка без ссылки на сущность набора — только идентификатор набора.
+ *
+ * @param id             идентификатор карточки
+ * @param flashcardSetId идентификатор набора, к которому относится карточка
+ * @param term           термин
+ * @param definition     определение
+ */
+public record CardRow(Long id, Long flashcardSetId, String term, String definition) {
+}
@@ -0,0 +1,17 @@
+package com.sekhanov.flashcard.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Карточка из очереди повторения пользователя вместе со сроком повторения.
+ *
+ * @param cardId         идентификатор карточки
+ * @param flashcardSetId идентификатор набора
+ * @param term           термин
+ * @param definition     определение
+ * @param dueAt          время, начиная с которого карточку нужно повторить
+ * @param repetitions    число успешных повторений подряд; 0 для новой карточки
+ */
+public record DueCardRow(Long cardId, Long flashcardSetId, String term, String definition,
+                         LocalDateTime dueAt, int repetitions) {
+}
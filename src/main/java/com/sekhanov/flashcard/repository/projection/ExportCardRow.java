@@ -0,0 +1,16 @@
+package com.sekhanov.flashcard.repository.projection;
+
+/**
+ * Строка выгрузки: карточка вместе с данными своего набора.
+ * Для набора без карточек приходит одна строка, в которой поля карточки равны {@code null}.
+ *
+ * @param flashcardSetId идентификатор набора
+ * @param setName        название набора
+ * @param setDescription описание набора
+ * @param cardId         идентификатор карточки или {@code null}, если в наборе нет карточек
+ * @param term           термин
+ * @param definition     определение
+ */
+public record ExportCardRow(Long flashcardSetId, String setName, String setDescription,
+                            Long cardId, String term, String definition) {
+}
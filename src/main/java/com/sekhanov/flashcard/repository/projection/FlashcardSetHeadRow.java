@@ -0,0 +1,18 @@
+package com.sekhanov.flashcard.repository.projection;
+
+/**
+ * Краткая строка отдельного набора вместе с его версией: для проверки ETag и записи просмотра
+ * без загрузки карточек.
+ *
+ * @param id           идентификатор набора
+ * @param name         название набора
+ * @param description  описание набора
+ * @param ownerName    имя владельца или {@code null}, если владельца нет
+ * @param ownerSurname фамилия владельца или {@code null}, если владельца нет
+ * @param cardsCount   число карточек в наборе из {@code flashcard_set.card_count}
+ * @param version      версия набора вместе с карточками
+ * @param shared       набор открыт всем пользователям
+ */
+public record FlashcardSetHeadRow(Long id, String name, String description, String ownerName, String ownerSurname,
+                                  int cardsCount, Long version, boolean shared) {
+}
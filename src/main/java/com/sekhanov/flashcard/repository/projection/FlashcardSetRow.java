@@ -0,0 +1,15 @@
+package com.sekhanov.flashcard.repository.projection;
+
+/**
+ * Строка списка наборов карточек вместе с именем владельца, выбранная одним запросом.
+ *
+ * @param id           идентификатор набора
+ * @param name         название набора
+ * @param description  описание набора
+ * @param ownerName    имя владельца или {@code null}, если владельца нет
+ * @param ownerSurname фамилия владельца или {@code null}, если владельца нет
+ * @param cardCount    число карточек из денормализованного счётчика набора
+ */
+public record FlashcardSetRow(Long id, String name, String description, String ownerName, String ownerSurname,
+                              int cardCount) {
+}
@@ -0,0 +1,15 @@
+package com.sekhanov.flashcard.repository.projection;
+
+/**
+ * Краткая строка набора карточек для потоковой выдачи: без карточек, только их количество.
+ *
+ * @param id           идентификатор набора
+ * @param name         название набора
+ * @param description  описание набора
+ * @param ownerName    имя владельца или {@code null}, если владельца нет
+ * @param ownerSurname фамилия владельца или {@code null}, если владельца нет
+ * @param cardsCount   число карточек в наборе
+ */
+public record FlashcardSetSummaryRow(Long id, String name, String description,
+                                     String ownerName, String ownerSurname, long cardsCount) {
+}
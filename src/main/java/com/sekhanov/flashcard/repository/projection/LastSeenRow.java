@@ -0,0 +1,13 @@
+package com.sekhanov.flashcard.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Просмотр набора карточек пользователем, ожидающий записи в {@code last_seen_flashcard_set}.
+ *
+ * @param userId         идентификатор пользователя
+ * @param flashcardSetId идентификатор набора
+ * @param openedAt       время последнего открытия
+ */
+public record LastSeenRow(Long userId, Long flashcardSetId, LocalDateTime openedAt) {
+}
@@ -0,0 +1,10 @@
+package com.sekhanov.flashcard.repository.projection;
+
+/**
+ * Проекция получателя рассылки: только адрес и имя.
+ *
+ * @param email адрес электронной почты
+ * @param name  имя пользователя
+ */
+public record MailRecipient(String email, String name) {
+}
@@ -0,0 +1,18 @@
+package com.sekhanov.flashcard.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка недавно просмотренных наборов: данные набора, владельца и
+ * денормализованное число карточек, выбранные одним запросом.
+ *
+ * @param flashcardSetId идентификатор набора
+ * @param name           название набора
+ * @param openedAt       время последнего открытия набора пользователем
+ * @param ownerName      имя владельца или {@code null}, если владельца нет
+ * @param ownerSurname   фамилия владельца или {@code null}, если владельца нет
+ * @param cardCount      число карточек в наборе
+ */
+public record RecentSetRow(Long flashcardSetId, String name, LocalDateTime openedAt,
+                           String ownerName, String ownerSurname, int cardCount) {
+}
@@ -0,0 +1,15 @@
+package com.sekhanov.flashcard.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ответ на карточку для записи в журнал {@code card_review_log}.
+ *
+ * @param userId         идентификатор пользователя
+ * @param idempotencyKey ключ идемпотентности, заданный клиентом
+ * @param cardId         идентификатор карточки
+ * @param grade          оценка ответа
+ * @param reviewedAt     время ответа на устройстве, приведённое к времени сервера
+ */
+public record ReviewLogRow(Long userId, String idempotencyKey, Long cardId, String grade, LocalDateTime reviewedAt) {
+}
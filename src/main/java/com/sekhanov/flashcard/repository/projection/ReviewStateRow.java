@@ -0,0 +1,20 @@
+package com.sekhanov.flashcard.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Состояние повторения карточки пользователем без загрузки сущности
+ * {@link com.sekhanov.flashcard.entity.CardReviewState}.
+ *
+ * @param userId         идентификатор пользователя
+ * @param cardId         идентификатор карточки
+ * @param easeFactor     коэффициент лёгкости
+ * @param intervalDays   текущий интервал в днях
+ * @param repetitions    число успешных повторений подряд
+ * @param lapses         число ошибок
+ * @param dueAt          срок следующего повторения
+ * @param lastReviewedAt время последнего ответа или {@code null}
+ */
+public record ReviewStateRow(Long userId, Long cardId, double easeFactor, int intervalDays, int repetitions,
+                             int lapses, LocalDateTime dueAt, LocalDateTime lastReviewedAt) {
+}
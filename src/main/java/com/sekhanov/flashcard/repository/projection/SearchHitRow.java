@@ -0,0 +1,16 @@
+package com.sekhanov.flashcard.repository.projection;
+
+/**
+ * Строка результата поиска: найденный набор или найденная карточка вместе с её набором.
+ *
+ * @param hitType        {@code SET} или {@code CARD}
+ * @param flashcardSetId идентификатор набора
+ * @param setName        название набора
+ * @param cardId         идентификатор карточки или {@code null}, если найден сам набор
+ * @param term           термин карточки или {@code null}
+ * @param definition     определение карточки или {@code null}
+ * @param score          релевантность: ранг полнотекстового совпадения плюс триграммное сходство
+ */
+public record SearchHitRow(String hitType, Long flashcardSetId, String setName,
+                           Long cardId, String term, String definition, double score) {
+}
@@ -0,0 +1,17 @@
+package com.sekhanov.flashcard.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка карточки для дельта-синхронизации.
+ *
+ * @param id             идентификатор карточки
+ * @param flashcardSetId идентификатор набора, к которому относится карточка
+ * @param term           термин
+ * @param definition     определение
+ * @param updatedAt      время последнего изменения карточки
+ * @param version        версия карточки
+ */
+public record SyncCardRow(Long id, Long flashcardSetId, String term, String definition,
+                          LocalDateTime updatedAt, Long version) {
+}
@@ -0,0 +1,19 @@
+package com.sekhanov.flashcard.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка набора карточек для дельта-синхронизации.
+ *
+ * @param id          идентификатор набора
+ * @param ownerId     идентификатор владельца или {@code null}, если владельца нет
+ * @param name        название набора
+ * @param description описание набора
+ * @param shared      набор открыт для поиска другими пользователями
+ * @param cardCount   число карточек в наборе
+ * @param updatedAt   время последнего изменения набора
+ * @param version     версия набора
+ */
+public record SyncSetRow(Long id, Long ownerId, String name, String description, boolean shared, int cardCount,
+                         LocalDateTime updatedAt, Long version) {
+}
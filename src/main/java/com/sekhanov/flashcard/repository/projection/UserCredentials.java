@@ -0,0 +1,13 @@
+package com.sekhanov.flashcard.repository.projection;
+
+/**
+ * Проекция пользователя для аутентификации: только идентификация и хэш пароля.
+ *
+ * @param id       идентификатор пользователя
+ * @param login    логин пользователя
+ * @param name     имя пользователя
+ * @param surname  фамилия пользователя
+ * @param password хэш пароля
+ */
+public record UserCredentials(Long id, String login, String name, String surname, String password) {
+}
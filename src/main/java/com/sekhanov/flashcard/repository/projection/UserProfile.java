@@ -0,0 +1,13 @@
+package com.sekhanov.flashcard.repository.projection;
+
+/**
+ * Проекция профиля пользователя без связанных наборов карточек.
+ *
+ * @param id      идентификатор пользователя
+ * @param name    имя пользователя
+ * @param surname фамилия пользователя
+ * @param login   логин пользователя
+ * @param email   адрес электронной почты
+ */
+public record UserProfile(Long id, String name, String surname, String login, String email) {
+}
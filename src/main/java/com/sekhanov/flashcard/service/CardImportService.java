@@ -0,0 +1,35 @@
+package com.sekhanov.flashcard.service;
+
+import com.sekhanov.flashcard.dto.ImportStatusDTO;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Сервис импорта колод карточек из текстовых файлов (CSV, TSV, текстовый экспорт Anki).
+ */
+public interface CardImportService {
+    /**
+     * Создаёт набор текущего пользователя и потоково загружает в него карточки из тела запроса.
+     * Первые два столбца записи — термин и определение, остальные игнорируются.
+     * Набор и пакеты карточек коммитятся по мере чтения файла; при ошибке набор удаляется.
+     *
+     * @param importId    идентификатор импорта для опроса прогресса; {@code null} — сгенерировать
+     * @param name        название нового набора
+     * @param description описание нового набора
+     * @param format      формат файла: {@code csv}, {@code tsv} или {@code anki}
+     * @param skipHeader  пропустить первую запись файла (строку заголовков)
+     * @param body        содержимое файла в UTF-8
+     * @return итоговое состояние импорта
+     * @throws IllegalArgumentException если формат не поддерживается или импорт с таким идентификатором уже есть
+     */
+    ImportStatusDTO importFlashcardSet(String importId, String name, String description, String format,
+                                       boolean skipHeader, InputStream body);
+
+    /**
+     * Возвращает состояние импорта текущего пользователя.
+     *
+     * @param importId идентификатор импорта
+     * @return состояние импорта, если он найден и принадлежит текущему пользователю
+     */
+    Optional<ImportStatusDTO> getImportStatus(String importId);
+}
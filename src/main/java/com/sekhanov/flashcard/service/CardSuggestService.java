@@ -0,0 +1,17 @@
+package com.sekhanov.flashcard.service;
+
+import java.util.List;
+
+/**
+ * Сервис подсказок терминов для автодополнения в редакторе карточек.
+ */
+public interface CardSuggestService {
+    /**
+     * Возвращает термины из наборов текущего пользователя, начинающиеся с префикса (без учёта регистра).
+     *
+     * @param prefix префикс; для пустого префикса подсказок нет
+     * @param limit  максимальное число подсказок
+     * @return термины в алфавитном порядке
+     */
+    List<String> suggestTerms(String prefix, int limit);
+}
@@ -2,8 +2,10 @@ package com.sekhanov.flashcard.service;
 
 import com.sekhanov.flashcard.dto.CreateCardsDTO;
 import com.sekhanov.flashcard.dto.CardsDTO;
+import com.sekhanov.flashcard.dto.CursorPageDTO;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Сервис для управления словами (Cards), связанными со списками слов (FlashcardSet).
@@ -25,12 +27,21 @@ public interface CardsService {
      */
     Optional<CardsDTO> getCardsById(Long id);
     /**
-     * Получает все слова, принадлежащие указанному списку слов.
+     * Получает страницу слов указанного списка, упорядоченных по id (keyset-пагинация).
      *
      * @param wordListId ID списка слов
-     * @return список DTO слов, принадлежащих списку
+     * @param after      id последнего слова предыдущей страницы; null для первой страницы
+     * @param limit      размер страницы, приводится к диапазону от 1 до 1000
+     * @return страница DTO слов и курсор следующей страницы
      */
-    List<CardsDTO> getAllCardsForFlashcardSet(Long wordListId);
+    CursorPageDTO<CardsDTO> getCardsPage(Long wordListId, Long after, int limit);
+    /**
+     * Построчно передаёт все слова указанного списка обработчику, не собирая их в память.
+     *
+     * @param wordListId ID списка слов
+     * @param consumer   обработчик очередного слова
+     */
+    void streamCardsForFlashcardSet(Long wordListId, Consumer<CardsDTO> consumer);
     /**
      * Обновляет существующее слово по его идентификатору.
      *
@@ -46,4 +57,33 @@ public interface CardsService {
      * @return true, если удаление прошло успешно; false, если слово не найдено
      */
     boolean deleteCards(Long id);
+    /**
+     * Создаёт несколько слов в списке в одной транзакции; вставки уходят JDBC-пакетами.
+     *
+     * @param wordListId ID списка слов
+     * @param entries    DTO новых слов
+     * @return DTO созданных слов в порядке запроса
+     * @throws jakarta.persistence.EntityNotFoundException если список слов не найден
+     */
+    List<CardsDTO> createCardsBatch(Long wordListId, List<CreateCardsDTO> entries);
+    /**
+     * Обновляет несколько слов списка в одной транзакции.
+     *
+     * @param wordListId ID списка слов
+     * @param entries    DTO слов с ID и новыми значениями
+     * @return DTO обновлённых слов
+     * @throws jakarta.persistence.EntityNotFoundException если хотя бы одно слово не найдено в списке;
+     *                                                    в этом случае не обновляется ни одно слово
+     */
+    List<CardsDTO> updateCardsBatch(Long wordListId, List<CardsDTO> entries);
+    /**
+     * Удаляет несколько слов списка одним запросом в одной транзакции.
+     *
+     * @param wordListId ID списка слов
+     * @param ids        ID удаляемых слов
+     * @return число удалённых слов
+     * @throws jakarta.persistence.EntityNotFoundException если хотя бы одно слово не найдено в списке;
+     *                                                    в этом случае не удаляется ни одно слово
+     */
+    int deleteCardsBatch(Long wordListId, List<Long> ids);
 }
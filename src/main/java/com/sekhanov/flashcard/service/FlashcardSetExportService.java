@@ -0,0 +1,31 @@
+package com.sekhanov.flashcard.service;
+
+import com.sekhanov.flashcard.utils.FlashcardSetExportWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Сервис потоковой выгрузки наборов карточек для резервного копирования.
+ * Данные пишутся в поток по мере чтения курсора БД, без промежуточных списков DTO.
+ */
+public interface FlashcardSetExportService {
+    /**
+     * Выгружает набор карточек.
+     *
+     * @param flashcardSetId идентификатор набора
+     * @param format         формат выгрузки
+     * @param out            поток ответа
+     * @throws IOException                                 если не удалось записать в поток
+     * @throws jakarta.persistence.EntityNotFoundException если набора нет; в поток при этом ничего не пишется
+     */
+    void exportFlashcardSet(Long flashcardSetId, FlashcardSetExportWriter.Format format, OutputStream out) throws IOException;
+
+    /**
+     * Выгружает все наборы текущего пользователя: созданные им и добавленные к нему.
+     *
+     * @param format формат выгрузки
+     * @param out    поток ответа
+     * @throws IOException если не удалось записать в поток
+     */
+    void exportCurrentUserFlashcardSets(FlashcardSetExportWriter.Format format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,30 @@
+package com.sekhanov.flashcard.service;
+
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
+import java.util.Optional;
+
+/**
+ * Второй, общий для экземпляров приложения уровень кэша готовых {@link FlashcardSetDTO}
+ * (например, Redis или Memcached). Подключается объявлением бина этого типа; без него работает только кэш в памяти.
+ * <p>
+ * Записи адресуются парой (идентификатор набора, версия), поэтому изменение набора не требует
+ * рассылки инвалидаций: записи прежних версий перестают запрашиваться и истекают по сроку хранения хранилища.
+ * </p>
+ */
+public interface FlashcardSetSecondLevelCache {
+    /**
+     * Возвращает набор указанной версии.
+     *
+     * @param id      идентификатор набора
+     * @param version версия набора
+     * @return DTO набора или пустой Optional, если такой версии в кэше нет
+     */
+    Optional<FlashcardSetDTO> get(Long id, long version);
+
+    /**
+     * Сохраняет набор под его идентификатором и версией {@link FlashcardSetDTO#getVersion()}.
+     *
+     * @param dto DTO набора с заполненной версией
+     */
+    void put(FlashcardSetDTO dto);
+}
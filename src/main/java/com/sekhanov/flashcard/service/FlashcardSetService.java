@@ -1,9 +1,11 @@
 package com.sekhanov.flashcard.service;
 
 import com.sekhanov.flashcard.dto.CreateFlashcardSetDTO;
+import com.sekhanov.flashcard.dto.CursorPageDTO;
 import com.sekhanov.flashcard.dto.FlashcardSetDTO;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Сервис для управления списками слов (FlashcardSet).
@@ -23,6 +25,29 @@ public interface FlashcardSetService {
      * @return Optional с FlashcardSetDTO, если найден
      */
     Optional<FlashcardSetDTO> getFlashcardSetById(Long id);
+    /**
+     * Получает список слов по его id, не отмечая его просмотренным текущим пользователем.
+     *
+     * @param id идентификатор списка слов
+     * @return Optional с FlashcardSetDTO, если найден
+     */
+    Optional<FlashcardSetDTO> findFlashcardSetById(Long id);
+    /**
+     * Получает текущую версию списка слов одним чтением по первичному ключу, не загружая карточки.
+     * Версия растёт при любом изменении списка или его карточек.
+     *
+     * @param id идентификатор списка слов
+     * @return Optional с версией, если список найден
+     */
+    Optional<Long> getFlashcardSetVersion(Long id);
+    /**
+     * Получает краткие данные списка слов с версией одним чтением по первичному ключу:
+     * без карточек, с их количеством. Просмотр не записывается.
+     *
+     * @param id идентификатор списка слов
+     * @return Optional с кратким FlashcardSetDTO, если список найден
+     */
+    Optional<FlashcardSetDTO> getFlashcardSetSummary(Long id);
     /**
      * Получает список слов по его названию.
      *
@@ -31,17 +56,27 @@ public interface FlashcardSetService {
      */
     Optional<FlashcardSetDTO> getFlashcardSetByName(String name);
     /**
-     * Получает все списки слов.
+     * Получает страницу списков слов, упорядоченных по id (keyset-пагинация).
+     *
+     * @param after   id последнего списка предыдущей страницы; null для первой страницы
+     * @param limit   размер страницы, приводится к диапазону от 1 до 1000
+     * @param summary если true, карточки не загружаются, заполняется только их количество
+     * @return страница FlashcardSetDTO и курсор следующей страницы
+     */
+    CursorPageDTO<FlashcardSetDTO> getFlashcardSetPage(Long after, int limit, boolean summary);
+    /**
+     * Построчно передаёт краткие данные всех списков слов обработчику, не собирая их в память.
      *
-     * @return список всех FlashcardSetDTO
+     * @param consumer обработчик очередного списка (без карточек, с их количеством)
      */
-    List<FlashcardSetDTO> getAllFlashcardSet();
+    void streamFlashcardSetSummaries(Consumer<FlashcardSetDTO> consumer);
     /**
      * Обновляет существующий список слов.
      *
      * @param id идентификатор обновляемого списка
      * @param updateDTO DTO с обновленными данными
-     * @return Optional с обновленным FlashcardSetDTO, если найден
+     * @return Optional с обновленным FlashcardSetDTO, если найден; если были присланы карточки,
+     *         в {@code merge} передаётся число добавленных, изменённых, удалённых и оставшихся без изменений
      */
     Optional<FlashcardSetDTO> updateFlashcardSet(Long id, CreateFlashcardSetDTO updateDTO);
     /**
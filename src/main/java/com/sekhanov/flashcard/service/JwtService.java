@@ -1,6 +1,7 @@
 package com.sekhanov.flashcard.service;
 
 import java.util.Date;
+import java.util.Optional;
 /**
  * Сервис для работы с JWT (JSON Web Token).
  * <p>
@@ -15,6 +16,13 @@ public interface JwtService {
      * @return JWT токен
      */
     String generateToken(String login);
+    /**
+     * Генерирует JWT-токен, в котором помимо логина подписаны id, имя и фамилия пользователя.
+     * Такой токен позволяет восстановить пользователя без обращения к базе данных.
+     * @param subject данные аутентифицированного пользователя
+     * @return JWT токен
+     */
+    String generateToken(TokenSubject subject);
     /**
      * Извлекает логин из токена.
      * @param token JWT токен
@@ -39,4 +47,51 @@ public interface JwtService {
      * @return дата истечения срока действия токена
      */
     Date extractExpiration(String token);
+    /**
+     * Проверяет подпись токена и возвращает его содержимое за один разбор.
+     * <p>
+     * Результат разбора кэшируется до истечения срока действия токена,
+     * поэтому повторные запросы с тем же токеном не проверяют подпись заново.
+     * </p>
+     * @param token JWT токен
+     * @return разобранный токен или пустой Optional, если токен невалиден или истёк
+     */
+    Optional<ParsedToken> parse(String token);
+    /**
+     * Отзывает все токены пользователя, выпущенные раньше текущего момента (с точностью до миллисекунды).
+     * Информация об отзыве хранится в памяти не дольше времени жизни токена.
+     * Вызывается после коммита изменения данных, подписанных в токене.
+     * @param userId идентификатор пользователя
+     */
+    void revokeTokens(Long userId);
+
+    /**
+     * Данные пользователя, подписываемые в JWT токене.
+     *
+     * @param userId  идентификатор пользователя
+     * @param login   логин пользователя (subject)
+     * @param name    имя пользователя
+     * @param surname фамилия пользователя
+     */
+    record TokenSubject(Long userId, String login, String name, String surname) {
+    }
+
+    /**
+     * Данные, извлечённые из проверенного JWT токена.
+     *
+     * @param login      логин пользователя (subject)
+     * @param userId     идентификатор пользователя или null для токенов без данных пользователя
+     * @param name       имя пользователя
+     * @param surname    фамилия пользователя
+     * @param issuedAt   дата выпуска токена
+     * @param expiration дата истечения срока действия токена
+     */
+    record ParsedToken(String login, Long userId, String name, String surname, Date issuedAt, Date expiration) {
+        /**
+         * @return true, если токен содержит данные, достаточные для восстановления пользователя без БД
+         */
+        public boolean hasPrincipalClaims() {
+            return userId != null;
+        }
+    }
 }
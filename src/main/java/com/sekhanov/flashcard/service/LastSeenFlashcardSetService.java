@@ -1,5 +1,6 @@
 package com.sekhanov.flashcard.service;
 
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
 import com.sekhanov.flashcard.dto.LastSeenFlashcardSetDto;
 import java.util.List;
 
@@ -10,10 +11,11 @@ public interface LastSeenFlashcardSetService {
     /**
      * Сохраняет набор карточек как недавно использованный пользователем.
      * Если запись уже существует, она может быть обновлена с новой временной меткой.
+     * Переданный снимок набора сразу попадает в список недавних наборов пользователя.
      *
-     * @param flashcardSetId идентификатор набора карточек
+     * @param flashcardSet просмотренный набор карточек
      */
-    void saveLastSeenSet(Long flashcardSetId);
+    void saveLastSeenSet(FlashcardSetDTO flashcardSet);
 
     /**
      * Возвращает список последних использованных пользователем наборов карточек.
@@ -0,0 +1,24 @@
+package com.sekhanov.flashcard.service;
+
+import com.sekhanov.flashcard.dto.CursorPageDTO;
+import com.sekhanov.flashcard.dto.SearchHitDTO;
+
+/**
+ * Сервис поиска по наборам карточек и карточкам.
+ */
+public interface SearchService {
+    /**
+     * Ищет наборы и карточки, доступные текущему пользователю, по убыванию релевантности.
+     * <p>
+     * Результаты упорядочены по рангу, а не по идентификатору, поэтому курсор страницы —
+     * это число уже выданных результатов.
+     * </p>
+     *
+     * @param query  поисковый запрос
+     * @param cursor курсор из предыдущей страницы; {@code null} для первой страницы
+     * @param limit  размер страницы
+     * @return страница результатов
+     * @throws IllegalArgumentException если запрос пустой или слишком длинный, либо курсор вне допустимого диапазона
+     */
+    CursorPageDTO<SearchHitDTO> search(String query, Long cursor, int limit);
+}
@@ -0,0 +1,47 @@
+package com.sekhanov.flashcard.service;
+
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
+import java.util.Optional;
+
+/**
+ * Кэш уже сериализованных в JSON общих наборов ({@code shared = true}), из которого ответ пишется
+ * готовыми байтами, без загрузки набора и без Jackson.
+ * <p>
+ * Запись помечена версией набора и отдаётся только при совпадении с текущей версией из БД,
+ * поэтому устаревшая запись никогда не попадает в ответ.
+ * </p>
+ */
+public interface SharedFlashcardSetJsonCache {
+    /**
+     * Возвращает сериализованный набор, если он закэширован именно в этой версии.
+     *
+     * @param id      идентификатор набора
+     * @param version текущая версия набора
+     * @return сериализованный набор или пустой Optional
+     */
+    Optional<SerializedFlashcardSet> get(Long id, long version);
+
+    /**
+     * Сериализует и кэширует общий набор. Закрытые наборы и наборы без версии пропускаются.
+     * Сжатая копия готовится позже, вне потока запроса.
+     *
+     * @param dto загруженный набор
+     * @return сериализованный набор, которым можно сразу ответить, или пустой Optional, если набор не кэшируется
+     */
+    Optional<SerializedFlashcardSet> put(FlashcardSetDTO dto);
+
+    /**
+     * Сериализованный набор одной версии.
+     *
+     * @param summary данные набора без карточек, нужные для записи просмотра
+     * @param version версия набора
+     * @param json    тело ответа в UTF-8
+     * @param gzip    то же тело, сжатое gzip; {@code null}, пока сжатая копия не готова или если она не меньше
+     */
+    record SerializedFlashcardSet(FlashcardSetDTO summary, long version, byte[] json, byte[] gzip) {
+
+        public int size() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
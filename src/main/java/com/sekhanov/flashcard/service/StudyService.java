@@ -0,0 +1,56 @@
+package com.sekhanov.flashcard.service;
+
+import com.sekhanov.flashcard.dto.DueCardDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchItemDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchResultDTO;
+import com.sekhanov.flashcard.dto.ReviewRequestDTO;
+import com.sekhanov.flashcard.dto.ReviewStateDTO;
+import java.util.List;
+
+/**
+ * Сервис интервального повторения карточек текущим пользователем.
+ */
+public interface StudyService {
+    /**
+     * Возвращает карточки, которые текущему пользователю пора повторить, начиная с самых просроченных.
+     *
+     * @param limit максимальное число карточек
+     * @return карточки к повторению
+     */
+    List<DueCardDTO> getDueCards(int limit);
+
+    /**
+     * Принимает ответ на карточку и назначает следующий срок её повторения.
+     * Карточка, ещё не добавленная в изучение, добавляется при первом ответе.
+     *
+     * @param request карточка и оценка ответа
+     * @return новое состояние повторения карточки
+     * @throws IllegalArgumentException если не указаны карточка или оценка
+     * @throws jakarta.persistence.EntityNotFoundException если карточка не найдена
+     */
+    ReviewStateDTO review(ReviewRequestDTO request);
+
+    /**
+     * Применяет пакет ответов, накопленных клиентом без сети, в одной транзакции.
+     * <p>
+     * Ответы применяются в порядке времени ответа на устройстве. Ответ с уже принятым
+     * ключом идемпотентности пропускается, поэтому пакет можно безопасно отправить повторно.
+     * Ответ, данный не позже последнего учтённого повторения карточки, записывается в журнал,
+     * но её расписание не меняет.
+     * </p>
+     *
+     * @param reviews ответы
+     * @return число применённых, повторных и пропущенных ответов и итоговые состояния карточек
+     * @throws IllegalArgumentException если пакет слишком большой или в ответе не указаны ключ, карточка или оценка
+     */
+    ReviewBatchResultDTO reviewBatch(List<ReviewBatchItemDTO> reviews);
+
+    /**
+     * Добавляет в изучение текущего пользователя все карточки набора, которых ещё нет в его очереди.
+     *
+     * @param flashcardSetId идентификатор набора
+     * @return число добавленных карточек
+     * @throws jakarta.persistence.EntityNotFoundException если набор не найден
+     */
+    int enrollFlashcardSet(Long flashcardSetId);
+}
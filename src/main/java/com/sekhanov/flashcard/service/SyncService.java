@@ -0,0 +1,24 @@
+package com.sekhanov.flashcard.service;
+
+import com.sekhanov.flashcard.dto.SyncDTO;
+
+/**
+ * Сервис дельта-синхронизации наборов и карточек текущего пользователя с офлайн-клиентами.
+ */
+public interface SyncService {
+    /**
+     * Возвращает наборы и карточки, изменённые после выдачи токена, и удалённые с тех пор записи.
+     * Без токена, с некорректным или слишком старым токеном возвращаются все данные пользователя.
+     *
+     * @param since токен из предыдущего ответа синхронизации или {@code null} для первой синхронизации
+     * @return изменения и токен для следующего запроса
+     */
+    SyncDTO sync(Long since);
+
+    /**
+     * Удаляет отметки об удалении старше срока их хранения.
+     *
+     * @return число удалённых отметок
+     */
+    int purgeTombstones();
+}
@@ -25,6 +25,15 @@ public interface UserService {
      */
     UserDTO getCurrentUser();
 
+    /**
+     * Возвращает идентификатор текущего аутентифицированного пользователя
+     * из принципала без обращения к базе данных.
+     *
+     * @return идентификатор текущего пользователя
+     * @throws IllegalStateException если пользователь не аутентифицирован
+     */
+    Long getCurrentUserId();
+
     /**
      * Возвращает сущность текущего аутентифицированного пользователя.
      *
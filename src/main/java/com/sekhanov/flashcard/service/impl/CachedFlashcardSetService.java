@@ -0,0 +1,109 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.CreateFlashcardSetDTO;
+import com.sekhanov.flashcard.dto.CursorPageDTO;
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.service.FlashcardSetService;
+import com.sekhanov.flashcard.service.LastSeenFlashcardSetService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Кэширующая обёртка над {@link FlashcardSetServiceImpl}: отдельный набор по ID и по названию
+ * читается через {@link FlashcardSetDtoCache}, остальные операции передаются без изменений.
+ * <p>
+ * Просмотр набора отмечается при каждом запросе по ID, в том числе когда набор взят из кэша.
+ * Кэш сбрасывается событиями {@code FlashcardSetChangedEvent}, которые публикуют изменяющие операции.
+ * </p>
+ */
+@Slf4j
+@Primary
+@Service
+@RequiredArgsConstructor
+public class CachedFlashcardSetService implements FlashcardSetService {
+
+    private final FlashcardSetServiceImpl delegate;
+    private final FlashcardSetDtoCache flashcardSetDtoCache;
+    private final FlashcardSetRepository flashcardSetRepository;
+    private final LastSeenFlashcardSetService lastSeenFlashcardSetService;
+
+    @Override
+    public FlashcardSetDTO createFlashcardSet(CreateFlashcardSetDTO createFlashcardSetDTO) {
+        return delegate.createFlashcardSet(createFlashcardSetDTO);
+    }
+
+    @Override
+    public Optional<FlashcardSetDTO> getFlashcardSetById(Long id) {
+        Optional<FlashcardSetDTO> result = findFlashcardSetById(id);
+        result.ifPresent(lastSeenFlashcardSetService::saveLastSeenSet);
+        return result;
+    }
+
+    @Override
+    public Optional<FlashcardSetDTO> findFlashcardSetById(Long id) {
+        return flashcardSetDtoCache.get(id, delegate::findFlashcardSetById);
+    }
+
+    @Override
+    public Optional<Long> getFlashcardSetVersion(Long id) {
+        return delegate.getFlashcardSetVersion(id);
+    }
+
+    @Override
+    public Optional<FlashcardSetDTO> getFlashcardSetSummary(Long id) {
+        return delegate.getFlashcardSetSummary(id);
+    }
+
+    @Override
+    public Optional<FlashcardSetDTO> getFlashcardSetByName(String name) {
+        // название ищется по индексу, а сам набор берётся из кэша по ID
+        Optional<Long> id = flashcardSetRepository.findIdsByName(name, Limit.of(1)).stream().findFirst();
+        if (id.isEmpty()) {
+            log.warn("Набор карточек с именем '{}' не найден", name);
+            return Optional.empty();
+        }
+        return findFlashcardSetById(id.get());
+    }
+
+    @Override
+    public CursorPageDTO<FlashcardSetDTO> getFlashcardSetPage(Long after, int limit, boolean summary) {
+        return delegate.getFlashcardSetPage(after, limit, summary);
+    }
+
+    @Override
+    public void streamFlashcardSetSummaries(Consumer<FlashcardSetDTO> consumer) {
+        delegate.streamFlashcardSetSummaries(consumer);
+    }
+
+    @Override
+    public Optional<FlashcardSetDTO> updateFlashcardSet(Long id, CreateFlashcardSetDTO updateDTO) {
+        return delegate.updateFlashcardSet(id, updateDTO);
+    }
+
+    @Override
+    public boolean deleteFlashcardSet(Long id) {
+        return delegate.deleteFlashcardSet(id);
+    }
+
+    @Override
+    public boolean addFlashcardSetToUser(Long userId, Long wordListId) {
+        return delegate.addFlashcardSetToUser(userId, wordListId);
+    }
+
+    @Override
+    public boolean removeFlashcardSetFromUser(Long userId, Long wordListId) {
+        return delegate.removeFlashcardSetFromUser(userId, wordListId);
+    }
+
+    @Override
+    public List<FlashcardSetDTO> getFlashcardSetsByOwnerId(Long ownerId) {
+        return delegate.getFlashcardSetsByOwnerId(ownerId);
+    }
+}
@@ -0,0 +1,181 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.ImportStatusDTO;
+import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.event.CardTermsChangedEvent;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import com.sekhanov.flashcard.repository.CardsRepository;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.CardRow;
+import com.sekhanov.flashcard.service.CardImportService;
+import com.sekhanov.flashcard.service.FlashcardSetService;
+import com.sekhanov.flashcard.service.UserService;
+import com.sekhanov.flashcard.utils.DelimitedCardReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Реализация {@link CardImportService}.
+ * <p>
+ * Файл разбирается потоково через {@link DelimitedCardReader}, карточки копятся в буфере
+ * на {@value #IMPORT_CHUNK} строк и записываются JDBC-пакетом, после чего буфер очищается.
+ * Поэтому память не зависит от размера файла. Прогресс публикуется в {@link ImportProgressRegistry}
+ * после каждого пакета.
+ * </p>
+ * <p>
+ * Набор и каждый пакет карточек коммитятся отдельными короткими транзакциями, а файл читается
+ * вне транзакций. Длина пишущей транзакции не зависит от размера файла и скорости клиента:
+ * дельта-синхронизация ищет изменения по времени записи с запасом {@code app.sync.overlap}
+ * и пропустила бы карточки транзакции, которая длится дольше этого запаса.
+ * </p>
+ * <p>
+ * Записи, где меньше двух полей, пустой термин или значение длиннее {@value #MAX_TEXT_LENGTH}
+ * символов, пропускаются и учитываются в {@code rowsSkipped}. Повреждённый файл прерывает импорт,
+ * и уже записанный набор удаляется через {@link FlashcardSetService#deleteFlashcardSet(Long)},
+ * чтобы клиенты, успевшие его синхронизировать, получили отметку об удалении.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardImportServiceImpl implements CardImportService {
+
+    /** Сколько карточек записывается одним JDBC-пакетом. */
+    static final int IMPORT_CHUNK = 1000;
+    /** Длина столбцов {@code cards.term} и {@code cards.definition}. */
+    static final int MAX_TEXT_LENGTH = 255;
+
+    private final FlashcardSetRepository flashcardSetRepository;
+    private final CardsRepository cardsRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final FlashcardSetService flashcardSetService;
+    private final ImportProgressRegistry progressRegistry;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public ImportStatusDTO importFlashcardSet(String importId, String name, String description, String format,
+                                              boolean skipHeader, InputStream body) {
+        DelimitedCardReader.Format parsedFormat = DelimitedCardReader.Format.of(format);
+        Long userId = userService.getCurrentUserId();
+        String id = importId == null || importId.isBlank() ? UUID.randomUUID().toString() : importId;
+        ImportProgressRegistry.ImportProgress progress = progressRegistry.start(id, userId);
+        log.info("Начат импорт id={} формата {} для пользователя id={}", id, parsedFormat, userId);
+
+        try (DelimitedCardReader reader = new DelimitedCardReader(new InputStreamReader(body, StandardCharsets.UTF_8), parsedFormat)) {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            Long flashcardSetId = transaction.execute(status -> createFlashcardSet(userId, name, description));
+            progress.setFlashcardSetId(flashcardSetId);
+            try {
+                importCards(flashcardSetId, skipHeader, reader, progress, transaction);
+            } catch (RuntimeException e) {
+                discard(flashcardSetId);
+                throw e;
+            }
+            transaction.executeWithoutResult(status -> {
+                eventPublisher.publishEvent(new FlashcardSetChangedEvent(flashcardSetId));
+                // термины не копятся в памяти ради подсказок: индекс пользователя перестроится из БД
+                eventPublisher.publishEvent(CardTermsChangedEvent.rebuild(userId));
+            });
+            progress.complete();
+            log.info("Импорт id={} завершён: карточек={}, пропущено строк={}", id,
+                    progress.toDTO().getCardsImported(), progress.toDTO().getRowsSkipped());
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            log.warn("Импорт id={} прерван: {}", id, e.getMessage());
+            progress.fail(e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Импорт id={} завершился ошибкой", id, e);
+            progress.fail("Не удалось сохранить карточки");
+        }
+        return progress.toDTO();
+    }
+
+    @Override
+    public Optional<ImportStatusDTO> getImportStatus(String importId) {
+        return progressRegistry.find(importId, userService.getCurrentUserId());
+    }
+
+    private Long createFlashcardSet(Long userId, String name, String description) {
+        FlashcardSet flashcardSet = new FlashcardSet();
+        flashcardSet.setName(name);
+        flashcardSet.setDescription(description);
+        flashcardSet.setOwner(userRepository.getReferenceById(userId));
+        // карточки вставляются через JDBC, поэтому набор должен попасть в БД раньше них
+        Long flashcardSetId = flashcardSetRepository.saveAndFlush(flashcardSet).getId();
+        flashcardSetRepository.linkUser(userId, flashcardSetId);
+        return flashcardSetId;
+    }
+
+    private void importCards(Long flashcardSetId, boolean skipHeader, DelimitedCardReader reader,
+                             ImportProgressRegistry.ImportProgress progress, TransactionTemplate transaction) {
+        List<CardRow> chunk = new ArrayList<>(IMPORT_CHUNK);
+        try {
+            if (skipHeader) {
+                reader.next();
+            }
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (!isImportable(record)) {
+                    progress.addSkipped();
+                    continue;
+                }
+                chunk.add(new CardRow(null, flashcardSetId, record.get(0).trim(), record.get(1).trim()));
+                if (chunk.size() == IMPORT_CHUNK) {
+                    writeChunk(flashcardSetId, chunk, progress, transaction);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения файла импорта", e);
+        }
+        writeChunk(flashcardSetId, chunk, progress, transaction);
+    }
+
+    private void writeChunk(Long flashcardSetId, List<CardRow> chunk, ImportProgressRegistry.ImportProgress progress,
+                            TransactionTemplate transaction) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int size = chunk.size();
+        transaction.executeWithoutResult(status -> {
+            cardsRepository.insertAll(chunk);
+            flashcardSetRepository.adjustCardCount(flashcardSetId, size);
+        });
+        chunk.clear();
+        progress.addImported(size);
+    }
+
+    /**
+     * Удаляет набор прерванного импорта вместе с уже закоммиченными пакетами карточек.
+     */
+    private void discard(Long flashcardSetId) {
+        try {
+            flashcardSetService.deleteFlashcardSet(flashcardSetId);
+        } catch (RuntimeException e) {
+            log.error("Не удалось удалить набор id={} прерванного импорта", flashcardSetId, e);
+        }
+    }
+
+    private static boolean isImportable(List<String> record) {
+        if (record.size() < 2) {
+            return false;
+        }
+        String term = record.get(0).trim();
+        String definition = record.get(1).trim();
+        return !term.isEmpty() && term.length() <= MAX_TEXT_LENGTH && definition.length() <= MAX_TEXT_LENGTH;
+    }
+}
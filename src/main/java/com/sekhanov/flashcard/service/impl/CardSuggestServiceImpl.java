@@ -0,0 +1,32 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.repository.CardsRepository;
+import com.sekhanov.flashcard.service.CardSuggestService;
+import com.sekhanov.flashcard.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import java.util.List;
+
+/**
+ * Реализация {@link CardSuggestService} поверх {@link TermSuggestIndex}.
+ * БД читается только при построении индекса пользователя; дальше подсказки отдаются из памяти.
+ */
+@Service
+@RequiredArgsConstructor
+public class CardSuggestServiceImpl implements CardSuggestService {
+
+    static final int MAX_SUGGESTIONS = 20;
+
+    private final TermSuggestIndex termSuggestIndex;
+    private final CardsRepository cardsRepository;
+    private final UserService userService;
+
+    @Override
+    public List<String> suggestTerms(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return termSuggestIndex.suggest(userService.getCurrentUserId(), prefix, size, cardsRepository::findTermsByOwnerId);
+    }
+}
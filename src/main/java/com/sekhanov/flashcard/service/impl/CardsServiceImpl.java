@@ -2,18 +2,34 @@ package com.sekhanov.flashcard.service.impl;
 
 import com.sekhanov.flashcard.dto.CreateCardsDTO;
 import com.sekhanov.flashcard.dto.CardsDTO;
+import com.sekhanov.flashcard.dto.CursorPageDTO;
 import com.sekhanov.flashcard.entity.Cards;
 import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.SyncTombstone;
+import com.sekhanov.flashcard.event.CardTermsChangedEvent;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
 import com.sekhanov.flashcard.repository.CardsRepository;
 import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.SyncTombstoneRepository;
+import com.sekhanov.flashcard.repository.projection.CardRow;
 import com.sekhanov.flashcard.service.CardsService;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * <p>
@@ -25,18 +41,31 @@ import java.util.stream.Collectors;
  * <ul>
  *     <li>Создание нового слова и его привязка к списку слов</li>
  *     <li>Получение слова по ID</li>
- *     <li>Получение всех слов, принадлежащих конкретному списку</li>
+ *     <li>Постраничное и потоковое получение слов конкретного списка</li>
  *     <li>Обновление содержимого слова</li>
  *     <li>Удаление слова</li>
+ *     <li>Пакетные создание, обновление и удаление слов в одной транзакции</li>
  * </ul>
+ *
+ * <p>
+ * Число карточек набора ({@code card_count}) изменяется атомарным {@code UPDATE} в той же транзакции,
+ * что и сама карточка; после коммита публикуется {@link FlashcardSetChangedEvent}.
+ * Изменения терминов публикуются как {@link CardTermsChangedEvent} для индекса подсказок.
+ * Удалённые карточки отмечаются {@link SyncTombstone}, чтобы офлайн-клиенты удалили их при синхронизации.
+ * </p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CardsServiceImpl implements CardsService {
 
+    /** Верхняя граница размера страницы при keyset-пагинации. */
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final CardsRepository cardsRepository;
     private final FlashcardSetRepository flashcardSetRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -53,6 +82,10 @@ public class CardsServiceImpl implements CardsService {
         entry.setDefinition(entryDTO.getDefinition());
         entry.setFlashcardSet(flashcardSet);
         entry = cardsRepository.save(entry);
+        flashcardSetRepository.adjustCardCount(wordListId, 1);
+        eventPublisher.publishEvent(new FlashcardSetChangedEvent(wordListId));
+        String term = entry.getTerm();
+        publishTermsChanged(flashcardSet, ownerId -> CardTermsChangedEvent.added(ownerId, List.of(term)));
         log.info("Создана карточка id={} для набора id={}", entry.getId(), wordListId);
 
         return toDTO(entry);
@@ -71,14 +104,27 @@ public class CardsServiceImpl implements CardsService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<CardsDTO> getAllCardsForFlashcardSet(Long wordListId) {
-        log.debug("Получение всех карточек для набора id={}", wordListId);
-        List<CardsDTO> cards = cardsRepository.findByFlashcardSetId(wordListId)
-                .stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<CardsDTO> getCardsPage(Long wordListId, Long after, int limit) {
+        log.debug("Получение страницы карточек для набора id={} после id={}", wordListId, after);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // запрашиваем на одну строку больше, чтобы узнать, есть ли следующая страница
+        List<CardRow> rows = cardsRepository.findRowsByFlashcardSetIdAfter(
+                wordListId, after == null ? 0L : after, Limit.of(pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        List<CardsDTO> cards = rows.stream().map(this::toDTO).toList();
+        Long nextCursor = hasNext ? rows.get(rows.size() - 1).id() : null;
         log.info("Найдено {} карточек для набора id={}", cards.size(), wordListId);
-        return cards;
+        return new CursorPageDTO<>(cards, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamCardsForFlashcardSet(Long wordListId, Consumer<CardsDTO> consumer) {
+        log.debug("Потоковая выгрузка карточек набора id={}", wordListId);
+        cardsRepository.streamByFlashcardSetId(wordListId, row -> consumer.accept(toDTO(row)));
     }
 
     @Override
@@ -88,9 +134,17 @@ public class CardsServiceImpl implements CardsService {
         Optional<Cards> optionalEntry = cardsRepository.findById(id);
         if (optionalEntry.isPresent()) {
             Cards entry = optionalEntry.get();
+            String oldTerm = entry.getTerm();
             entry.setTerm(entryDTO.getTerm());
             entry.setDefinition(entryDTO.getDefinition());
             entry = cardsRepository.save(entry);
+            flashcardSetRepository.touch(entry.getFlashcardSet().getId());
+            eventPublisher.publishEvent(new FlashcardSetChangedEvent(entry.getFlashcardSet().getId()));
+            if (!Objects.equals(oldTerm, entry.getTerm())) {
+                String newTerm = entry.getTerm();
+                publishTermsChanged(entry.getFlashcardSet(),
+                        ownerId -> CardTermsChangedEvent.replaced(ownerId, List.of(oldTerm), List.of(newTerm)));
+            }
             log.info("Карточка id={} успешно обновлена", id);
             return Optional.of(toDTO(entry));
         }
@@ -102,8 +156,15 @@ public class CardsServiceImpl implements CardsService {
     @Transactional
     public boolean deleteCards(Long id) {
         log.debug("Удаление карточки id={}", id);
-        if (cardsRepository.existsById(id)) {
-            cardsRepository.deleteById(id);
+        Optional<Cards> entry = cardsRepository.findById(id);
+        if (entry.isPresent()) {
+            Long flashcardSetId = entry.get().getFlashcardSet().getId();
+            cardsRepository.delete(entry.get());
+            syncTombstoneRepository.save(SyncTombstone.ofCard(flashcardSetId, id));
+            flashcardSetRepository.adjustCardCount(flashcardSetId, -1);
+            eventPublisher.publishEvent(new FlashcardSetChangedEvent(flashcardSetId));
+            String term = entry.get().getTerm();
+            publishTermsChanged(entry.get().getFlashcardSet(), ownerId -> CardTermsChangedEvent.removed(ownerId, List.of(term)));
             log.info("Карточка id={} удалена", id);
             return true;
         }
@@ -111,7 +172,108 @@ public class CardsServiceImpl implements CardsService {
         return false;
     }
 
+    @Override
+    @Transactional
+    public List<CardsDTO> createCardsBatch(Long wordListId, List<CreateCardsDTO> entries) {
+        log.debug("Пакетное создание {} карточек для набора id={}", entries.size(), wordListId);
+        if (!flashcardSetRepository.existsById(wordListId)) {
+            log.warn("Набор карточек id={} не найден", wordListId);
+            throw new EntityNotFoundException("Список слов с id " + wordListId + " не найден");
+        }
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        // ссылка без загрузки набора: для вставки нужен только внешний ключ
+        FlashcardSet flashcardSet = flashcardSetRepository.getReferenceById(wordListId);
+        List<Cards> cards = entries.stream()
+                .map(dto -> {
+                    Cards card = new Cards();
+                    card.setTerm(dto.getTerm());
+                    card.setDefinition(dto.getDefinition());
+                    card.setFlashcardSet(flashcardSet);
+                    return card;
+                })
+                .toList();
+        List<Cards> saved = cardsRepository.saveAll(cards);
+        flashcardSetRepository.adjustCardCount(wordListId, saved.size());
+        eventPublisher.publishEvent(new FlashcardSetChangedEvent(wordListId));
+        List<String> terms = saved.stream().map(Cards::getTerm).toList();
+        publishTermsChanged(flashcardSet, ownerId -> CardTermsChangedEvent.added(ownerId, terms));
+        log.info("Создано {} карточек для набора id={}", saved.size(), wordListId);
+        return saved.stream().map(this::toDTO).toList();
+    }
+
+    @Override
+    @Transactional
+    public List<CardsDTO> updateCardsBatch(Long wordListId, List<CardsDTO> entries) {
+        log.debug("Пакетное обновление {} карточек набора id={}", entries.size(), wordListId);
+        // при повторе id побеждает последнее значение
+        Map<Long, CardsDTO> byId = new LinkedHashMap<>();
+        entries.forEach(dto -> byId.put(dto.getId(), dto));
+        if (byId.isEmpty()) {
+            return List.of();
+        }
+        List<Cards> cards = cardsRepository.findByFlashcardSetIdAndIdIn(wordListId, byId.keySet());
+        if (cards.size() != byId.size()) {
+            log.warn("Не все карточки из пакета найдены в наборе id={}: найдено {} из {}", wordListId, cards.size(), byId.size());
+            throw new EntityNotFoundException("Не все слова найдены в списке с id " + wordListId);
+        }
+        List<String> oldTerms = new ArrayList<>();
+        List<String> newTerms = new ArrayList<>();
+        for (Cards card : cards) {
+            CardsDTO dto = byId.get(card.getId());
+            if (!Objects.equals(card.getTerm(), dto.getTerm())) {
+                oldTerms.add(card.getTerm());
+                newTerms.add(dto.getTerm());
+            }
+            card.setTerm(dto.getTerm());
+            card.setDefinition(dto.getDefinition());
+        }
+        // изменения сбрасываются при коммите пакетными UPDATE
+        flashcardSetRepository.touch(wordListId);
+        eventPublisher.publishEvent(new FlashcardSetChangedEvent(wordListId));
+        if (!newTerms.isEmpty()) {
+            publishTermsChanged(cards.get(0).getFlashcardSet(), ownerId -> CardTermsChangedEvent.replaced(ownerId, oldTerms, newTerms));
+        }
+        log.info("Обновлено {} карточек набора id={}", cards.size(), wordListId);
+        return cards.stream().map(this::toDTO).toList();
+    }
+
+    @Override
+    @Transactional
+    public int deleteCardsBatch(Long wordListId, List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        log.debug("Пакетное удаление {} карточек набора id={}", uniqueIds.size(), wordListId);
+        if (uniqueIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = cardsRepository.deleteByFlashcardSetIdAndIdIn(wordListId, uniqueIds);
+        if (deleted != uniqueIds.size()) {
+            // исключение откатывает транзакцию вместе с уже удалёнными строками
+            log.warn("Не все карточки из пакета найдены в наборе id={}: удалено {} из {}", wordListId, deleted, uniqueIds.size());
+            throw new EntityNotFoundException("Не все слова найдены в списке с id " + wordListId);
+        }
+        syncTombstoneRepository.saveAll(uniqueIds.stream().map(id -> SyncTombstone.ofCard(wordListId, id)).toList());
+        flashcardSetRepository.adjustCardCount(wordListId, -deleted);
+        eventPublisher.publishEvent(new FlashcardSetChangedEvent(wordListId));
+        // удалённые термины неизвестны без лишнего запроса, поэтому индекс подсказок строится заново
+        publishTermsChanged(flashcardSetRepository.getReferenceById(wordListId), CardTermsChangedEvent::rebuild);
+        log.info("Удалено {} карточек набора id={}", deleted, wordListId);
+        return deleted;
+    }
+
+    /** Сообщает индексу подсказок об изменении терминов, если у набора есть владелец. */
+    private void publishTermsChanged(FlashcardSet flashcardSet, Function<Long, CardTermsChangedEvent> event) {
+        if (flashcardSet.getOwner() != null) {
+            eventPublisher.publishEvent(event.apply(flashcardSet.getOwner().getId()));
+        }
+    }
+
     private CardsDTO toDTO(Cards entry) {
         return new CardsDTO(entry.getId(), entry.getTerm(), entry.getDefinition());
     }
+
+    private CardsDTO toDTO(CardRow row) {
+        return new CardsDTO(row.id(), row.term(), row.definition());
+    }
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package com.sekhanov.flashcard.service.impl;
 
-import com.sekhanov.flashcard.entity.User;
 import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.MailRecipient;
 import com.sekhanov.flashcard.service.DailyEmailService;
 import com.sekhanov.flashcard.service.MailService;
 import jakarta.mail.MessagingException;
@@ -28,19 +28,19 @@ public class DailyEmailServiceImpl implements DailyEmailService {
     @Scheduled(cron = "0 0 9 31 12 ?")
     public void sendDailyEmails() {
         log.info("Запуск рассылки писем подтверждённым пользователям.");
-        List<User> confirmedUsers = userRepository.findAllByIsEmailConfirmedTrue();
+        List<MailRecipient> confirmedUsers = userRepository.findRecipientsByIsEmailConfirmedTrue();
         log.debug("Найдено {} подтверждённых пользователей для рассылки.", confirmedUsers.size());
 
-        for (User user : confirmedUsers) {
+        for (MailRecipient user : confirmedUsers) {
             String message = String.format(
                     "Привет, %s! Поздравляем с наступающим новым годом! От Flashcard App.",
-                    user.getName()
+                    user.name()
             );
             try {
-                mailService.sendMail(user.getEmail(), "Новогоднее поздравление", message);
-                log.info("Письмо успешно отправлено пользователю с email={}", user.getEmail());
+                mailService.sendMail(user.email(), "Новогоднее поздравление", message);
+                log.info("Письмо успешно отправлено пользователю с email={}", user.email());
             } catch (MessagingException e) {
-                log.error("Ошибка при отправке письма пользователю с email={}: {}", user.getEmail(), e.getMessage());
+                log.error("Ошибка при отправке письма пользователю с email={}: {}", user.email(), e.getMessage());
             }
         }
         log.info("Рассылка завершена. Отправлено писем: {}", confirmedUsers.size());
@@ -0,0 +1,201 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sekhanov.flashcard.dto.CardsDTO;
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.service.FlashcardSetSecondLevelCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Двухуровневый кэш готовых {@link FlashcardSetDTO} по идентификатору набора.
+ * <p>
+ * Первый уровень — ограниченный по размеру кэш в памяти с вытеснением редко используемых записей
+ * ({@code app.flashcard-set-cache.max-size}, {@code app.flashcard-set-cache.ttl}). Статистика публикуется
+ * в Micrometer под именем кэша {@code flashcardSets}. Второй уровень — необязательный бин
+ * {@link FlashcardSetSecondLevelCache}.
+ * </p>
+ * <p>
+ * Запись помечена версией набора. При каждом чтении текущая версия берётся по первичному ключу, и запись
+ * отдаётся только если она не старше, поэтому изменение на другом экземпляре приложения или событие,
+ * пришедшее во время загрузки, не приводят к выдаче прежней версии. После коммита
+ * {@link FlashcardSetChangedEvent} запись первого уровня удаляется, чтобы не занимать место.
+ * </p>
+ * <p>
+ * Загрузка одного ключа выполняется один раз: в кэш кладётся незавершённый {@link CompletableFuture},
+ * одновременные запросы того же набора ждут его, а сама загрузка идёт в потоке запроса вне блокировок
+ * кэша. Кэш хранит собственную копию DTO и на каждый запрос отдаёт новую копию, так что вызывающий код
+ * может изменять полученный объект.
+ * </p>
+ */
+@Slf4j
+@Component
+public class FlashcardSetDtoCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "flashcardSets";
+
+    private final AsyncCache<Long, VersionedSet> cache;
+    private final FlashcardSetRepository flashcardSetRepository;
+    private final FlashcardSetSecondLevelCache secondLevel;
+
+    public FlashcardSetDtoCache(@Value("${app.flashcard-set-cache.max-size:10000}") long maxSize,
+                                @Value("${app.flashcard-set-cache.ttl:10m}") Duration ttl,
+                                FlashcardSetRepository flashcardSetRepository,
+                                ObjectProvider<FlashcardSetSecondLevelCache> secondLevel) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.flashcardSetRepository = flashcardSetRepository;
+        this.secondLevel = secondLevel.getIfAvailable();
+        log.info("Кэш наборов карточек инициализирован: maxSize={}, ttl={}, второй уровень={}",
+                maxSize, ttl, this.secondLevel == null ? "нет" : this.secondLevel.getClass().getSimpleName());
+    }
+
+    /**
+     * Возвращает копию набора текущей версии, при промахе загружая его один раз на все одновременные запросы.
+     * Отсутствующий набор не кэшируется.
+     *
+     * @param id     идентификатор набора
+     * @param loader загрузка набора из БД
+     * @return DTO набора или пустой Optional, если набора нет
+     */
+    public Optional<FlashcardSetDTO> get(Long id, Function<Long, Optional<FlashcardSetDTO>> loader) {
+        Optional<Long> version = flashcardSetRepository.findVersionById(id);
+        if (version.isEmpty()) {
+            cache.synchronous().invalidate(id);
+            return Optional.empty();
+        }
+        long current = version.get();
+        CompletableFuture<VersionedSet> created = new CompletableFuture<>();
+        CompletableFuture<VersionedSet> cached = cache.get(id, (key, executor) -> created);
+        if (cached != created && isOlder(cached, current) && cache.asMap().replace(id, cached, created)) {
+            cached = created;
+        }
+        if (cached == created) {
+            return fill(id, current, loader, created).map(VersionedSet::copy);
+        }
+        VersionedSet set = join(cached);
+        if (set == null || set.version() < current) {
+            // другой запрос загружал набор до последнего изменения: читаем мимо кэша
+            return load(id, current, loader).map(VersionedSet::copy);
+        }
+        return Optional.of(set.copy());
+    }
+
+    /**
+     * Удаляет изменённый или удалённый набор из первого уровня после коммита транзакции.
+     *
+     * @param event событие изменения набора
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFlashcardSetChanged(FlashcardSetChangedEvent event) {
+        cache.synchronous().invalidate(event.flashcardSetId());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private Optional<VersionedSet> fill(Long id, long version, Function<Long, Optional<FlashcardSetDTO>> loader,
+                                        CompletableFuture<VersionedSet> created) {
+        try {
+            Optional<VersionedSet> set = load(id, version, loader);
+            if (set.isEmpty()) {
+                cache.asMap().remove(id, created);
+            }
+            created.complete(set.orElse(null));
+            return set;
+        } catch (RuntimeException e) {
+            // следующий запрос повторит загрузку, ожидающие получат ту же ошибку
+            cache.asMap().remove(id, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Optional<VersionedSet> load(Long id, long version, Function<Long, Optional<FlashcardSetDTO>> loader) {
+        if (secondLevel != null) {
+            try {
+                Optional<FlashcardSetDTO> shared = secondLevel.get(id, version);
+                if (shared.isPresent()) {
+                    log.debug("Набор id={} версии {} взят из второго уровня кэша", id, version);
+                    return shared.map(dto -> VersionedSet.of(dto, version));
+                }
+            } catch (RuntimeException e) {
+                // недоступность общего кэша не должна ломать чтение
+                log.warn("Ошибка чтения второго уровня кэша для набора id={}: {}", id, e.getMessage());
+            }
+        }
+        Optional<FlashcardSetDTO> dto = loader.apply(id);
+        if (secondLevel != null && dto.isPresent() && dto.get().getVersion() != null) {
+            try {
+                secondLevel.put(dto.get());
+            } catch (RuntimeException e) {
+                log.warn("Ошибка записи во второй уровень кэша для набора id={}: {}", id, e.getMessage());
+            }
+        }
+        return dto.map(set -> VersionedSet.of(set, set.getVersion() != null ? set.getVersion() : version));
+    }
+
+    private static boolean isOlder(CompletableFuture<VersionedSet> future, long version) {
+        if (!future.isDone() || future.isCompletedExceptionally()) {
+            return false;
+        }
+        VersionedSet set = future.join();
+        return set != null && set.version() < version;
+    }
+
+    private static VersionedSet join(CompletableFuture<VersionedSet> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Закэшированный набор одной версии. Хранимый DTO наружу не отдаётся, только его копии.
+     */
+    private record VersionedSet(long version, FlashcardSetDTO dto) {
+
+        static VersionedSet of(FlashcardSetDTO dto, long version) {
+            return new VersionedSet(version, deepCopy(dto));
+        }
+
+        FlashcardSetDTO copy() {
+            return deepCopy(dto);
+        }
+
+        private static FlashcardSetDTO deepCopy(FlashcardSetDTO dto) {
+            List<CardsDTO> cards = null;
+            if (dto.getCards() != null) {
+                cards = new ArrayList<>(dto.getCards().size());
+                for (CardsDTO card : dto.getCards()) {
+                    cards.add(new CardsDTO(card.getId(), card.getTerm(), card.getDefinition()));
+                }
+            }
+            return new FlashcardSetDTO(dto.getId(), dto.getName(), dto.getDescription(), cards,
+                    dto.getOwnerName(), dto.getCardsCount(), dto.getVersion(), dto.getShared(), null);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.projection.ExportCardRow;
+import com.sekhanov.flashcard.service.FlashcardSetExportService;
+import com.sekhanov.flashcard.service.UserService;
+import com.sekhanov.flashcard.utils.FlashcardSetExportWriter;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Реализация {@link FlashcardSetExportService}.
+ * <p>
+ * Строки читаются серверным курсором, поэтому методы выполняются в транзакции только для чтения:
+ * без неё драйвер PostgreSQL игнорирует fetch size и вычитывает весь результат сразу.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlashcardSetExportServiceImpl implements FlashcardSetExportService {
+
+    private final FlashcardSetRepository flashcardSetRepository;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportFlashcardSet(Long flashcardSetId, FlashcardSetExportWriter.Format format, OutputStream out) throws IOException {
+        if (!flashcardSetRepository.existsById(flashcardSetId)) {
+            throw new EntityNotFoundException("Список слов с id " + flashcardSetId + " не найден");
+        }
+        log.debug("Выгрузка набора карточек id={} в формате {}", flashcardSetId, format);
+        try (FlashcardSetExportWriter writer = new FlashcardSetExportWriter(out, format, false, objectMapper.getFactory())) {
+            flashcardSetRepository.streamExportRows(flashcardSetId, writeTo(writer));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCurrentUserFlashcardSets(FlashcardSetExportWriter.Format format, OutputStream out) throws IOException {
+        Long userId = userService.getCurrentUserId();
+        log.info("Выгрузка всех наборов карточек пользователя id={} в формате {}", userId, format);
+        try (FlashcardSetExportWriter writer = new FlashcardSetExportWriter(out, format, true, objectMapper.getFactory())) {
+            flashcardSetRepository.streamExportRowsByUserId(userId, writeTo(writer));
+        }
+    }
+
+    private static Consumer<ExportCardRow> writeTo(FlashcardSetExportWriter writer) {
+        return row -> {
+            try {
+                writer.write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -3,17 +3,34 @@ package com.sekhanov.flashcard.service.impl;
 import com.sekhanov.flashcard.dto.*;
 import com.sekhanov.flashcard.entity.Cards;
 import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.SyncTombstone;
 import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.event.CardTermsChangedEvent;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import com.sekhanov.flashcard.repository.CardsRepository;
 import com.sekhanov.flashcard.repository.UserRepository;
 import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.SyncTombstoneRepository;
+import com.sekhanov.flashcard.repository.projection.CardRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetSummaryRow;
 import com.sekhanov.flashcard.service.FlashcardSetService;
 import com.sekhanov.flashcard.service.LastSeenFlashcardSetService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -25,21 +42,34 @@ import java.util.Optional;
  * <ul>
  *     <li>Создание нового списка слов с привязкой к пользователю</li>
  *     <li>Поиск списка по ID или имени</li>
- *     <li>Получение всех списков слов</li>
- *     <li>Обновление списка слов (включая полную замену списка слов)</li>
+ *     <li>Постраничное и потоковое получение списков слов</li>
+ *     <li>Обновление списка слов с объединением карточек по ID</li>
  *     <li>Удаление списка слов</li>
  *     <li>Добавление списка слов к пользователю</li>
  *     <li>Удаление списка слов у пользователя</li>
  * </ul>
+ *
+ * <p>
+ * Удаления наборов и карточек и отвязка набора от пользователя отмечаются {@link SyncTombstone}
+ * для дельта-синхронизации офлайн-клиентов.
+ * </p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FlashcardSetServiceImpl implements FlashcardSetService {
 
+    /** Максимальное число идентификаторов в одном IN-запросе за карточками. */
+    private static final int CARD_FETCH_CHUNK = 1000;
+    /** Верхняя граница размера страницы при keyset-пагинации. */
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final FlashcardSetRepository flashcardSetRepository;
+    private final CardsRepository cardsRepository;
     private final UserRepository userRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
     private final LastSeenFlashcardSetService lastSeenFlashcardSetService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private List<Cards> mapCards(List<CreateCardsDTO> cardDTOs, FlashcardSet flashcardSet) {
         return cardDTOs.stream()
@@ -73,26 +103,58 @@ public class FlashcardSetServiceImpl implements FlashcardSetService {
         if (dto.getCards() != null && !dto.getCards().isEmpty()) {
             flashcardSet.getCards().addAll(mapCards(dto.getCards(), flashcardSet));
         }
+        flashcardSet.setCardCount(flashcardSet.getCards().size());
 
         FlashcardSet saved = flashcardSetRepository.save(flashcardSet);
-        lastSeenFlashcardSetService.saveLastSeenSet(saved.getId());
+        if (!saved.getCards().isEmpty()) {
+            List<String> terms = saved.getCards().stream().map(Cards::getTerm).toList();
+            eventPublisher.publishEvent(CardTermsChangedEvent.added(owner.getId(), terms));
+        }
+        FlashcardSetDTO result = toDTO(saved);
+        lastSeenFlashcardSetService.saveLastSeenSet(result);
         log.info("Создан набор карточек id={} для пользователя id={}", saved.getId(), owner.getId());
 
-        return toDTO(saved);
+        return result;
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public Optional<FlashcardSetDTO> getFlashcardSetById(Long id) {
         log.debug("Получение набора карточек по id={}", id);
-        lastSeenFlashcardSetService.saveLastSeenSet(id);
         return flashcardSetRepository.findById(id)
                 .map(set -> {
                     log.debug("Найден набор карточек: {}", set.getName());
-                    return toDTO(set);
+                    FlashcardSetDTO dto = toDTO(set);
+                    lastSeenFlashcardSetService.saveLastSeenSet(dto);
+                    return dto;
                 });
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<FlashcardSetDTO> findFlashcardSetById(Long id) {
+        log.debug("Загрузка набора карточек id={} без записи просмотра", id);
+        return flashcardSetRepository.findById(id).map(this::toDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getFlashcardSetVersion(Long id) {
+        return flashcardSetRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<FlashcardSetDTO> getFlashcardSetSummary(Long id) {
+        return flashcardSetRepository.findHeadById(id).map(row -> {
+            FlashcardSetDTO dto = toSummaryDTO(new FlashcardSetSummaryRow(row.id(), row.name(), row.description(),
+                    row.ownerName(), row.ownerSurname(), row.cardsCount()));
+            dto.setVersion(row.version());
+            dto.setShared(row.shared());
+            return dto;
+        });
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<FlashcardSetDTO> getFlashcardSetByName(String name) {
@@ -107,10 +169,25 @@ public class FlashcardSetServiceImpl implements FlashcardSetService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<FlashcardSetDTO> getAllFlashcardSet() {
-        List<FlashcardSet> flashcardSets = flashcardSetRepository.findAll();
-        log.debug("Получено {} наборов карточек", flashcardSets.size());
-        return flashcardSets.stream().map(this::toDTO).toList();
+    public CursorPageDTO<FlashcardSetDTO> getFlashcardSetPage(Long after, int limit, boolean summary) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // запрашиваем на одну строку больше, чтобы узнать, есть ли следующая страница
+        List<FlashcardSetRow> rows = flashcardSetRepository.findRowsAfter(after == null ? 0L : after, Limit.of(pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        log.debug("Получено {} наборов карточек после id={}, summary={}", rows.size(), after, summary);
+        List<FlashcardSetDTO> items = summary ? toSummaryDTOs(rows) : toDTOs(rows);
+        Long nextCursor = hasNext ? rows.get(rows.size() - 1).id() : null;
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamFlashcardSetSummaries(Consumer<FlashcardSetDTO> consumer) {
+        log.debug("Потоковая выгрузка кратких данных наборов карточек");
+        flashcardSetRepository.streamSummaries(row -> consumer.accept(toSummaryDTO(row)));
     }
 
     @Override
@@ -122,18 +199,90 @@ public class FlashcardSetServiceImpl implements FlashcardSetService {
                     flashcardSet.setName(updateDTO.getName());
                     flashcardSet.setDescription(updateDTO.getDescription());
 
+                    CardsMergeResult merge = null;
                     if (updateDTO.getCards() != null && !updateDTO.getCards().isEmpty()) {
-                        flashcardSet.getCards().clear();
-                        flashcardSet.getCards().addAll(mapCards(updateDTO.getCards(), flashcardSet));
-                        log.trace("Набор с id={} обновился со следующим набором карточек {}", id, updateDTO.getCards());
+                        merge = mergeCards(flashcardSet, updateDTO.getCards());
+                        flashcardSet.setCardCount(flashcardSet.getCards().size());
+                        if (merge.inserted() + merge.updated() + merge.deleted() > 0) {
+                            // изменились только карточки: версия набора должна вырасти и в этом случае
+                            flashcardSet.touch();
+                        }
+                        log.info("Карточки набора id={} объединены: добавлено={}, изменено={}, удалено={}, без изменений={}",
+                                id, merge.inserted(), merge.updated(), merge.deleted(), merge.unchanged());
+                        if (flashcardSet.getOwner() != null && (!merge.addedTerms().isEmpty() || !merge.removedTerms().isEmpty())) {
+                            eventPublisher.publishEvent(new CardTermsChangedEvent(flashcardSet.getOwner().getId(),
+                                    merge.addedTerms(), merge.removedTerms(), false));
+                        }
                     }
 
                     FlashcardSet updated = flashcardSetRepository.save(flashcardSet);
+                    // версия в ответе должна совпадать с записанной
+                    flashcardSetRepository.flush();
+                    eventPublisher.publishEvent(new FlashcardSetChangedEvent(id));
                     log.info("Набор карточек id={} успешно обновлён", updated.getId());
-                    return toDTO(updated);
+                    FlashcardSetDTO dto = toDTO(updated);
+                    if (merge != null) {
+                        dto.setMerge(new CardsMergeDTO(merge.inserted(), merge.updated(), merge.deleted(), merge.unchanged()));
+                    }
+                    return dto;
                 });
     }
 
+    /**
+     * Приводит карточки набора к присланному списку, сопоставляя их по ID: совпавшие карточки
+     * изменяются на месте (только если изменились термин или определение), карточки без ID
+     * или с неизвестным ID добавляются, отсутствующие в списке удаляются через orphanRemoval.
+     * Идентификаторы сохранённых карточек не меняются, и Hibernate пишет только реальные изменения.
+     */
+    private CardsMergeResult mergeCards(FlashcardSet flashcardSet, List<CreateCardsDTO> incoming) {
+        Map<Long, Cards> existing = new HashMap<>();
+        flashcardSet.getCards().forEach(card -> existing.put(card.getId(), card));
+
+        Set<Long> kept = new HashSet<>();
+        List<CreateCardsDTO> toInsert = new ArrayList<>();
+        List<String> addedTerms = new ArrayList<>();
+        List<String> removedTerms = new ArrayList<>();
+        int updated = 0;
+        int unchanged = 0;
+        for (CreateCardsDTO dto : incoming) {
+            Cards card = dto.getId() == null ? null : existing.get(dto.getId());
+            if (card == null || !kept.add(card.getId())) {
+                toInsert.add(dto);
+                addedTerms.add(dto.getTerm());
+            } else if (Objects.equals(card.getTerm(), dto.getTerm()) && Objects.equals(card.getDefinition(), dto.getDefinition())) {
+                unchanged++;
+            } else {
+                if (!Objects.equals(card.getTerm(), dto.getTerm())) {
+                    removedTerms.add(card.getTerm());
+                    addedTerms.add(dto.getTerm());
+                }
+                card.setTerm(dto.getTerm());
+                card.setDefinition(dto.getDefinition());
+                updated++;
+            }
+        }
+        int deleted = existing.size() - kept.size();
+        if (deleted > 0) {
+            List<SyncTombstone> tombstones = new ArrayList<>(deleted);
+            flashcardSet.getCards().removeIf(card -> {
+                if (kept.contains(card.getId())) {
+                    return false;
+                }
+                removedTerms.add(card.getTerm());
+                tombstones.add(SyncTombstone.ofCard(flashcardSet.getId(), card.getId()));
+                return true;
+            });
+            syncTombstoneRepository.saveAll(tombstones);
+        }
+        flashcardSet.getCards().addAll(mapCards(toInsert, flashcardSet));
+        return new CardsMergeResult(toInsert.size(), updated, deleted, unchanged, addedTerms, removedTerms);
+    }
+
+    /** Итог объединения карточек набора; термины нужны индексу подсказок. */
+    private record CardsMergeResult(int inserted, int updated, int deleted, int unchanged,
+                                    List<String> addedTerms, List<String> removedTerms) {
+    }
+
     @Override
     @Transactional
     public boolean deleteFlashcardSet(Long id) {
@@ -143,10 +292,20 @@ public class FlashcardSetServiceImpl implements FlashcardSetService {
         }
         // Сначала убрать связи ManyToMany с пользователями
         flashcardSetRepository.findById(id).ifPresent(flashcardSet -> {
+            Set<Long> affectedUserIds = new HashSet<>();
+            flashcardSet.getUsers().forEach(user -> affectedUserIds.add(user.getId()));
+            if (flashcardSet.getOwner() != null) {
+                affectedUserIds.add(flashcardSet.getOwner().getId());
+            }
+            syncTombstoneRepository.saveAll(affectedUserIds.stream().map(userId -> SyncTombstone.ofSet(userId, id)).toList());
             flashcardSet.getUsers().forEach(user -> user.getFlashcardSets().remove(flashcardSet));
             flashcardSet.getUsers().clear();
+            if (flashcardSet.getOwner() != null) {
+                eventPublisher.publishEvent(CardTermsChangedEvent.rebuild(flashcardSet.getOwner().getId()));
+            }
         });
         flashcardSetRepository.deleteById(id);
+        eventPublisher.publishEvent(new FlashcardSetChangedEvent(id));
         log.info("Удалён набор карточек id={}", id);
         return true;
     }
@@ -197,6 +356,7 @@ public class FlashcardSetServiceImpl implements FlashcardSetService {
         if (user.getFlashcardSets().contains(flashcardSet)) {
             user.getFlashcardSets().remove(flashcardSet);
             userRepository.save(user);
+            syncTombstoneRepository.save(SyncTombstone.ofSet(userId, wordListId));
             log.info("Набор карточек id={} удалён у пользователя id={}", wordListId, userId);
         } else {
             log.debug("У пользователя id={} не найден набор карточек id={}", userId, wordListId);
@@ -208,9 +368,62 @@ public class FlashcardSetServiceImpl implements FlashcardSetService {
     @Override
     @Transactional(readOnly = true)
     public List<FlashcardSetDTO> getFlashcardSetsByOwnerId(Long ownerId) {
-        List<FlashcardSet> sets = flashcardSetRepository.findByOwnerId(ownerId);
-        log.debug("Найдено {} наборов карточек для владельца id={}", sets.size(), ownerId);
-        return sets.stream().map(this::toDTO).toList();
+        List<FlashcardSetRow> rows = flashcardSetRepository.findRowsByOwnerId(ownerId);
+        log.debug("Найдено {} наборов карточек для владельца id={}", rows.size(), ownerId);
+        return toDTOs(rows);
+    }
+
+    /**
+     * Собирает DTO списка из строк наборов и карточек, загруженных пакетными запросами
+     * по {@value #CARD_FETCH_CHUNK} наборов, без обращения к сущностям.
+     */
+    private List<FlashcardSetDTO> toDTOs(List<FlashcardSetRow> rows) {
+        Map<Long, List<CardsDTO>> cardsBySet = new HashMap<>();
+        List<Long> setIds = rows.stream().map(FlashcardSetRow::id).toList();
+        for (int from = 0; from < setIds.size(); from += CARD_FETCH_CHUNK) {
+            List<Long> chunk = setIds.subList(from, Math.min(from + CARD_FETCH_CHUNK, setIds.size()));
+            for (CardRow card : cardsRepository.findRowsByFlashcardSetIdIn(chunk)) {
+                cardsBySet.computeIfAbsent(card.flashcardSetId(), id -> new ArrayList<>())
+                        .add(new CardsDTO(card.id(), card.term(), card.definition()));
+            }
+        }
+        return rows.stream()
+                .map(row -> {
+                    FlashcardSetDTO dto = new FlashcardSetDTO();
+                    dto.setId(row.id());
+                    dto.setName(row.name());
+                    dto.setDescription(row.description());
+                    List<CardsDTO> cards = cardsBySet.getOrDefault(row.id(), List.of());
+                    dto.setCards(cards);
+                    dto.setCardsCount((long) cards.size());
+                    dto.setOwnerName(ownerName(row.ownerName(), row.ownerSurname()));
+                    return dto;
+                })
+                .toList();
+    }
+
+    /**
+     * Собирает краткие DTO без карточек: количество карточек берётся из счётчика {@code card_count} в строке набора.
+     */
+    private List<FlashcardSetDTO> toSummaryDTOs(List<FlashcardSetRow> rows) {
+        return rows.stream()
+                .map(row -> toSummaryDTO(new FlashcardSetSummaryRow(row.id(), row.name(), row.description(),
+                        row.ownerName(), row.ownerSurname(), row.cardCount())))
+                .toList();
+    }
+
+    private FlashcardSetDTO toSummaryDTO(FlashcardSetSummaryRow row) {
+        FlashcardSetDTO dto = new FlashcardSetDTO();
+        dto.setId(row.id());
+        dto.setName(row.name());
+        dto.setDescription(row.description());
+        dto.setOwnerName(ownerName(row.ownerName(), row.ownerSurname()));
+        dto.setCardsCount(row.cardsCount());
+        return dto;
+    }
+
+    private static String ownerName(String name, String surname) {
+        return name == null && surname == null ? null : name + " " + surname;
     }
 
     private FlashcardSetDTO toDTO(FlashcardSet flashcardSet) {
@@ -221,7 +434,10 @@ public class FlashcardSetServiceImpl implements FlashcardSetService {
         dto.setCards(flashcardSet.getCards().stream()
                 .map(entry -> new CardsDTO(entry.getId(), entry.getTerm(), entry.getDefinition()))
                 .toList());
+        dto.setCardsCount((long) dto.getCards().size());
         dto.setOwnerName(flashcardSet.getOwner().getName() + " " + flashcardSet.getOwner().getSurname());
+        dto.setVersion(flashcardSet.getVersion());
+        dto.setShared(flashcardSet.isShared());
         return dto;
     }
 }
@@ -0,0 +1,103 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sekhanov.flashcard.dto.ImportStatusDTO;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранящийся в памяти реестр прогресса импортов.
+ * <p>
+ * Импорт обновляет свою запись по мере записи пакетов, а параллельные запросы читают её снимок.
+ * Записи живут час после последнего обновления, поэтому реестр не растёт бесконечно.
+ * </p>
+ */
+@Component
+public class ImportProgressRegistry {
+
+    private static final Duration RETENTION = Duration.ofHours(1);
+    private static final long MAX_ENTRIES = 10_000;
+
+    private final Cache<String, ImportProgress> imports = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(RETENTION)
+            .build();
+
+    /**
+     * Регистрирует новый импорт.
+     *
+     * @param importId идентификатор импорта
+     * @param userId   владелец импорта
+     * @return прогресс нового импорта
+     * @throws IllegalArgumentException если импорт с таким идентификатором уже есть
+     */
+    public ImportProgress start(String importId, Long userId) {
+        ImportProgress progress = new ImportProgress(importId, userId);
+        if (imports.asMap().putIfAbsent(importId, progress) != null) {
+            throw new IllegalArgumentException("Импорт с id " + importId + " уже существует");
+        }
+        return progress;
+    }
+
+    /**
+     * Возвращает снимок состояния импорта, если он принадлежит пользователю.
+     *
+     * @param importId идентификатор импорта
+     * @param userId   идентификатор пользователя
+     * @return состояние импорта
+     */
+    public Optional<ImportStatusDTO> find(String importId, Long userId) {
+        return Optional.ofNullable(imports.getIfPresent(importId))
+                .filter(progress -> Objects.equals(progress.userId, userId))
+                .map(ImportProgress::toDTO);
+    }
+
+    /**
+     * Прогресс одного импорта. Пишется одним потоком, читается любыми.
+     */
+    public static final class ImportProgress {
+        private final String importId;
+        private final Long userId;
+        private final AtomicLong cardsImported = new AtomicLong();
+        private final AtomicLong rowsSkipped = new AtomicLong();
+        private volatile ImportStatusDTO.Status status = ImportStatusDTO.Status.RUNNING;
+        private volatile Long flashcardSetId;
+        private volatile String error;
+
+        private ImportProgress(String importId, Long userId) {
+            this.importId = importId;
+            this.userId = userId;
+        }
+
+        public void setFlashcardSetId(Long flashcardSetId) {
+            this.flashcardSetId = flashcardSetId;
+        }
+
+        public void addImported(long count) {
+            cardsImported.addAndGet(count);
+        }
+
+        public void addSkipped() {
+            rowsSkipped.incrementAndGet();
+        }
+
+        public void complete() {
+            status = ImportStatusDTO.Status.COMPLETED;
+        }
+
+        /** Отмечает импорт неудачным; транзакция откатана, поэтому набора больше нет. */
+        public void fail(String message) {
+            error = message;
+            flashcardSetId = null;
+            status = ImportStatusDTO.Status.FAILED;
+        }
+
+        public ImportStatusDTO toDTO() {
+            return new ImportStatusDTO(importId, status, flashcardSetId, cardsImported.get(), rowsSkipped.get(), error);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.sekhanov.flashcard.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.sekhanov.flashcard.event.UserChangedEvent;
 import com.sekhanov.flashcard.service.JwtService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
@@ -7,9 +11,18 @@ import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Реализация сервиса {@link com.sekhanov.flashcard.service.JwtService},
@@ -21,50 +34,91 @@ import java.util.Date;
  * <p>Основные возможности:</p>
  * <ul>
  *     <li>Создание JWT-токена с логином пользователя в качестве subject</li>
+ *     <li>Подписывание id, имени и фамилии пользователя для восстановления пользователя без БД</li>
  *     <li>Извлечение логина из токена</li>
  *     <li>Проверка подлинности и срока действия токена</li>
+ *     <li>Кэширование результатов разбора токена до истечения его срока действия</li>
+ *     <li>Отзыв токенов пользователя через хранящийся в памяти список отзывов</li>
  * </ul>
  */
 @Slf4j
 @Service
 public class JwtServiceImpl implements JwtService {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String NAME_CLAIM = "name";
+    private static final String SURNAME_CLAIM = "surname";
+    /** Время выпуска в миллисекундах: стандартный {@code iat} хранит только секунды. */
+    private static final String ISSUED_AT_MS_CLAIM = "iat_ms";
+
     @Value("${jwt.secret}")
     private String secret;
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize = 10_000;
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
     private Key key;
+    private JwtParser parser;
+    private Cache<String, ParsedToken> parsedTokens;
+    private Cache<Long, Instant> revocations;
     private final long expiration = Duration.ofHours(1).toMillis(); // 1 час
 
     @PostConstruct
     public void init() {
         log.debug("Инициализация JwtServiceImpl с секретом длиной {} символов", secret.length());
         key = Keys.hmacShaKeyFor(secret.getBytes());
-        log.info("JWT ключ успешно инициализирован");
+        // парсер потокобезопасен, поэтому создаётся один раз, а не на каждый запрос
+        parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        // ключ кэша — SHA-256 от токена, запись живёт ровно до истечения срока действия токена
+        parsedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, ParsedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, ParsedToken parsed, long currentTime) {
+                        long ttl = parsed.expiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(ttl, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, ParsedToken parsed, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, ParsedToken parsed, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        // отзыв актуален только пока живут выпущенные до него токены
+        revocations = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(expiration))
+                .build();
+        log.info("JWT ключ успешно инициализирован, размер кэша разобранных токенов {}", cacheMaxSize);
     }
 
     @Override
     public String generateToken(String login) {
         log.debug("Генерация JWT токена для login={}", login);
-        Date now = new Date();
-        Date expiry = new Date(now.getTime() + expiration);
-        String token = Jwts.builder()
-                .setSubject(login)
-                .setIssuedAt(now)
-                .setExpiration(expiry)
-                .signWith(key)
-                .compact();
+        String token = buildToken(login, null, null, null);
         log.info("JWT токен успешно создан для login={}", login);
         return token;
     }
 
+    @Override
+    public String generateToken(TokenSubject subject) {
+        log.debug("Генерация JWT токена с данными пользователя id={}", subject.userId());
+        String token = buildToken(subject.login(), subject.userId(), subject.name(), subject.surname());
+        log.info("JWT токен успешно создан для login={}", subject.login());
+        return token;
+    }
+
     @Override
     public String extractLogin(String token) {
         log.debug("Извлечение логина из токена");
-        String login = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        String login = parseOrThrow(token).login();
         log.trace("Из токена извлечён login={}", login);
         return login;
     }
@@ -72,38 +126,132 @@ public class JwtServiceImpl implements JwtService {
     @Override
     public boolean validateToken(String token) {
         log.debug("Проверка валидности JWT токена");
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            log.trace("JWT токен действителен");
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            log.warn("JWT токен недействителен: {}", e.getMessage());
-            return false;
-        }
+        return parse(token).isPresent();
     }
 
     @Override
     public String refreshToken(String token) {
         log.debug("Обновление JWT токена");
-        String login = extractLogin(token);
-        String newToken = generateToken(login);
-        log.info("JWT токен успешно обновлён для login={}", login);
+        ParsedToken parsed = parseOrThrow(token);
+        String newToken = buildToken(parsed.login(), parsed.userId(), parsed.name(), parsed.surname());
+        log.info("JWT токен успешно обновлён для login={}", parsed.login());
         return newToken;
     }
 
     @Override
     public Date extractExpiration(String token) {
         log.debug("Извлечение времени истечения из токена");
-        Date expirationDate = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+        Date expirationDate = parseOrThrow(token).expiration();
         log.trace("Токен истекает {}", expirationDate);
         return expirationDate;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void revokeTokens(Long userId) {
+        revocations.put(userId, Instant.now());
+        log.info("Отозваны JWT токены пользователя id={}", userId);
+    }
+
+    /**
+     * Отзывает токены пользователя после коммита изменения подписанных в них данных.
+     * Нужно только в режиме {@code jwt.stateless-principal}: иначе пользователь на каждый
+     * запрос берётся из БД, и устаревшие данные токена не используются.
+     *
+     * @param event событие изменения пользователя
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (statelessPrincipal && event.principalChanged()) {
+            revokeTokens(event.userId());
+        }
+    }
+
+    @Override
+    public Optional<ParsedToken> parse(String token) {
+        try {
+            ParsedToken parsed = parseOrThrow(token);
+            log.trace("JWT токен действителен");
+            return Optional.of(parsed);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("JWT токен недействителен: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Возвращает разобранный токен из кэша либо проверяет подпись и кладёт результат в кэш.
+     * Невалидные токены не кэшируются.
+     *
+     * @param token JWT токен
+     * @return разобранный токен
+     * @throws JwtException             если подпись неверна или срок действия истёк
+     * @throws IllegalArgumentException если токен пустой
+     */
+    private ParsedToken parseOrThrow(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT токен пустой");
+        }
+        String digest = digest(token);
+        ParsedToken cached = parsedTokens.getIfPresent(digest);
+        ParsedToken parsed;
+        if (cached != null && cached.expiration().after(new Date())) {
+            log.trace("JWT токен найден в кэше");
+            parsed = cached;
+        } else {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            parsed = new ParsedToken(
+                    claims.getSubject(),
+                    claims.get(USER_ID_CLAIM, Long.class),
+                    claims.get(NAME_CLAIM, String.class),
+                    claims.get(SURNAME_CLAIM, String.class),
+                    issuedAt(claims),
+                    claims.getExpiration());
+            if (parsed.expiration() != null) {
+                parsedTokens.put(digest, parsed);
+            }
+        }
+        if (isRevoked(parsed)) {
+            throw new JwtException("JWT токен отозван");
+        }
+        return parsed;
+    }
+
+    private boolean isRevoked(ParsedToken parsed) {
+        if (parsed.userId() == null || parsed.issuedAt() == null) {
+            return false;
+        }
+        Instant revokedAt = revocations.getIfPresent(parsed.userId());
+        // обе отметки с точностью до миллисекунды: токен, выданный сразу после отзыва, остаётся действительным
+        return revokedAt != null && parsed.issuedAt().toInstant().isBefore(revokedAt);
+    }
+
+    private static Date issuedAt(Claims claims) {
+        Long millis = claims.get(ISSUED_AT_MS_CLAIM, Long.class);
+        return millis != null ? new Date(millis) : claims.getIssuedAt();
+    }
+
+    private String buildToken(String login, Long userId, String name, String surname) {
+        Date now = new Date();
+        Date expiry = new Date(now.getTime() + expiration);
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(login)
+                .setIssuedAt(now)
+                .setExpiration(expiry);
+        if (userId != null) {
+            builder.claim(USER_ID_CLAIM, userId)
+                    .claim(NAME_CLAIM, name)
+                    .claim(SURNAME_CLAIM, surname)
+                    .claim(ISSUED_AT_MS_CLAIM, now.getTime());
+        }
+        return builder.signWith(key).compact();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
@@ -1,20 +1,25 @@
 package com.sekhanov.flashcard.service.impl;
 
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
 import com.sekhanov.flashcard.dto.LastSeenFlashcardSetDto;
-import com.sekhanov.flashcard.entity.LastSeenFlashcardSet;
 import com.sekhanov.flashcard.repository.LastSeenFlashcardSetRepository;
+import com.sekhanov.flashcard.repository.projection.RecentSetRow;
 import com.sekhanov.flashcard.service.LastSeenFlashcardSetService;
 import com.sekhanov.flashcard.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Сервис для управления недавно просмотренными наборами карточек.
  * Сохраняет информацию о последних открытых наборах и предоставляет доступ к ним.
+ * Просмотры пишутся не сразу, а через {@link LastSeenWriteBehindBuffer}, поэтому
+ * фиксация просмотра не открывает транзакцию и не обращается к БД.
+ * Список недавних наборов отдаётся из {@link RecentSetsCache}, который обновляется при каждом
+ * просмотре и догружается из БД одним запросом по денормализованному числу карточек.
  */
 @Slf4j
 @Service
@@ -23,40 +28,48 @@ public class LastSeenFlashcardSetServiceImpl implements LastSeenFlashcardSetServ
 
     private final LastSeenFlashcardSetRepository lastSeenRepo;
     private final UserService userService;
+    private final LastSeenWriteBehindBuffer writeBehindBuffer;
+    private final RecentSetsCache recentSetsCache;
 
     @Override
-    @Transactional
-    public void saveLastSeenSet(Long flashcardSetId) {
-        Long userId = userService.getCurrentUser().getId();
-        log.debug("Сохранение набора карточек id={} как последнего просмотренного для пользователя id={}", flashcardSetId, userId);
-        lastSeenRepo.upsertLastSeenSet(userId, flashcardSetId);
-        log.info("Последний просмотренный набор карточек id={} сохранён для пользователя id={}", flashcardSetId, userId);
+    public void saveLastSeenSet(FlashcardSetDTO flashcardSet) {
+        Long userId = userService.getCurrentUserId();
+        LocalDateTime openedAt = LocalDateTime.now();
+        writeBehindBuffer.record(userId, flashcardSet.getId(), openedAt);
+        recentSetsCache.record(userId, new LastSeenFlashcardSetDto(
+                flashcardSet.getId(),
+                flashcardSet.getName(),
+                openedAt,
+                flashcardSet.getOwnerName(),
+                flashcardSet.getCardsCount() == null ? 0 : flashcardSet.getCardsCount().intValue()));
+        log.debug("Набор карточек id={} отмечен как последний просмотренный для пользователя id={}", flashcardSet.getId(), userId);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<LastSeenFlashcardSetDto> getLastSeenSetsForCurrentUser() {
-        Long userId = userService.getCurrentUser().getId();
+        Long userId = userService.getCurrentUserId();
         log.debug("Получение последних просмотренных наборов карточек для пользователя id={}", userId);
 
-        List<LastSeenFlashcardSetDto> result = lastSeenRepo.findTop10ByUserIdOrderByOpenedAtDesc(userId)
-                .stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        List<LastSeenFlashcardSetDto> result = recentSetsCache.get(userId, this::loadRecentSets);
         log.info("Найдено {} последних просмотренных наборов карточек для пользователя id={}", result.size(), userId);
         return result;
     }
 
-    private LastSeenFlashcardSetDto toDto(LastSeenFlashcardSet entity) {
-        log.trace("Преобразование LastSeenFlashcardSet(id={}, setId={}) в DTO",
-                entity.getId(),
-                entity.getFlashcardSet().getId());
+    private List<LastSeenFlashcardSetDto> loadRecentSets(Long userId) {
+        return lastSeenRepo.findRecentByUserId(userId, Limit.of(RecentSetsCache.RECENT_LIMIT))
+                .stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    private LastSeenFlashcardSetDto toDto(RecentSetRow row) {
+        log.trace("Преобразование строки недавнего набора setId={} в DTO", row.flashcardSetId());
         return new LastSeenFlashcardSetDto(
-                entity.getFlashcardSet().getId(),
-                entity.getFlashcardSet().getName(),
-                entity.getOpenedAt(),
-                entity.getFlashcardSet().getOwner().getName() + " " + entity.getFlashcardSet().getOwner().getSurname(),
-                entity.getFlashcardSet().getCards().size() // количество карточек
+                row.flashcardSetId(),
+                row.name(),
+                row.openedAt(),
+                row.ownerName() == null && row.ownerSurname() == null ? null : row.ownerName() + " " + row.ownerSurname(),
+                row.cardCount()
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.entity.LastSeenFlashcardSet.LastSeenFlashcardSetId;
+import com.sekhanov.flashcard.repository.LastSeenFlashcardSetRepository;
+import com.sekhanov.flashcard.repository.projection.LastSeenRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Буфер отложенной записи просмотров наборов карточек.
+ * <p>
+ * Просмотр фиксируется в памяти без обращения к БД; повторные просмотры одной пары
+ * (пользователь, набор) схлопываются в одну запись с самым поздним временем.
+ * Накопленное сбрасывается по расписанию многострочными {@code INSERT ... ON CONFLICT}
+ * пачками по {@code app.last-seen.batch-size} строк, а также при остановке приложения.
+ * </p>
+ * <p>
+ * Если запись пачки не удалась, её строки возвращаются в буфер и попадут в следующий сброс,
+ * но не более {@code app.last-seen.max-attempts} раз: после этого строки отбрасываются с предупреждением,
+ * чтобы ошибочная строка не повторялась бесконечно. Размер буфера ограничен {@code app.last-seen.max-pending};
+ * при переполнении (например, пока БД недоступна) вытесняются самые старые просмотры.
+ * </p>
+ */
+@Slf4j
+@Component
+public class LastSeenWriteBehindBuffer {
+
+    private final LastSeenFlashcardSetRepository lastSeenRepo;
+    private final int batchSize;
+    private final int maxPending;
+    private final int maxAttempts;
+    private final ConcurrentHashMap<LastSeenFlashcardSetId, PendingView> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public LastSeenWriteBehindBuffer(LastSeenFlashcardSetRepository lastSeenRepo,
+                                     @Value("${app.last-seen.batch-size:500}") int batchSize,
+                                     @Value("${app.last-seen.max-pending:100000}") int maxPending,
+                                     @Value("${app.last-seen.max-attempts:5}") int maxAttempts) {
+        this.lastSeenRepo = lastSeenRepo;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Запоминает просмотр набора пользователем.
+     *
+     * @param userId         идентификатор пользователя
+     * @param flashcardSetId идентификатор набора карточек
+     * @param openedAt       время просмотра
+     */
+    public void record(Long userId, Long flashcardSetId, LocalDateTime openedAt) {
+        enqueue(new LastSeenFlashcardSetId(userId, flashcardSetId), new PendingView(openedAt, 0));
+    }
+
+    /**
+     * Записывает накопленные просмотры в БД.
+     */
+    @Scheduled(fixedDelayString = "${app.last-seen.flush-interval-ms:2000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<LastSeenRow> drained = new ArrayList<>(pending.size());
+        List<Integer> attempts = new ArrayList<>(pending.size());
+        for (LastSeenFlashcardSetId key : pending.keySet()) {
+            PendingView view = pending.remove(key);
+            if (view != null) {
+                drained.add(new LastSeenRow(key.getUserId(), key.getFlashcardSetId(), view.openedAt()));
+                attempts.add(view.attempts());
+            }
+        }
+        int written = 0;
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, drained.size());
+            List<LastSeenRow> batch = drained.subList(from, to);
+            try {
+                written += lastSeenRepo.upsertAll(batch);
+            } catch (DataAccessException e) {
+                requeue(batch, attempts.subList(from, to), e);
+            }
+        }
+        log.debug("Сброшено просмотров наборов карточек: {}, записано строк: {}", drained.size(), written);
+    }
+
+    /**
+     * Сбрасывает оставшиеся просмотры перед остановкой приложения.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Сброс буфера просмотров наборов карточек перед остановкой: {} записей", pending.size());
+        flush();
+    }
+
+    /**
+     * @return число просмотров, ожидающих записи
+     */
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private void requeue(List<LastSeenRow> batch, List<Integer> attempts, DataAccessException e) {
+        int dropped = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            LastSeenRow row = batch.get(i);
+            int attempt = attempts.get(i) + 1;
+            if (attempt >= maxAttempts) {
+                dropped++;
+            } else {
+                enqueue(new LastSeenFlashcardSetId(row.userId(), row.flashcardSetId()), new PendingView(row.openedAt(), attempt));
+            }
+        }
+        if (dropped > 0) {
+            log.warn("Не удалось записать {} просмотров наборов карточек за {} попыток, они отброшены: {}",
+                    dropped, maxAttempts, e.getMessage());
+        }
+        if (dropped < batch.size()) {
+            log.error("Не удалось записать {} просмотров наборов карточек, повтор при следующем сбросе: {}",
+                    batch.size() - dropped, e.getMessage());
+        }
+    }
+
+    private void enqueue(LastSeenFlashcardSetId key, PendingView view) {
+        pending.merge(key, view, PendingView::merge);
+        if (pending.size() > maxPending) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Вытесняет самые старые просмотры так, чтобы осталось 90% лимита: вытеснение идёт пачкой,
+     * и сортировка буфера не повторяется на каждом новом просмотре. Пока один поток вытесняет,
+     * остальные не ждут его.
+     */
+    private void evictOldest() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int excess = pending.size() - maxPending + maxPending / 10;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<LastSeenFlashcardSetId, PendingView>> oldest = pending.entrySet().stream()
+                    .sorted(Comparator.comparing(entry -> entry.getValue().openedAt()))
+                    .limit(excess)
+                    .toList();
+            oldest.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+            log.warn("Буфер просмотров наборов карточек переполнен (лимит {}), вытеснено старых записей: {}",
+                    maxPending, oldest.size());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Просмотр, ожидающий записи, и число уже неудачных попыток записать его.
+     */
+    private record PendingView(LocalDateTime openedAt, int attempts) {
+
+        static PendingView merge(PendingView a, PendingView b) {
+            // более поздний просмотр важнее, а счётчик попыток сохраняется, чтобы ошибочная строка не жила вечно
+            LocalDateTime latest = a.openedAt().isAfter(b.openedAt()) ? a.openedAt() : b.openedAt();
+            return new PendingView(latest, Math.max(a.attempts(), b.attempts()));
+        }
+    }
+}
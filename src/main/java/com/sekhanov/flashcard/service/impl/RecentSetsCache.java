@@ -0,0 +1,211 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.sekhanov.flashcard.dto.LastSeenFlashcardSetDto;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Хранящаяся в памяти модель чтения «недавно просмотренные наборы» по пользователям.
+ * <p>
+ * Для каждого пользователя держится не более {@value #RECENT_LIMIT} последних наборов.
+ * Число пользователей ограничено LRU-вытеснением, неактивные записи живут не дольше
+ * {@code app.last-seen.recent-cache.ttl}. Статистика публикуется в Micrometer под именем
+ * кэша {@code recentSets}.
+ * </p>
+ * <p>
+ * Просмотры попадают сюда сразу, а в БД — через {@link LastSeenWriteBehindBuffer}, поэтому
+ * при первой загрузке из БД строки объединяются с уже записанными в память просмотрами,
+ * и ещё не сброшенные просмотры не теряются. После коммита {@link FlashcardSetChangedEvent}
+ * набор убирается из записей пользователей, и при следующем чтении они догружаются из БД.
+ * Записи с этим набором находятся по обратному индексу {@link SetMembershipIndex}, так что
+ * обработка события не зависит от числа пользователей в кэше.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RecentSetsCache implements MeterBinder {
+
+    /** Сколько последних наборов хранится и отдаётся для одного пользователя. */
+    public static final int RECENT_LIMIT = 10;
+
+    private static final String CACHE_NAME = "recentSets";
+
+    private final Cache<Long, RecentSets> cache;
+    private final SetMembershipIndex<RecentSets> index = new SetMembershipIndex<>();
+
+    public RecentSetsCache(@Value("${app.last-seen.recent-cache.max-users:10000}") long maxUsers,
+                           @Value("${app.last-seen.recent-cache.ttl:30m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .removalListener((Long userId, RecentSets sets, RemovalCause cause) -> {
+                    if (sets != null) {
+                        sets.retire();
+                    }
+                })
+                .recordStats()
+                .build();
+        log.info("Кэш недавних наборов инициализирован: maxUsers={}, ttl={}", maxUsers, ttl);
+    }
+
+    /**
+     * Возвращает недавние наборы пользователя, при необходимости догружая их из БД.
+     *
+     * @param userId идентификатор пользователя
+     * @param loader загрузка последних наборов пользователя из БД
+     * @return до {@value #RECENT_LIMIT} наборов, отсортированных по времени открытия (по убыванию)
+     */
+    public List<LastSeenFlashcardSetDto> get(Long userId, Function<Long, List<LastSeenFlashcardSetDto>> loader) {
+        return cache.get(userId, id -> new RecentSets(index)).snapshot(userId, loader);
+    }
+
+    /**
+     * Запоминает просмотр набора пользователем.
+     *
+     * @param userId идентификатор пользователя
+     * @param view   снимок просмотренного набора
+     */
+    public void record(Long userId, LastSeenFlashcardSetDto view) {
+        cache.get(userId, id -> new RecentSets(index)).push(view);
+    }
+
+    /**
+     * Убирает изменённый набор из записей пользователей после коммита транзакции.
+     *
+     * @param event событие изменения набора
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFlashcardSetChanged(FlashcardSetChangedEvent event) {
+        log.debug("Сброс набора id={} из кэша недавних наборов", event.flashcardSetId());
+        index.entriesOf(event.flashcardSetId()).forEach(sets -> sets.invalidate(event.flashcardSetId()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Недавние наборы одного пользователя. Доступ защищён блокировкой, так как просмотры и чтения
+     * одного пользователя могут идти параллельно. Первое чтение загружает наборы из БД, поэтому
+     * используется {@link ReentrantLock}: ожидание под ним не занимает несущий поток виртуального потока.
+     */
+    private static final class RecentSets {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, LastSeenFlashcardSetDto> bySetId = new HashMap<>();
+        private final SetMembershipIndex<RecentSets> index;
+        private boolean loaded;
+        private boolean retired;
+
+        RecentSets(SetMembershipIndex<RecentSets> index) {
+            this.index = index;
+        }
+
+        void push(LastSeenFlashcardSetDto view) {
+            lock.lock();
+            try {
+                LastSeenFlashcardSetDto current = bySetId.get(view.getFlashcardSetId());
+                if (current == null || !view.getOpenedAt().isBefore(current.getOpenedAt())) {
+                    put(copy(view));
+                    trim();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<LastSeenFlashcardSetDto> snapshot(Long userId, Function<Long, List<LastSeenFlashcardSetDto>> loader) {
+            lock.lock();
+            try {
+                if (!loaded) {
+                    log.debug("Загрузка недавних наборов пользователя id={} из базы данных", userId);
+                    // более поздний просмотр из памяти важнее строки, которая ещё не обновлена в БД
+                    for (LastSeenFlashcardSetDto row : loader.apply(userId)) {
+                        LastSeenFlashcardSetDto inMemory = bySetId.get(row.getFlashcardSetId());
+                        if (inMemory == null || row.getOpenedAt().isAfter(inMemory.getOpenedAt())) {
+                            put(row);
+                        }
+                    }
+                    trim();
+                    loaded = true;
+                }
+                return bySetId.values().stream()
+                        .sorted(Comparator.comparing(LastSeenFlashcardSetDto::getOpenedAt).reversed())
+                        .map(RecentSets::copy)
+                        .toList();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void invalidate(Long flashcardSetId) {
+            lock.lock();
+            try {
+                if (drop(flashcardSetId)) {
+                    loaded = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void trim() {
+            while (bySetId.size() > RECENT_LIMIT) {
+                bySetId.values().stream()
+                        .min(Comparator.comparing(LastSeenFlashcardSetDto::getOpenedAt))
+                        .ifPresent(oldest -> drop(oldest.getFlashcardSetId()));
+            }
+        }
+
+        /**
+         * Снимает вытесненную запись с индекса. Поток, успевший получить её до вытеснения,
+         * может продолжить с ней работать, но в индекс она больше не попадает.
+         */
+        void retire() {
+            lock.lock();
+            try {
+                retired = true;
+                index.removeAll(bySetId.keySet(), this);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(LastSeenFlashcardSetDto view) {
+            if (bySetId.put(view.getFlashcardSetId(), view) == null && !retired) {
+                index.add(view.getFlashcardSetId(), this);
+            }
+        }
+
+        private boolean drop(Long flashcardSetId) {
+            if (bySetId.remove(flashcardSetId) == null) {
+                return false;
+            }
+            index.remove(flashcardSetId, this);
+            return true;
+        }
+
+        private static LastSeenFlashcardSetDto copy(LastSeenFlashcardSetDto dto) {
+            return new LastSeenFlashcardSetDto(dto.getFlashcardSetId(), dto.getFlashcardSetName(),
+                    dto.getOpenedAt(), dto.getOwnerName(), dto.getCardsCount());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.CursorPageDTO;
+import com.sekhanov.flashcard.dto.SearchHitDTO;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.projection.SearchHitRow;
+import com.sekhanov.flashcard.service.SearchService;
+import com.sekhanov.flashcard.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+/**
+ * Реализация {@link SearchService} поверх полнотекстового и триграммного поиска PostgreSQL.
+ * <p>
+ * Глубина выдачи ограничена {@value #MAX_OFFSET} результатами: каждая страница заново ранжирует
+ * все предыдущие, и дальние страницы стоили бы дороже, не принося пользы.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchServiceImpl implements SearchService {
+
+    static final int MAX_PAGE_SIZE = 50;
+    static final int MAX_OFFSET = 1000;
+    static final int MAX_QUERY_LENGTH = 200;
+
+    private final FlashcardSetRepository flashcardSetRepository;
+    private final UserService userService;
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SearchHitDTO> search(String query, Long cursor, int limit) {
+        String normalized = query == null ? "" : query.strip();
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Пустой поисковый запрос");
+        }
+        if (normalized.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Поисковый запрос длиннее " + MAX_QUERY_LENGTH + " символов");
+        }
+        if (cursor != null && (cursor < 0 || cursor > MAX_OFFSET)) {
+            throw new IllegalArgumentException("Можно просмотреть не больше " + MAX_OFFSET + " результатов поиска");
+        }
+        int offset = cursor == null ? 0 : cursor.intValue();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long userId = userService.getCurrentUserId();
+        log.debug("Поиск '{}' для пользователя id={}, offset={}, limit={}", normalized, userId, offset, pageSize);
+
+        // запрашиваем на одну строку больше, чтобы узнать, есть ли следующая страница
+        List<SearchHitRow> rows = flashcardSetRepository.search(normalized, userId, offset, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize && offset + pageSize <= MAX_OFFSET;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+        }
+        List<SearchHitDTO> hits = rows.stream().map(SearchServiceImpl::toDTO).toList();
+        return new CursorPageDTO<>(hits, hasNext ? (long) offset + pageSize : null);
+    }
+
+    private static SearchHitDTO toDTO(SearchHitRow row) {
+        return new SearchHitDTO(SearchHitDTO.Type.valueOf(row.hitType()), row.flashcardSetId(), row.setName(),
+                row.cardId(), row.term(), row.definition(), row.score());
+    }
+}
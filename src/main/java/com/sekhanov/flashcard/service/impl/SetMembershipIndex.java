@@ -0,0 +1,55 @@
+package com.sekhanov.flashcard.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Обратный индекс «набор → записи кэша, в которых он встречается».
+ * <p>
+ * Позволяет по событию изменения набора обойти только затронутые записи пользовательского кэша,
+ * а не все записи. Записи сравниваются по ссылке: вытесненная запись пользователя и созданная
+ * после неё новая учитываются в индексе независимо и не удаляют друг друга.
+ * </p>
+ *
+ * @param <T> тип записи кэша
+ */
+final class SetMembershipIndex<T> {
+
+    private final ConcurrentHashMap<Long, Set<T>> entriesBySet = new ConcurrentHashMap<>();
+
+    void add(Long flashcardSetId, T entry) {
+        entriesBySet.compute(flashcardSetId, (id, entries) -> {
+            Set<T> result = entries == null ? ConcurrentHashMap.newKeySet() : entries;
+            result.add(entry);
+            return result;
+        });
+    }
+
+    void remove(Long flashcardSetId, T entry) {
+        entriesBySet.computeIfPresent(flashcardSetId, (id, entries) -> {
+            entries.remove(entry);
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+
+    void removeAll(Collection<Long> flashcardSetIds, T entry) {
+        flashcardSetIds.forEach(id -> remove(id, entry));
+    }
+
+    /**
+     * @return снимок записей, в которых встречается набор
+     */
+    List<T> entriesOf(Long flashcardSetId) {
+        Set<T> entries = entriesBySet.get(flashcardSetId);
+        return entries == null ? List.of() : List.copyOf(entries);
+    }
+
+    /**
+     * @return число наборов, присутствующих хотя бы в одной записи
+     */
+    int size() {
+        return entriesBySet.size();
+    }
+}
@@ -0,0 +1,199 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import com.sekhanov.flashcard.service.SharedFlashcardSetJsonCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Реализация {@link SharedFlashcardSetJsonCache} на Caffeine.
+ * <p>
+ * Для каждого набора хранится UTF-8 JSON его {@link FlashcardSetDTO} и сжатая gzip копия, если она меньше.
+ * JSON получается один раз при загрузке набора и сразу отдаётся в ответ; сжатие выполняется задачей
+ * в собственном пуле ({@code app.shared-set-json-cache.compression-threads} потоков и очередь
+ * на {@code app.shared-set-json-cache.compression-queue} задач), а до её завершения запись отдаётся
+ * без сжатой копии. Когда очередь заполнена, задача отклоняется и запись остаётся несжатой: поток запроса
+ * не ждёт освобождения пула, как ждал бы у {@code SimpleAsyncTaskExecutor} с лимитом параллельности.
+ * </p>
+ * <p>
+ * Объём ограничен суммарным размером байтов ({@code app.shared-set-json-cache.max-size}), неиспользуемые
+ * записи вытесняются через {@code app.shared-set-json-cache.ttl}. После коммита {@link FlashcardSetChangedEvent}
+ * закэшированный набор пересобирается асинхронно; до этого запросы идут обычным путём.
+ * Статистика публикуется в Micrometer под именем кэша {@code sharedFlashcardSetJson}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SharedFlashcardSetJsonCacheImpl implements SharedFlashcardSetJsonCache, MeterBinder {
+
+    private static final String CACHE_NAME = "sharedFlashcardSetJson";
+
+    private final Cache<Long, SerializedFlashcardSet> cache;
+    private final ObjectMapper objectMapper;
+    private final FlashcardSetServiceImpl flashcardSetService;
+    private final Executor compressionExecutor;
+
+    @Autowired
+    public SharedFlashcardSetJsonCacheImpl(@Value("${app.shared-set-json-cache.max-size:64MB}") DataSize maxSize,
+                                           @Value("${app.shared-set-json-cache.ttl:1h}") Duration ttl,
+                                           @Value("${app.shared-set-json-cache.compression-threads:2}") int compressionThreads,
+                                           @Value("${app.shared-set-json-cache.compression-queue:64}") int compressionQueue,
+                                           ObjectMapper objectMapper,
+                                           FlashcardSetServiceImpl flashcardSetService) {
+        this(maxSize, ttl, objectMapper, flashcardSetService, newCompressionExecutor(compressionThreads, compressionQueue));
+    }
+
+    SharedFlashcardSetJsonCacheImpl(DataSize maxSize, Duration ttl, ObjectMapper objectMapper,
+                                    FlashcardSetServiceImpl flashcardSetService, Executor compressionExecutor) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Long id, SerializedFlashcardSet set) -> set.size())
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        this.objectMapper = objectMapper;
+        this.flashcardSetService = flashcardSetService;
+        this.compressionExecutor = compressionExecutor;
+        log.info("Кэш сериализованных общих наборов инициализирован: maxSize={}, ttl={}", maxSize, ttl);
+    }
+
+    @Override
+    public Optional<SerializedFlashcardSet> get(Long id, long version) {
+        SerializedFlashcardSet set = cache.getIfPresent(id);
+        return set != null && set.version() == version ? Optional.of(set) : Optional.empty();
+    }
+
+    @Override
+    public Optional<SerializedFlashcardSet> put(FlashcardSetDTO dto) {
+        if (!Boolean.TRUE.equals(dto.getShared()) || dto.getVersion() == null) {
+            return Optional.empty();
+        }
+        SerializedFlashcardSet serialized = serialize(dto);
+        SerializedFlashcardSet stored = cache.asMap().merge(dto.getId(), serialized,
+                (current, candidate) -> current.version() >= candidate.version() ? current : candidate);
+        log.debug("Набор id={} версии {} сериализован: {} байт JSON", dto.getId(), dto.getVersion(), serialized.json().length);
+        if (stored == serialized) {
+            compressLater(dto.getId(), serialized);
+        }
+        return Optional.of(serialized);
+    }
+
+    /**
+     * Пересобирает закэшированный набор после коммита изменения. Наборы, которых нет в кэше,
+     * не загружаются; удалённый или закрытый набор удаляется из кэша.
+     *
+     * @param event событие изменения набора
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFlashcardSetChanged(FlashcardSetChangedEvent event) {
+        Long id = event.flashcardSetId();
+        if (cache.getIfPresent(id) == null) {
+            return;
+        }
+        try {
+            // загрузка идёт мимо кэша DTO: его запись могла ещё не быть сброшена
+            Optional<FlashcardSetDTO> dto = flashcardSetService.findFlashcardSetById(id)
+                    .filter(set -> Boolean.TRUE.equals(set.getShared()));
+            dto.ifPresentOrElse(this::put, () -> cache.invalidate(id));
+        } catch (RuntimeException e) {
+            // версия в записи уже устарела и в ответ не попадёт, пересборка случится при следующем запросе
+            log.warn("Не удалось пересобрать сериализованный набор id={}: {}", id, e.getMessage());
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Останавливает пул сжатия; несжатые записи остаются рабочими.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (compressionExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Пул с ограниченной очередью и {@link ThreadPoolExecutor.AbortPolicy}: при перегрузке задача отклоняется сразу.
+     * Сжатие нагружает процессор, поэтому потоки платформенные и в профиле виртуальных потоков.
+     */
+    private static ExecutorService newCompressionExecutor(int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("shared-set-gzip-", 0).daemon(true).factory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private SerializedFlashcardSet serialize(FlashcardSetDTO dto) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dto);
+            // для записи просмотра достаточно данных без карточек
+            FlashcardSetDTO summary = new FlashcardSetDTO(dto.getId(), dto.getName(), dto.getDescription(), null,
+                    dto.getOwnerName(), dto.getCardsCount(), dto.getVersion(), dto.getShared(), null);
+            return new SerializedFlashcardSet(summary, dto.getVersion(), json, null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать набор id=" + dto.getId(), e);
+        }
+    }
+
+    private void compressLater(Long id, SerializedFlashcardSet serialized) {
+        try {
+            compressionExecutor.execute(() -> compress(id, serialized));
+        } catch (RejectedExecutionException e) {
+            // без сжатой копии запись остаётся рабочей, ответ сожмёт фильтр
+            log.debug("Сжатие набора id={} отклонено исполнителем: {}", id, e.getMessage());
+        }
+    }
+
+    private void compress(Long id, SerializedFlashcardSet serialized) {
+        byte[] gzip = gzip(serialized.json());
+        if (gzip.length >= serialized.json().length) {
+            return;
+        }
+        SerializedFlashcardSet compressed = new SerializedFlashcardSet(serialized.summary(), serialized.version(),
+                serialized.json(), gzip);
+        // запись могла быть заменена более новой версией, пока шло сжатие
+        cache.asMap().replace(id, serialized, compressed);
+        log.debug("Набор id={} версии {} сжат: {} байт gzip", id, serialized.version(), gzip.length);
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
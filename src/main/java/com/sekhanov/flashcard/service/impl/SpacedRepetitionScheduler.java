@@ -0,0 +1,54 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.ReviewRequestDTO;
+import com.sekhanov.flashcard.entity.CardReviewState;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Планировщик интервального повторения по алгоритму SM-2.
+ * <p>
+ * Успешный ответ увеличивает интервал: 1 день, 6 дней, затем предыдущий интервал, умноженный
+ * на коэффициент лёгкости. Ошибка ({@link ReviewRequestDTO.Grade#AGAIN}) сбрасывает серию
+ * и возвращает карточку в очередь через {@link #LAPSE_DELAY}, чтобы повторить её в той же сессии.
+ * Коэффициент лёгкости меняется после каждого ответа и не опускается ниже {@value #MIN_EASE_FACTOR}.
+ * </p>
+ */
+@Component
+public class SpacedRepetitionScheduler {
+
+    static final double MIN_EASE_FACTOR = 1.3;
+    static final Duration LAPSE_DELAY = Duration.ofMinutes(10);
+
+    /**
+     * Применяет ответ пользователя к состоянию карточки и назначает следующий срок повторения.
+     *
+     * @param state состояние карточки; изменяется на месте
+     * @param grade оценка ответа
+     * @param now   время ответа
+     */
+    public void review(CardReviewState state, ReviewRequestDTO.Grade grade, LocalDateTime now) {
+        int quality = grade.getQuality();
+        if (quality < 3) {
+            state.setRepetitions(0);
+            state.setIntervalDays(0);
+            state.setLapses(state.getLapses() + 1);
+            state.setDueAt(now.plus(LAPSE_DELAY));
+        } else {
+            int repetitions = state.getRepetitions() + 1;
+            int interval = switch (repetitions) {
+                case 1 -> 1;
+                case 2 -> 6;
+                default -> (int) Math.round(Math.max(1, state.getIntervalDays()) * state.getEaseFactor());
+            };
+            state.setRepetitions(repetitions);
+            state.setIntervalDays(interval);
+            state.setDueAt(now.plusDays(interval));
+        }
+        int penalty = 5 - quality;
+        double ease = state.getEaseFactor() + 0.1 - penalty * (0.08 + penalty * 0.02);
+        state.setEaseFactor(Math.max(MIN_EASE_FACTOR, ease));
+        state.setLastReviewedAt(now);
+    }
+}
@@ -0,0 +1,209 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import com.sekhanov.flashcard.repository.projection.DueCardRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Очереди карточек к повторению по пользователям на время учебной сессии.
+ * <p>
+ * Очередь загружается из БД пачкой до {@value #QUEUE_BATCH} карточек одним чтением диапазона
+ * индекса {@code (user_id, due_at)}, после чего следующая карточка отдаётся из памяти за O(1)
+ * независимо от общего числа карточек пользователя. Отвеченная карточка сразу убирается из очереди;
+ * когда карточек в очереди не хватает, а в БД их могло остаться больше, очередь перечитывается.
+ * </p>
+ * <p>
+ * Сессия неактивного пользователя живёт не дольше {@code app.study.queue.ttl}, число сессий
+ * ограничено {@code app.study.queue.max-users}. После коммита {@link FlashcardSetChangedEvent}
+ * очереди с карточками изменённого набора перечитываются при следующем запросе; такие очереди
+ * находятся по обратному индексу {@link SetMembershipIndex}, без обхода всех сессий.
+ * Статистика публикуется в Micrometer под именем кэша {@code studyQueue}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class StudyQueueCache implements MeterBinder {
+
+    /** Сколько карточек загружается в очередь за одно чтение из БД. */
+    public static final int QUEUE_BATCH = 200;
+
+    private static final String CACHE_NAME = "studyQueue";
+
+    private final Cache<Long, StudyQueue> cache;
+    private final SetMembershipIndex<StudyQueue> index = new SetMembershipIndex<>();
+
+    public StudyQueueCache(@Value("${app.study.queue.max-users:10000}") long maxUsers,
+                           @Value("${app.study.queue.ttl:30m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .removalListener((Long userId, StudyQueue queue, RemovalCause cause) -> {
+                    if (queue != null) {
+                        queue.retire();
+                    }
+                })
+                .recordStats()
+                .build();
+        log.info("Кэш очередей повторения инициализирован: maxUsers={}, ttl={}", maxUsers, ttl);
+    }
+
+    /**
+     * Возвращает первые карточки очереди пользователя, не убирая их из неё.
+     *
+     * @param userId идентификатор пользователя
+     * @param limit  максимальное число карточек, не больше {@value #QUEUE_BATCH}
+     * @param loader чтение до {@value #QUEUE_BATCH} карточек к повторению из БД
+     * @return карточки в порядке срока повторения
+     */
+    public List<DueCardRow> peek(Long userId, int limit, Function<Long, List<DueCardRow>> loader) {
+        return cache.get(userId, id -> new StudyQueue(index)).peek(userId, limit, loader);
+    }
+
+    /**
+     * Убирает отвеченную карточку из очереди пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param cardId идентификатор карточки
+     */
+    public void remove(Long userId, Long cardId) {
+        StudyQueue queue = cache.getIfPresent(userId);
+        if (queue != null) {
+            queue.remove(cardId);
+        }
+    }
+
+    /**
+     * Сбрасывает очередь пользователя, например после добавления набора в изучение.
+     *
+     * @param userId идентификатор пользователя
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Помечает очереди с карточками изменённого набора к перечитыванию после коммита транзакции.
+     *
+     * @param event событие изменения набора
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFlashcardSetChanged(FlashcardSetChangedEvent event) {
+        index.entriesOf(event.flashcardSetId()).forEach(queue -> queue.invalidate(event.flashcardSetId()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Очередь одного пользователя. Доступ защищён блокировкой, так как пользователь может отвечать
+     * с нескольких устройств одновременно. Это {@link ReentrantLock}, а не {@code synchronized}:
+     * под ней идёт чтение из БД, и на Java 21 монитор закрепил бы виртуальный поток за несущим.
+     */
+    private static final class StudyQueue {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, DueCardRow> byCardId = new LinkedHashMap<>();
+        private final Set<Long> setIds = new HashSet<>();
+        private final SetMembershipIndex<StudyQueue> index;
+        private boolean loaded;
+        private boolean exhausted;
+        private boolean retired;
+
+        StudyQueue(SetMembershipIndex<StudyQueue> index) {
+            this.index = index;
+        }
+
+        List<DueCardRow> peek(Long userId, int limit, Function<Long, List<DueCardRow>> loader) {
+            lock.lock();
+            try {
+                // пустая очередь перечитывается всегда: за это время могли подойти сроки других карточек
+                if (!loaded || byCardId.isEmpty() || (byCardId.size() < limit && !exhausted)) {
+                    reload(userId, loader);
+                }
+                List<DueCardRow> result = new ArrayList<>(Math.min(limit, byCardId.size()));
+                for (DueCardRow row : byCardId.values()) {
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                    result.add(row);
+                }
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(Long cardId) {
+            lock.lock();
+            try {
+                byCardId.remove(cardId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void invalidate(Long flashcardSetId) {
+            lock.lock();
+            try {
+                if (setIds.contains(flashcardSetId)) {
+                    loaded = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Снимает вытесненную очередь с индекса; после этого она в индекс больше не попадает.
+         */
+        void retire() {
+            lock.lock();
+            try {
+                retired = true;
+                index.removeAll(setIds, this);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void reload(Long userId, Function<Long, List<DueCardRow>> loader) {
+            List<DueCardRow> rows = loader.apply(userId);
+            log.debug("Загружена очередь повторения пользователя id={}: {} карточек", userId, rows.size());
+            Set<Long> previous = Set.copyOf(setIds);
+            byCardId.clear();
+            setIds.clear();
+            for (DueCardRow row : rows) {
+                byCardId.put(row.cardId(), row);
+                setIds.add(row.flashcardSetId());
+            }
+            if (!retired) {
+                previous.stream().filter(id -> !setIds.contains(id)).forEach(id -> index.remove(id, this));
+                setIds.stream().filter(id -> !previous.contains(id)).forEach(id -> index.add(id, this));
+            }
+            loaded = true;
+            // неполная пачка означает, что других карточек к повторению на момент чтения не было
+            exhausted = rows.size() < QUEUE_BATCH;
+        }
+    }
+}
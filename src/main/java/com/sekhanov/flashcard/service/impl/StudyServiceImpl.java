@@ -0,0 +1,249 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.DueCardDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchItemDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchResultDTO;
+import com.sekhanov.flashcard.dto.ReviewRequestDTO;
+import com.sekhanov.flashcard.dto.ReviewStateDTO;
+import com.sekhanov.flashcard.entity.CardReviewState;
+import com.sekhanov.flashcard.repository.CardReviewStateRepository;
+import com.sekhanov.flashcard.repository.CardsRepository;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.DueCardRow;
+import com.sekhanov.flashcard.repository.projection.ReviewLogRow;
+import com.sekhanov.flashcard.repository.projection.ReviewStateRow;
+import com.sekhanov.flashcard.service.StudyService;
+import com.sekhanov.flashcard.service.UserService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Реализация {@link StudyService}.
+ * <p>
+ * Очередь к повторению отдаётся из {@link StudyQueueCache} и читается из БД только при её исчерпании.
+ * Ответ изменяет одну строку {@code card_review_state} и убирает карточку из очереди в памяти.
+ * </p>
+ * <p>
+ * Пакет ответов применяется в памяти к состояниям, заблокированным {@code SELECT ... FOR UPDATE},
+ * и записывается двумя многострочными запросами: вставкой в журнал {@code card_review_log},
+ * которая отсеивает уже принятые ключи идемпотентности, и upsert'ом состояний изменённых карточек.
+ * Ответы не новее последнего учтённого повторения карточки только записываются в журнал.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StudyServiceImpl implements StudyService {
+
+    /** Верхняя граница числа карточек в одном ответе очереди. */
+    static final int MAX_DUE_CARDS = 100;
+    /** Верхняя граница числа ответов в одном пакете. */
+    static final int MAX_BATCH_SIZE = 1000;
+    /** Длина ключа идемпотентности, равная размеру столбца {@code card_review_log.idempotency_key}. */
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    private final CardReviewStateRepository reviewStateRepository;
+    private final CardsRepository cardsRepository;
+    private final FlashcardSetRepository flashcardSetRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final SpacedRepetitionScheduler scheduler;
+    private final StudyQueueCache studyQueueCache;
+
+    @Override
+    public List<DueCardDTO> getDueCards(int limit) {
+        Long userId = userService.getCurrentUserId();
+        int size = Math.max(1, Math.min(limit, MAX_DUE_CARDS));
+        List<DueCardDTO> result = studyQueueCache.peek(userId, size, this::loadDueCards).stream()
+                .map(this::toDTO)
+                .toList();
+        log.debug("Пользователю id={} выдано {} карточек к повторению", userId, result.size());
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public ReviewStateDTO review(ReviewRequestDTO request) {
+        if (request.getCardId() == null || request.getGrade() == null) {
+            throw new IllegalArgumentException("Не указаны карточка или оценка ответа");
+        }
+        Long userId = userService.getCurrentUserId();
+        Long cardId = request.getCardId();
+        LocalDateTime now = LocalDateTime.now();
+        CardReviewState state = reviewStateRepository.findById(new CardReviewState.CardReviewStateId(userId, cardId))
+                .orElseGet(() -> newState(userId, cardId, now));
+        scheduler.review(state, request.getGrade(), now);
+        state = reviewStateRepository.save(state);
+        // при откате транзакции карточка вернётся в очередь при её следующем чтении из БД
+        studyQueueCache.remove(userId, cardId);
+        log.info("Карточка id={} повторена пользователем id={}: оценка={}, следующее повторение {}",
+                cardId, userId, request.getGrade(), state.getDueAt());
+        return toDTO(state);
+    }
+
+    @Override
+    @Transactional
+    public ReviewBatchResultDTO reviewBatch(List<ReviewBatchItemDTO> reviews) {
+        if (reviews == null || reviews.isEmpty()) {
+            return new ReviewBatchResultDTO(0, 0, 0, List.of());
+        }
+        if (reviews.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("В пакете не может быть больше " + MAX_BATCH_SIZE + " ответов");
+        }
+        Long userId = userService.getCurrentUserId();
+        LocalDateTime now = LocalDateTime.now();
+        // ключ, повторённый внутри пакета, применяется один раз
+        Map<String, ReviewLogRow> byKey = new LinkedHashMap<>();
+        for (ReviewBatchItemDTO item : reviews) {
+            validate(item);
+            byKey.putIfAbsent(item.getIdempotencyKey(), new ReviewLogRow(userId, item.getIdempotencyKey(),
+                    item.getCardId(), item.getGrade().name(), toServerTime(item.getReviewedAt(), now)));
+        }
+        // сортировка устойчива: из ответов с одинаковым временем применяется первый в пакете
+        List<ReviewLogRow> ordered = byKey.values().stream()
+                .sorted(Comparator.comparing(ReviewLogRow::reviewedAt))
+                .toList();
+        Set<String> accepted = reviewStateRepository.insertReviewLog(ordered);
+        List<ReviewLogRow> toApply = ordered.stream().filter(row -> accepted.contains(row.idempotencyKey())).toList();
+
+        // строки заблокированы до коммита: параллельный пакет применит свои ответы к результату этого
+        Map<Long, CardReviewState> states = lockStates(userId, toApply, now);
+        Map<Long, CardReviewState> changed = new TreeMap<>();
+        int skipped = 0;
+        for (ReviewLogRow row : toApply) {
+            CardReviewState state = states.get(row.cardId());
+            if (state == null || isStale(state, row)) {
+                // ответ остаётся в журнале, но состояние карточки не меняет
+                skipped++;
+                continue;
+            }
+            scheduler.review(state, ReviewRequestDTO.Grade.valueOf(row.grade()), row.reviewedAt());
+            changed.put(row.cardId(), state);
+        }
+        reviewStateRepository.upsertAll(changed.values().stream().map(StudyServiceImpl::toRow).toList());
+        if (!changed.isEmpty()) {
+            studyQueueCache.invalidate(userId);
+        }
+        int applied = toApply.size() - skipped;
+        int duplicates = reviews.size() - toApply.size();
+        log.info("Пакет ответов пользователя id={}: применено={}, повторных={}, пропущено={}",
+                userId, applied, duplicates, skipped);
+        return new ReviewBatchResultDTO(applied, duplicates, skipped, changed.values().stream().map(this::toDTO).toList());
+    }
+
+    @Override
+    @Transactional
+    public int enrollFlashcardSet(Long flashcardSetId) {
+        if (!flashcardSetRepository.existsById(flashcardSetId)) {
+            log.warn("Набор карточек id={} не найден", flashcardSetId);
+            throw new EntityNotFoundException("Список слов с id " + flashcardSetId + " не найден");
+        }
+        Long userId = userService.getCurrentUserId();
+        int enrolled = reviewStateRepository.enrollFlashcardSet(userId, flashcardSetId, LocalDateTime.now());
+        if (enrolled > 0) {
+            studyQueueCache.invalidate(userId);
+        }
+        log.info("В изучение пользователя id={} добавлено {} карточек набора id={}", userId, enrolled, flashcardSetId);
+        return enrolled;
+    }
+
+    private List<DueCardRow> loadDueCards(Long userId) {
+        return reviewStateRepository.findDueByUserId(userId, LocalDateTime.now(), Limit.of(StudyQueueCache.QUEUE_BATCH));
+    }
+
+    /**
+     * Блокирует и загружает состояния карточек пакета без контекста персистентности. Для карточек,
+     * ещё не добавленных в изучение, состояния создаются; удалённые карточки в результат не попадают.
+     */
+    private Map<Long, CardReviewState> lockStates(Long userId, List<ReviewLogRow> rows, LocalDateTime now) {
+        Set<Long> cardIds = new HashSet<>();
+        rows.forEach(row -> cardIds.add(row.cardId()));
+        Map<Long, CardReviewState> states = new HashMap<>();
+        for (ReviewStateRow row : reviewStateRepository.lockStates(userId, cardIds, now)) {
+            states.put(row.cardId(), toState(row));
+        }
+        return states;
+    }
+
+    /**
+     * Ответ не новее последнего учтённого повторения карточки: его уже перекрыл ответ с другого
+     * устройства или из другого пакета, и применение откатило бы расписание назад.
+     */
+    private static boolean isStale(CardReviewState state, ReviewLogRow row) {
+        return state.getLastReviewedAt() != null && !row.reviewedAt().isAfter(state.getLastReviewedAt());
+    }
+
+    private static void validate(ReviewBatchItemDTO item) {
+        if (item == null || item.getCardId() == null || item.getGrade() == null
+                || item.getIdempotencyKey() == null || item.getIdempotencyKey().isBlank()) {
+            throw new IllegalArgumentException("В ответе пакета не указаны ключ идемпотентности, карточка или оценка");
+        }
+        if (item.getIdempotencyKey().length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Ключ идемпотентности длиннее " + MAX_IDEMPOTENCY_KEY_LENGTH + " символов");
+        }
+    }
+
+    /** Переводит время ответа на устройстве во время сервера; время из будущего (расхождение часов) заменяется текущим. */
+    private static LocalDateTime toServerTime(OffsetDateTime reviewedAt, LocalDateTime now) {
+        if (reviewedAt == null) {
+            return now;
+        }
+        LocalDateTime local = reviewedAt.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        return local.isAfter(now) ? now : local;
+    }
+
+    private static CardReviewState toState(ReviewStateRow row) {
+        CardReviewState state = new CardReviewState();
+        state.setId(new CardReviewState.CardReviewStateId(row.userId(), row.cardId()));
+        state.setEaseFactor(row.easeFactor());
+        state.setIntervalDays(row.intervalDays());
+        state.setRepetitions(row.repetitions());
+        state.setLapses(row.lapses());
+        state.setDueAt(row.dueAt());
+        state.setLastReviewedAt(row.lastReviewedAt());
+        return state;
+    }
+
+    private static ReviewStateRow toRow(CardReviewState state) {
+        return new ReviewStateRow(state.getId().getUserId(), state.getId().getCardId(), state.getEaseFactor(),
+                state.getIntervalDays(), state.getRepetitions(), state.getLapses(), state.getDueAt(), state.getLastReviewedAt());
+    }
+
+    private CardReviewState newState(Long userId, Long cardId, LocalDateTime now) {
+        if (!cardsRepository.existsById(cardId)) {
+            log.warn("Карточка id={} не найдена", cardId);
+            throw new EntityNotFoundException("Слово с id " + cardId + " не найдено");
+        }
+        CardReviewState state = new CardReviewState();
+        state.setId(new CardReviewState.CardReviewStateId(userId, cardId));
+        state.setUser(userRepository.getReferenceById(userId));
+        state.setCard(cardsRepository.getReferenceById(cardId));
+        state.setDueAt(now);
+        return state;
+    }
+
+    private DueCardDTO toDTO(DueCardRow row) {
+        return new DueCardDTO(row.cardId(), row.flashcardSetId(), row.term(), row.definition(), row.dueAt(), row.repetitions() == 0);
+    }
+
+    private ReviewStateDTO toDTO(CardReviewState state) {
+        return new ReviewStateDTO(state.getId().getCardId(), state.getEaseFactor(), state.getIntervalDays(),
+                state.getRepetitions(), state.getLapses(), state.getDueAt());
+    }
+}
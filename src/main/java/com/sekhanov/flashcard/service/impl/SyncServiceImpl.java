@@ -0,0 +1,170 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.SyncCardDTO;
+import com.sekhanov.flashcard.dto.SyncDTO;
+import com.sekhanov.flashcard.dto.SyncSetDTO;
+import com.sekhanov.flashcard.repository.CardsRepository;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.SyncTombstoneRepository;
+import com.sekhanov.flashcard.repository.projection.SyncCardRow;
+import com.sekhanov.flashcard.repository.projection.SyncSetRow;
+import com.sekhanov.flashcard.service.SyncService;
+import com.sekhanov.flashcard.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Реализация {@link SyncService}.
+ * <p>
+ * Токен синхронизации — время сервера в миллисекундах эпохи, взятое до чтения данных.
+ * Изменения ищутся по {@code updated_at} наборов и карточек, удаления — по отметкам {@code sync_tombstone},
+ * наборы, добавленные пользователю, — по {@code user_flashcard_set.linked_at} и отдаются целиком.
+ * </p>
+ * <p>
+ * Время изменения проставляется при записи, а видно другим транзакциям после коммита, поэтому запрос
+ * читает изменения с запасом {@code app.sync.overlap} до токена; соседние ответы пересекаются, и клиент
+ * применяет их идемпотентно по ID и версии. Это ограничение модели: изменение транзакции, которая
+ * длится дольше запаса, клиент может не получить до полной синхронизации. Поэтому пишущие транзакции
+ * держатся короткими — в том числе импорт, который коммитит карточки пакетами
+ * (см. {@link CardImportServiceImpl}), — а запас задаётся с большим резервом.
+ * </p>
+ * <p>
+ * Токен старше срока хранения отметок {@code app.sync.tombstone-retention} приводит к полной синхронизации:
+ * удаления за это время могли быть уже очищены.
+ * </p>
+ */
+@Slf4j
+@Service
+public class SyncServiceImpl implements SyncService {
+
+    /** Максимальное число идентификаторов в одном IN-запросе. */
+    static final int ID_CHUNK = 1000;
+
+    private final FlashcardSetRepository flashcardSetRepository;
+    private final CardsRepository cardsRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final UserService userService;
+    private final Duration overlap;
+    private final Duration tombstoneRetention;
+
+    public SyncServiceImpl(FlashcardSetRepository flashcardSetRepository,
+                           CardsRepository cardsRepository,
+                           SyncTombstoneRepository syncTombstoneRepository,
+                           UserService userService,
+                           @Value("${app.sync.overlap:5m}") Duration overlap,
+                           @Value("${app.sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.flashcardSetRepository = flashcardSetRepository;
+        this.cardsRepository = cardsRepository;
+        this.syncTombstoneRepository = syncTombstoneRepository;
+        this.userService = userService;
+        this.overlap = overlap;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Все запросы читают один снимок БД, чтобы наборы, карточки и удаления в ответе были согласованы.
+     */
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncDTO sync(Long since) {
+        Long userId = userService.getCurrentUserId();
+        LocalDateTime now = LocalDateTime.now();
+        long token = toToken(now);
+
+        Set<Long> ownedIds = new LinkedHashSet<>(flashcardSetRepository.findIdsByOwnerId(userId));
+        Set<Long> visibleIds = new LinkedHashSet<>(ownedIds);
+        visibleIds.addAll(flashcardSetRepository.findLinkedIds(userId));
+
+        if (since == null || since < 0 || since > token || fromToken(since).isBefore(now.minus(tombstoneRetention))) {
+            List<SyncSetRow> sets = inChunks(visibleIds, flashcardSetRepository::findSyncRowsByIdIn);
+            List<SyncCardRow> cards = inChunks(visibleIds, cardsRepository::findSyncRowsByFlashcardSetIdIn);
+            log.debug("Полная синхронизация пользователя id={}: наборов={}, карточек={}", userId, sets.size(), cards.size());
+            return new SyncDTO(token, true, toSetDTOs(sets), toCardDTOs(cards), List.of(), List.of());
+        }
+
+        LocalDateTime from = fromToken(since).minus(overlap);
+        // добавленные после токена наборы клиент ещё не видел, поэтому они отдаются целиком
+        Set<Long> linkedIds = new HashSet<>(flashcardSetRepository.findIdsLinkedSince(userId, from));
+        linkedIds.retainAll(visibleIds);
+        Set<Long> knownIds = new LinkedHashSet<>(visibleIds);
+        knownIds.removeAll(linkedIds);
+        Set<Long> foreignIds = new LinkedHashSet<>(knownIds);
+        foreignIds.removeAll(ownedIds);
+
+        Map<Long, SyncSetRow> sets = new LinkedHashMap<>();
+        flashcardSetRepository.findSyncRowsByOwnerIdChangedSince(userId, from).forEach(row -> sets.put(row.id(), row));
+        inChunks(foreignIds, ids -> flashcardSetRepository.findSyncRowsByIdInChangedSince(ids, from))
+                .forEach(row -> sets.put(row.id(), row));
+        inChunks(linkedIds, flashcardSetRepository::findSyncRowsByIdIn).forEach(row -> sets.put(row.id(), row));
+
+        List<SyncCardRow> cards = new ArrayList<>(inChunks(knownIds, ids -> cardsRepository.findSyncRowsChangedSince(ids, from)));
+        cards.addAll(inChunks(linkedIds, cardsRepository::findSyncRowsByFlashcardSetIdIn));
+
+        // набор мог быть отвязан и снова добавлен после токена: тогда он остаётся у клиента
+        List<Long> deletedSetIds = syncTombstoneRepository.findDeletedSetIds(userId, from).stream()
+                .filter(id -> !visibleIds.contains(id))
+                .toList();
+        List<Long> deletedCardIds = inChunks(knownIds, ids -> syncTombstoneRepository.findDeletedCardIds(ids, from));
+
+        log.debug("Дельта-синхронизация пользователя id={} с {}: наборов={}, карточек={}, удалено наборов={}, карточек={}",
+                userId, from, sets.size(), cards.size(), deletedSetIds.size(), deletedCardIds.size());
+        return new SyncDTO(token, false, toSetDTOs(sets.values()), toCardDTOs(cards), deletedSetIds, deletedCardIds);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${app.sync.tombstone-purge-cron:0 30 3 * * *}")
+    public int purgeTombstones() {
+        int purged = syncTombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+        log.info("Удалено {} просроченных отметок синхронизации", purged);
+        return purged;
+    }
+
+    private static <T> List<T> inChunks(Collection<Long> ids, Function<List<Long>, List<T>> query) {
+        List<Long> list = List.copyOf(ids);
+        List<T> result = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += ID_CHUNK) {
+            result.addAll(query.apply(list.subList(from, Math.min(from + ID_CHUNK, list.size()))));
+        }
+        return result;
+    }
+
+    private static long toToken(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime fromToken(long token) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(token), ZoneId.systemDefault());
+    }
+
+    private static List<SyncSetDTO> toSetDTOs(Collection<SyncSetRow> rows) {
+        return rows.stream()
+                .map(row -> new SyncSetDTO(row.id(), row.ownerId(), row.name(), row.description(), row.shared(),
+                        row.cardCount(), row.updatedAt(), row.version()))
+                .toList();
+    }
+
+    private static List<SyncCardDTO> toCardDTOs(Collection<SyncCardRow> rows) {
+        return rows.stream()
+                .map(row -> new SyncCardDTO(row.id(), row.flashcardSetId(), row.term(), row.definition(),
+                        row.updatedAt(), row.version()))
+                .toList();
+    }
+}
@@ -0,0 +1,200 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sekhanov.flashcard.event.CardTermsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Хранящийся в памяти индекс терминов карточек для автодополнения, отдельный для каждого пользователя.
+ * <p>
+ * Индекс пользователя строится при первом запросе подсказок из терминов его наборов, после чего
+ * поддерживается точечно: добавленные и удалённые термины из {@link CardTermsChangedEvent} применяются
+ * к нему после коммита, а событие с {@code rebuild = true} сбрасывает индекс.
+ * Построение идёт в потоке запроса, но вне блокировок кэша: в кэш сначала кладётся незавершённый
+ * {@link CompletableFuture}, и параллельные запросы того же пользователя ждут его, а не держат
+ * блокировку секции {@code ConcurrentHashMap} на время чтения из БД.
+ * </p>
+ * <p>
+ * Событие, пришедшее во время построения, нельзя ни применить, ни пропустить: неизвестно, успело ли
+ * построение прочитать его изменения. Поэтому такое событие лишь помечает построение как конфликтующее;
+ * результат конфликтующего построения отдаётся ожидающим его запросам, но в кэше не остаётся,
+ * и следующий запрос строит индекс заново. События без конфликта перестроения не вызывают.
+ * </p>
+ * <p>
+ * Индексы неактивных пользователей вытесняются через {@code app.suggest.ttl}, их число ограничено
+ * {@code app.suggest.max-users}. Статистика публикуется в Micrometer под именем кэша {@code termSuggest}.
+ * Термины хранятся в отсортированном словаре с ключом «термин в нижнем регистре + исходный термин»
+ * и числом карточек на ключ, поэтому поиск по префиксу без учёта регистра — это один диапазон:
+ * O(log n + k), а удаление одной из одинаковых карточек не убирает термин.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TermSuggestIndex implements MeterBinder {
+
+    private static final String CACHE_NAME = "termSuggest";
+
+    private final AsyncCache<Long, UserTerms> cache;
+    /** Идущие построения: пользователь → признак того, что во время построения пришло событие. */
+    private final ConcurrentHashMap<Long, AtomicBoolean> pendingBuilds = new ConcurrentHashMap<>();
+
+    public TermSuggestIndex(@Value("${app.suggest.max-users:10000}") long maxUsers,
+                            @Value("${app.suggest.ttl:15m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .buildAsync();
+        log.info("Индекс подсказок терминов инициализирован: maxUsers={}, ttl={}", maxUsers, ttl);
+    }
+
+    /**
+     * Возвращает термины пользователя, начинающиеся с префикса без учёта регистра.
+     *
+     * @param userId идентификатор пользователя
+     * @param prefix префикс
+     * @param limit  максимальное число подсказок
+     * @param loader загрузка всех терминов пользователя из БД при первом обращении
+     * @return термины в алфавитном порядке без повторов
+     */
+    public List<String> suggest(Long userId, String prefix, int limit, Function<Long, List<String>> loader) {
+        CompletableFuture<UserTerms> created = new CompletableFuture<>();
+        CompletableFuture<UserTerms> terms = cache.get(userId, (id, executor) -> created);
+        if (terms == created) {
+            build(userId, created, loader);
+        }
+        try {
+            return terms.join().withPrefix(prefix, limit);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Применяет изменения терминов к построенному индексу пользователя после коммита транзакции.
+     * Если индекс ещё не построен, событие пропускается: он будет построен из БД; если строится —
+     * построение помечается конфликтующим.
+     *
+     * @param event событие изменения терминов
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCardTermsChanged(CardTermsChangedEvent event) {
+        Long userId = event.ownerId();
+        AtomicBoolean conflict = pendingBuilds.get(userId);
+        if (conflict != null) {
+            conflict.set(true);
+        }
+        if (event.rebuild()) {
+            log.debug("Сброс индекса подсказок пользователя id={}", userId);
+            cache.synchronous().invalidate(userId);
+            return;
+        }
+        CompletableFuture<UserTerms> terms = cache.getIfPresent(userId);
+        if (terms != null && terms.isDone() && !terms.isCompletedExceptionally()) {
+            terms.join().apply(event.added(), event.removed());
+        }
+    }
+
+    private void build(Long userId, CompletableFuture<UserTerms> created, Function<Long, List<String>> loader) {
+        AtomicBoolean conflict = new AtomicBoolean();
+        pendingBuilds.put(userId, conflict);
+        try {
+            List<String> loaded = loader.apply(userId);
+            log.debug("Построен индекс подсказок пользователя id={}: {} терминов", userId, loaded.size());
+            // future завершается до снятия отметки: событие между ними либо применится к готовому индексу,
+            // либо пометит конфликт, но не потеряется
+            created.complete(new UserTerms(loaded));
+            if (!pendingBuilds.remove(userId, conflict) || conflict.get()) {
+                log.debug("Индекс подсказок пользователя id={} изменился во время построения и будет построен заново", userId);
+                cache.asMap().remove(userId, created);
+            }
+        } catch (RuntimeException e) {
+            // следующий запрос повторит загрузку, ожидающие получат ту же ошибку
+            pendingBuilds.remove(userId, conflict);
+            cache.asMap().remove(userId, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Термины одного пользователя с числом карточек на каждый. Доступ синхронизирован на экземпляре.
+     */
+    private static final class UserTerms {
+
+        private static final char SEPARATOR = '\0';
+
+        private final TreeMap<String, Integer> counts = new TreeMap<>();
+
+        UserTerms(Collection<String> terms) {
+            terms.forEach(this::add);
+        }
+
+        synchronized List<String> withPrefix(String prefix, int limit) {
+            String from = normalize(prefix);
+            List<String> result = new ArrayList<>(Math.min(limit, 16));
+            for (String key : counts.subMap(from, true, from + Character.MAX_VALUE, false).keySet()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.add(key.substring(key.indexOf(SEPARATOR) + 1));
+            }
+            return result;
+        }
+
+        synchronized void apply(Collection<String> added, Collection<String> removed) {
+            removed.forEach(this::remove);
+            added.forEach(this::add);
+        }
+
+        private void add(String term) {
+            String key = key(term);
+            if (key != null) {
+                counts.merge(key, 1, Integer::sum);
+            }
+        }
+
+        private void remove(String term) {
+            String key = key(term);
+            if (key != null) {
+                counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+
+        private static String key(String term) {
+            if (term == null || term.isBlank()) {
+                return null;
+            }
+            String stripped = term.strip();
+            return normalize(stripped) + SEPARATOR + stripped;
+        }
+
+        private static String normalize(String value) {
+            return value.strip().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -4,12 +4,15 @@ import com.sekhanov.flashcard.config.SecurityConfig;
 import com.sekhanov.flashcard.dto.CreateUserDTO;
 import com.sekhanov.flashcard.dto.UserDTO;
 import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.event.UserChangedEvent;
 import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.UserProfile;
 import com.sekhanov.flashcard.service.MailService;
 import com.sekhanov.flashcard.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -28,6 +31,7 @@ import java.util.UUID;
  *     <li>Создание нового пользователя с хэшированием пароля</li>
  *     <li>Получение текущего аутентифицированного пользователя в виде DTO или сущности</li>
  *     <li>Преобразование сущности {@link User} в {@link UserDTO}</li>
+ *     <li>Публикация {@link UserChangedEvent} при изменении данных пользователя для сброса кэшей</li>
  * </ul>
  */
 @Slf4j
@@ -38,6 +42,7 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final MailService mailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.host}")
     private String host;
@@ -47,7 +52,7 @@ public class UserServiceImpl implements UserService {
     public UserDTO createUser(CreateUserDTO dto) {
         log.debug("Создание пользователя с логином '{}' и email '{}'", dto.getLogin(), dto.getEmail());
 
-        if (userRepository.findByLogin(dto.getLogin()) != null) {
+        if (userRepository.existsByLogin(dto.getLogin())) {
             log.warn("Пользователь с логином '{}' уже существует", dto.getLogin());
             throw new IllegalArgumentException("Пользователь с таким логином уже существует");
         }
@@ -79,20 +84,18 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDTO getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-
-        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getPrincipal())) {
-            log.warn("Попытка получить текущего пользователя без авторизации");
-            throw new IllegalStateException("Пользователь не аутентифицирован");
-        }
-
-        SecurityConfig.CustomUserDetails userDetails = (SecurityConfig.CustomUserDetails) auth.getPrincipal();
+        SecurityConfig.CustomUserDetails userDetails = currentUserDetails();
         log.info("Текущий пользователь: id={}, login={}", userDetails.getId(), userDetails.getUsername());
 
-        User user = userRepository.findById(userDetails.getId())
+        UserProfile profile = userRepository.findProfileById(userDetails.getId())
                 .orElseThrow(() -> new IllegalStateException("Пользователь не найден"));
 
-        return toDTO(user);
+        return toDTO(profile);
+    }
+
+    @Override
+    public Long getCurrentUserId() {
+        return currentUserDetails().getId();
     }
 
     @Override
@@ -124,11 +127,33 @@ public class UserServiceImpl implements UserService {
         user.setIsEmailConfirmed(true);
         user.setConfirmationToken(null);
         userRepository.save(user);
+        // подтверждение email не меняет подписанные в токене данные, выданные токены остаются действительными
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getLogin(), false));
 
         log.info("Email успешно подтверждён для пользователя login={}", user.getLogin());
         return toDTO(user);
     }
 
+    private SecurityConfig.CustomUserDetails currentUserDetails() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getPrincipal())) {
+            log.warn("Попытка получить текущего пользователя без авторизации");
+            throw new IllegalStateException("Пользователь не аутентифицирован");
+        }
+        return (SecurityConfig.CustomUserDetails) auth.getPrincipal();
+    }
+
+    private UserDTO toDTO(UserProfile profile) {
+        UserDTO dto = new UserDTO();
+        dto.setId(profile.id());
+        dto.setName(profile.name());
+        dto.setSurname(profile.surname());
+        dto.setLogin(profile.login());
+        dto.setEmail(profile.email());
+        return dto;
+    }
+
     private UserDTO toDTO(User user) {
         UserDTO dto = new UserDTO();
         dto.setId(user.getId());
@@ -0,0 +1,226 @@
+package com.sekhanov.flashcard.utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Потоковый разбор колод карточек в текстовых форматах: CSV, TSV и текстовый экспорт Anki.
+ * <p>
+ * Читает по одной записи за вызов {@link #next()} и держит в памяти только текущую запись,
+ * поэтому объём памяти не зависит от размера файла. Поля в кавычках (CSV и Anki) могут содержать
+ * разделители, переводы строк и удвоенные кавычки. Пустые строки пропускаются.
+ * </p>
+ * <p>
+ * В формате Anki строки, начинающиеся с {@code #}, считаются заголовками; из них учитывается
+ * {@code #separator:} ({@code tab}, {@code comma}, {@code semicolon}, {@code pipe}, {@code space}
+ * или сам символ), остальные игнорируются.
+ * </p>
+ */
+public class DelimitedCardReader implements Closeable {
+
+    /** Предельная длина одного поля; защищает от файлов без переводов строк и незакрытых кавычек. */
+    public static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private static final char QUOTE = '"';
+    private static final int NONE = -2;
+
+    /**
+     * Поддерживаемые форматы импорта.
+     */
+    public enum Format {
+        CSV(',', true, false),
+        TSV('\t', false, false),
+        ANKI('\t', true, true);
+
+        private final char delimiter;
+        private final boolean quoted;
+        private final boolean headers;
+
+        Format(char delimiter, boolean quoted, boolean headers) {
+            this.delimiter = delimiter;
+            this.quoted = quoted;
+            this.headers = headers;
+        }
+
+        /**
+         * Возвращает формат по имени без учёта регистра.
+         *
+         * @param value имя формата: {@code csv}, {@code tsv} или {@code anki}
+         * @return формат
+         * @throws IllegalArgumentException если формат не поддерживается
+         */
+        public static Format of(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Неподдерживаемый формат импорта: " + value);
+            }
+        }
+    }
+
+    private final Reader reader;
+    private final boolean quoted;
+    private final boolean headers;
+    private char delimiter;
+    private int pushedBack = NONE;
+    private long lineNumber = 1;
+    private boolean started;
+
+    public DelimitedCardReader(Reader reader, Format format) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        this.delimiter = format.delimiter;
+        this.quoted = format.quoted;
+        this.headers = format.headers;
+    }
+
+    /**
+     * Читает следующую непустую запись.
+     *
+     * @return поля записи или {@code null}, если данные закончились
+     * @throws IOException              при ошибке чтения
+     * @throws IllegalArgumentException если запись повреждена: незакрытая кавычка или слишком длинное поле
+     */
+    public List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (!started) {
+                started = true;
+                if (c == '\uFEFF') {
+                    c = read();
+                }
+            }
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\n' || c == '\r') {
+                endOfLine(c);
+                continue;
+            }
+            if (headers && c == '#') {
+                readHeader();
+                continue;
+            }
+            return readRecord(c);
+        }
+    }
+
+    /**
+     * Возвращает номер текущей строки файла, начиная с 1; используется в сообщениях об ошибках.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readRecord(int first) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        long startLine = lineNumber;
+        int c = first;
+        while (true) {
+            if (c == -1) {
+                if (inQuotes) {
+                    throw new IllegalArgumentException("Строка " + startLine + ": незакрытая кавычка");
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (inQuotes) {
+                if (c == QUOTE) {
+                    int following = read();
+                    if (following == QUOTE) {
+                        field.append(QUOTE);
+                    } else {
+                        inQuotes = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == QUOTE && quoted && field.isEmpty()) {
+                inQuotes = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                endOfLine(c);
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            if (field.length() > MAX_FIELD_LENGTH) {
+                throw new IllegalArgumentException("Строка " + startLine + ": поле длиннее " + MAX_FIELD_LENGTH + " символов");
+            }
+            c = read();
+        }
+    }
+
+    private void readHeader() throws IOException {
+        StringBuilder header = new StringBuilder();
+        int c = read();
+        while (c != -1 && c != '\n' && c != '\r') {
+            if (header.length() < MAX_FIELD_LENGTH) {
+                header.append((char) c);
+            }
+            c = read();
+        }
+        if (c != -1) {
+            endOfLine(c);
+        }
+        String line = header.toString().trim();
+        if (line.regionMatches(true, 0, "separator:", 0, "separator:".length())) {
+            delimiter = ankiSeparator(line.substring("separator:".length()).trim());
+        }
+    }
+
+    private static char ankiSeparator(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "tab" -> '\t';
+            case "comma" -> ',';
+            case "semicolon" -> ';';
+            case "pipe" -> '|';
+            case "space" -> ' ';
+            default -> {
+                if (value.length() != 1) {
+                    throw new IllegalArgumentException("Неподдерживаемый разделитель Anki: " + value);
+                }
+                yield value.charAt(0);
+            }
+        };
+    }
+
+    /** Поглощает перевод строки, учитывая пару {@code \r\n}. */
+    private void endOfLine(int c) throws IOException {
+        if (c == '\r') {
+            int following = read();
+            if (following != '\n') {
+                pushedBack = following;
+            }
+        }
+        lineNumber++;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        return reader.read();
+    }
+}
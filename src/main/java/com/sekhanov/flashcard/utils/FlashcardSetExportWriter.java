@@ -0,0 +1,191 @@
+package com.sekhanov.flashcard.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sekhanov.flashcard.repository.projection.ExportCardRow;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Потоковая запись выгрузки наборов карточек в CSV, JSON или NDJSON.
+ * <p>
+ * Принимает строки {@link ExportCardRow} по одной и сразу пишет их в поток, не собирая наборы в памяти.
+ * Карточки одного набора должны идти подряд: смена {@code flashcardSetId} закрывает текущий набор.
+ * </p>
+ * <ul>
+ *     <li>CSV: для одного набора — столбцы {@code term,definition}, такой файл можно снова импортировать;
+ *     для нескольких — {@code set_id,set_name,term,definition}, набор без карточек даёт строку с пустыми полями карточки.</li>
+ *     <li>JSON: набор — объект {@code {id, name, description, cards: [{id, term, definition}]}};
+ *     для нескольких наборов — массив таких объектов.</li>
+ *     <li>NDJSON: по одному объекту набора на строку.</li>
+ * </ul>
+ */
+public class FlashcardSetExportWriter implements Closeable {
+
+    /**
+     * Поддерживаемые форматы выгрузки.
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        JSON("application/json", "json"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * Возвращает имя файла выгрузки с расширением формата.
+         *
+         * @param baseName имя файла без расширения
+         */
+        public String fileName(String baseName) {
+            return baseName + "." + extension;
+        }
+
+        /**
+         * Возвращает формат по имени без учёта регистра.
+         *
+         * @param value имя формата: {@code csv}, {@code json} или {@code ndjson}
+         * @return формат
+         * @throws IllegalArgumentException если формат не поддерживается
+         */
+        public static Format of(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Неподдерживаемый формат выгрузки: " + value);
+            }
+        }
+    }
+
+    private final Format format;
+    private final boolean multipleSets;
+    private final Writer csv;
+    private final JsonGenerator json;
+    private Long currentSetId;
+
+    /**
+     * @param out          поток, в который пишется выгрузка; закрывается вместе с писателем
+     * @param format       формат выгрузки
+     * @param multipleSets выгружается несколько наборов (влияет на столбцы CSV и корень JSON)
+     * @param jsonFactory  фабрика генераторов JSON
+     * @throws IOException если не удалось записать начало выгрузки
+     */
+    public FlashcardSetExportWriter(OutputStream out, Format format, boolean multipleSets, JsonFactory jsonFactory) throws IOException {
+        this.format = format;
+        this.multipleSets = multipleSets;
+        if (format == Format.CSV) {
+            this.csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.json = null;
+            csv.write(multipleSets ? "set_id,set_name,term,definition\n" : "term,definition\n");
+        } else {
+            this.csv = null;
+            this.json = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+            // между объектами NDJSON пишется перевод строки, а не пробел по умолчанию
+            json.setRootValueSeparator(null);
+            if (format == Format.JSON && multipleSets) {
+                json.writeStartArray();
+            }
+        }
+    }
+
+    /**
+     * Записывает очередную строку выгрузки.
+     *
+     * @param row карточка с данными набора
+     * @throws IOException если не удалось записать в поток
+     */
+    public void write(ExportCardRow row) throws IOException {
+        if (format == Format.CSV) {
+            writeCsv(row);
+            return;
+        }
+        if (!Objects.equals(currentSetId, row.flashcardSetId())) {
+            endSet();
+            startSet(row);
+        }
+        if (row.cardId() != null) {
+            json.writeStartObject();
+            json.writeNumberField("id", row.cardId());
+            json.writeStringField("term", row.term());
+            json.writeStringField("definition", row.definition());
+            json.writeEndObject();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (csv != null) {
+            csv.close();
+            return;
+        }
+        endSet();
+        if (format == Format.JSON && multipleSets) {
+            json.writeEndArray();
+        }
+        json.close();
+    }
+
+    private void writeCsv(ExportCardRow row) throws IOException {
+        if (multipleSets) {
+            csv.write(String.valueOf(row.flashcardSetId()));
+            csv.write(',');
+            csv.write(csvField(row.setName()));
+            csv.write(',');
+        } else if (row.cardId() == null) {
+            return;
+        }
+        csv.write(csvField(row.term()));
+        csv.write(',');
+        csv.write(csvField(row.definition()));
+        csv.write('\n');
+    }
+
+    private void startSet(ExportCardRow row) throws IOException {
+        currentSetId = row.flashcardSetId();
+        json.writeStartObject();
+        json.writeNumberField("id", row.flashcardSetId());
+        json.writeStringField("name", row.setName());
+        json.writeStringField("description", row.setDescription());
+        json.writeArrayFieldStart("cards");
+    }
+
+    private void endSet() throws IOException {
+        if (currentSetId == null) {
+            return;
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        if (format == Format.NDJSON) {
+            json.writeRaw('\n');
+        }
+        currentSetId = null;
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
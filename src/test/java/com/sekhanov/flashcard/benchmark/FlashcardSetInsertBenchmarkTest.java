@@ -0,0 +1,112 @@
+package com.sekhanov.flashcard.benchmark;
+
+import com.sekhanov.flashcard.entity.Cards;
+import com.sekhanov.flashcard.entity.FlashcardSet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнивает создание набора из {@value #CARDS} карточек построчными вставками и JDBC-пакетами.
+ * <p>
+ * «До» воспроизводит поведение {@code GenerationType.IDENTITY}: размер пакета в сессии равен 1,
+ * и каждая карточка уходит в базу отдельным обращением. «После» — текущие настройки:
+ * id из pooled-последовательности и {@code hibernate.jdbc.batch_size}.
+ * Запускается задачей {@code ./gradlew benchmark}; требует Docker, без него пропускается.
+ * </p>
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FlashcardSetInsertBenchmarkTest {
+
+    private static final int CARDS = 5_000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int ROUNDS = 5;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void createSetWith5000Cards_rowByRowVersusBatched() {
+        Result rowByRow = measure("построчно (как IDENTITY)", 1);
+        Result batched = measure("JDBC-пакетами", null);
+
+        System.out.printf("Ускорение: x%.1f, обращений к БД меньше в %d раз%n",
+                (double) rowByRow.medianMillis() / Math.max(batched.medianMillis(), 1),
+                rowByRow.statements() / Math.max(batched.statements(), 1));
+        assertTrue(batched.statements() * 10 < rowByRow.statements(),
+                "пакетная вставка должна сокращать число обращений к БД хотя бы на порядок");
+    }
+
+    private Result measure(String label, Integer sessionBatchSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            createSet(sessionBatchSize);
+        }
+        long[] millis = new long[ROUNDS];
+        long statements = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            statistics.clear();
+            long started = System.nanoTime();
+            createSet(sessionBatchSize);
+            millis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            statements = statistics.getPrepareStatementCount();
+        }
+        Arrays.sort(millis);
+        Result result = new Result(millis[ROUNDS / 2], statements);
+        System.out.printf("%s: медиана %d мс, подготовлено запросов %d%n", label, result.medianMillis(), result.statements());
+        return result;
+    }
+
+    private void createSet(Integer sessionBatchSize) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (sessionBatchSize != null) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(sessionBatchSize);
+            }
+            FlashcardSet set = new FlashcardSet();
+            set.setName("benchmark_" + System.nanoTime());
+            for (int i = 0; i < CARDS; i++) {
+                Cards card = new Cards();
+                card.setTerm("term_" + i);
+                card.setDefinition("definition_" + i);
+                card.setFlashcardSet(set);
+                set.getCards().add(card);
+            }
+            set.setCardCount(CARDS);
+            entityManager.persist(set);
+            entityManager.flush();
+        });
+    }
+
+    private record Result(long medianMillis, long statements) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.sekhanov.flashcard.config;
+
+import com.sekhanov.flashcard.event.UserChangedEvent;
+import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.UserCredentials;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachedUserDetailsServiceTest {
+    private UserRepository userRepository;
+    private CachedUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userDetailsService = new CachedUserDetailsService(userRepository, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void loadUserByUsername_calledTwice_queriesRepositoryOnce() {
+        when(userRepository.findCredentialsByLogin("u1")).thenReturn(Optional.of(makeCredentials()));
+
+        UserDetails first = userDetailsService.loadUserByUsername("u1");
+        UserDetails second = userDetailsService.loadUserByUsername("u1");
+
+        assertEquals("u1", second.getUsername());
+        assertEquals("p", second.getPassword());
+        assertNotSame(first, second);
+        verify(userRepository, times(1)).findCredentialsByLogin("u1");
+    }
+
+    @Test
+    void loadUserByUsername_afterUserChangedEvent_reloadsUser() {
+        when(userRepository.findCredentialsByLogin("u1")).thenReturn(Optional.of(makeCredentials()));
+
+        userDetailsService.loadUserByUsername("u1");
+        userDetailsService.onUserChanged(new UserChangedEvent(42L, "u1", false));
+        userDetailsService.loadUserByUsername("u1");
+
+        verify(userRepository, times(2)).findCredentialsByLogin("u1");
+    }
+
+    @Test
+    void loadUserByUsername_nonexistentUser_throwsAndDoesNotCacheMiss() {
+        when(userRepository.findCredentialsByLogin("missing")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("missing"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("missing"));
+        verify(userRepository, times(2)).findCredentialsByLogin("missing");
+    }
+
+    @Test
+    void loadUserByUsername_whenUserChangesDuringLoad_doesNotCacheStaleUser() {
+        when(userRepository.findCredentialsByLogin("u1")).thenAnswer(invocation -> {
+            userDetailsService.onUserChanged(new UserChangedEvent(42L, "u1", false));
+            return Optional.of(makeCredentials());
+        });
+
+        userDetailsService.loadUserByUsername("u1");
+        userDetailsService.loadUserByUsername("u1");
+
+        verify(userRepository, times(2)).findCredentialsByLogin("u1");
+    }
+
+    @Test
+    void loadUserByUsername_whenRepositoryFails_retriesOnNextCall() {
+        when(userRepository.findCredentialsByLogin("u1"))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(Optional.of(makeCredentials()));
+
+        assertThrows(IllegalStateException.class, () -> userDetailsService.loadUserByUsername("u1"));
+        assertEquals("u1", userDetailsService.loadUserByUsername("u1").getUsername());
+    }
+
+    @Test
+    void bindTo_registersHitAndMissMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userDetailsService.bindTo(registry);
+        when(userRepository.findCredentialsByLogin("u1")).thenReturn(Optional.of(makeCredentials()));
+
+        userDetailsService.loadUserByUsername("u1");
+        userDetailsService.loadUserByUsername("u1");
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "userDetails").tag("result", "miss").functionCounter().count());
+    }
+
+    private UserCredentials makeCredentials() {
+        return new UserCredentials(42L, "u1", null, null, "p");
+    }
+}
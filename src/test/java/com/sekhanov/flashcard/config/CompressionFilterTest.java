@@ -0,0 +1,284 @@
+package com.sekhanov.flashcard.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CompressionFilter filter =
+            new CompressionFilter(1024, 6, List.of("application/json", "application/x-ndjson"), registry);
+
+    @Test
+    void doFilter_largeJson_compressesBodyAndRecordsMetrics() throws ServletException, IOException {
+        byte[] body = json(4096);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(gzipRequest(), res, writing("application/json", body));
+
+        assertEquals("gzip", res.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, res.getHeader(HttpHeaders.VARY));
+        assertArrayEquals(body, gunzip(res.getContentAsByteArray(), body.length));
+        assertTrue(res.getContentAsByteArray().length < body.length);
+        assertEquals(1, registry.get("http.server.compression.ratio").summary().count());
+        assertEquals(body.length, registry.get("http.server.compression.bytes").tag("stage", "raw").counter().count());
+        assertEquals(1, registry.get("http.server.compression.time").timer().count());
+        assertEquals(1, registry.get("http.server.compression.cpu").timer().count());
+    }
+
+    @Test
+    void doFilter_onVirtualThread_recordsDeflateTimeButNotCpu() throws Exception {
+        byte[] body = json(4096);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        Thread thread = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(gzipRequest(), res, writing("application/json", body));
+            } catch (ServletException | IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.join();
+
+        assertArrayEquals(body, gunzip(res.getContentAsByteArray(), body.length));
+        assertEquals(1, registry.get("http.server.compression.time").timer().count());
+        assertEquals(0, registry.get("http.server.compression.cpu").timer().count());
+    }
+
+    @Test
+    void doFilter_bodyBelowThreshold_sendsIdentityWithLength() throws ServletException, IOException {
+        byte[] body = json(100);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(gzipRequest(), res, writing("application/json", body));
+
+        assertNull(res.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body.length, res.getContentLength());
+        assertArrayEquals(body, res.getContentAsByteArray());
+    }
+
+    @Test
+    void doFilter_typeNotAllowed_sendsIdentity() throws ServletException, IOException {
+        byte[] body = json(4096);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(gzipRequest(), res, writing("text/csv", body));
+
+        assertNull(res.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, res.getContentAsByteArray());
+    }
+
+    @Test
+    void doFilter_alreadyEncoded_leavesBodyUntouched() throws ServletException, IOException {
+        byte[] body = json(4096);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(gzipRequest(), res, (req, response) -> {
+            response.setContentType("application/json");
+            ((HttpServletResponse) response).setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.getOutputStream().write(body);
+        });
+
+        assertArrayEquals(body, res.getContentAsByteArray());
+    }
+
+    @Test
+    void doFilter_withoutAcceptEncoding_sendsIdentity() throws ServletException, IOException {
+        byte[] body = json(4096);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/flashcardSet"), res, writing("application/json", body));
+
+        assertNull(res.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, res.getContentAsByteArray());
+    }
+
+    @Test
+    void doFilter_flushAfterThreshold_sendsCompressedPartImmediately() throws ServletException, IOException {
+        byte[] first = json(2048);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        byte[][] flushed = new byte[1][];
+
+        filter.doFilter(gzipRequest(), res, (req, response) -> {
+            response.setContentType("application/x-ndjson");
+            response.getOutputStream().write(first);
+            response.getOutputStream().flush();
+            flushed[0] = res.getContentAsByteArray();
+            response.getOutputStream().write(json(2048));
+        });
+
+        assertArrayEquals(first, gunzip(flushed[0], first.length));
+    }
+
+    @Test
+    void doFilter_compressedWithStrongETag_weakensETag() throws ServletException, IOException {
+        byte[] body = json(4096);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(gzipRequest(), res, (req, response) -> {
+            ((HttpServletResponse) response).setHeader(HttpHeaders.ETAG, "\"1-4\"");
+            writing("application/json", body).doFilter(req, response);
+        });
+
+        assertEquals("gzip", res.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("W/\"1-4\"", res.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void doFilter_identityWithStrongETag_keepsETag() throws ServletException, IOException {
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        filter.doFilter(gzipRequest(), res, (req, response) -> {
+            ((HttpServletResponse) response).setHeader(HttpHeaders.ETAG, "\"1-4\"");
+            writing("application/json", json(100)).doFilter(req, response);
+        });
+
+        assertEquals("\"1-4\"", res.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void doFilter_asyncStarted_finishesOnAsyncDispatch() throws ServletException, IOException {
+        byte[] body = json(4096);
+        MockHttpServletRequest req = gzipRequest();
+        req.setAsyncSupported(true);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        ServletResponse[] wrapped = new ServletResponse[1];
+
+        filter.doFilter(req, res, (request, response) -> {
+            wrapped[0] = response;
+            request.startAsync(request, response);
+            writing("application/json", body).doFilter(request, response);
+        });
+        assertEquals(0, registry.get("http.server.compression.ratio").summary().count());
+
+        req.setAsyncStarted(false);
+        req.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(req, wrapped[0], (request, response) -> { });
+
+        assertArrayEquals(body, gunzip(res.getContentAsByteArray(), body.length));
+        assertEquals(1, registry.get("http.server.compression.ratio").summary().count());
+    }
+
+    @Test
+    void setWriteListener_beforeWrites_switchesToIdentityAndDelegates() throws ServletException, IOException {
+        byte[] body = json(4096);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        ListenerRecordingResponse container = new ListenerRecordingResponse(res);
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+
+        filter.doFilter(gzipRequest(), container, (req, response) -> {
+            response.setContentType("application/json");
+            response.getOutputStream().setWriteListener(listener);
+            response.getOutputStream().write(body);
+        });
+
+        assertSame(listener, container.listener);
+        assertNull(res.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, res.getContentAsByteArray());
+    }
+
+    @Test
+    void acceptsGzip_shouldRespectZeroQuality() {
+        assertTrue(CompressionFilter.acceptsGzip("br, gzip;q=0.8"));
+        assertTrue(CompressionFilter.acceptsGzip("*"));
+        assertFalse(CompressionFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(CompressionFilter.acceptsGzip("identity"));
+        assertFalse(CompressionFilter.acceptsGzip(null));
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/flashcardSet/1/cards");
+        req.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        return req;
+    }
+
+    private static FilterChain writing(String contentType, byte[] body) {
+        return (req, res) -> {
+            res.setContentType(contentType);
+            res.getOutputStream().write(body);
+            res.getOutputStream().flush();
+        };
+    }
+
+    private static byte[] json(int size) {
+        StringBuilder sb = new StringBuilder(size);
+        while (sb.length() < size) {
+            sb.append("{\"term\":\"word\",\"definition\":\"слово\"}\n");
+        }
+        return sb.substring(0, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ответ контейнера, поток которого запоминает переданный {@link WriteListener}.
+     */
+    private static final class ListenerRecordingResponse extends HttpServletResponseWrapper {
+
+        private WriteListener listener;
+        private ServletOutputStream stream;
+
+        ListenerRecordingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        listener = writeListener;
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                    }
+                };
+            }
+            return stream;
+        }
+    }
+
+    private static byte[] gunzip(byte[] data, int length) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readNBytes(length);
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import java.io.IOException;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -45,17 +46,70 @@ class JwtFilterTest {
         MockHttpServletResponse res = new MockHttpServletResponse();
         UserDetails userDetails = new User("u1", "password", List.of());
 
-        when(jwtService.validateToken(token)).thenReturn(true);
-        when(jwtService.extractLogin(token)).thenReturn("u1");
+        when(jwtService.parse(token)).thenReturn(Optional.of(
+                new JwtService.ParsedToken("u1", null, null, null, new Date(), new Date(System.currentTimeMillis() + 3_600_000))));
         when(userDetailsService.loadUserByUsername("u1")).thenReturn(userDetails);
-        when(jwtService.extractExpiration(token)).thenReturn(new Date(System.currentTimeMillis() + 60_000));
 
         jwtFilter.doFilterInternal(req, res, (request, response) -> {});
 
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         assertEquals("u1", SecurityContextHolder.getContext().getAuthentication().getName());
-        verify(jwtService).validateToken(token);
+        verify(jwtService).parse(token);
+        verify(jwtService, never()).validateToken(token);
         verify(userDetailsService).loadUserByUsername("u1");
+        assertNull(res.getHeader("Authorization"));
+    }
+
+    @Test
+    void doFilterInternal_tokenCloseToExpiry_refreshesToken() throws ServletException, IOException {
+        String token = "expiringToken";
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        when(jwtService.parse(token)).thenReturn(Optional.of(
+                new JwtService.ParsedToken("u1", null, null, null, new Date(), new Date(System.currentTimeMillis() + 60_000))));
+        when(userDetailsService.loadUserByUsername("u1")).thenReturn(new User("u1", "password", List.of()));
+        when(jwtService.refreshToken(token)).thenReturn("refreshedToken");
+
+        jwtFilter.doFilterInternal(req, res, (request, response) -> {});
+
+        assertEquals("Bearer refreshedToken", res.getHeader("Authorization"));
+    }
+
+    @Test
+    void doFilterInternal_statelessPrincipal_buildsUserFromClaimsWithoutLookup() throws ServletException, IOException {
+        String token = "statelessToken";
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        jwtFilter.setStatelessPrincipal(true);
+
+        when(jwtService.parse(token)).thenReturn(Optional.of(new JwtService.ParsedToken(
+                "u1", 42L, "Ivan", "Petrov", new Date(), new Date(System.currentTimeMillis() + 3_600_000))));
+
+        jwtFilter.doFilterInternal(req, res, (request, response) -> {});
+
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityConfig.CustomUserDetails userDetails = assertInstanceOf(SecurityConfig.CustomUserDetails.class, principal);
+        assertEquals(42L, userDetails.getId());
+        assertEquals("u1", userDetails.getUsername());
+        assertEquals("Ivan", userDetails.getName());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void doFilterInternal_invalidToken_doesNotSetAuthentication() throws ServletException, IOException {
+        MockHttpServletRequest req = new MockHttpServletRequest();
+        req.addHeader("Authorization", "Bearer broken");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        when(jwtService.parse("broken")).thenReturn(Optional.empty());
+
+        jwtFilter.doFilterInternal(req, res, (request, response) -> {});
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
     }
 
     @Test
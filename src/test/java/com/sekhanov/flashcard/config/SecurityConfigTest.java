@@ -1,7 +1,7 @@
 package com.sekhanov.flashcard.config;
 
-import com.sekhanov.flashcard.entity.User;
 import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.UserCredentials;
 import com.sekhanov.flashcard.service.JwtService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +14,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,11 +36,8 @@ class SecurityConfigTest {
 
     @Test
     void userDetailsService_existingUser_returnsUserDetails() {
-        User user = new User();
-        user.setId(42L);
-        user.setLogin("u1");
-        user.setPassword("p");
-        when(userRepository.findByLogin("u1")).thenReturn(user);
+        when(userRepository.findCredentialsByLogin("u1"))
+                .thenReturn(Optional.of(new UserCredentials(42L, "u1", null, null, "p")));
 
         UserDetails details = securityConfig.userDetailsService().loadUserByUsername("u1");
 
@@ -49,7 +47,7 @@ class SecurityConfigTest {
 
     @Test
     void userDetailsService_nonexistentUser_throwsUsernameNotFoundException() {
-        when(userRepository.findByLogin("missing")).thenReturn(null);
+        when(userRepository.findCredentialsByLogin("missing")).thenReturn(Optional.empty());
 
         assertThrows(UsernameNotFoundException.class,
                 () -> securityConfig.userDetailsService().loadUserByUsername("missing"));
@@ -71,6 +69,7 @@ class SecurityConfigTest {
         assertEquals(allowedOrigins, config.getAllowedOrigins());
         assertEquals(List.of("GET","POST","PUT","PATCH","DELETE","OPTIONS"), config.getAllowedMethods());
         assertEquals(List.of("Authorization","Content-Type"), config.getAllowedHeaders());
+        assertEquals(List.of("X-Next-Cursor"), config.getExposedHeaders());
         assertTrue(Boolean.TRUE.equals(config.getAllowCredentials()));
     }
 }
@@ -1,6 +1,7 @@
 package com.sekhanov.flashcard.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sekhanov.flashcard.config.SecurityConfig;
 import com.sekhanov.flashcard.dto.AuthRequest;
 import com.sekhanov.flashcard.dto.CreateUserDTO;
 import com.sekhanov.flashcard.dto.UserDTO;
@@ -17,6 +18,7 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import java.util.List;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -52,6 +54,23 @@ class AuthControllerTest {
                 .andExpectAll(status().isOk(), content().string("fake-jwt-token"));
     }
 
+    @Test
+    void login_whenPrincipalIsCustomUserDetails_shouldIssueTokenWithUserClaims() throws Exception {
+        AuthRequest authRequest = new AuthRequest("ivan123", "password");
+        SecurityConfig.CustomUserDetails principal =
+                new SecurityConfig.CustomUserDetails(1L, "ivan123", "Ivan", "Petrov", "hash", List.of());
+
+        Mockito.when(authenticationManager.authenticate(Mockito.any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        Mockito.when(jwtService.generateToken(new JwtService.TokenSubject(1L, "ivan123", "Ivan", "Petrov")))
+                .thenReturn("claims-jwt-token");
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authRequest)))
+                .andExpectAll(status().isOk(), content().string("claims-jwt-token"));
+    }
+
     @Test
     void login_whenCredentialsAreInvalid_shouldReturnUnauthorized() throws Exception {
         AuthRequest authRequest = new AuthRequest();
@@ -0,0 +1,32 @@
+package com.sekhanov.flashcard.controller;
+
+import com.sekhanov.flashcard.service.CardSuggestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.List;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = CardSuggestController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class CardSuggestControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private CardSuggestService cardSuggestService;
+
+    @Test
+    void suggestTerms_shouldReturnMatchingTerms() throws Exception {
+        when(cardSuggestService.suggestTerms("ap", 5)).thenReturn(List.of("apple", "apricot"));
+
+        mockMvc.perform(get("/api/cards/suggest").param("prefix", "ap").param("limit", "5"))
+                .andExpectAll(status().isOk(),
+                        jsonPath("$[0]").value("apple"),
+                        jsonPath("$[1]").value("apricot"));
+    }
+}
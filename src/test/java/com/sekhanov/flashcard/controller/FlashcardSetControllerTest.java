@@ -2,22 +2,38 @@ package com.sekhanov.flashcard.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sekhanov.flashcard.dto.*;
+import com.sekhanov.flashcard.service.CardImportService;
 import com.sekhanov.flashcard.service.CardsService;
+import com.sekhanov.flashcard.service.FlashcardSetExportService;
 import com.sekhanov.flashcard.service.FlashcardSetService;
 import com.sekhanov.flashcard.service.LastSeenFlashcardSetService;
+import com.sekhanov.flashcard.service.SharedFlashcardSetJsonCache;
+import com.sekhanov.flashcard.service.SharedFlashcardSetJsonCache.SerializedFlashcardSet;
+import com.sekhanov.flashcard.utils.FlashcardSetExportWriter;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +51,12 @@ class FlashcardSetControllerTest {
     private LastSeenFlashcardSetService lastSeenFlashcardSetService;
     @MockitoBean
     private CardsService cardsService;
+    @MockitoBean
+    private CardImportService cardImportService;
+    @MockitoBean
+    private FlashcardSetExportService flashcardSetExportService;
+    @MockitoBean
+    private SharedFlashcardSetJsonCache sharedFlashcardSetJsonCache;
 
     @Test
     void createFlashcardSet_withValidRequest_shouldReturnCreatedSet() throws Exception {
@@ -81,6 +103,100 @@ class FlashcardSetControllerTest {
                 });
     }
 
+    @Test
+    void getFlashcardSetById_withCurrentETag_shouldReturnNotModifiedWithoutLoading() throws Exception {
+        FlashcardSetDTO summary = summary(1L, 3L);
+        when(flashcardSetService.getFlashcardSetSummary(1L)).thenReturn(Optional.of(summary));
+
+        mockMvc.perform(get("/api/flashcardSet/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpectAll(status().isNotModified(),
+                        header().string(HttpHeaders.ETAG, "\"1-3\""),
+                        content().string(""));
+        verify(flashcardSetService, never()).getFlashcardSetById(anyLong());
+        verify(flashcardSetService, never()).findFlashcardSetById(anyLong());
+        verify(sharedFlashcardSetJsonCache, never()).get(anyLong(), anyLong());
+        verify(lastSeenFlashcardSetService).saveLastSeenSet(summary);
+    }
+
+    @Test
+    void getFlashcardSetById_withStaleETag_shouldReturnSetWithNewETag() throws Exception {
+        FlashcardSetDTO responseDto = new FlashcardSetDTO();
+        responseDto.setId(1L);
+        responseDto.setName("English Basics");
+        responseDto.setVersion(4L);
+        when(flashcardSetService.getFlashcardSetSummary(1L)).thenReturn(Optional.of(summary(1L, 4L)));
+        when(flashcardSetService.getFlashcardSetById(1L)).thenReturn(Optional.of(responseDto));
+
+        mockMvc.perform(get("/api/flashcardSet/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpectAll(status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"1-4\""),
+                        header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"),
+                        jsonPath("$.version").value(4L));
+    }
+
+    @Test
+    void getFlashcardSetById_withSerializedSharedSet_shouldWriteCachedBytes() throws Exception {
+        FlashcardSetDTO summary = new FlashcardSetDTO();
+        summary.setId(1L);
+        byte[] json = "{\"id\":1,\"name\":\"Shared\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] gzip = {31, -117, 8, 0};
+        when(flashcardSetService.getFlashcardSetSummary(1L)).thenReturn(Optional.of(summary(1L, 5L)));
+        when(sharedFlashcardSetJsonCache.get(1L, 5L)).thenReturn(Optional.of(new SerializedFlashcardSet(summary, 5L, json, gzip)));
+
+        mockMvc.perform(get("/api/flashcardSet/1"))
+                .andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON),
+                        header().string(HttpHeaders.ETAG, "\"1-5\""),
+                        header().doesNotExist(HttpHeaders.CONTENT_ENCODING),
+                        jsonPath("$.name").value("Shared"));
+        mockMvc.perform(get("/api/flashcardSet/1").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpectAll(status().isOk(),
+                        header().string(HttpHeaders.CONTENT_ENCODING, "gzip"),
+                        header().string(HttpHeaders.ETAG, "\"1-5-gzip\""),
+                        content().bytes(gzip));
+        verify(flashcardSetService, never()).getFlashcardSetById(anyLong());
+        verify(lastSeenFlashcardSetService, times(2)).saveLastSeenSet(summary);
+    }
+
+    @Test
+    void getFlashcardSetById_whenLoaded_shouldOfferSetToSerializedCache() throws Exception {
+        FlashcardSetDTO responseDto = new FlashcardSetDTO();
+        responseDto.setId(1L);
+        responseDto.setVersion(2L);
+        responseDto.setShared(true);
+        when(flashcardSetService.getFlashcardSetSummary(1L)).thenReturn(Optional.of(summary(1L, 2L)));
+        when(flashcardSetService.getFlashcardSetById(1L)).thenReturn(Optional.of(responseDto));
+
+        mockMvc.perform(get("/api/flashcardSet/1"))
+                .andExpectAll(status().isOk(), jsonPath("$.shared").value(true));
+        verify(sharedFlashcardSetJsonCache).put(responseDto);
+    }
+
+    @Test
+    void getFlashcardSetById_whenLoadedSharedSet_shouldWriteBytesProducedByCache() throws Exception {
+        FlashcardSetDTO responseDto = new FlashcardSetDTO();
+        responseDto.setId(1L);
+        responseDto.setVersion(2L);
+        responseDto.setShared(true);
+        byte[] json = "{\"id\":1,\"name\":\"From cache\"}".getBytes(StandardCharsets.UTF_8);
+        when(flashcardSetService.getFlashcardSetSummary(1L)).thenReturn(Optional.of(summary(1L, 2L)));
+        when(flashcardSetService.getFlashcardSetById(1L)).thenReturn(Optional.of(responseDto));
+        when(sharedFlashcardSetJsonCache.put(responseDto)).thenReturn(Optional.of(new SerializedFlashcardSet(responseDto, 2L, json, null)));
+
+        mockMvc.perform(get("/api/flashcardSet/1").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpectAll(status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"1-2\""),
+                        header().doesNotExist(HttpHeaders.CONTENT_ENCODING),
+                        content().bytes(json));
+    }
+
+    @Test
+    void getFlashcardSetById_withCurrentGzipETag_shouldReturnNotModified() throws Exception {
+        when(flashcardSetService.getFlashcardSetSummary(1L)).thenReturn(Optional.of(summary(1L, 5L)));
+
+        mockMvc.perform(get("/api/flashcardSet/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-5-gzip\""))
+                .andExpectAll(status().isNotModified(), header().string(HttpHeaders.ETAG, "\"1-5-gzip\""));
+    }
+
     @Test
     void updateFlashcardSet_withExistingId_shouldReturnUpdatedSet() throws Exception {
         CreateFlashcardSetDTO requestDto = new CreateFlashcardSetDTO();
@@ -89,6 +205,7 @@ class FlashcardSetControllerTest {
         FlashcardSetDTO responseDto = new FlashcardSetDTO();
         responseDto.setId(1L);
         responseDto.setName("Updated Name");
+        responseDto.setMerge(new CardsMergeDTO(2, 1, 3, 4));
 
         when(flashcardSetService.updateFlashcardSet(anyLong(), any(CreateFlashcardSetDTO.class))).thenReturn(Optional.of(responseDto));
 
@@ -97,7 +214,11 @@ class FlashcardSetControllerTest {
                         .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpectAll(status().isOk(), content().contentType(MediaType.APPLICATION_JSON),
                         jsonPath("$.id").value(1L),
-                        jsonPath("$.name").value("Updated Name"));
+                        jsonPath("$.name").value("Updated Name"),
+                        jsonPath("$.merge.inserted").value(2),
+                        jsonPath("$.merge.updated").value(1),
+                        jsonPath("$.merge.deleted").value(3),
+                        jsonPath("$.merge.unchanged").value(4));
     }
 
     @Test
@@ -165,4 +286,211 @@ class FlashcardSetControllerTest {
                         jsonPath("$[0].id").value(1L),
                         jsonPath("$[0].name").value("Owner Set"));
     }
+
+    @Test
+    void getAllFlashcardSet_withNextPage_shouldReturnItemsAndCursorHeader() throws Exception {
+        FlashcardSetDTO dto = new FlashcardSetDTO();
+        dto.setId(5L);
+        dto.setName("Paged Set");
+        dto.setCardsCount(3L);
+
+        when(flashcardSetService.getFlashcardSetPage(2L, 1, true)).thenReturn(new CursorPageDTO<>(List.of(dto), 5L));
+
+        mockMvc.perform(get("/api/flashcardSet").param("after", "2").param("limit", "1").param("summary", "true"))
+                .andExpectAll(status().isOk(),
+                        header().string(FlashcardSetController.NEXT_CURSOR_HEADER, "5"),
+                        jsonPath("$[0].id").value(5L),
+                        jsonPath("$[0].cardsCount").value(3));
+    }
+
+    @Test
+    void getAllFlashcardSet_onLastPage_shouldNotReturnCursorHeader() throws Exception {
+        when(flashcardSetService.getFlashcardSetPage(null, 100, false)).thenReturn(new CursorPageDTO<>(List.of(), null));
+
+        mockMvc.perform(get("/api/flashcardSet"))
+                .andExpectAll(status().isOk(),
+                        header().doesNotExist(FlashcardSetController.NEXT_CURSOR_HEADER),
+                        jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void streamFlashcardSets_shouldWriteOneJsonObjectPerLine() throws Exception {
+        FlashcardSetDTO first = new FlashcardSetDTO();
+        first.setId(1L);
+        FlashcardSetDTO second = new FlashcardSetDTO();
+        second.setId(2L);
+        doAnswer(invocation -> {
+            Consumer<FlashcardSetDTO> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(flashcardSetService).streamFlashcardSetSummaries(any());
+
+        String body = mockMvc.perform(get("/api/flashcardSet/stream"))
+                .andExpectAll(status().isOk(), content().contentTypeCompatibleWith(FlashcardSetController.NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals(1L, objectMapper.readValue(lines.get(0), FlashcardSetDTO.class).getId());
+        assertEquals(2L, objectMapper.readValue(lines.get(1), FlashcardSetDTO.class).getId());
+    }
+
+    @Test
+    void getAllCardsForFlashcardSet_withNextPage_shouldReturnCardsAndCursorHeader() throws Exception {
+        when(cardsService.getCardsPage(1L, 10L, 2))
+                .thenReturn(new CursorPageDTO<>(List.of(new CardsDTO(11L, "a", "1"), new CardsDTO(12L, "b", "2")), 12L));
+
+        mockMvc.perform(get("/api/flashcardSet/1/cards").param("after", "10").param("limit", "2"))
+                .andExpectAll(status().isOk(),
+                        header().string(FlashcardSetController.NEXT_CURSOR_HEADER, "12"),
+                        jsonPath("$.length()").value(2),
+                        jsonPath("$[1].term").value("b"));
+    }
+
+    @Test
+    void getAllCardsForFlashcardSet_shouldReturnSetVersionAsETag() throws Exception {
+        when(flashcardSetService.getFlashcardSetVersion(1L)).thenReturn(Optional.of(7L));
+        when(cardsService.getCardsPage(1L, null, 1000))
+                .thenReturn(new CursorPageDTO<>(List.of(new CardsDTO(11L, "a", "1")), null));
+
+        mockMvc.perform(get("/api/flashcardSet/1/cards"))
+                .andExpectAll(status().isOk(),
+                        header().string(HttpHeaders.ETAG, "\"1-7\""),
+                        header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"),
+                        jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getAllCardsForFlashcardSet_withCurrentETag_shouldReturnNotModifiedWithoutLoading() throws Exception {
+        when(flashcardSetService.getFlashcardSetVersion(1L)).thenReturn(Optional.of(7L));
+
+        mockMvc.perform(get("/api/flashcardSet/1/cards").header(HttpHeaders.IF_NONE_MATCH, "\"1-7\""))
+                .andExpect(status().isNotModified());
+        verify(cardsService, never()).getCardsPage(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void streamCardsForFlashcardSet_shouldWriteOneCardPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<CardsDTO> consumer = invocation.getArgument(1);
+            consumer.accept(new CardsDTO(11L, "a", "1"));
+            consumer.accept(new CardsDTO(12L, "b", "2"));
+            return null;
+        }).when(cardsService).streamCardsForFlashcardSet(eq(1L), any());
+
+        String body = mockMvc.perform(get("/api/flashcardSet/1/cards/stream"))
+                .andExpectAll(status().isOk(), content().contentTypeCompatibleWith(FlashcardSetController.NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(List.of("a", "b"), body.lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, CardsDTO.class).getTerm();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList());
+    }
+
+    @Test
+    void createCardsBatch_shouldReturnCreatedCards() throws Exception {
+        List<CreateCardsDTO> request = List.of(new CreateCardsDTO("a", "1"), new CreateCardsDTO("b", "2"));
+        when(cardsService.createCardsBatch(eq(1L), any()))
+                .thenReturn(List.of(new CardsDTO(11L, "a", "1"), new CardsDTO(12L, "b", "2")));
+
+        mockMvc.perform(post("/api/flashcardSet/1/cards:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpectAll(status().isCreated(),
+                        jsonPath("$.length()").value(2),
+                        jsonPath("$[1].id").value(12L));
+    }
+
+    @Test
+    void updateCardsBatch_withMissingCard_shouldReturnNotFound() throws Exception {
+        when(cardsService.updateCardsBatch(eq(1L), any())).thenThrow(new EntityNotFoundException("Не все слова найдены"));
+
+        mockMvc.perform(patch("/api/flashcardSet/1/cards:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(new CardsDTO(99L, "x", "y")))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteCardsBatch_shouldReturnNoContent() throws Exception {
+        when(cardsService.deleteCardsBatch(1L, List.of(11L, 12L))).thenReturn(2);
+
+        mockMvc.perform(delete("/api/flashcardSet/1/cards:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[11,12]"))
+                .andExpect(status().isNoContent());
+        verify(cardsService).deleteCardsBatch(1L, List.of(11L, 12L));
+    }
+
+    @Test
+    void importFlashcardSet_withValidFile_shouldReturnCreatedStatus() throws Exception {
+        when(cardImportService.importFlashcardSet(eq("imp-1"), eq("Deck"), any(), eq("tsv"), eq(true), any()))
+                .thenReturn(new ImportStatusDTO("imp-1", ImportStatusDTO.Status.COMPLETED, 5L, 2, 0, null));
+
+        mockMvc.perform(post("/api/flashcardSet/import")
+                        .param("name", "Deck").param("format", "tsv").param("skipHeader", "true").param("importId", "imp-1")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("term\tdefinition\na\t1\nb\t2\n"))
+                .andExpectAll(status().isCreated(),
+                        jsonPath("$.flashcardSetId").value(5L),
+                        jsonPath("$.cardsImported").value(2));
+    }
+
+    @Test
+    void importFlashcardSet_withBrokenFile_shouldReturnBadRequest() throws Exception {
+        when(cardImportService.importFlashcardSet(any(), eq("Deck"), any(), eq("csv"), eq(false), any()))
+                .thenReturn(new ImportStatusDTO("imp-2", ImportStatusDTO.Status.FAILED, null, 0, 0, "Строка 1: незакрытая кавычка"));
+
+        mockMvc.perform(post("/api/flashcardSet/import")
+                        .param("name", "Deck")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("\"broken"))
+                .andExpectAll(status().isBadRequest(),
+                        jsonPath("$.status").value("FAILED"),
+                        jsonPath("$.error").value("Строка 1: незакрытая кавычка"));
+    }
+
+    @Test
+    void getImportStatus_whenUnknown_shouldReturnNotFound() throws Exception {
+        when(cardImportService.getImportStatus("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/flashcardSet/import/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportFlashcardSet_asCsv_shouldReturnAttachment() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("term,definition\na,1\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(flashcardSetExportService).exportFlashcardSet(eq(1L), eq(FlashcardSetExportWriter.Format.CSV), any());
+
+        mockMvc.perform(get("/api/flashcardSet/1/export").param("format", "csv"))
+                .andExpectAll(status().isOk(),
+                        content().contentTypeCompatibleWith("text/csv"),
+                        header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"flashcard-set-1.csv\""),
+                        content().string("term,definition\na,1\n"));
+    }
+
+    @Test
+    void exportFlashcardSet_withUnknownFormat_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/flashcardSet/1/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static FlashcardSetDTO summary(Long id, Long version) {
+        FlashcardSetDTO summary = new FlashcardSetDTO();
+        summary.setId(id);
+        summary.setName("English Basics");
+        summary.setCardsCount(2L);
+        summary.setVersion(version);
+        return summary;
+    }
 }
@@ -0,0 +1,45 @@
+package com.sekhanov.flashcard.controller;
+
+import com.sekhanov.flashcard.dto.CursorPageDTO;
+import com.sekhanov.flashcard.dto.SearchHitDTO;
+import com.sekhanov.flashcard.service.SearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.List;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SearchController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class SearchControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private SearchService searchService;
+
+    @Test
+    void search_withNextPage_shouldReturnHitsAndCursorHeader() throws Exception {
+        SearchHitDTO hit = new SearchHitDTO(SearchHitDTO.Type.CARD, 1L, "Animals", 11L, "cat", "кот", 0.9);
+        when(searchService.search("cat", null, 20)).thenReturn(new CursorPageDTO<>(List.of(hit), 20L));
+
+        mockMvc.perform(get("/api/search").param("q", "cat"))
+                .andExpectAll(status().isOk(),
+                        header().string(FlashcardSetController.NEXT_CURSOR_HEADER, "20"),
+                        jsonPath("$[0].type").value("CARD"),
+                        jsonPath("$[0].flashcardSetName").value("Animals"),
+                        jsonPath("$[0].term").value("cat"));
+    }
+
+    @Test
+    void search_withInvalidQuery_shouldReturnBadRequest() throws Exception {
+        when(searchService.search(" ", null, 20)).thenThrow(new IllegalArgumentException("Пустой поисковый запрос"));
+
+        mockMvc.perform(get("/api/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,94 @@
+package com.sekhanov.flashcard.controller;
+
+import com.sekhanov.flashcard.dto.DueCardDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchItemDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchResultDTO;
+import com.sekhanov.flashcard.dto.ReviewRequestDTO;
+import com.sekhanov.flashcard.dto.ReviewStateDTO;
+import com.sekhanov.flashcard.service.StudyService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.List;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = StudyController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class StudyControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private StudyService studyService;
+
+    @Test
+    void getDueCards_shouldReturnQueue() throws Exception {
+        when(studyService.getDueCards(20)).thenReturn(List.of(
+                new DueCardDTO(11L, 1L, "cat", "кот", LocalDateTime.of(2025, 1, 1, 12, 0), true)));
+
+        mockMvc.perform(get("/api/study/due"))
+                .andExpectAll(status().isOk(),
+                        jsonPath("$[0].cardId").value(11),
+                        jsonPath("$[0].term").value("cat"),
+                        jsonPath("$[0].fresh").value(true));
+    }
+
+    @Test
+    void review_shouldReturnNextDueDate() throws Exception {
+        when(studyService.review(new ReviewRequestDTO(11L, ReviewRequestDTO.Grade.GOOD)))
+                .thenReturn(new ReviewStateDTO(11L, 2.5, 1, 1, 0, LocalDateTime.of(2025, 1, 2, 12, 0)));
+
+        mockMvc.perform(post("/api/study/review")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cardId\":11,\"grade\":\"GOOD\"}"))
+                .andExpectAll(status().isOk(),
+                        jsonPath("$.intervalDays").value(1),
+                        jsonPath("$.repetitions").value(1));
+    }
+
+    @Test
+    void reviewBatch_shouldPassReviewsAndReturnSummary() throws Exception {
+        when(studyService.reviewBatch(argThat((List<ReviewBatchItemDTO> reviews) -> reviews.size() == 1
+                && "k-1".equals(reviews.get(0).getIdempotencyKey())
+                && reviews.get(0).getReviewedAt().toInstant().equals(Instant.parse("2025-01-01T06:00:00Z")))))
+                .thenReturn(new ReviewBatchResultDTO(1, 0, 0, List.of()));
+
+        mockMvc.perform(post("/api/study/reviews:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"reviews":[{"idempotencyKey":"k-1","cardId":11,"grade":"EASY","reviewedAt":"2025-01-01T09:00:00+03:00"}]}
+                                """))
+                .andExpectAll(status().isOk(),
+                        jsonPath("$.applied").value(1),
+                        jsonPath("$.duplicates").value(0));
+    }
+
+    @Test
+    void reviewBatch_withInvalidReview_shouldReturnBadRequest() throws Exception {
+        when(studyService.reviewBatch(anyList())).thenThrow(new IllegalArgumentException("В ответе пакета не указана оценка"));
+
+        mockMvc.perform(post("/api/study/reviews:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"reviews\":[{\"idempotencyKey\":\"k-1\",\"cardId\":11}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void enrollFlashcardSet_whenSetMissing_shouldReturnNotFound() throws Exception {
+        when(studyService.enrollFlashcardSet(5L)).thenThrow(new EntityNotFoundException("Список слов с id 5 не найден"));
+
+        mockMvc.perform(post("/api/study/sets/5/enroll"))
+                .andExpect(status().isNotFound());
+    }
+}
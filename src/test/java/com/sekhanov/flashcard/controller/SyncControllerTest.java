@@ -0,0 +1,53 @@
+package com.sekhanov.flashcard.controller;
+
+import com.sekhanov.flashcard.dto.SyncCardDTO;
+import com.sekhanov.flashcard.dto.SyncDTO;
+import com.sekhanov.flashcard.dto.SyncSetDTO;
+import com.sekhanov.flashcard.service.SyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SyncController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class SyncControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private SyncService syncService;
+
+    @Test
+    void sync_withoutToken_shouldReturnFullSnapshot() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(syncService.sync(null)).thenReturn(new SyncDTO(1000L, true,
+                List.of(new SyncSetDTO(1L, 7L, "English", null, false, 1, updatedAt, 0L)),
+                List.of(new SyncCardDTO(10L, 1L, "cat", "кот", updatedAt, 2L)),
+                List.of(), List.of()));
+
+        mockMvc.perform(get("/api/sync"))
+                .andExpectAll(status().isOk(),
+                        jsonPath("$.token").value(1000),
+                        jsonPath("$.full").value(true),
+                        jsonPath("$.sets[0].id").value(1),
+                        jsonPath("$.cards[0].version").value(2));
+    }
+
+    @Test
+    void sync_withToken_shouldReturnDeletions() throws Exception {
+        when(syncService.sync(500L)).thenReturn(new SyncDTO(1000L, false, List.of(), List.of(), List.of(4L), List.of(11L)));
+
+        mockMvc.perform(get("/api/sync").param("since", "500"))
+                .andExpectAll(status().isOk(),
+                        jsonPath("$.full").value(false),
+                        jsonPath("$.deletedSetIds[0]").value(4),
+                        jsonPath("$.deletedCardIds[0]").value(11));
+    }
+}
@@ -1,7 +1,9 @@
 package com.sekhanov.flashcard.controller;
 
 import com.sekhanov.flashcard.dto.UserDTO;
+import com.sekhanov.flashcard.service.FlashcardSetExportService;
 import com.sekhanov.flashcard.service.UserService;
+import com.sekhanov.flashcard.utils.FlashcardSetExportWriter;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -9,6 +11,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -23,6 +28,8 @@ class UserControllerTest {
     private MockMvc mockMvc;
     @MockitoBean
     private UserService userService;
+    @MockitoBean
+    private FlashcardSetExportService flashcardSetExportService;
 
     @Test
     void getCurrentUser_whenAuthenticated_shouldReturnUser() throws Exception {
@@ -50,4 +57,13 @@ class UserControllerTest {
         assertNotNull(cause, "Ожидался RuntimeException");
         assertEquals("Пользователь не аутентифицирован", cause.getMessage());
     }
+
+    @Test
+    void exportCurrentUserFlashcardSets_asNdjson_shouldStreamAttachment() throws Exception {
+        mockMvc.perform(get("/api/users/me/export").param("format", "ndjson"))
+                .andExpectAll(status().isOk(),
+                        content().contentTypeCompatibleWith("application/x-ndjson"),
+                        header().string("Content-Disposition", "attachment; filename=\"flashcards.ndjson\""));
+        verify(flashcardSetExportService).exportCurrentUserFlashcardSets(eq(FlashcardSetExportWriter.Format.NDJSON), any());
+    }
 }
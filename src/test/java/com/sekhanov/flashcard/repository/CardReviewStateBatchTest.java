@@ -0,0 +1,141 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.entity.CardReviewState;
+import com.sekhanov.flashcard.entity.Cards;
+import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.repository.projection.ReviewLogRow;
+import com.sekhanov.flashcard.repository.projection.ReviewStateRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет пакетную запись ответов {@link CardReviewStateRepositoryCustom} на PostgreSQL:
+ * {@code ON CONFLICT}, {@code RETURNING} и {@code FOR UPDATE NOWAIT} в H2 недоступны. Требует Docker; без него тест пропускается.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class CardReviewStateBatchTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private CardReviewStateRepository repository;
+    @Autowired
+    private CardsRepository cardsRepository;
+    @Autowired
+    private FlashcardSetRepository flashcardSetRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Cards card;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setLogin("login_reviewer");
+        user.setEmail("reviewer@example.com");
+        user.setPassword("password");
+        userRepository.save(user);
+        FlashcardSet set = new FlashcardSet();
+        set.setName("Offline deck");
+        set.setOwner(user);
+        flashcardSetRepository.save(set);
+        card = new Cards();
+        card.setFlashcardSet(set);
+        card.setTerm("cat");
+        card.setDefinition("кот");
+        cardsRepository.saveAndFlush(card);
+    }
+
+    @Test
+    void insertReviewLog_RepeatedKeys_ReturnsOnlyNewKeys() {
+        ReviewLogRow first = new ReviewLogRow(user.getId(), "k-1", card.getId(), "GOOD", NOW);
+        ReviewLogRow second = new ReviewLogRow(user.getId(), "k-2", card.getId(), "EASY", NOW);
+
+        assertEquals(Set.of("k-1"), repository.insertReviewLog(List.of(first)));
+        assertEquals(Set.of("k-2"), repository.insertReviewLog(List.of(first, second)));
+    }
+
+    @Test
+    void upsertAll_NewAndExistingState_InsertsThenUpdates() {
+        ReviewStateRow inserted = new ReviewStateRow(user.getId(), card.getId(), 2.5, 1, 1, 0, NOW.plusDays(1), NOW);
+        ReviewStateRow updated = new ReviewStateRow(user.getId(), card.getId(), 2.6, 6, 2, 0, NOW.plusDays(6), NOW.plusDays(1));
+
+        assertEquals(1, repository.upsertAll(List.of(inserted)));
+        assertEquals(1, repository.upsertAll(List.of(updated)));
+
+        List<ReviewStateRow> rows = repository.findRowsByUserIdAndCardIdIn(user.getId(), List.of(card.getId()));
+        assertEquals(List.of(updated), rows);
+        assertTrue(repository.findById(new CardReviewState.CardReviewStateId(user.getId(), card.getId())).isPresent());
+    }
+
+    @Test
+    void lockStates_MissingStateAndDeletedCard_CreatesStateOnlyForExistingCard() {
+        ReviewStateRow existing = new ReviewStateRow(user.getId(), card.getId(), 2.6, 6, 2, 0, NOW.plusDays(6), NOW);
+        Cards other = new Cards();
+        other.setFlashcardSet(card.getFlashcardSet());
+        other.setTerm("dog");
+        other.setDefinition("собака");
+        cardsRepository.saveAndFlush(other);
+        repository.upsertAll(List.of(existing));
+
+        List<ReviewStateRow> rows = repository.lockStates(user.getId(), List.of(other.getId(), -1L, card.getId()), NOW);
+
+        assertEquals(List.of(card.getId(), other.getId()), rows.stream().map(ReviewStateRow::cardId).toList());
+        assertEquals(existing, rows.get(0));
+        assertEquals(new ReviewStateRow(user.getId(), other.getId(), CardReviewState.INITIAL_EASE_FACTOR, 0, 0, 0, NOW, null), rows.get(1));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void lockStates_RowsLockedByOtherTransaction_ConcurrentLockFails() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                repository.lockStates(user.getId(), List.of(card.getId()), NOW);
+
+                // второй пакет того же пользователя не может прочитать строку, пока первый не закоммитит
+                CompletableFuture<Void> concurrent = CompletableFuture.runAsync(() ->
+                        new TransactionTemplate(transactionManager).executeWithoutResult(other -> jdbcTemplate.queryForList(
+                                "SELECT card_id FROM card_review_state WHERE user_id = ? FOR UPDATE NOWAIT", user.getId())));
+                CompletionException e = assertThrows(CompletionException.class, concurrent::join);
+                assertInstanceOf(CannotAcquireLockException.class, e.getCause());
+            });
+        } finally {
+            // тест работает вне откатываемой транзакции и убирает за собой
+            repository.deleteAll();
+            flashcardSetRepository.deleteAll();
+            userRepository.deleteAll();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.entity.Cards;
+import com.sekhanov.flashcard.entity.CardReviewState;
+import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.repository.projection.DueCardRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class CardReviewStateRepositoryTest {
+    @Autowired
+    private CardReviewStateRepository repository;
+    @Autowired
+    private CardsRepository cardsRepository;
+    @Autowired
+    private FlashcardSetRepository flashcardSetRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private FlashcardSet set;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        flashcardSetRepository.deleteAll();
+        user = new User(); user.setLogin("student"); user.setPassword("p"); user.setEmail("student@test");
+        userRepository.save(user);
+        set = new FlashcardSet(); set.setName("Study Set"); set.setOwner(user);
+        flashcardSetRepository.save(set);
+    }
+
+    @Test
+    void enrollFlashcardSet_SomeCardsAlreadyEnrolled_AddsOnlyNewCards() {
+        List<Cards> cards = cardsRepository.saveAll(List.of(makeCard("a"), makeCard("b"), makeCard("c")));
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(3, repository.enrollFlashcardSet(user.getId(), set.getId(), now));
+        assertEquals(0, repository.enrollFlashcardSet(user.getId(), set.getId(), now));
+
+        CardReviewState state = repository.findById(new CardReviewState.CardReviewStateId(user.getId(), cards.get(0).getId())).orElseThrow();
+        assertEquals(CardReviewState.INITIAL_EASE_FACTOR, state.getEaseFactor());
+        assertEquals(0, state.getRepetitions());
+    }
+
+    @Test
+    void findDueByUserId_MixedDueDates_ReturnsOnlyDueCardsInDueOrder() {
+        List<Cards> cards = cardsRepository.saveAll(List.of(makeCard("late"), makeCard("early"), makeCard("future")));
+        LocalDateTime now = LocalDateTime.now();
+        repository.saveAll(List.of(
+                makeState(cards.get(0), now.minusHours(1)),
+                makeState(cards.get(1), now.minusDays(2)),
+                makeState(cards.get(2), now.plusDays(1))));
+
+        List<DueCardRow> due = repository.findDueByUserId(user.getId(), now, Limit.of(10));
+
+        assertEquals(List.of("early", "late"), due.stream().map(DueCardRow::term).toList());
+        assertEquals(set.getId(), due.get(0).flashcardSetId());
+    }
+
+    private Cards makeCard(String term) {
+        Cards card = new Cards(); card.setFlashcardSet(set); card.setTerm(term); card.setDefinition(term + " def");
+        return card;
+    }
+
+    private CardReviewState makeState(Cards card, LocalDateTime dueAt) {
+        CardReviewState state = new CardReviewState();
+        state.setId(new CardReviewState.CardReviewStateId(user.getId(), card.getId()));
+        state.setUser(user); state.setCard(card); state.setDueAt(dueAt);
+        return state;
+    }
+}
@@ -2,10 +2,13 @@ package com.sekhanov.flashcard.repository;
 
 import com.sekhanov.flashcard.entity.Cards;
 import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.repository.projection.CardRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import java.util.ArrayList;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,5 +46,91 @@ class CardsRepositoryTest {
         List<Cards> results = cardsRepository.findByFlashcardSetId(set.getId());
         assertNotNull(results); assertTrue(results.isEmpty());
     }
-}
 
+    @Test
+    void findRowsByFlashcardSetIdIn_CardsInSeveralSets_ReturnsRowsForRequestedSets() {
+        FlashcardSet english = new FlashcardSet(); english.setName("English Basics");
+        FlashcardSet french = new FlashcardSet(); french.setName("French Basics");
+        FlashcardSet other = new FlashcardSet(); other.setName("Other");
+        flashcardSetRepository.saveAll(List.of(english, french, other));
+
+        Cards c1 = new Cards(); c1.setFlashcardSet(english); c1.setTerm("Hello"); c1.setDefinition("Привет");
+        Cards c2 = new Cards(); c2.setFlashcardSet(french); c2.setTerm("Bonjour"); c2.setDefinition("Привет");
+        Cards c3 = new Cards(); c3.setFlashcardSet(other); c3.setTerm("Hola"); c3.setDefinition("Привет");
+        cardsRepository.saveAll(List.of(c1, c2, c3));
+
+        List<CardRow> rows = cardsRepository.findRowsByFlashcardSetIdIn(List.of(english.getId(), french.getId()));
+        assertEquals(2, rows.size());
+        assertEquals(List.of("Hello", "Bonjour"), rows.stream().map(CardRow::term).toList());
+        assertEquals(english.getId(), rows.get(0).flashcardSetId());
+    }
+
+    @Test
+    void findRowsByFlashcardSetIdAfter_WithCursorAndLimit_ReturnsNextPageInIdOrder() {
+        FlashcardSet set = new FlashcardSet(); set.setName("Paged Set");
+        flashcardSetRepository.save(set);
+        List<Cards> cards = cardsRepository.saveAll(List.of(makeCard(set, "a"), makeCard(set, "b"), makeCard(set, "c")));
+
+        List<CardRow> page = cardsRepository.findRowsByFlashcardSetIdAfter(set.getId(), cards.get(0).getId(), Limit.of(1));
+        assertEquals(1, page.size());
+        assertEquals("b", page.get(0).term());
+    }
+
+    @Test
+    void streamByFlashcardSetId_CardsExist_StreamsOnlyCardsOfSetInIdOrder() {
+        FlashcardSet set = new FlashcardSet(); set.setName("Streamed Set");
+        FlashcardSet other = new FlashcardSet(); other.setName("Other Set");
+        flashcardSetRepository.saveAll(List.of(set, other));
+        cardsRepository.saveAllAndFlush(List.of(makeCard(set, "a"), makeCard(other, "x"), makeCard(set, "b")));
+
+        List<CardRow> rows = new ArrayList<>();
+        cardsRepository.streamByFlashcardSetId(set.getId(), rows::add);
+        assertEquals(List.of("a", "b"), rows.stream().map(CardRow::term).toList());
+    }
+
+    @Test
+    void saveAll_ManyCards_AssignsUniqueIdsFromSequence() {
+        FlashcardSet set = new FlashcardSet(); set.setName("Batched Set");
+        flashcardSetRepository.save(set);
+        List<Cards> cards = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            cards.add(makeCard(set, "t" + i));
+        }
+
+        List<Cards> saved = cardsRepository.saveAllAndFlush(cards);
+        assertEquals(120, saved.stream().map(Cards::getId).distinct().count());
+        assertEquals(120, cardsRepository.findByFlashcardSetId(set.getId()).size());
+    }
+
+    @Test
+    void deleteByFlashcardSetIdAndIdIn_IdOfOtherSet_DeletesOnlyCardsOfSet() {
+        FlashcardSet set = new FlashcardSet(); set.setName("Set");
+        FlashcardSet other = new FlashcardSet(); other.setName("Other");
+        flashcardSetRepository.saveAll(List.of(set, other));
+        List<Cards> cards = cardsRepository.saveAllAndFlush(List.of(makeCard(set, "a"), makeCard(set, "b"), makeCard(other, "x")));
+
+        int deleted = cardsRepository.deleteByFlashcardSetIdAndIdIn(set.getId(),
+                List.of(cards.get(0).getId(), cards.get(2).getId()));
+        assertEquals(1, deleted);
+        assertEquals(List.of("b"), cardsRepository.findByFlashcardSetId(set.getId()).stream().map(Cards::getTerm).toList());
+        assertEquals(1, cardsRepository.findByFlashcardSetId(other.getId()).size());
+    }
+
+    @Test
+    void insertAll_Rows_InsertsCardsWithGeneratedIds() {
+        FlashcardSet set = new FlashcardSet(); set.setName("Imported Set");
+        flashcardSetRepository.saveAndFlush(set);
+
+        cardsRepository.insertAll(List.of(new CardRow(null, set.getId(), "a", "1"), new CardRow(null, set.getId(), "b", "2")));
+
+        List<CardRow> rows = new ArrayList<>();
+        cardsRepository.streamByFlashcardSetId(set.getId(), rows::add);
+        assertEquals(List.of("a", "b"), rows.stream().map(CardRow::term).toList());
+        assertTrue(rows.stream().allMatch(row -> row.id() != null));
+    }
+
+    private Cards makeCard(FlashcardSet set, String term) {
+        Cards card = new Cards(); card.setFlashcardSet(set); card.setTerm(term); card.setDefinition(term);
+        return card;
+    }
+}
@@ -1,11 +1,19 @@
 package com.sekhanov.flashcard.repository;
 
+import com.sekhanov.flashcard.entity.Cards;
 import com.sekhanov.flashcard.entity.FlashcardSet;
 import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.repository.projection.ExportCardRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetHeadRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetSummaryRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import java.util.ArrayList;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,6 +23,8 @@ class FlashcardSetRepositoryTest {
     private FlashcardSetRepository flashcardSetRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private TestEntityManager entityManager;
 
     @BeforeEach
     void cleanDatabase() {
@@ -42,9 +52,9 @@ class FlashcardSetRepositoryTest {
         User owner2 = persistUser("owner2");
 
         List<FlashcardSet> sets = List.of(
-                new FlashcardSet(null, "English Basics", null, false, owner1, null, null, null),
-                new FlashcardSet(null, "French Basics", null, false, owner1, null, null, null),
-                new FlashcardSet(null, "Spanish Basics", null, false, owner2, null, null, null));
+                new FlashcardSet(null, "English Basics", null, false, 0, owner1, null, null, null, null, null),
+                new FlashcardSet(null, "French Basics", null, false, 0, owner1, null, null, null, null, null),
+                new FlashcardSet(null, "Spanish Basics", null, false, 0, owner2, null, null, null, null, null));
         flashcardSetRepository.saveAll(sets);
 
         List<FlashcardSet> owner1Sets = flashcardSetRepository.findByOwnerId(owner1.getId());
@@ -63,6 +73,129 @@ class FlashcardSetRepositoryTest {
         assertNotNull(sets); assertTrue(sets.isEmpty());
     }
 
+    @Test
+    void findRowsByOwnerId_SetsExistForOwner_ReturnsRowsWithOwnerName() {
+        User owner = persistUser("rows");
+        owner.setName("Ivan"); owner.setSurname("Petrov");
+        flashcardSetRepository.saveAll(List.of(
+                new FlashcardSet(null, "English Basics", "desc", false, 3, owner, null, null, null, null, null),
+                new FlashcardSet(null, "French Basics", null, false, 0, owner, null, null, null, null, null)));
+
+        List<FlashcardSetRow> rows = flashcardSetRepository.findRowsByOwnerId(owner.getId());
+        assertEquals(2, rows.size());
+        assertEquals("English Basics", rows.get(0).name());
+        assertEquals("desc", rows.get(0).description());
+        assertEquals(3, rows.get(0).cardCount());
+        assertTrue(rows.stream().allMatch(r -> "Ivan".equals(r.ownerName()) && "Petrov".equals(r.ownerSurname())));
+    }
+
+    @Test
+    void findRowsAfter_SetWithoutOwner_ReturnsRowWithNullOwner() {
+        FlashcardSet set = new FlashcardSet(); set.setName("Orphan");
+        flashcardSetRepository.save(set);
+
+        List<FlashcardSetRow> rows = flashcardSetRepository.findRowsAfter(0L, Limit.unlimited());
+        FlashcardSetRow row = rows.stream().filter(r -> r.id().equals(set.getId())).findFirst().orElseThrow();
+        assertEquals("Orphan", row.name());
+        assertNull(row.ownerName());
+    }
+
+    @Test
+    void findRowsAfter_WithCursorAndLimit_ReturnsNextPageInIdOrder() {
+        List<FlashcardSet> sets = flashcardSetRepository.saveAll(List.of(
+                new FlashcardSet(null, "A", null, false, 0, null, null, null, null, null, null),
+                new FlashcardSet(null, "B", null, false, 0, null, null, null, null, null, null),
+                new FlashcardSet(null, "C", null, false, 0, null, null, null, null, null, null)));
+
+        List<FlashcardSetRow> page = flashcardSetRepository.findRowsAfter(sets.get(0).getId(), Limit.of(1));
+        assertEquals(1, page.size());
+        assertEquals(sets.get(1).getId(), page.get(0).id());
+    }
+
+    @Test
+    void streamSummaries_SetsWithCards_StreamsRowsWithCardCounts() {
+        User owner = persistUser("stream");
+        owner.setName("Ivan"); owner.setSurname("Petrov");
+        FlashcardSet set = new FlashcardSet(null, "Streamed", null, false, 1, owner, null, new ArrayList<>(), null, null, null);
+        Cards card = new Cards(); card.setTerm("Hello"); card.setDefinition("Привет"); card.setFlashcardSet(set);
+        set.getCards().add(card);
+        flashcardSetRepository.saveAndFlush(set);
+
+        List<FlashcardSetSummaryRow> rows = new ArrayList<>();
+        flashcardSetRepository.streamSummaries(rows::add);
+
+        FlashcardSetSummaryRow row = rows.stream().filter(r -> r.id().equals(set.getId())).findFirst().orElseThrow();
+        assertEquals("Streamed", row.name());
+        assertEquals("Ivan", row.ownerName());
+        assertEquals(1, row.cardsCount());
+    }
+
+    @Test
+    void adjustCardCount_SetExists_ChangesCountInPlace() {
+        FlashcardSet set = flashcardSetRepository.saveAndFlush(new FlashcardSet(null, "Counted", null, false, 2, null, null, null, null, null, null));
+
+        assertEquals(1, flashcardSetRepository.adjustCardCount(set.getId(), 3));
+        assertEquals(1, flashcardSetRepository.adjustCardCount(set.getId(), -1));
+        entityManager.clear();
+
+        assertEquals(4, flashcardSetRepository.findById(set.getId()).orElseThrow().getCardCount());
+    }
+
+    @Test
+    void touchAndAdjustCardCount_SetExists_BumpVersion() {
+        FlashcardSet set = flashcardSetRepository.saveAndFlush(new FlashcardSet(null, "Versioned", null, false, 0, null, null, null, null, null, null));
+        assertEquals(0L, flashcardSetRepository.findVersionById(set.getId()).orElseThrow());
+
+        flashcardSetRepository.adjustCardCount(set.getId(), 1);
+        flashcardSetRepository.touch(set.getId());
+
+        assertEquals(2L, flashcardSetRepository.findVersionById(set.getId()).orElseThrow());
+        assertTrue(flashcardSetRepository.findVersionById(-1L).isEmpty());
+    }
+
+    @Test
+    void findHeadById_SetExists_ReturnsSummaryWithVersionAndCardCount() {
+        User owner = persistUser("head");
+        owner.setName("Ivan");
+        owner.setSurname("Petrov");
+        FlashcardSet set = flashcardSetRepository.saveAndFlush(new FlashcardSet(null, "Head", "desc", true, 0, owner, null, null, null, null, null));
+        flashcardSetRepository.adjustCardCount(set.getId(), 3);
+        entityManager.clear();
+
+        FlashcardSetHeadRow head = flashcardSetRepository.findHeadById(set.getId()).orElseThrow();
+
+        assertEquals(new FlashcardSetHeadRow(set.getId(), "Head", "desc", "Ivan", "Petrov", 3, 1L, true), head);
+        assertTrue(flashcardSetRepository.findHeadById(-1L).isEmpty());
+    }
+
+    @Test
+    void findIdsByName_DuplicateNames_ReturnsLowestIdFirst() {
+        FlashcardSet first = flashcardSetRepository.save(new FlashcardSet(null, "Same", null, false, 0, null, null, null, null, null, null));
+        flashcardSetRepository.save(new FlashcardSet(null, "Same", null, false, 0, null, null, null, null, null, null));
+
+        assertEquals(List.of(first.getId()), flashcardSetRepository.findIdsByName("Same", Limit.of(1)));
+    }
+
+    @Test
+    void streamExportRowsByUserId_OwnedAndLinkedSets_StreamsRowsGroupedBySet() {
+        User user = persistUser("export");
+        User other = persistUser("export_other");
+        FlashcardSet owned = new FlashcardSet(null, "Owned", null, false, 0, user, null, new ArrayList<>(), null, null, null);
+        Cards card = new Cards(); card.setTerm("Hello"); card.setDefinition("Привет"); card.setFlashcardSet(owned);
+        owned.getCards().add(card);
+        FlashcardSet linked = new FlashcardSet(null, "Linked", null, false, 0, other, null, null, null, null, null);
+        FlashcardSet foreign = new FlashcardSet(null, "Foreign", null, false, 0, other, null, null, null, null, null);
+        flashcardSetRepository.saveAllAndFlush(List.of(owned, linked, foreign));
+        flashcardSetRepository.linkUser(user.getId(), linked.getId());
+
+        List<ExportCardRow> rows = new ArrayList<>();
+        flashcardSetRepository.streamExportRowsByUserId(user.getId(), rows::add);
+
+        assertEquals(List.of("Owned", "Linked"), rows.stream().map(ExportCardRow::setName).toList());
+        assertEquals("Hello", rows.get(0).term());
+        assertNull(rows.get(1).cardId());
+    }
+
     private User persistUser(String suffix) {
         User user = new User();
         user.setLogin("login_" + suffix);
@@ -0,0 +1,114 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.entity.Cards;
+import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.repository.projection.SearchHitRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет поиск {@link FlashcardSetRepositoryCustom#search} на PostgreSQL:
+ * tsvector-колонки и pg_trgm в H2 недоступны. Требует Docker; без него тест пропускается.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class FlashcardSetSearchTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private FlashcardSetRepository flashcardSetRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private User stranger;
+
+    @BeforeEach
+    void setUp() {
+        user = persistUser("searcher");
+        stranger = persistUser("stranger");
+    }
+
+    @Test
+    void search_WordInTermAndSetName_RanksAndReturnsBothKinds() {
+        FlashcardSet animals = persistSet("Animals", "Common pets", user, false, "cat", "кот", "dog", "собака");
+        persistSet("Cat breeds", null, user, false, "siamese", "сиамская");
+
+        List<SearchHitRow> hits = flashcardSetRepository.search("cat", user.getId(), 0, 10);
+
+        assertTrue(hits.stream().anyMatch(h -> "SET".equals(h.hitType()) && "Cat breeds".equals(h.setName())));
+        SearchHitRow card = hits.stream().filter(h -> "CARD".equals(h.hitType())).findFirst().orElseThrow();
+        assertEquals(animals.getId(), card.flashcardSetId());
+        assertEquals("cat", card.term());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+        }
+    }
+
+    @Test
+    void search_Typo_FindsTermBySimilarity() {
+        persistSet("Science", null, user, false, "photosynthesis", "фотосинтез");
+
+        List<SearchHitRow> hits = flashcardSetRepository.search("photosyntesis", user.getId(), 0, 10);
+
+        assertEquals(List.of("photosynthesis"), hits.stream().map(SearchHitRow::term).toList());
+    }
+
+    @Test
+    void search_PrivateSetOfOtherUser_IsNotReturned() {
+        persistSet("Secret words", null, stranger, false, "secret", "секрет");
+        persistSet("Shared words", null, stranger, true, "secret", "тайна");
+
+        List<SearchHitRow> hits = flashcardSetRepository.search("secret", user.getId(), 0, 10);
+
+        assertFalse(hits.isEmpty());
+        assertTrue(hits.stream().allMatch(h -> "Shared words".equals(h.setName())));
+    }
+
+    @Test
+    void search_WithOffset_ReturnsNextPage() {
+        persistSet("Colors", null, user, false, "red apple", "1", "green apple", "2", "yellow apple", "3");
+
+        List<SearchHitRow> first = flashcardSetRepository.search("apple", user.getId(), 0, 2);
+        List<SearchHitRow> second = flashcardSetRepository.search("apple", user.getId(), 2, 2);
+
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+        assertFalse(first.stream().map(SearchHitRow::cardId).toList().contains(second.get(0).cardId()));
+    }
+
+    private FlashcardSet persistSet(String name, String description, User owner, boolean shared, String... termsAndDefinitions) {
+        FlashcardSet set = new FlashcardSet(null, name, description, shared, 0, owner, null, new ArrayList<>(), null, null, null);
+        for (int i = 0; i < termsAndDefinitions.length; i += 2) {
+            Cards card = new Cards();
+            card.setTerm(termsAndDefinitions[i]);
+            card.setDefinition(termsAndDefinitions[i + 1]);
+            card.setFlashcardSet(set);
+            set.getCards().add(card);
+        }
+        return flashcardSetRepository.saveAndFlush(set);
+    }
+
+    private User persistUser(String suffix) {
+        User user = new User();
+        user.setLogin("login_" + suffix);
+        user.setEmail(suffix + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
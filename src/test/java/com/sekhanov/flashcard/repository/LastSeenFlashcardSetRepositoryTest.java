@@ -3,10 +3,12 @@ package com.sekhanov.flashcard.repository;
 import com.sekhanov.flashcard.entity.FlashcardSet;
 import com.sekhanov.flashcard.entity.LastSeenFlashcardSet;
 import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.repository.projection.RecentSetRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import java.time.LocalDateTime;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,6 +52,27 @@ class LastSeenFlashcardSetRepositoryTest {
         assertTrue(repository.findTop10ByUserIdOrderByOpenedAtDesc(999L).isEmpty());
     }
 
+    @Test
+    void findRecentByUserId_RecordsExist_ReturnsRowsWithOwnerAndCardCount() {
+        User user = new User(); user.setLogin("u"); user.setPassword("p"); user.setEmail("u@test");
+        user.setName("Ivan"); user.setSurname("Petrov"); userRepository.save(user);
+        FlashcardSet set1 = new FlashcardSet(); set1.setName("1"); set1.setOwner(user); set1.setCardCount(7);
+        FlashcardSet set2 = new FlashcardSet(); set2.setName("2"); set2.setOwner(user);
+        flashcardSetRepository.saveAll(List.of(set1, set2));
+
+        LastSeenFlashcardSet l1 = new LastSeenFlashcardSet(); l1.setId(new LastSeenFlashcardSet.LastSeenFlashcardSetId(user.getId(), set1.getId()));
+        l1.setUser(user); l1.setFlashcardSet(set1); l1.setOpenedAt(LocalDateTime.now().plusSeconds(1));
+        LastSeenFlashcardSet l2 = new LastSeenFlashcardSet(); l2.setId(new LastSeenFlashcardSet.LastSeenFlashcardSetId(user.getId(), set2.getId()));
+        l2.setUser(user); l2.setFlashcardSet(set2); l2.setOpenedAt(LocalDateTime.now());
+        repository.saveAllAndFlush(List.of(l1, l2));
+
+        List<RecentSetRow> rows = repository.findRecentByUserId(user.getId(), Limit.of(1));
+        assertEquals(1, rows.size());
+        assertEquals(set1.getId(), rows.get(0).flashcardSetId());
+        assertEquals("Ivan", rows.get(0).ownerName());
+        assertEquals(7, rows.get(0).cardCount());
+    }
+
     @Test
     void saveLastSeen_NewRecord_InsertsRecord() {
         User user = new User(); user.setLogin("u"); user.setPassword("p"); user.setEmail("u@test"); userRepository.save(user);
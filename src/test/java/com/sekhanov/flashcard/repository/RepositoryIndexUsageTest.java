@@ -0,0 +1,241 @@
+package com.sekhanov.flashcard.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Прогоняет производные запросы репозиториев на PostgreSQL с реалистичным объёмом данных
+ * и проверяет через {@code EXPLAIN (GENERIC_PLAN)}, что ни один из них не сканирует таблицу целиком.
+ * <p>
+ * SQL перехватывается у Hibernate через {@link StatementInspector}, поэтому проверяется
+ * ровно тот запрос, который уходит в базу, включая догрузку связей.
+ * Требует Docker; без него тест пропускается.
+ * </p>
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.sekhanov.flashcard.repository.RepositoryIndexUsageTest$CapturingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RepositoryIndexUsageTest {
+
+    private static final int USERS = 5_000;
+    private static final int SETS = 50_000;
+    private static final int CARDS_PER_SET = 10;
+
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CardsRepository cardsRepository;
+    @Autowired
+    private CardReviewStateRepository cardReviewStateRepository;
+    @Autowired
+    private FlashcardSetRepository flashcardSetRepository;
+    @Autowired
+    private LastSeenFlashcardSetRepository lastSeenFlashcardSetRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                insert into users (login, email, password, name, surname, is_email_confirmed, confirmation_token)
+                select 'load_' || g, 'load_' || g || '@example.com', 'x', 'n', 's', g % 2 = 0, 'token_' || g
+                from generate_series(1, ?) g
+                """, USERS);
+        jdbcTemplate.update("""
+                insert into flashcard_set (name, owner_id, shared)
+                select 'load_set_' || g, u.id, false
+                from generate_series(1, ?) g
+                join users u on u.login = 'load_' || (g % ? + 1)
+                """, SETS, USERS);
+        jdbcTemplate.update("""
+                insert into cards (flashcard_set_id, term, definition)
+                select s.id, 'term_' || g, 'definition_' || g
+                from flashcard_set s cross join generate_series(1, ?) g
+                where s.name like 'load_set_%'
+                """, CARDS_PER_SET);
+        jdbcTemplate.update("""
+                insert into user_flashcard_set (user_id, flashcard_set_id)
+                select owner_id, id from flashcard_set where name like 'load_set_%'
+                """);
+        jdbcTemplate.update("""
+                insert into last_seen_flashcard_set (user_id, flashcard_set_id, opened_at)
+                select owner_id, id, now() - (id % 1000) * interval '1 minute'
+                from flashcard_set where name like 'load_set_%'
+                """);
+        jdbcTemplate.update("""
+                insert into card_review_state (user_id, card_id, due_at)
+                select s.owner_id, c.id, now() + (c.id % 30 - 15) * interval '1 day'
+                from cards c join flashcard_set s on s.id = c.flashcard_set_id
+                where s.name like 'load_set_%'
+                """);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void cardsRepository_findByFlashcardSetId_usesIndex() {
+        assertNoSeqScan(() -> cardsRepository.findByFlashcardSetId(someSetId()));
+    }
+
+    @Test
+    void flashcardSetRepository_findByName_usesIndex() {
+        assertNoSeqScan(() -> flashcardSetRepository.findByName("load_set_42"));
+    }
+
+    @Test
+    void flashcardSetRepository_findByOwnerId_usesIndex() {
+        assertNoSeqScan(() -> flashcardSetRepository.findByOwnerId(someUserId()));
+    }
+
+    @Test
+    void lastSeenFlashcardSetRepository_findRecentByUserId_usesIndex() {
+        assertNoSeqScan(() -> lastSeenFlashcardSetRepository.findRecentByUserId(someUserId(), Limit.of(10)));
+    }
+
+    @Test
+    void cardReviewStateRepository_findDueByUserId_usesIndex() {
+        assertNoSeqScan(() -> cardReviewStateRepository.findDueByUserId(someUserId(), LocalDateTime.now(), Limit.of(200)));
+    }
+
+    @Test
+    void flashcardSetRepository_findSyncRowsByOwnerIdChangedSince_usesIndex() {
+        assertNoSeqScan(() -> flashcardSetRepository.findSyncRowsByOwnerIdChangedSince(someUserId(), LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void flashcardSetRepository_findIdsLinkedSince_usesIndex() {
+        assertNoSeqScan(() -> flashcardSetRepository.findIdsLinkedSince(someUserId(), LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void cardsRepository_findSyncRowsChangedSince_usesIndex() {
+        assertNoSeqScan(() -> cardsRepository.findSyncRowsChangedSince(List.of(someSetId()), LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void userRepository_findByLogin_usesIndex() {
+        assertNoSeqScan(() -> userRepository.findByLogin("load_42"));
+    }
+
+    @Test
+    void userRepository_existsByLogin_usesIndex() {
+        assertNoSeqScan(() -> userRepository.existsByLogin("load_42"));
+    }
+
+    @Test
+    void userRepository_findByConfirmationToken_usesIndex() {
+        assertNoSeqScan(() -> userRepository.findByConfirmationToken("token_42"));
+    }
+
+    @Test
+    void userRepository_findCredentialsByLogin_usesIndex() {
+        assertNoSeqScan(() -> userRepository.findCredentialsByLogin("load_42"));
+    }
+
+    @Test
+    void userRepository_findProfileById_usesIndex() {
+        assertNoSeqScan(() -> userRepository.findProfileById(someUserId()));
+    }
+
+    @Test
+    void flashcardSetRepository_search_usesSearchIndexes() {
+        Long setId = someSetId();
+        Long ownerId = jdbcTemplate.queryForObject("select owner_id from flashcard_set where id = ?", Long.class, setId);
+        jdbcTemplate.update("insert into cards (flashcard_set_id, term, definition) values (?, 'photosynthesis', 'фотосинтез')", setId);
+        jdbcTemplate.execute("analyze cards");
+
+        assertEquals(1, flashcardSetRepository.search("photosyntesis", ownerId, 0, 10).size());
+
+        // поиск идёт через JDBC, поэтому план строится по самому SQL с реальными параметрами
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", "photosynthesis").addValue("userId", ownerId)
+                .addValue("branchLimit", 10).addValue("offset", 0).addValue("limit", 10);
+        String plan = String.join("\n", new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(
+                "explain " + FlashcardSetRepositoryImpl.SEARCH_SQL, params, String.class));
+        Matcher matcher = SEQ_SCAN.matcher(plan);
+        assertFalse(matcher.find(), () -> "Последовательное сканирование таблицы " + matcher.group(1) + "\nПлан:\n" + plan);
+    }
+
+    // findAllByIsEmailConfirmedTrue и findRecipientsByIsEmailConfirmedTrue не проверяются:
+    // рассылка читает половину таблицы users, и последовательное чтение для неё — правильный план.
+
+    private void assertNoSeqScan(Runnable repositoryCall) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        repositoryCall.run();
+        List<String> statements = new ArrayList<>(CapturingStatementInspector.STATEMENTS);
+        assertFalse(statements.isEmpty(), "Запрос не был перехвачен");
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList(
+                    "explain (generic_plan) " + toPositionalParameters(sql), String.class));
+            Matcher matcher = SEQ_SCAN.matcher(plan);
+            assertFalse(matcher.find(), () -> "Последовательное сканирование таблицы " + matcher.group(1)
+                    + "\nSQL: " + sql + "\nПлан:\n" + plan);
+        }
+    }
+
+    /** Заменяет JDBC-плейсхолдеры {@code ?} на {@code $1, $2, ...}, которые понимает EXPLAIN (GENERIC_PLAN). */
+    private static String toPositionalParameters(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 8);
+        int index = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                result.append('$').append(++index);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private Long someUserId() {
+        return jdbcTemplate.queryForObject("select id from users where login = 'load_42'", Long.class);
+    }
+
+    private Long someSetId() {
+        return jdbcTemplate.queryForObject("select id from flashcard_set where name = 'load_set_42'", Long.class);
+    }
+
+    /**
+     * Складывает SQL всех выполненных Hibernate запросов; подключается свойством
+     * {@code hibernate.session_factory.statement_inspector}.
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.entity.Cards;
+import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.SyncTombstone;
+import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.repository.projection.SyncCardRow;
+import com.sekhanov.flashcard.repository.projection.SyncSetRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class SyncRepositoryTest {
+    @Autowired
+    private FlashcardSetRepository flashcardSetRepository;
+    @Autowired
+    private CardsRepository cardsRepository;
+    @Autowired
+    private SyncTombstoneRepository syncTombstoneRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private FlashcardSet set;
+
+    @BeforeEach
+    void setUp() {
+        syncTombstoneRepository.deleteAll();
+        flashcardSetRepository.deleteAll();
+        user = new User(); user.setLogin("syncer"); user.setPassword("p"); user.setEmail("syncer@test");
+        userRepository.save(user);
+        set = new FlashcardSet(); set.setName("Sync Set"); set.setOwner(user);
+        flashcardSetRepository.saveAndFlush(set);
+    }
+
+    @Test
+    void save_ChangedSet_BumpsVersionAndUpdatedAt() {
+        assertNotNull(set.getUpdatedAt());
+        assertEquals(0L, set.getVersion());
+        LocalDateTime created = set.getUpdatedAt();
+
+        set.setName("Renamed");
+        flashcardSetRepository.saveAndFlush(set);
+
+        assertEquals(1L, set.getVersion());
+        assertFalse(set.getUpdatedAt().isBefore(created));
+    }
+
+    @Test
+    void findSyncRowsByOwnerIdChangedSince_ReturnsOnlySetsChangedAfterMoment() {
+        LocalDateTime updatedAt = set.getUpdatedAt();
+
+        List<SyncSetRow> changed = flashcardSetRepository.findSyncRowsByOwnerIdChangedSince(user.getId(), updatedAt.minusSeconds(1));
+
+        assertEquals(List.of(set.getId()), changed.stream().map(SyncSetRow::id).toList());
+        assertEquals(user.getId(), changed.get(0).ownerId());
+        assertTrue(flashcardSetRepository.findSyncRowsByOwnerIdChangedSince(user.getId(), updatedAt).isEmpty());
+    }
+
+    @Test
+    void findSyncRowsChangedSince_ReturnsOnlyCardsChangedAfterMoment() {
+        Cards card = new Cards(); card.setFlashcardSet(set); card.setTerm("cat"); card.setDefinition("кот");
+        cardsRepository.saveAndFlush(card);
+
+        List<SyncCardRow> changed = cardsRepository.findSyncRowsChangedSince(List.of(set.getId()), card.getUpdatedAt().minusSeconds(1));
+
+        assertEquals(List.of("cat"), changed.stream().map(SyncCardRow::term).toList());
+        assertEquals(0L, changed.get(0).version());
+        assertTrue(cardsRepository.findSyncRowsChangedSince(List.of(set.getId()), card.getUpdatedAt()).isEmpty());
+    }
+
+    @Test
+    void adjustCardCount_SetExists_MovesUpdatedAt() {
+        LocalDateTime later = set.getUpdatedAt().plusMinutes(1);
+
+        flashcardSetRepository.adjustCardCount(set.getId(), 1, later);
+
+        List<SyncSetRow> changed = flashcardSetRepository.findSyncRowsByIdIn(List.of(set.getId()));
+        assertEquals(1, changed.get(0).cardCount());
+        assertEquals(later, changed.get(0).updatedAt());
+    }
+
+    @Test
+    void findIdsLinkedSince_LinkedSet_ReturnsLinkedIds() {
+        flashcardSetRepository.linkUser(user.getId(), set.getId());
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(List.of(set.getId()), flashcardSetRepository.findIdsLinkedSince(user.getId(), now.minusMinutes(1)));
+        assertTrue(flashcardSetRepository.findIdsLinkedSince(user.getId(), now.plusMinutes(1)).isEmpty());
+        assertEquals(List.of(set.getId()), flashcardSetRepository.findLinkedIds(user.getId()));
+    }
+
+    @Test
+    void findDeleted_MixedTombstones_ReturnsOnlyRecentOnes() {
+        LocalDateTime now = LocalDateTime.now();
+        syncTombstoneRepository.saveAll(List.of(
+                new SyncTombstone(null, user.getId(), 100L, null, now.minusDays(40)),
+                new SyncTombstone(null, user.getId(), 101L, null, now.minusMinutes(1)),
+                new SyncTombstone(null, null, set.getId(), 500L, now.minusMinutes(1)),
+                new SyncTombstone(null, null, set.getId(), 501L, now.minusDays(40))));
+
+        assertEquals(List.of(101L), syncTombstoneRepository.findDeletedSetIds(user.getId(), now.minusHours(1)));
+        assertEquals(List.of(500L), syncTombstoneRepository.findDeletedCardIds(List.of(set.getId()), now.minusHours(1)));
+        assertEquals(2, syncTombstoneRepository.deleteOlderThan(now.minusDays(30)));
+        assertEquals(2, syncTombstoneRepository.count());
+    }
+}
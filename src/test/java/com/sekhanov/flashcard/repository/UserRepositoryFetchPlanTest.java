@@ -0,0 +1,97 @@
+package com.sekhanov.flashcard.repository;
+
+import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.repository.projection.MailRecipient;
+import com.sekhanov.flashcard.repository.projection.UserCredentials;
+import com.sekhanov.flashcard.repository.projection.UserProfile;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import java.util.List;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что чтение пользователя не тянет за собой его наборы карточек:
+ * каждый путь выполняет ровно один SQL-запрос.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserRepositoryFetchPlanTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FlashcardSetRepository flashcardSetRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setLogin("fetch-plan");
+        user.setEmail("fetch-plan@test");
+        user.setName("Ivan");
+        user.setSurname("Petrov");
+        user.setPassword("p");
+        user.setIsEmailConfirmed(true);
+        user = userRepository.save(user);
+        for (int i = 0; i < 3; i++) {
+            FlashcardSet set = new FlashcardSet();
+            set.setName("fetch-plan-" + i);
+            set.setOwner(user);
+            user.getFlashcardSets().add(flashcardSetRepository.save(set));
+        }
+        userId = user.getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findCredentialsByLogin_executesSingleStatement() {
+        Optional<UserCredentials> credentials = userRepository.findCredentialsByLogin("fetch-plan");
+
+        assertTrue(credentials.isPresent());
+        assertEquals(userId, credentials.get().id());
+        assertEquals("p", credentials.get().password());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findProfileById_executesSingleStatement() {
+        Optional<UserProfile> profile = userRepository.findProfileById(userId);
+
+        assertTrue(profile.isPresent());
+        assertEquals("fetch-plan@test", profile.get().email());
+        assertEquals("Petrov", profile.get().surname());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findRecipientsByIsEmailConfirmedTrue_executesSingleStatement() {
+        List<MailRecipient> recipients = userRepository.findRecipientsByIsEmailConfirmedTrue();
+
+        assertTrue(recipients.contains(new MailRecipient("fetch-plan@test", "Ivan")));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByLogin_doesNotInitializeFlashcardSets() {
+        User user = userRepository.findByLogin("fetch-plan");
+
+        assertFalse(Hibernate.isInitialized(user.getFlashcardSets()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        // коллекция догружается отдельным запросом только при обращении
+        assertEquals(3, user.getFlashcardSets().size());
+    }
+}
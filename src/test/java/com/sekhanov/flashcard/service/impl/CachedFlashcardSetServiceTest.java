@@ -0,0 +1,86 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.CreateFlashcardSetDTO;
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.service.LastSeenFlashcardSetService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import java.util.Optional;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachedFlashcardSetServiceTest {
+    @Mock
+    private FlashcardSetServiceImpl delegate;
+    @Mock
+    private FlashcardSetDtoCache flashcardSetDtoCache;
+    @Mock
+    private FlashcardSetRepository flashcardSetRepository;
+    @Mock
+    private LastSeenFlashcardSetService lastSeenFlashcardSetService;
+    @InjectMocks
+    private CachedFlashcardSetService cachedService;
+
+    @Test
+    void getFlashcardSetById_whenCached_shouldRecordViewOnEveryRequest() {
+        FlashcardSetDTO dto = makeDTO(10L);
+        when(flashcardSetDtoCache.get(eq(10L), any())).thenReturn(Optional.of(dto));
+
+        assertThat(cachedService.getFlashcardSetById(10L)).contains(dto);
+        assertThat(cachedService.getFlashcardSetById(10L)).contains(dto);
+
+        verify(lastSeenFlashcardSetService, times(2)).saveLastSeenSet(dto);
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void getFlashcardSetById_whenMissing_shouldNotRecordView() {
+        when(flashcardSetDtoCache.get(eq(10L), any())).thenReturn(Optional.empty());
+
+        assertThat(cachedService.getFlashcardSetById(10L)).isEmpty();
+        verifyNoInteractions(lastSeenFlashcardSetService);
+    }
+
+    @Test
+    void getFlashcardSetByName_whenExists_shouldReadThroughCacheById() {
+        FlashcardSetDTO dto = makeDTO(10L);
+        when(flashcardSetRepository.findIdsByName(eq("English"), any())).thenReturn(List.of(10L));
+        when(flashcardSetDtoCache.get(eq(10L), any())).thenReturn(Optional.of(dto));
+
+        assertThat(cachedService.getFlashcardSetByName("English")).contains(dto);
+        verifyNoInteractions(lastSeenFlashcardSetService);
+    }
+
+    @Test
+    void getFlashcardSetByName_whenMissing_shouldNotTouchCache() {
+        when(flashcardSetRepository.findIdsByName(eq("Nope"), any())).thenReturn(List.of());
+
+        assertThat(cachedService.getFlashcardSetByName("Nope")).isEmpty();
+        verifyNoInteractions(flashcardSetDtoCache);
+    }
+
+    @Test
+    void updateFlashcardSet_shouldDelegate() {
+        CreateFlashcardSetDTO update = new CreateFlashcardSetDTO();
+        FlashcardSetDTO dto = makeDTO(10L);
+        when(delegate.updateFlashcardSet(10L, update)).thenReturn(Optional.of(dto));
+
+        assertThat(cachedService.updateFlashcardSet(10L, update)).contains(dto);
+    }
+
+    // ---------------- фабрики ----------------
+
+    private FlashcardSetDTO makeDTO(Long id) {
+        FlashcardSetDTO dto = new FlashcardSetDTO();
+        dto.setId(id);
+        dto.setName("English");
+        dto.setVersion(1L);
+        return dto;
+    }
+}
@@ -0,0 +1,175 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.ImportStatusDTO;
+import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.event.CardTermsChangedEvent;
+import com.sekhanov.flashcard.repository.CardsRepository;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.CardRow;
+import com.sekhanov.flashcard.service.FlashcardSetService;
+import com.sekhanov.flashcard.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardImportServiceImplTest {
+    @Mock
+    private FlashcardSetRepository flashcardSetRepository;
+    @Mock
+    private CardsRepository cardsRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserService userService;
+    @Mock
+    private FlashcardSetService flashcardSetService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ImportProgressRegistry progressRegistry;
+    private CardImportServiceImpl importService;
+    private final List<List<CardRow>> insertedChunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        progressRegistry = new ImportProgressRegistry();
+        importService = new CardImportServiceImpl(flashcardSetRepository, cardsRepository, userRepository,
+                userService, flashcardSetService, progressRegistry, transactionManager, eventPublisher);
+    }
+
+    @Test
+    void importFlashcardSet_withCsv_shouldInsertCardsAndAdjustCount() {
+        stubSetCreation();
+
+        ImportStatusDTO status = importService.importFlashcardSet("imp-1", "Deck", null, "csv", true,
+                body("term,definition\nhello,привет\n\"a, b\",\"c\"\"d\"\n"));
+
+        assertThat(status).extracting(ImportStatusDTO::getStatus, ImportStatusDTO::getFlashcardSetId,
+                ImportStatusDTO::getCardsImported, ImportStatusDTO::getRowsSkipped)
+                .containsExactly(ImportStatusDTO.Status.COMPLETED, 42L, 2L, 0L);
+        assertThat(insertedChunks).hasSize(1);
+        assertThat(insertedChunks.get(0)).extracting(CardRow::term, CardRow::definition)
+                .containsExactly(tuple("hello", "привет"), tuple("a, b", "c\"d"));
+        verify(flashcardSetRepository).linkUser(7L, 42L);
+        verify(flashcardSetRepository).adjustCardCount(42L, 2);
+        verify(eventPublisher).publishEvent(CardTermsChangedEvent.rebuild(7L));
+        // набор, пакет карточек и события — отдельными транзакциями
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void importFlashcardSet_withManyRows_shouldWriteInChunks() {
+        stubSetCreation();
+        StringBuilder tsv = new StringBuilder();
+        for (int i = 0; i < CardImportServiceImpl.IMPORT_CHUNK * 2 + 5; i++) {
+            tsv.append("term").append(i).append('\t').append("def").append(i).append('\n');
+        }
+
+        ImportStatusDTO status = importService.importFlashcardSet(null, "Deck", null, "tsv", false, body(tsv.toString()));
+
+        assertThat(status.getImportId()).isNotBlank();
+        assertThat(status.getCardsImported()).isEqualTo(CardImportServiceImpl.IMPORT_CHUNK * 2L + 5);
+        assertThat(insertedChunks).extracting(List::size)
+                .containsExactly(CardImportServiceImpl.IMPORT_CHUNK, CardImportServiceImpl.IMPORT_CHUNK, 5);
+        verify(flashcardSetRepository, times(2)).adjustCardCount(42L, CardImportServiceImpl.IMPORT_CHUNK);
+        verify(flashcardSetRepository).adjustCardCount(42L, 5);
+        verify(transactionManager, times(5)).commit(any());
+    }
+
+    @Test
+    void importFlashcardSet_withAnkiHeadersAndBadRows_shouldSkipInvalidRows() {
+        stubSetCreation();
+
+        ImportStatusDTO status = importService.importFlashcardSet("imp-2", "Deck", null, "anki", false,
+                body("#separator:semicolon\n#html:false\ncat;кот\nlonely\n ;empty term\n" + "x".repeat(300) + ";long\n"));
+
+        assertThat(status).extracting(ImportStatusDTO::getCardsImported, ImportStatusDTO::getRowsSkipped)
+                .containsExactly(1L, 3L);
+        assertThat(insertedChunks.get(0)).extracting(CardRow::term).containsExactly("cat");
+    }
+
+    @Test
+    void importFlashcardSet_withUnclosedQuote_shouldFailAndDeleteSet() {
+        stubSetCreation();
+
+        ImportStatusDTO status = importService.importFlashcardSet("imp-3", "Deck", null, "csv", false,
+                body("a,b\n\"broken,c\n"));
+
+        assertThat(status.getStatus()).isEqualTo(ImportStatusDTO.Status.FAILED);
+        assertThat(status.getFlashcardSetId()).isNull();
+        assertThat(status.getError()).contains("Строка 2");
+        verify(flashcardSetService).deleteFlashcardSet(42L);
+        verify(flashcardSetRepository, never()).adjustCardCount(any(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void importFlashcardSet_whenFileBreaksAfterCommittedChunk_shouldDeleteSet() {
+        stubSetCreation();
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < CardImportServiceImpl.IMPORT_CHUNK; i++) {
+            csv.append("term").append(i).append(',').append("def").append(i).append('\n');
+        }
+        csv.append("\"broken,c\n");
+
+        ImportStatusDTO status = importService.importFlashcardSet("imp-5", "Deck", null, "csv", false, body(csv.toString()));
+
+        assertThat(status.getStatus()).isEqualTo(ImportStatusDTO.Status.FAILED);
+        assertThat(insertedChunks).hasSize(1);
+        verify(flashcardSetService).deleteFlashcardSet(42L);
+    }
+
+    @Test
+    void importFlashcardSet_withUnknownFormat_shouldThrow() {
+        assertThatThrownBy(() -> importService.importFlashcardSet("imp-4", "Deck", null, "xlsx", false, body("a,b")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(flashcardSetRepository, transactionManager);
+    }
+
+    @Test
+    void getImportStatus_shouldReturnOnlyOwnImports() {
+        progressRegistry.start("mine", 7L);
+        progressRegistry.start("foreign", 8L);
+        when(userService.getCurrentUserId()).thenReturn(7L);
+
+        assertThat(importService.getImportStatus("mine")).isPresent();
+        assertThat(importService.getImportStatus("foreign")).isEmpty();
+    }
+
+    // ---------------- фабрики ----------------
+    private void stubSetCreation() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(userRepository.getReferenceById(7L)).thenReturn(new User());
+        when(flashcardSetRepository.saveAndFlush(any(FlashcardSet.class))).thenAnswer(invocation -> {
+            FlashcardSet set = invocation.getArgument(0);
+            set.setId(42L);
+            return set;
+        });
+        lenient().doAnswer(invocation -> {
+            insertedChunks.add(List.copyOf(invocation.<List<CardRow>>getArgument(0)));
+            return null;
+        }).when(cardsRepository).insertAll(anyList());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,39 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.repository.CardsRepository;
+import com.sekhanov.flashcard.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardSuggestServiceImplTest {
+    @Mock
+    private TermSuggestIndex termSuggestIndex;
+    @Mock
+    private CardsRepository cardsRepository;
+    @Mock
+    private UserService userService;
+    @InjectMocks
+    private CardSuggestServiceImpl cardSuggestService;
+
+    @Test
+    void suggestTerms_shouldClampLimitAndUseCurrentUserIndex() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(termSuggestIndex.suggest(eq(7L), eq("ap"), eq(CardSuggestServiceImpl.MAX_SUGGESTIONS), any()))
+                .thenReturn(List.of("apple"));
+
+        assertThat(cardSuggestService.suggestTerms("ap", 500)).containsExactly("apple");
+    }
+
+    @Test
+    void suggestTerms_withBlankPrefix_shouldReturnEmptyWithoutIndex() {
+        assertThat(cardSuggestService.suggestTerms("  ", 10)).isEmpty();
+        verifyNoInteractions(termSuggestIndex, userService);
+    }
+}
@@ -2,18 +2,30 @@ package com.sekhanov.flashcard.service.impl;
 
 import com.sekhanov.flashcard.dto.CreateCardsDTO;
 import com.sekhanov.flashcard.dto.CardsDTO;
+import com.sekhanov.flashcard.dto.CursorPageDTO;
 import com.sekhanov.flashcard.entity.Cards;
 import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.SyncTombstone;
+import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.event.CardTermsChangedEvent;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
 import com.sekhanov.flashcard.repository.CardsRepository;
 import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.SyncTombstoneRepository;
+import com.sekhanov.flashcard.repository.projection.CardRow;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -24,6 +36,10 @@ class CardsServiceImplTest {
     private CardsRepository cardsRepository;
     @Mock
     private FlashcardSetRepository flashcardSetRepository;
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private CardsServiceImpl cardsService;
 
@@ -44,6 +60,19 @@ class CardsServiceImplTest {
 
         assertThat(result).extracting(CardsDTO::getId, CardsDTO::getTerm, CardsDTO::getDefinition).containsExactly(10L, "term", "definition");
         verify(cardsRepository).save(any());
+        verify(flashcardSetRepository).adjustCardCount(1L, 1);
+        verify(eventPublisher).publishEvent(new FlashcardSetChangedEvent(1L));
+    }
+
+    @Test
+    void createCards_whenSetHasOwner_shouldPublishAddedTerm() {
+        flashcardSet.setOwner(makeUser(7L));
+        when(flashcardSetRepository.findById(1L)).thenReturn(Optional.of(flashcardSet));
+        when(cardsRepository.save(any(Cards.class))).thenReturn(makeCard(10L, "term", "definition"));
+
+        cardsService.createCards(1L, new CreateCardsDTO("term", "definition"));
+
+        verify(eventPublisher).publishEvent(CardTermsChangedEvent.added(7L, List.of("term")));
     }
 
     @Test
@@ -52,6 +81,7 @@ class CardsServiceImplTest {
 
         assertThrows(RuntimeException.class, () -> cardsService.createCards(1L, new CreateCardsDTO("term", "definition")));
         verify(cardsRepository, never()).save(any());
+        verify(flashcardSetRepository, never()).adjustCardCount(any(), anyInt());
     }
 
     @Test
@@ -71,12 +101,40 @@ class CardsServiceImplTest {
     }
 
     @Test
-    void getAllCardsForFlashcardSet_withCards_shouldReturnListOfDTOs() {
-        when(cardsRepository.findByFlashcardSetId(1L)).thenReturn(List.of(makeCard(11L, "t", "d")));
+    void getCardsPage_withCards_shouldReturnListOfDTOs() {
+        when(cardsRepository.findRowsByFlashcardSetIdAfter(eq(1L), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(new CardRow(11L, 1L, "t", "d")));
+
+        CursorPageDTO<CardsDTO> page = cardsService.getCardsPage(1L, null, 100);
+
+        assertThat(page.getItems()).hasSize(1).first().extracting(CardsDTO::getTerm, CardsDTO::getDefinition).containsExactly("t", "d");
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getCardsPage_withMoreRowsThanLimit_shouldReturnNextCursor() {
+        when(cardsRepository.findRowsByFlashcardSetIdAfter(eq(1L), eq(20L), any(Limit.class)))
+                .thenReturn(List.of(new CardRow(21L, 1L, "a", "1"), new CardRow(22L, 1L, "b", "2"), new CardRow(23L, 1L, "c", "3")));
+
+        CursorPageDTO<CardsDTO> page = cardsService.getCardsPage(1L, 20L, 2);
+
+        assertThat(page.getItems()).extracting(CardsDTO::getId).containsExactly(21L, 22L);
+        assertThat(page.getNextCursor()).isEqualTo(22L);
+    }
+
+    @Test
+    void streamCardsForFlashcardSet_shouldPassEveryRowToConsumer() {
+        doAnswer(invocation -> {
+            Consumer<CardRow> consumer = invocation.getArgument(1);
+            consumer.accept(new CardRow(11L, 1L, "t", "d"));
+            consumer.accept(new CardRow(12L, 1L, "u", "e"));
+            return null;
+        }).when(cardsRepository).streamByFlashcardSetId(eq(1L), any());
+        List<CardsDTO> streamed = new ArrayList<>();
 
-        List<CardsDTO> result = cardsService.getAllCardsForFlashcardSet(1L);
+        cardsService.streamCardsForFlashcardSet(1L, streamed::add);
 
-        assertThat(result).hasSize(1).first().extracting(CardsDTO::getTerm, CardsDTO::getDefinition).containsExactly("t", "d");
+        assertThat(streamed).extracting(CardsDTO::getId).containsExactly(11L, 12L);
     }
 
     @Test
@@ -87,6 +145,7 @@ class CardsServiceImplTest {
         Optional<CardsDTO> result = cardsService.updateCards(20L, new CreateCardsDTO("new", "newDef"));
 
         assertThat(result).isPresent().get().extracting(CardsDTO::getTerm, CardsDTO::getDefinition).containsExactly("new", "newDef");
+        verify(flashcardSetRepository).touch(1L);
     }
 
     @Test
@@ -99,18 +158,90 @@ class CardsServiceImplTest {
 
     @Test
     void deleteCards_whenCardExists_shouldDeleteAndReturnTrue() {
-        when(cardsRepository.existsById(30L)).thenReturn(true);
+        Cards card = makeCard(30L, "term", "definition");
+        when(cardsRepository.findById(30L)).thenReturn(Optional.of(card));
 
         assertThat(cardsService.deleteCards(30L)).isTrue();
-        verify(cardsRepository).deleteById(30L);
+        verify(cardsRepository).delete(card);
+        verify(flashcardSetRepository).adjustCardCount(1L, -1);
+        verify(eventPublisher).publishEvent(new FlashcardSetChangedEvent(1L));
+        verify(syncTombstoneRepository).save(argThat((SyncTombstone t) -> t.getFlashcardSetId().equals(1L) && t.getCardId().equals(30L)));
     }
 
     @Test
     void deleteCards_whenCardDoesNotExist_shouldReturnFalse() {
-        when(cardsRepository.existsById(30L)).thenReturn(false);
+        when(cardsRepository.findById(30L)).thenReturn(Optional.empty());
 
         assertThat(cardsService.deleteCards(30L)).isFalse();
-        verify(cardsRepository, never()).deleteById(any());
+        verify(cardsRepository, never()).delete(any());
+        verify(flashcardSetRepository, never()).adjustCardCount(any(), anyInt());
+    }
+
+    @Test
+    void createCardsBatch_withExistingSet_shouldSaveAllAndAdjustCount() {
+        when(flashcardSetRepository.existsById(1L)).thenReturn(true);
+        when(flashcardSetRepository.getReferenceById(1L)).thenReturn(flashcardSet);
+        when(cardsRepository.saveAll(anyList())).thenReturn(List.of(makeCard(11L, "a", "1"), makeCard(12L, "b", "2")));
+
+        List<CardsDTO> result = cardsService.createCardsBatch(1L, List.of(new CreateCardsDTO("a", "1"), new CreateCardsDTO("b", "2")));
+
+        assertThat(result).extracting(CardsDTO::getId).containsExactly(11L, 12L);
+        verify(cardsRepository).saveAll(argThat((List<Cards> cards) -> cards.size() == 2
+                && cards.stream().allMatch(card -> card.getFlashcardSet() == flashcardSet)));
+        verify(flashcardSetRepository).adjustCardCount(1L, 2);
+        verify(eventPublisher).publishEvent(new FlashcardSetChangedEvent(1L));
+    }
+
+    @Test
+    void createCardsBatch_withMissingSet_shouldThrowNotFound() {
+        when(flashcardSetRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> cardsService.createCardsBatch(1L, List.of(new CreateCardsDTO("a", "1"))));
+        verify(cardsRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void updateCardsBatch_whenAllCardsFound_shouldUpdateInPlace() {
+        Cards card = makeCard(11L, "old", "oldDef");
+        when(cardsRepository.findByFlashcardSetIdAndIdIn(eq(1L), anyCollection())).thenReturn(List.of(card));
+
+        List<CardsDTO> result = cardsService.updateCardsBatch(1L, List.of(new CardsDTO(11L, "new", "newDef")));
+
+        assertThat(result).extracting(CardsDTO::getTerm).containsExactly("new");
+        assertThat(card.getDefinition()).isEqualTo("newDef");
+        verify(eventPublisher).publishEvent(new FlashcardSetChangedEvent(1L));
+        verify(flashcardSetRepository).touch(1L);
+    }
+
+    @Test
+    void updateCardsBatch_whenCardMissing_shouldThrowNotFound() {
+        when(cardsRepository.findByFlashcardSetIdAndIdIn(eq(1L), anyCollection())).thenReturn(List.of(makeCard(11L, "t", "d")));
+
+        assertThrows(EntityNotFoundException.class, () -> cardsService.updateCardsBatch(1L,
+                List.of(new CardsDTO(11L, "a", "1"), new CardsDTO(99L, "b", "2"))));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteCardsBatch_whenAllCardsFound_shouldDeleteWithSingleQuery() {
+        flashcardSet.setOwner(makeUser(7L));
+        when(cardsRepository.deleteByFlashcardSetIdAndIdIn(eq(1L), anyCollection())).thenReturn(2);
+        when(flashcardSetRepository.getReferenceById(1L)).thenReturn(flashcardSet);
+
+        assertThat(cardsService.deleteCardsBatch(1L, List.of(11L, 12L, 12L))).isEqualTo(2);
+        verify(flashcardSetRepository).adjustCardCount(1L, -2);
+        verify(eventPublisher).publishEvent(new FlashcardSetChangedEvent(1L));
+        verify(eventPublisher).publishEvent(CardTermsChangedEvent.rebuild(7L));
+        verify(syncTombstoneRepository).saveAll(argThat((List<SyncTombstone> tombstones) ->
+                tombstones.stream().map(SyncTombstone::getCardId).toList().equals(List.of(11L, 12L))));
+    }
+
+    @Test
+    void deleteCardsBatch_whenCardMissing_shouldThrowNotFound() {
+        when(cardsRepository.deleteByFlashcardSetIdAndIdIn(eq(1L), anyCollection())).thenReturn(1);
+
+        assertThrows(EntityNotFoundException.class, () -> cardsService.deleteCardsBatch(1L, List.of(11L, 99L)));
+        verify(flashcardSetRepository, never()).adjustCardCount(any(), anyInt());
     }
 
     // ---------- фабрики ----------
@@ -122,4 +253,10 @@ class CardsServiceImplTest {
         c.setFlashcardSet(flashcardSet);
         return c;
     }
+
+    private User makeUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
 }
@@ -1,7 +1,7 @@
 package com.sekhanov.flashcard.service.impl;
 
-import com.sekhanov.flashcard.entity.User;
 import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.MailRecipient;
 import com.sekhanov.flashcard.service.MailService;
 import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.Test;
@@ -21,41 +21,36 @@ class DailyEmailServiceImplTest {
     @InjectMocks
     private DailyEmailServiceImpl dailyEmailService;
 
-    private User makeUser(Long id, String name, String email) {
-        User user = new User();
-        user.setId(id);
-        user.setName(name);
-        user.setEmail(email);
-        user.setIsEmailConfirmed(true);
-        return user;
+    private MailRecipient makeRecipient(String name, String email) {
+        return new MailRecipient(email, name);
     }
 
     @Test
     void sendDailyEmails_withConfirmedUsers_shouldSendEmails() throws MessagingException{
-        List<User> confirmedUsers = List.of(makeUser(1L, "Ivan", "ivan@example.com"),
-                makeUser(2L, "Anna", "anna@example.com"));
-        when(userRepository.findAllByIsEmailConfirmedTrue()).thenReturn(confirmedUsers);
+        List<MailRecipient> confirmedUsers = List.of(makeRecipient("Ivan", "ivan@example.com"),
+                makeRecipient("Anna", "anna@example.com"));
+        when(userRepository.findRecipientsByIsEmailConfirmedTrue()).thenReturn(confirmedUsers);
 
         dailyEmailService.sendDailyEmails();
 
         // проверяем, что каждому пользователю отправлено письмо с правильным именем
         confirmedUsers.forEach(u -> {
             try {
-                verify(mailService).sendMail(eq(u.getEmail()), eq("Ежедневное уведомление"), contains(u.getName()));
+                verify(mailService).sendMail(eq(u.email()), eq("Ежедневное уведомление"), contains(u.name()));
             } catch (MessagingException e) {
                 throw new RuntimeException(e);
             }});
         verify(mailService, times(2)).sendMail(anyString(), anyString(), anyString());
-        verify(userRepository).findAllByIsEmailConfirmedTrue();
+        verify(userRepository).findRecipientsByIsEmailConfirmedTrue();
     }
 
     @Test
     void sendDailyEmails_withNoConfirmedUsers_shouldNotSendEmails() throws MessagingException {
-        when(userRepository.findAllByIsEmailConfirmedTrue()).thenReturn(List.of());
+        when(userRepository.findRecipientsByIsEmailConfirmedTrue()).thenReturn(List.of());
 
         dailyEmailService.sendDailyEmails();
 
         verify(mailService, never()).sendMail(anyString(), anyString(), anyString());
-        verify(userRepository).findAllByIsEmailConfirmedTrue();
+        verify(userRepository).findRecipientsByIsEmailConfirmedTrue();
     }
 }
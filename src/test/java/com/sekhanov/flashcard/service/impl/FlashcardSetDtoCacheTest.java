@@ -0,0 +1,213 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.CardsDTO;
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.service.FlashcardSetSecondLevelCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlashcardSetDtoCacheTest {
+    @Mock
+    private FlashcardSetRepository flashcardSetRepository;
+    @Mock
+    private FlashcardSetSecondLevelCache secondLevel;
+    @Mock
+    private ObjectProvider<FlashcardSetSecondLevelCache> secondLevelProvider;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_whenCalledTwice_shouldLoadOnce() {
+        FlashcardSetDtoCache cache = makeCache(null);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(1L));
+        Function<Long, Optional<FlashcardSetDTO>> loader = countingLoader(makeDTO(10L, 1L));
+
+        cache.get(10L, loader);
+        Optional<FlashcardSetDTO> result = cache.get(10L, loader);
+
+        assertThat(result).isPresent().get().extracting(FlashcardSetDTO::getName).isEqualTo("set-10");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_whenSetMissing_shouldNotCacheAbsence() {
+        FlashcardSetDtoCache cache = makeCache(null);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(1L));
+        Function<Long, Optional<FlashcardSetDTO>> loader = countingLoader(null);
+
+        assertThat(cache.get(10L, loader)).isEmpty();
+        assertThat(cache.get(10L, loader)).isEmpty();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void onFlashcardSetChanged_shouldReloadOnNextGet() {
+        FlashcardSetDtoCache cache = makeCache(null);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(1L), Optional.of(2L));
+        cache.get(10L, countingLoader(makeDTO(10L, 1L)));
+
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(10L));
+
+        assertThat(cache.get(10L, countingLoader(makeDTO(10L, 2L)))).get().extracting(FlashcardSetDTO::getVersion).isEqualTo(2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_whenVersionChangedWithoutEvent_shouldReload() {
+        FlashcardSetDtoCache cache = makeCache(null);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(1L), Optional.of(2L));
+        cache.get(10L, countingLoader(makeDTO(10L, 1L)));
+
+        Optional<FlashcardSetDTO> result = cache.get(10L, countingLoader(makeDTO(10L, 2L)));
+
+        assertThat(result).get().extracting(FlashcardSetDTO::getVersion).isEqualTo(2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_whenSetDeleted_shouldReturnEmptyWithoutLoading() {
+        FlashcardSetDtoCache cache = makeCache(null);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(1L), Optional.empty());
+        Function<Long, Optional<FlashcardSetDTO>> loader = countingLoader(makeDTO(10L, 1L));
+        cache.get(10L, loader);
+
+        assertThat(cache.get(10L, loader)).isEmpty();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_whenCallerModifiesResult_shouldNotAffectCachedSet() {
+        FlashcardSetDtoCache cache = makeCache(null);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(1L));
+        FlashcardSetDTO loaded = makeDTO(10L, 1L);
+        loaded.setCards(new ArrayList<>(List.of(new CardsDTO(1L, "term", "definition"))));
+        Function<Long, Optional<FlashcardSetDTO>> loader = countingLoader(loaded);
+
+        FlashcardSetDTO first = cache.get(10L, loader).orElseThrow();
+        first.setName("changed");
+        first.getCards().get(0).setTerm("changed");
+        loaded.setDescription("changed");
+        FlashcardSetDTO second = cache.get(10L, loader).orElseThrow();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("set-10");
+        assertThat(second.getDescription()).isNull();
+        assertThat(second.getCards()).extracting(CardsDTO::getTerm).containsExactly("term");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_concurrentMisses_shouldLoadOnce() throws Exception {
+        FlashcardSetDtoCache cache = makeCache(null);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(1L));
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Long, Optional<FlashcardSetDTO>> slowLoader = id -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(makeDTO(id, 1L));
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<FlashcardSetDTO>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(10L, slowLoader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Optional<FlashcardSetDTO>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_whenSecondLevelHasVersion_shouldSkipLoader() {
+        FlashcardSetDtoCache cache = makeCache(secondLevel);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(3L));
+        when(secondLevel.get(10L, 3L)).thenReturn(Optional.of(makeDTO(10L, 3L)));
+
+        assertThat(cache.get(10L, countingLoader(makeDTO(10L, 3L)))).isPresent();
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void get_whenSecondLevelMisses_shouldLoadAndStore() {
+        FlashcardSetDtoCache cache = makeCache(secondLevel);
+        FlashcardSetDTO dto = makeDTO(10L, 3L);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(3L));
+        when(secondLevel.get(10L, 3L)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(10L, countingLoader(dto))).contains(dto);
+        verify(secondLevel).put(dto);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_whenSecondLevelFails_shouldFallBackToLoader() {
+        FlashcardSetDtoCache cache = makeCache(secondLevel);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.of(3L));
+        when(secondLevel.get(10L, 3L)).thenThrow(new IllegalStateException("connection refused"));
+
+        assertThat(cache.get(10L, countingLoader(makeDTO(10L, 3L)))).isPresent();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_whenSetMissingWithSecondLevel_shouldNotCallLoader() {
+        FlashcardSetDtoCache cache = makeCache(secondLevel);
+        when(flashcardSetRepository.findVersionById(10L)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(10L, countingLoader(makeDTO(10L, 3L)))).isEmpty();
+        assertThat(loads).hasValue(0);
+        verifyNoInteractions(secondLevel);
+    }
+
+    // ---------------- фабрики ----------------
+
+    private FlashcardSetDtoCache makeCache(FlashcardSetSecondLevelCache tier) {
+        when(secondLevelProvider.getIfAvailable()).thenReturn(tier);
+        return new FlashcardSetDtoCache(100, Duration.ofMinutes(10), flashcardSetRepository, secondLevelProvider);
+    }
+
+    private Function<Long, Optional<FlashcardSetDTO>> countingLoader(FlashcardSetDTO dto) {
+        return id -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(dto);
+        };
+    }
+
+    private FlashcardSetDTO makeDTO(Long id, Long version) {
+        FlashcardSetDTO dto = new FlashcardSetDTO();
+        dto.setId(id);
+        dto.setName("set-" + id);
+        dto.setCards(List.of());
+        dto.setVersion(version);
+        return dto;
+    }
+}
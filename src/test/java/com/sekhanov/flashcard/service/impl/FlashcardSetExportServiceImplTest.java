@@ -0,0 +1,137 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.projection.ExportCardRow;
+import com.sekhanov.flashcard.service.UserService;
+import com.sekhanov.flashcard.utils.FlashcardSetExportWriter;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlashcardSetExportServiceImplTest {
+    @Mock
+    private FlashcardSetRepository flashcardSetRepository;
+    @Mock
+    private UserService userService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private FlashcardSetExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new FlashcardSetExportServiceImpl(flashcardSetRepository, userService, objectMapper);
+    }
+
+    @Test
+    void exportFlashcardSet_asJson_shouldWriteSetWithCards() throws Exception {
+        when(flashcardSetRepository.existsById(1L)).thenReturn(true);
+        stubSetRows(1L, List.of(makeRow(1L, "Deck", 11L, "hello", "привет"), makeRow(1L, "Deck", 12L, "cat", "кот")));
+
+        exportService.exportFlashcardSet(1L, FlashcardSetExportWriter.Format.JSON, out);
+
+        JsonNode set = objectMapper.readTree(output());
+        assertThat(set.get("id").asLong()).isEqualTo(1L);
+        assertThat(set.get("name").asText()).isEqualTo("Deck");
+        assertThat(set.get("cards")).hasSize(2);
+        assertThat(set.get("cards").get(1).get("definition").asText()).isEqualTo("кот");
+    }
+
+    @Test
+    void exportFlashcardSet_asCsv_shouldEscapeFieldsAndSkipHeaderColumnsOfSet() throws Exception {
+        when(flashcardSetRepository.existsById(1L)).thenReturn(true);
+        stubSetRows(1L, List.of(makeRow(1L, "Deck", 11L, "a, b", "say \"hi\"")));
+
+        exportService.exportFlashcardSet(1L, FlashcardSetExportWriter.Format.CSV, out);
+
+        assertThat(output()).isEqualTo("term,definition\n\"a, b\",\"say \"\"hi\"\"\"\n");
+    }
+
+    @Test
+    void exportFlashcardSet_whenSetMissing_shouldThrowAndWriteNothing() {
+        when(flashcardSetRepository.existsById(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> exportService.exportFlashcardSet(1L, FlashcardSetExportWriter.Format.JSON, out))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(out.size()).isZero();
+        verify(flashcardSetRepository, never()).streamExportRows(any(), any());
+    }
+
+    @Test
+    void exportCurrentUserFlashcardSets_asNdjson_shouldWriteOneSetPerLine() throws Exception {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        stubUserRows(7L, List.of(
+                makeRow(1L, "First", 11L, "a", "1"),
+                makeRow(1L, "First", 12L, "b", "2"),
+                makeRow(2L, "Empty", null, null, null),
+                makeRow(3L, "Third", 31L, "c", "3")));
+
+        exportService.exportCurrentUserFlashcardSets(FlashcardSetExportWriter.Format.NDJSON, out);
+
+        List<String> lines = output().lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines.get(0)).get("cards")).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(1)).get("cards")).isEmpty();
+        assertThat(objectMapper.readTree(lines.get(2)).get("name").asText()).isEqualTo("Third");
+    }
+
+    @Test
+    void exportCurrentUserFlashcardSets_asJson_shouldWriteArrayOfSets() throws Exception {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        stubUserRows(7L, List.of(makeRow(1L, "First", 11L, "a", "1"), makeRow(2L, "Second", 21L, "b", "2")));
+
+        exportService.exportCurrentUserFlashcardSets(FlashcardSetExportWriter.Format.JSON, out);
+
+        JsonNode sets = objectMapper.readTree(output());
+        assertThat(sets.isArray()).isTrue();
+        assertThat(sets).extracting(set -> set.get("name").asText()).containsExactly("First", "Second");
+    }
+
+    @Test
+    void exportCurrentUserFlashcardSets_asCsv_shouldKeepEmptySets() throws Exception {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        stubUserRows(7L, List.of(makeRow(1L, "First", 11L, "a", "1"), makeRow(2L, "Empty", null, null, null)));
+
+        exportService.exportCurrentUserFlashcardSets(FlashcardSetExportWriter.Format.CSV, out);
+
+        assertThat(output()).isEqualTo("set_id,set_name,term,definition\n1,First,a,1\n2,Empty,,\n");
+    }
+
+    // ---------------- фабрики ----------------
+    private void stubSetRows(Long setId, List<ExportCardRow> rows) {
+        doAnswer(invocation -> {
+            Consumer<ExportCardRow> consumer = invocation.getArgument(1);
+            rows.forEach(consumer);
+            return null;
+        }).when(flashcardSetRepository).streamExportRows(eq(setId), any());
+    }
+
+    private void stubUserRows(Long userId, List<ExportCardRow> rows) {
+        doAnswer(invocation -> {
+            Consumer<ExportCardRow> consumer = invocation.getArgument(1);
+            rows.forEach(consumer);
+            return null;
+        }).when(flashcardSetRepository).streamExportRowsByUserId(eq(userId), any());
+    }
+
+    private static ExportCardRow makeRow(Long setId, String setName, Long cardId, String term, String definition) {
+        return new ExportCardRow(setId, setName, null, cardId, term, definition);
+    }
+
+    private String output() {
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -1,12 +1,23 @@
 package com.sekhanov.flashcard.service.impl;
 
+import com.sekhanov.flashcard.dto.CardsDTO;
+import com.sekhanov.flashcard.dto.CardsMergeDTO;
 import com.sekhanov.flashcard.dto.CreateCardsDTO;
 import com.sekhanov.flashcard.dto.CreateFlashcardSetDTO;
+import com.sekhanov.flashcard.dto.CursorPageDTO;
 import com.sekhanov.flashcard.dto.FlashcardSetDTO;
+import com.sekhanov.flashcard.entity.Cards;
 import com.sekhanov.flashcard.entity.FlashcardSet;
+import com.sekhanov.flashcard.entity.SyncTombstone;
 import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import com.sekhanov.flashcard.repository.CardsRepository;
 import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.SyncTombstoneRepository;
 import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.CardRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetRow;
+import com.sekhanov.flashcard.repository.projection.FlashcardSetSummaryRow;
 import com.sekhanov.flashcard.service.LastSeenFlashcardSetService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,8 +25,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -24,9 +40,15 @@ class FlashcardSetServiceImplTest {
     @Mock
     private FlashcardSetRepository flashcardSetRepository;
     @Mock
+    private CardsRepository cardsRepository;
+    @Mock
     private UserRepository userRepository;
     @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+    @Mock
     private LastSeenFlashcardSetService lastSeenFlashcardSetService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private FlashcardSetServiceImpl flashcardSetService;
 
@@ -57,7 +79,8 @@ class FlashcardSetServiceImplTest {
 
         assertThat(result).extracting(FlashcardSetDTO::getId, FlashcardSetDTO::getName).containsExactly(10L, "English");
         verify(userRepository).findById(1L);
-        verify(flashcardSetRepository).save(any());
+        verify(flashcardSetRepository).save(argThat((FlashcardSet set) -> set.getCardCount() == 1));
+        verify(lastSeenFlashcardSetService).saveLastSeenSet(result);
     }
 
     @Test
@@ -67,7 +90,26 @@ class FlashcardSetServiceImplTest {
         Optional<FlashcardSetDTO> result = flashcardSetService.getFlashcardSetById(10L);
 
         assertThat(result).isPresent().get().extracting(FlashcardSetDTO::getName).isEqualTo("English");
-        verify(lastSeenFlashcardSetService).saveLastSeenSet(10L);
+        verify(lastSeenFlashcardSetService).saveLastSeenSet(result.get());
+    }
+
+    @Test
+    void getFlashcardSetById_whenMissing_shouldNotRecordView() {
+        when(flashcardSetRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThat(flashcardSetService.getFlashcardSetById(99L)).isEmpty();
+        verifyNoInteractions(lastSeenFlashcardSetService);
+    }
+
+    @Test
+    void findFlashcardSetById_whenExists_shouldReturnDTOWithoutRecordingView() {
+        flashcardSet.setVersion(3L);
+        when(flashcardSetRepository.findById(10L)).thenReturn(Optional.of(flashcardSet));
+
+        Optional<FlashcardSetDTO> result = flashcardSetService.findFlashcardSetById(10L);
+
+        assertThat(result).isPresent().get().extracting(FlashcardSetDTO::getVersion).isEqualTo(3L);
+        verifyNoInteractions(lastSeenFlashcardSetService);
     }
 
     @Test
@@ -79,12 +121,67 @@ class FlashcardSetServiceImplTest {
     }
 
     @Test
-    void getAllFlashcardSet_withExistingSets_shouldReturnListOfDTOs() {
-        when(flashcardSetRepository.findAll()).thenReturn(List.of(flashcardSet));
+    void getFlashcardSetPage_withExistingSets_shouldReturnListOfDTOs() {
+        when(flashcardSetRepository.findRowsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(makeRow(10L, "English")));
+        when(cardsRepository.findRowsByFlashcardSetIdIn(List.of(10L)))
+                .thenReturn(List.of(new CardRow(100L, 10L, "hello", "привет")));
 
-        List<FlashcardSetDTO> result = flashcardSetService.getAllFlashcardSet();
+        CursorPageDTO<FlashcardSetDTO> page = flashcardSetService.getFlashcardSetPage(null, 100, false);
 
+        List<FlashcardSetDTO> result = page.getItems();
         assertThat(result).hasSize(1).first().extracting(FlashcardSetDTO::getName).isEqualTo("English");
+        assertThat(result.get(0).getOwnerName()).isEqualTo("Ivan Petrov");
+        assertThat(result.get(0).getCards()).singleElement().extracting(CardsDTO::getTerm).isEqualTo("hello");
+        assertThat(result.get(0).getCardsCount()).isEqualTo(1L);
+        assertThat(page.getNextCursor()).isNull();
+        verify(flashcardSetRepository, never()).findAll();
+    }
+
+    @Test
+    void getFlashcardSetPage_withManySets_shouldFetchCardsInChunks() {
+        List<FlashcardSetRow> rows = LongStream.rangeClosed(1, 1001)
+                .mapToObj(id -> makeRow(id, "set-" + id))
+                .toList();
+        when(flashcardSetRepository.findRowsAfter(eq(0L), any(Limit.class))).thenReturn(rows);
+        when(cardsRepository.findRowsByFlashcardSetIdIn(anyCollection())).thenReturn(List.of());
+
+        CursorPageDTO<FlashcardSetDTO> page = flashcardSetService.getFlashcardSetPage(null, 5000, false);
+
+        assertThat(page.getItems()).hasSize(1000).allSatisfy(dto -> assertThat(dto.getCards()).isEmpty());
+        assertThat(page.getNextCursor()).isEqualTo(1000L);
+        verify(cardsRepository, times(1)).findRowsByFlashcardSetIdIn(anyCollection());
+    }
+
+    @Test
+    void getFlashcardSetPage_inSummaryMode_shouldReturnCountsWithoutCards() {
+        when(flashcardSetRepository.findRowsAfter(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(makeRow(11L, "A", 7), makeRow(12L, "B", 0), makeRow(13L, "C", 2)));
+
+        CursorPageDTO<FlashcardSetDTO> page = flashcardSetService.getFlashcardSetPage(10L, 2, true);
+
+        assertThat(page.getItems()).extracting(FlashcardSetDTO::getId).containsExactly(11L, 12L);
+        assertThat(page.getItems()).extracting(FlashcardSetDTO::getCardsCount).containsExactly(7L, 0L);
+        assertThat(page.getItems()).allSatisfy(dto -> assertThat(dto.getCards()).isNull());
+        assertThat(page.getNextCursor()).isEqualTo(12L);
+        verifyNoInteractions(cardsRepository);
+    }
+
+    @Test
+    void streamFlashcardSetSummaries_shouldMapRowsToSummaryDTOs() {
+        doAnswer(invocation -> {
+            Consumer<FlashcardSetSummaryRow> consumer = invocation.getArgument(0);
+            consumer.accept(new FlashcardSetSummaryRow(10L, "English", null, "Ivan", "Petrov", 4));
+            return null;
+        }).when(flashcardSetRepository).streamSummaries(any());
+        List<FlashcardSetDTO> streamed = new ArrayList<>();
+
+        flashcardSetService.streamFlashcardSetSummaries(streamed::add);
+
+        assertThat(streamed).singleElement().satisfies(dto -> {
+            assertThat(dto.getOwnerName()).isEqualTo("Ivan Petrov");
+            assertThat(dto.getCardsCount()).isEqualTo(4L);
+            assertThat(dto.getCards()).isNull();
+        });
     }
 
     @Test
@@ -97,6 +194,51 @@ class FlashcardSetServiceImplTest {
         Optional<FlashcardSetDTO> result = flashcardSetService.updateFlashcardSet(10L, dto);
 
         assertThat(result).isPresent().get().extracting(FlashcardSetDTO::getName).isEqualTo("Updated");
+        assertThat(flashcardSet.getCardCount()).isEqualTo(1);
+        verify(eventPublisher).publishEvent(new FlashcardSetChangedEvent(10L));
+    }
+
+    @Test
+    void updateFlashcardSet_withCardIds_shouldMergeCardsInPlace() {
+        Cards kept = makeCard(100L, "hello", "привет");
+        Cards changed = makeCard(101L, "cat", "кот");
+        Cards removed = makeCard(102L, "dog", "собака");
+        flashcardSet.getCards().addAll(List.of(kept, changed, removed));
+        when(flashcardSetRepository.findById(10L)).thenReturn(Optional.of(flashcardSet));
+        when(flashcardSetRepository.save(any())).thenReturn(flashcardSet);
+        CreateFlashcardSetDTO dto = makeCreateFlashcardSetDTO(null, "English", "Basic words", List.of(
+                new CreateCardsDTO(100L, "hello", "привет"),
+                new CreateCardsDTO(101L, "cat", "кошка"),
+                new CreateCardsDTO("bird", "птица")));
+
+        Optional<FlashcardSetDTO> result = flashcardSetService.updateFlashcardSet(10L, dto);
+
+        assertThat(flashcardSet.getCards()).hasSize(3).startsWith(kept, changed);
+        assertThat(changed.getDefinition()).isEqualTo("кошка");
+        assertThat(flashcardSet.getCards()).doesNotContain(removed);
+        assertThat(flashcardSet.getCards().get(2)).extracting(Cards::getId, Cards::getTerm).containsExactly(null, "bird");
+        assertThat(flashcardSet.getCardCount()).isEqualTo(3);
+        verify(syncTombstoneRepository).saveAll(argThat((List<SyncTombstone> tombstones) -> tombstones.size() == 1
+                && tombstones.get(0).getFlashcardSetId().equals(10L) && tombstones.get(0).getCardId().equals(102L)));
+        assertThat(result).get().extracting(FlashcardSetDTO::getMerge).isEqualTo(new CardsMergeDTO(1, 1, 1, 1));
+    }
+
+    @Test
+    void updateFlashcardSet_withUnknownOrDuplicateIds_shouldInsertNewCards() {
+        Cards existing = makeCard(100L, "hello", "привет");
+        flashcardSet.getCards().add(existing);
+        when(flashcardSetRepository.findById(10L)).thenReturn(Optional.of(flashcardSet));
+        when(flashcardSetRepository.save(any())).thenReturn(flashcardSet);
+        CreateFlashcardSetDTO dto = makeCreateFlashcardSetDTO(null, "English", "Basic words", List.of(
+                new CreateCardsDTO(100L, "hello", "привет"),
+                new CreateCardsDTO(100L, "copy", "копия"),
+                new CreateCardsDTO(999L, "stale", "устаревшая")));
+
+        Optional<FlashcardSetDTO> result = flashcardSetService.updateFlashcardSet(10L, dto);
+
+        assertThat(flashcardSet.getCards()).extracting(Cards::getTerm).containsExactly("hello", "copy", "stale");
+        assertThat(flashcardSet.getCards().get(0)).isSameAs(existing);
+        assertThat(result).get().extracting(FlashcardSetDTO::getMerge).isEqualTo(new CardsMergeDTO(2, 0, 0, 1));
     }
 
     @Test
@@ -105,6 +247,22 @@ class FlashcardSetServiceImplTest {
 
         assertThat(flashcardSetService.deleteFlashcardSet(10L)).isTrue();
         verify(flashcardSetRepository).deleteById(10L);
+        verify(eventPublisher).publishEvent(new FlashcardSetChangedEvent(10L));
+    }
+
+    @Test
+    void deleteFlashcardSet_withLinkedUsers_shouldRecordTombstonePerUser() {
+        User other = new User();
+        other.setId(2L);
+        flashcardSet.getUsers().addAll(List.of(user, other));
+        when(flashcardSetRepository.existsById(10L)).thenReturn(true);
+        when(flashcardSetRepository.findById(10L)).thenReturn(Optional.of(flashcardSet));
+
+        assertThat(flashcardSetService.deleteFlashcardSet(10L)).isTrue();
+
+        verify(syncTombstoneRepository).saveAll(argThat((List<SyncTombstone> tombstones) ->
+                tombstones.stream().map(SyncTombstone::getUserId).sorted().toList().equals(List.of(1L, 2L))
+                        && tombstones.stream().allMatch(t -> t.getFlashcardSetId().equals(10L) && t.getCardId() == null)));
     }
 
     @Test
@@ -125,11 +283,12 @@ class FlashcardSetServiceImplTest {
         assertThat(flashcardSetService.removeFlashcardSetFromUser(1L, 10L)).isTrue();
         assertThat(user.getFlashcardSets()).doesNotContain(flashcardSet);
         verify(userRepository).save(user);
+        verify(syncTombstoneRepository).save(argThat((SyncTombstone t) -> t.getUserId().equals(1L) && t.getFlashcardSetId().equals(10L)));
     }
 
     @Test
     void getFlashcardSetsByOwnerId_withExistingSets_shouldReturnListOfDTOs() {
-        when(flashcardSetRepository.findByOwnerId(1L)).thenReturn(List.of(flashcardSet));
+        when(flashcardSetRepository.findRowsByOwnerId(1L)).thenReturn(List.of(makeRow(10L, "English")));
 
         List<FlashcardSetDTO> result = flashcardSetService.getFlashcardSetsByOwnerId(1L);
 
@@ -137,6 +296,23 @@ class FlashcardSetServiceImplTest {
     }
 
     // ---------------- фабрики ----------------
+    private FlashcardSetRow makeRow(Long id, String name) {
+        return makeRow(id, name, 0);
+    }
+
+    private FlashcardSetRow makeRow(Long id, String name, int cardCount) {
+        return new FlashcardSetRow(id, name, "Basic words", "Ivan", "Petrov", cardCount);
+    }
+
+    private Cards makeCard(Long id, String term, String definition) {
+        Cards card = new Cards();
+        card.setId(id);
+        card.setTerm(term);
+        card.setDefinition(definition);
+        card.setFlashcardSet(flashcardSet);
+        return card;
+    }
+
     private CreateFlashcardSetDTO makeCreateFlashcardSetDTO(Long userId, String name, String description, List<CreateCardsDTO> cards) {
         CreateFlashcardSetDTO dto = new CreateFlashcardSetDTO();
         dto.setUserId(userId);
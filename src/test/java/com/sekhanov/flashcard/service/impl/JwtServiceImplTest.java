@@ -1,5 +1,7 @@
 package com.sekhanov.flashcard.service.impl;
 
+import com.sekhanov.flashcard.event.UserChangedEvent;
+import com.sekhanov.flashcard.service.JwtService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -61,4 +63,109 @@ class JwtServiceImplTest {
     void extractExpiration_whenCalled_shouldReturnFutureDate() {
         assertThat(jwtService.extractExpiration(token)).isAfter(new Date());
     }
+
+    @Test
+    void parse_whenValidToken_shouldReturnLoginAndExpiration() {
+        assertThat(jwtService.parse(token)).isPresent().get()
+                .satisfies(parsed -> {
+                    assertThat(parsed.login()).isEqualTo("ivan");
+                    assertThat(parsed.expiration()).isAfter(new Date());
+                });
+    }
+
+    @Test
+    void parse_whenCalledTwice_shouldReturnCachedResult() {
+        JwtService.ParsedToken first = jwtService.parse(token).orElseThrow();
+        JwtService.ParsedToken second = jwtService.parse(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void parse_whenTokenIsInvalid_shouldReturnEmpty() {
+        assertThat(jwtService.parse(token + "invalid")).isEmpty();
+        assertThat(jwtService.parse("")).isEmpty();
+    }
+
+    @Test
+    void generateToken_withUserDetails_shouldSignPrincipalClaims() {
+        String userToken = jwtService.generateToken(
+                new JwtService.TokenSubject(7L, "ivan", "Ivan", "Petrov"));
+
+        assertThat(jwtService.parse(userToken)).isPresent().get()
+                .satisfies(parsed -> {
+                    assertThat(parsed.hasPrincipalClaims()).isTrue();
+                    assertThat(parsed.userId()).isEqualTo(7L);
+                    assertThat(parsed.name()).isEqualTo("Ivan");
+                    assertThat(parsed.surname()).isEqualTo("Petrov");
+                });
+        assertThat(jwtService.parse(jwtService.refreshToken(userToken))).isPresent().get()
+                .extracting(JwtService.ParsedToken::userId).isEqualTo(7L);
+    }
+
+    @Test
+    void revokeTokens_whenTokenIssuedBefore_shouldRejectToken() {
+        String userToken = jwtService.generateToken(
+                new JwtService.TokenSubject(7L, "ivan", "Ivan", "Petrov"));
+        waitForNextMillisecond(jwtService.parse(userToken).orElseThrow().issuedAt());
+
+        jwtService.revokeTokens(7L);
+
+        assertThat(jwtService.parse(userToken)).isEmpty();
+        assertThat(jwtService.validateToken(token)).isTrue();
+    }
+
+    @Test
+    void revokeTokens_whenTokenIssuedRightAfter_shouldAcceptToken() {
+        jwtService.revokeTokens(7L);
+
+        String userToken = jwtService.generateToken(
+                new JwtService.TokenSubject(7L, "ivan", "Ivan", "Petrov"));
+
+        assertThat(jwtService.parse(userToken)).isPresent();
+    }
+
+    @Test
+    void onUserChanged_whenPrincipalChangedInStatelessMode_shouldRevokeUserTokens() throws Exception {
+        setStatelessPrincipal(true);
+        String userToken = jwtService.generateToken(new JwtService.TokenSubject(7L, "ivan", "Ivan", "Petrov"));
+        waitForNextMillisecond(jwtService.parse(userToken).orElseThrow().issuedAt());
+
+        jwtService.onUserChanged(new UserChangedEvent(7L, "ivan", true));
+
+        assertThat(jwtService.parse(userToken)).isEmpty();
+    }
+
+    @Test
+    void onUserChanged_whenSignedDataUnchanged_shouldKeepTokens() throws Exception {
+        setStatelessPrincipal(true);
+        String userToken = jwtService.generateToken(new JwtService.TokenSubject(7L, "ivan", "Ivan", "Petrov"));
+        waitForNextMillisecond(jwtService.parse(userToken).orElseThrow().issuedAt());
+
+        jwtService.onUserChanged(new UserChangedEvent(7L, "ivan", false));
+
+        assertThat(jwtService.parse(userToken)).isPresent();
+    }
+
+    @Test
+    void onUserChanged_whenStatelessPrincipalDisabled_shouldKeepTokens() {
+        String userToken = jwtService.generateToken(new JwtService.TokenSubject(7L, "ivan", "Ivan", "Petrov"));
+        waitForNextMillisecond(jwtService.parse(userToken).orElseThrow().issuedAt());
+
+        jwtService.onUserChanged(new UserChangedEvent(7L, "ivan", true));
+
+        assertThat(jwtService.parse(userToken)).isPresent();
+    }
+
+    private void setStatelessPrincipal(boolean enabled) throws Exception {
+        var field = JwtServiceImpl.class.getDeclaredField("statelessPrincipal");
+        field.setAccessible(true);
+        field.set(jwtService, enabled);
+    }
+
+    private static void waitForNextMillisecond(Date issuedAt) {
+        while (System.currentTimeMillis() <= issuedAt.getTime()) {
+            Thread.onSpinWait();
+        }
+    }
 }
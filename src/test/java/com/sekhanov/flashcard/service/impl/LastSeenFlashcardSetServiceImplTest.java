@@ -1,22 +1,21 @@
 package com.sekhanov.flashcard.service.impl;
 
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
 import com.sekhanov.flashcard.dto.LastSeenFlashcardSetDto;
-import com.sekhanov.flashcard.dto.UserDTO;
-import com.sekhanov.flashcard.entity.Cards;
-import com.sekhanov.flashcard.entity.FlashcardSet;
-import com.sekhanov.flashcard.entity.LastSeenFlashcardSet;
-import com.sekhanov.flashcard.entity.LastSeenFlashcardSet.LastSeenFlashcardSetId;
-import com.sekhanov.flashcard.entity.User;
 import com.sekhanov.flashcard.repository.LastSeenFlashcardSetRepository;
+import com.sekhanov.flashcard.repository.projection.RecentSetRow;
 import com.sekhanov.flashcard.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -26,74 +25,73 @@ class LastSeenFlashcardSetServiceImplTest {
     private LastSeenFlashcardSetRepository lastSeenRepo;
     @Mock
     private UserService userService;
+    @Mock
+    private LastSeenWriteBehindBuffer writeBehindBuffer;
+    @Mock
+    private RecentSetsCache recentSetsCache;
     @InjectMocks
     private LastSeenFlashcardSetServiceImpl service;
 
-    private final UserDTO currentUser = new UserDTO();
+    private static final Long USER_ID = 1L;
 
     @BeforeEach
     void setUp() {
-        currentUser.setId(1L);
-        currentUser.setName("Ivan");
-        when(userService.getCurrentUser()).thenReturn(currentUser);
+        when(userService.getCurrentUserId()).thenReturn(USER_ID);
     }
 
     @Test
-    void saveLastSeenSet_whenCalled_shouldCallRepository() {
-        service.saveLastSeenSet(10L);
-        verify(lastSeenRepo).upsertLastSeenSet(currentUser.getId(), 10L);
+    void saveLastSeenSet_whenCalled_shouldBufferViewAndUpdateRecentSetsWithoutTouchingRepository() {
+        service.saveLastSeenSet(new FlashcardSetDTO(10L, "English", null, null, "Owner Test", 3L, null, null, null));
+
+        verify(writeBehindBuffer).record(eq(USER_ID), eq(10L), any(LocalDateTime.class));
+        ArgumentCaptor<LastSeenFlashcardSetDto> view = ArgumentCaptor.forClass(LastSeenFlashcardSetDto.class);
+        verify(recentSetsCache).record(eq(USER_ID), view.capture());
+        assertThat(view.getValue()).extracting(LastSeenFlashcardSetDto::getFlashcardSetId, LastSeenFlashcardSetDto::getFlashcardSetName,
+                LastSeenFlashcardSetDto::getOwnerName, LastSeenFlashcardSetDto::getCardsCount).containsExactly(10L, "English", "Owner Test", 3);
+        verifyNoInteractions(lastSeenRepo);
     }
 
     @Test
-    void getLastSeenSetsForCurrentUser_whenSetsExist_shouldReturnDtosInCorrectOrder() {
-        LastSeenFlashcardSet lastSeen2 = makeLastSeen(2L, "Math", 0);
-        LastSeenFlashcardSet lastSeen1 = makeLastSeen(1L, "English", 10);
-        when(lastSeenRepo.findTop10ByUserIdOrderByOpenedAtDesc(currentUser.getId())).thenReturn(List.of(lastSeen2, lastSeen1));
+    void getLastSeenSetsForCurrentUser_whenCacheLoads_shouldMapRowsFromSingleQuery() {
+        loadThroughCache();
+        when(lastSeenRepo.findRecentByUserId(eq(USER_ID), any(Limit.class))).thenReturn(List.of(
+                makeRow(2L, "Math", 0), makeRow(1L, "English", 10)));
 
         List<LastSeenFlashcardSetDto> result = service.getLastSeenSetsForCurrentUser();
 
         assertThat(result).extracting(LastSeenFlashcardSetDto::getFlashcardSetName).containsExactly("Math", "English");
         assertThat(result).extracting(LastSeenFlashcardSetDto::getFlashcardSetId).containsExactly(2L, 1L);
-        verify(lastSeenRepo).findTop10ByUserIdOrderByOpenedAtDesc(currentUser.getId());
+        assertThat(result).extracting(LastSeenFlashcardSetDto::getOwnerName).containsOnly("Owner Test");
+        assertThat(result).extracting(LastSeenFlashcardSetDto::getCardsCount).containsOnly(5);
+        verify(lastSeenRepo).findRecentByUserId(eq(USER_ID), argThat((Limit limit) -> limit.max() == RecentSetsCache.RECENT_LIMIT));
     }
 
     @Test
     void getLastSeenSetsForCurrentUser_whenNoSets_shouldReturnEmptyList() {
-        when(lastSeenRepo.findTop10ByUserIdOrderByOpenedAtDesc(currentUser.getId())).thenReturn(List.of());
+        loadThroughCache();
+        when(lastSeenRepo.findRecentByUserId(eq(USER_ID), any(Limit.class))).thenReturn(List.of());
 
         assertThat(service.getLastSeenSetsForCurrentUser()).isEmpty();
-        verify(lastSeenRepo).findTop10ByUserIdOrderByOpenedAtDesc(currentUser.getId());
     }
 
-    // ---------------- фабрики ----------------
-    private LastSeenFlashcardSet makeLastSeen(Long setId, String name, int minutesAgo) {
-        FlashcardSet set = new FlashcardSet();
-        set.setId(setId);
-        set.setName(name);
-        set.setOwner(TestEntities.owner());
-        set.setCards(List.of(TestEntities.card(set)));
+    @Test
+    void getLastSeenSetsForCurrentUser_whenCached_shouldNotQueryRepository() {
+        LastSeenFlashcardSetDto cached = new LastSeenFlashcardSetDto(3L, "Cached", LocalDateTime.now(), "Owner Test", 2);
+        when(recentSetsCache.get(eq(USER_ID), any())).thenReturn(List.of(cached));
 
-        LastSeenFlashcardSet lastSeen = new LastSeenFlashcardSet();
-        lastSeen.setId(new LastSeenFlashcardSetId(currentUser.getId(), setId));
-        lastSeen.setFlashcardSet(set);
-        lastSeen.setOpenedAt(LocalDateTime.now().minusMinutes(minutesAgo));
-        return lastSeen;
+        assertThat(service.getLastSeenSetsForCurrentUser()).containsExactly(cached);
+        verifyNoInteractions(lastSeenRepo);
     }
 
-    private static class TestEntities {
-        private static User owner() {
-            User owner = new User();
-            owner.setName("Owner");
-            owner.setSurname("Test");
-            return owner;
-        }
+    // ---------------- фабрики ----------------
+    private void loadThroughCache() {
+        when(recentSetsCache.get(eq(USER_ID), any())).thenAnswer(invocation -> {
+            Function<Long, List<LastSeenFlashcardSetDto>> loader = invocation.getArgument(1);
+            return loader.apply(USER_ID);
+        });
+    }
 
-        private static Cards card(FlashcardSet set) {
-            Cards card = new Cards();
-            card.setTerm("term");
-            card.setDefinition("definition");
-            card.setFlashcardSet(set);
-            return card;
-        }
+    private RecentSetRow makeRow(Long setId, String name, int minutesAgo) {
+        return new RecentSetRow(setId, name, LocalDateTime.now().minusMinutes(minutesAgo), "Owner", "Test", 5);
     }
 }
@@ -0,0 +1,114 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.repository.LastSeenFlashcardSetRepository;
+import com.sekhanov.flashcard.repository.projection.LastSeenRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LastSeenWriteBehindBufferTest {
+    @Mock
+    private LastSeenFlashcardSetRepository lastSeenRepo;
+
+    private LastSeenWriteBehindBuffer buffer;
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        buffer = new LastSeenWriteBehindBuffer(lastSeenRepo, 2, 10, 3);
+    }
+
+    @Test
+    void record_repeatedViewsOfSameSet_shouldCoalesceToLatest() {
+        buffer.record(1L, 10L, now);
+        buffer.record(1L, 10L, now.plusSeconds(5));
+        buffer.record(1L, 10L, now.minusSeconds(5));
+
+        buffer.flush();
+
+        verify(lastSeenRepo).upsertAll(List.of(new LastSeenRow(1L, 10L, now.plusSeconds(5))));
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void flush_moreRowsThanBatchSize_shouldWriteInBatches() {
+        buffer.record(1L, 10L, now);
+        buffer.record(1L, 11L, now);
+        buffer.record(2L, 10L, now);
+
+        buffer.flush();
+
+        ArgumentCaptor<List<LastSeenRow>> batches = ArgumentCaptor.forClass(List.class);
+        verify(lastSeenRepo, times(2)).upsertAll(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+    }
+
+    @Test
+    void flush_whenEmpty_shouldNotTouchRepository() {
+        buffer.flush();
+        verifyNoInteractions(lastSeenRepo);
+    }
+
+    @Test
+    void flush_whenRepositoryFails_shouldKeepRowsForNextFlush() {
+        when(lastSeenRepo.upsertAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(1);
+        buffer.record(1L, 10L, now);
+
+        buffer.flush();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+
+        buffer.flush();
+        assertThat(buffer.pendingCount()).isZero();
+        verify(lastSeenRepo, times(2)).upsertAll(List.of(new LastSeenRow(1L, 10L, now)));
+    }
+
+    @Test
+    void flush_whenRepositoryKeepsFailing_shouldDropRowsAfterMaxAttempts() {
+        when(lastSeenRepo.upsertAll(anyList())).thenThrow(new DataAccessResourceFailureException("bad row"));
+        buffer.record(1L, 10L, now);
+
+        buffer.flush();
+        buffer.flush();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+
+        buffer.flush();
+        assertThat(buffer.pendingCount()).isZero();
+        verify(lastSeenRepo, times(3)).upsertAll(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void record_whenBufferIsFull_shouldEvictOldestViews() {
+        for (long setId = 1; setId <= 11; setId++) {
+            buffer.record(1L, setId, now.plusSeconds(setId));
+        }
+
+        assertThat(buffer.pendingCount()).isEqualTo(9);
+        buffer.flush();
+        ArgumentCaptor<List<LastSeenRow>> batches = ArgumentCaptor.forClass(List.class);
+        verify(lastSeenRepo, atLeastOnce()).upsertAll(batches.capture());
+        assertThat(batches.getAllValues().stream().flatMap(List::stream).map(LastSeenRow::flashcardSetId).toList())
+                .hasSize(9).doesNotContain(1L, 2L);
+    }
+
+    @Test
+    void flushOnShutdown_shouldWritePendingRows() {
+        buffer.record(1L, 10L, now);
+
+        buffer.flushOnShutdown();
+
+        verify(lastSeenRepo).upsertAll(List.of(new LastSeenRow(1L, 10L, now)));
+    }
+}
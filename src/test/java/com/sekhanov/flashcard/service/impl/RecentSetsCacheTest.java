@@ -0,0 +1,140 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.LastSeenFlashcardSetDto;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentSetsCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private RecentSetsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecentSetsCache(100, Duration.ofMinutes(30));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_whenCalledTwice_shouldLoadFromDatabaseOnce() {
+        Function<Long, List<LastSeenFlashcardSetDto>> loader = countingLoader(List.of(makeView(1L, 5)));
+
+        cache.get(1L, loader);
+        List<LastSeenFlashcardSetDto> result = cache.get(1L, loader);
+
+        assertThat(result).extracting(LastSeenFlashcardSetDto::getFlashcardSetId).containsExactly(1L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_afterUnflushedView_shouldMergeViewWithLoadedRows() {
+        cache.record(1L, makeView(2L, 0));
+
+        List<LastSeenFlashcardSetDto> result = cache.get(1L, countingLoader(List.of(makeView(1L, 5), makeView(2L, 10))));
+
+        assertThat(result).extracting(LastSeenFlashcardSetDto::getFlashcardSetId).containsExactly(2L, 1L);
+        assertThat(result.get(0).getOpenedAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void record_afterLoad_shouldMoveSetToTopWithoutReload() {
+        Function<Long, List<LastSeenFlashcardSetDto>> loader = countingLoader(List.of(makeView(1L, 5), makeView(2L, 10)));
+        cache.get(1L, loader);
+
+        cache.record(1L, makeView(2L, 0));
+
+        assertThat(cache.get(1L, loader)).extracting(LastSeenFlashcardSetDto::getFlashcardSetId).containsExactly(2L, 1L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void record_moreThanLimit_shouldKeepOnlyLatestSets() {
+        LongStream.rangeClosed(1, RecentSetsCache.RECENT_LIMIT + 2)
+                .forEach(id -> cache.record(1L, makeView(id, (int) -id)));
+
+        List<LastSeenFlashcardSetDto> result = cache.get(1L, countingLoader(List.of()));
+
+        assertThat(result).hasSize(RecentSetsCache.RECENT_LIMIT);
+        assertThat(result.get(0).getFlashcardSetId()).isEqualTo(RecentSetsCache.RECENT_LIMIT + 2L);
+        assertThat(result).extracting(LastSeenFlashcardSetDto::getFlashcardSetId).doesNotContain(1L, 2L);
+    }
+
+    @Test
+    void onFlashcardSetChanged_whenSetIsCached_shouldReloadOnNextGet() {
+        cache.get(1L, countingLoader(List.of(makeView(1L, 5))));
+
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(1L));
+        LastSeenFlashcardSetDto renamed = makeView(1L, 5);
+        renamed.setFlashcardSetName("Renamed");
+        List<LastSeenFlashcardSetDto> result = cache.get(1L, countingLoader(List.of(renamed)));
+
+        assertThat(result).extracting(LastSeenFlashcardSetDto::getFlashcardSetName).containsExactly("Renamed");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void onFlashcardSetChanged_whenSetIsNotCached_shouldKeepEntry() {
+        Function<Long, List<LastSeenFlashcardSetDto>> loader = countingLoader(List.of(makeView(1L, 5)));
+        cache.get(1L, loader);
+
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(99L));
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void onFlashcardSetChanged_shouldReloadOnlyUsersWhoViewedSet() {
+        Function<Long, List<LastSeenFlashcardSetDto>> firstLoader = countingLoader(List.of(makeView(1L, 5)));
+        AtomicInteger secondLoads = new AtomicInteger();
+        Function<Long, List<LastSeenFlashcardSetDto>> secondLoader = userId -> {
+            secondLoads.incrementAndGet();
+            return List.of(makeView(2L, 5));
+        };
+        cache.get(1L, firstLoader);
+        cache.get(2L, secondLoader);
+
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(1L));
+        cache.get(1L, firstLoader);
+        cache.get(2L, secondLoader);
+
+        assertThat(loads).hasValue(2);
+        assertThat(secondLoads).hasValue(1);
+    }
+
+    @Test
+    void record_whenSetIsTrimmed_shouldStopTrackingIt() {
+        LongStream.rangeClosed(1, RecentSetsCache.RECENT_LIMIT + 1)
+                .forEach(id -> cache.record(1L, makeView(id, (int) -id)));
+        Function<Long, List<LastSeenFlashcardSetDto>> loader = countingLoader(List.of());
+        cache.get(1L, loader);
+
+        // набор 1 вытеснен из записи, его изменение не должно вызывать перечитывание
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(1L));
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    // ---------------- фабрики ----------------
+    private Function<Long, List<LastSeenFlashcardSetDto>> countingLoader(List<LastSeenFlashcardSetDto> rows) {
+        return userId -> {
+            loads.incrementAndGet();
+            return rows;
+        };
+    }
+
+    private LastSeenFlashcardSetDto makeView(Long setId, int minutesAgo) {
+        return new LastSeenFlashcardSetDto(setId, "Set " + setId, NOW.minusMinutes(minutesAgo), "Owner Test", 3);
+    }
+}
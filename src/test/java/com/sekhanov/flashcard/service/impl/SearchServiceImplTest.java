@@ -0,0 +1,74 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.CursorPageDTO;
+import com.sekhanov.flashcard.dto.SearchHitDTO;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.projection.SearchHitRow;
+import com.sekhanov.flashcard.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchServiceImplTest {
+    @Mock
+    private FlashcardSetRepository flashcardSetRepository;
+    @Mock
+    private UserService userService;
+    @InjectMocks
+    private SearchServiceImpl searchService;
+
+    @Test
+    void search_withMoreHitsThanLimit_shouldReturnNextCursor() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(flashcardSetRepository.search("cat", 7L, 0, 3))
+                .thenReturn(List.of(setHit(1L, "Cats"), cardHit(2L, 21L, "cat"), cardHit(3L, 31L, "cab")));
+
+        CursorPageDTO<SearchHitDTO> page = searchService.search("  cat ", null, 2);
+
+        assertThat(page.getItems()).extracting(SearchHitDTO::getType)
+                .containsExactly(SearchHitDTO.Type.SET, SearchHitDTO.Type.CARD);
+        assertThat(page.getItems().get(1)).extracting(SearchHitDTO::getCardId, SearchHitDTO::getTerm)
+                .containsExactly(21L, "cat");
+        assertThat(page.getNextCursor()).isEqualTo(2L);
+    }
+
+    @Test
+    void search_onLastPage_shouldReturnNoCursor() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(flashcardSetRepository.search("cat", 7L, 20, 21)).thenReturn(List.of(cardHit(2L, 21L, "cat")));
+
+        CursorPageDTO<SearchHitDTO> page = searchService.search("cat", 20L, 20);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void search_withBlankQuery_shouldThrow() {
+        assertThatThrownBy(() -> searchService.search("   ", null, 20)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(flashcardSetRepository);
+    }
+
+    @Test
+    void search_withCursorBeyondMaxOffset_shouldThrow() {
+        assertThatThrownBy(() -> searchService.search("cat", SearchServiceImpl.MAX_OFFSET + 1L, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(flashcardSetRepository);
+    }
+
+    // ---------------- фабрики ----------------
+    private static SearchHitRow setHit(Long setId, String name) {
+        return new SearchHitRow("SET", setId, name, null, null, null, 1.0);
+    }
+
+    private static SearchHitRow cardHit(Long setId, Long cardId, String term) {
+        return new SearchHitRow("CARD", setId, "Set " + setId, cardId, term, "def", 0.5);
+    }
+}
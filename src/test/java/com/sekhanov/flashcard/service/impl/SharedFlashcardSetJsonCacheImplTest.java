@@ -0,0 +1,166 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sekhanov.flashcard.dto.CardsDTO;
+import com.sekhanov.flashcard.dto.FlashcardSetDTO;
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import com.sekhanov.flashcard.service.SharedFlashcardSetJsonCache.SerializedFlashcardSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SharedFlashcardSetJsonCacheImplTest {
+    @Mock
+    private FlashcardSetServiceImpl flashcardSetService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Runnable> compressionTasks = new ArrayList<>();
+    private SharedFlashcardSetJsonCacheImpl cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SharedFlashcardSetJsonCacheImpl(DataSize.ofMegabytes(1), Duration.ofMinutes(10), objectMapper,
+                flashcardSetService, compressionTasks::add);
+    }
+
+    @Test
+    void put_sharedSet_shouldStoreJsonAndSmallerGzipCopy() throws IOException {
+        FlashcardSetDTO dto = makeDTO(10L, 3L, true, 50);
+
+        cache.put(dto);
+        runCompression();
+
+        SerializedFlashcardSet serialized = cache.get(10L, 3L).orElseThrow();
+        assertThat(serialized.json()).isEqualTo(objectMapper.writeValueAsBytes(dto));
+        assertThat(serialized.gzip()).isNotNull().hasSizeLessThan(serialized.json().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(serialized.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(serialized.json());
+        }
+        assertThat(serialized.summary().getCards()).isNull();
+        assertThat(serialized.summary().getName()).isEqualTo("set-10");
+    }
+
+    @Test
+    void put_sharedSet_shouldReturnJsonAndCompressOffRequestThread() throws IOException {
+        FlashcardSetDTO dto = makeDTO(10L, 3L, true, 50);
+
+        SerializedFlashcardSet returned = cache.put(dto).orElseThrow();
+
+        assertThat(returned.json()).isEqualTo(objectMapper.writeValueAsBytes(dto));
+        assertThat(returned.gzip()).isNull();
+        assertThat(cache.get(10L, 3L)).get().extracting(SerializedFlashcardSet::gzip).isNull();
+        assertThat(compressionTasks).hasSize(1);
+
+        runCompression();
+
+        assertThat(cache.get(10L, 3L)).get().extracting(SerializedFlashcardSet::gzip).isNotNull();
+    }
+
+    @Test
+    void put_whenCompressionRejected_shouldKeepUncompressedEntry() {
+        SharedFlashcardSetJsonCacheImpl saturated = new SharedFlashcardSetJsonCacheImpl(DataSize.ofMegabytes(1),
+                Duration.ofMinutes(10), objectMapper, flashcardSetService, task -> {
+                    throw new RejectedExecutionException("очередь сжатия заполнена");
+                });
+
+        assertThat(saturated.put(makeDTO(10L, 3L, true, 50))).isPresent();
+
+        assertThat(saturated.get(10L, 3L)).get().extracting(SerializedFlashcardSet::gzip).isNull();
+    }
+
+    @Test
+    void put_whenNewerVersionStoredDuringCompression_shouldKeepNewerVersion() {
+        cache.put(makeDTO(10L, 3L, true, 50));
+        Runnable staleCompression = compressionTasks.remove(0);
+        cache.put(makeDTO(10L, 4L, true, 50));
+
+        staleCompression.run();
+
+        assertThat(cache.get(10L, 4L)).isPresent();
+        assertThat(cache.get(10L, 3L)).isEmpty();
+    }
+
+    @Test
+    void put_privateSet_shouldBeIgnored() {
+        assertThat(cache.put(makeDTO(10L, 3L, false, 1))).isEmpty();
+
+        assertThat(cache.get(10L, 3L)).isEmpty();
+    }
+
+    @Test
+    void get_withOtherVersion_shouldReturnEmpty() {
+        cache.put(makeDTO(10L, 3L, true, 1));
+
+        assertThat(cache.get(10L, 4L)).isEmpty();
+    }
+
+    @Test
+    void put_olderVersion_shouldKeepNewerOne() {
+        cache.put(makeDTO(10L, 5L, true, 1));
+        cache.put(makeDTO(10L, 4L, true, 1));
+
+        assertThat(cache.get(10L, 5L)).isPresent();
+        assertThat(cache.get(10L, 4L)).isEmpty();
+    }
+
+    @Test
+    void onFlashcardSetChanged_cachedSet_shouldRegenerateNewVersion() {
+        cache.put(makeDTO(10L, 3L, true, 1));
+        when(flashcardSetService.findFlashcardSetById(10L)).thenReturn(Optional.of(makeDTO(10L, 4L, true, 2)));
+
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(10L));
+
+        assertThat(cache.get(10L, 4L)).isPresent();
+    }
+
+    @Test
+    void onFlashcardSetChanged_setNoLongerShared_shouldEvict() {
+        cache.put(makeDTO(10L, 3L, true, 1));
+        when(flashcardSetService.findFlashcardSetById(10L)).thenReturn(Optional.of(makeDTO(10L, 4L, false, 1)));
+
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(10L));
+
+        assertThat(cache.get(10L, 3L)).isEmpty();
+        assertThat(cache.get(10L, 4L)).isEmpty();
+    }
+
+    @Test
+    void onFlashcardSetChanged_notCachedSet_shouldNotLoad() {
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(10L));
+
+        verify(flashcardSetService, never()).findFlashcardSetById(anyLong());
+    }
+
+    // ---------------- фабрики ----------------
+
+    private void runCompression() {
+        List<Runnable> tasks = new ArrayList<>(compressionTasks);
+        compressionTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private FlashcardSetDTO makeDTO(Long id, Long version, boolean shared, int cards) {
+        List<CardsDTO> items = new ArrayList<>();
+        for (long i = 1; i <= cards; i++) {
+            items.add(new CardsDTO(i, "term-" + i, "definition-" + i));
+        }
+        return new FlashcardSetDTO(id, "set-" + id, "description", items, "Owner Test", (long) cards, version, shared, null);
+    }
+}
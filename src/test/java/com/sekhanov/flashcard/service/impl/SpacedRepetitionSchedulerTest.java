@@ -0,0 +1,75 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.ReviewRequestDTO.Grade;
+import com.sekhanov.flashcard.entity.CardReviewState;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SpacedRepetitionSchedulerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private final SpacedRepetitionScheduler scheduler = new SpacedRepetitionScheduler();
+
+    @Test
+    void review_withGoodAnswers_shouldGrowIntervalBySm2Steps() {
+        CardReviewState state = makeState();
+
+        scheduler.review(state, Grade.GOOD, NOW);
+        assertThat(state.getIntervalDays()).isEqualTo(1);
+        scheduler.review(state, Grade.GOOD, NOW);
+        assertThat(state.getIntervalDays()).isEqualTo(6);
+        scheduler.review(state, Grade.GOOD, NOW);
+
+        // оценка GOOD (качество 4) не меняет коэффициент лёгкости
+        assertThat(state.getEaseFactor()).isCloseTo(2.5, within(1e-9));
+        assertThat(state.getIntervalDays()).isEqualTo(15);
+        assertThat(state.getRepetitions()).isEqualTo(3);
+        assertThat(state.getDueAt()).isEqualTo(NOW.plusDays(15));
+        assertThat(state.getLastReviewedAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void review_withEasyAnswer_shouldIncreaseEaseFactor() {
+        CardReviewState state = makeState();
+
+        scheduler.review(state, Grade.EASY, NOW);
+
+        assertThat(state.getEaseFactor()).isCloseTo(2.6, within(1e-9));
+    }
+
+    @Test
+    void review_withAgain_shouldResetStreakAndRequeueSoon() {
+        CardReviewState state = makeState();
+        state.setRepetitions(4);
+        state.setIntervalDays(30);
+
+        scheduler.review(state, Grade.AGAIN, NOW);
+
+        assertThat(state.getRepetitions()).isZero();
+        assertThat(state.getIntervalDays()).isZero();
+        assertThat(state.getLapses()).isEqualTo(1);
+        assertThat(state.getDueAt()).isEqualTo(NOW.plus(SpacedRepetitionScheduler.LAPSE_DELAY));
+        assertThat(state.getEaseFactor()).isCloseTo(1.96, within(1e-9));
+    }
+
+    @Test
+    void review_withRepeatedLapses_shouldNotDropEaseBelowMinimum() {
+        CardReviewState state = makeState();
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.review(state, Grade.AGAIN, NOW);
+        }
+
+        assertThat(state.getEaseFactor()).isEqualTo(SpacedRepetitionScheduler.MIN_EASE_FACTOR);
+    }
+
+    // ---------------- фабрики ----------------
+    private CardReviewState makeState() {
+        CardReviewState state = new CardReviewState();
+        state.setDueAt(NOW);
+        return state;
+    }
+}
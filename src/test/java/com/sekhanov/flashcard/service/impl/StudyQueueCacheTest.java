@@ -0,0 +1,111 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.event.FlashcardSetChangedEvent;
+import com.sekhanov.flashcard.repository.projection.DueCardRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudyQueueCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private StudyQueueCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new StudyQueueCache(100, Duration.ofMinutes(30));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void peek_whenCalledTwice_shouldLoadFromDatabaseOnce() {
+        Function<Long, List<DueCardRow>> loader = countingLoader(List.of(makeRow(1L, 10L), makeRow(2L, 10L)));
+
+        cache.peek(1L, 1, loader);
+        List<DueCardRow> result = cache.peek(1L, 1, loader);
+
+        assertThat(result).extracting(DueCardRow::cardId).containsExactly(1L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void remove_shouldServeNextCardWithoutReload() {
+        Function<Long, List<DueCardRow>> loader = countingLoader(List.of(makeRow(1L, 10L), makeRow(2L, 10L)));
+        cache.peek(1L, 1, loader);
+
+        cache.remove(1L, 1L);
+
+        assertThat(cache.peek(1L, 1, loader)).extracting(DueCardRow::cardId).containsExactly(2L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void peek_whenQueueDrained_shouldReload() {
+        cache.peek(1L, 1, countingLoader(List.of(makeRow(1L, 10L))));
+        cache.remove(1L, 1L);
+
+        List<DueCardRow> result = cache.peek(1L, 1, countingLoader(List.of(makeRow(3L, 10L))));
+
+        assertThat(result).extracting(DueCardRow::cardId).containsExactly(3L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void peek_whenFullBatchPartlyConsumed_shouldReloadForMoreCards() {
+        List<DueCardRow> batch = LongStream.rangeClosed(1, StudyQueueCache.QUEUE_BATCH).mapToObj(id -> makeRow(id, 10L)).toList();
+        Function<Long, List<DueCardRow>> loader = countingLoader(batch);
+        cache.peek(1L, 10, loader);
+        LongStream.rangeClosed(1, StudyQueueCache.QUEUE_BATCH - 5).forEach(id -> cache.remove(1L, id));
+
+        cache.peek(1L, 10, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void onFlashcardSetChanged_whenQueueHasCardsOfSet_shouldReloadOnNextPeek() {
+        Function<Long, List<DueCardRow>> loader = countingLoader(List.of(makeRow(1L, 10L)));
+        cache.peek(1L, 1, loader);
+
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(99L));
+        cache.peek(1L, 1, loader);
+        assertThat(loads).hasValue(1);
+
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(10L));
+        cache.peek(1L, 1, loader);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void onFlashcardSetChanged_whenSetLeftQueueOnReload_shouldNotReloadAgain() {
+        cache.peek(1L, 1, countingLoader(List.of(makeRow(1L, 10L))));
+        cache.invalidate(1L);
+        Function<Long, List<DueCardRow>> loader = countingLoader(List.of(makeRow(2L, 20L)));
+        cache.peek(1L, 1, loader);
+
+        cache.onFlashcardSetChanged(new FlashcardSetChangedEvent(10L));
+        cache.peek(1L, 1, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    // ---------------- фабрики ----------------
+    private Function<Long, List<DueCardRow>> countingLoader(List<DueCardRow> rows) {
+        return userId -> {
+            loads.incrementAndGet();
+            return rows;
+        };
+    }
+
+    private DueCardRow makeRow(Long cardId, Long setId) {
+        return new DueCardRow(cardId, setId, "term " + cardId, "definition " + cardId, NOW.minusMinutes(cardId), 0);
+    }
+}
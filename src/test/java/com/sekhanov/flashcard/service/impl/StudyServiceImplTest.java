@@ -0,0 +1,250 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.DueCardDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchItemDTO;
+import com.sekhanov.flashcard.dto.ReviewBatchResultDTO;
+import com.sekhanov.flashcard.dto.ReviewRequestDTO;
+import com.sekhanov.flashcard.dto.ReviewStateDTO;
+import com.sekhanov.flashcard.entity.CardReviewState;
+import com.sekhanov.flashcard.repository.CardReviewStateRepository;
+import com.sekhanov.flashcard.repository.CardsRepository;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.UserRepository;
+import com.sekhanov.flashcard.repository.projection.DueCardRow;
+import com.sekhanov.flashcard.repository.projection.ReviewLogRow;
+import com.sekhanov.flashcard.repository.projection.ReviewStateRow;
+import com.sekhanov.flashcard.service.UserService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StudyServiceImplTest {
+    @Mock
+    private CardReviewStateRepository reviewStateRepository;
+    @Mock
+    private CardsRepository cardsRepository;
+    @Mock
+    private FlashcardSetRepository flashcardSetRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserService userService;
+    @Spy
+    private SpacedRepetitionScheduler scheduler = new SpacedRepetitionScheduler();
+    @Mock
+    private StudyQueueCache studyQueueCache;
+    @InjectMocks
+    private StudyServiceImpl studyService;
+
+    @Test
+    void getDueCards_shouldClampLimitAndMapQueue() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(studyQueueCache.peek(eq(7L), eq(StudyServiceImpl.MAX_DUE_CARDS), any()))
+                .thenReturn(List.of(new DueCardRow(11L, 1L, "cat", "кот", LocalDateTime.now(), 0)));
+
+        List<DueCardDTO> result = studyService.getDueCards(1000);
+
+        assertThat(result).extracting(DueCardDTO::getCardId, DueCardDTO::getTerm, DueCardDTO::isFresh)
+                .containsExactly(tuple(11L, "cat", true));
+    }
+
+    @Test
+    void review_whenStateExists_shouldScheduleAndRemoveFromQueue() {
+        CardReviewState state = makeState(7L, 11L);
+        state.setRepetitions(1);
+        state.setIntervalDays(1);
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(reviewStateRepository.findById(new CardReviewState.CardReviewStateId(7L, 11L))).thenReturn(Optional.of(state));
+        when(reviewStateRepository.save(state)).thenReturn(state);
+
+        ReviewStateDTO result = studyService.review(new ReviewRequestDTO(11L, ReviewRequestDTO.Grade.GOOD));
+
+        assertThat(result).extracting(ReviewStateDTO::getCardId, ReviewStateDTO::getIntervalDays, ReviewStateDTO::getRepetitions)
+                .containsExactly(11L, 6, 2);
+        verify(studyQueueCache).remove(7L, 11L);
+    }
+
+    @Test
+    void review_whenCardNotEnrolled_shouldCreateState() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(reviewStateRepository.findById(any())).thenReturn(Optional.empty());
+        when(cardsRepository.existsById(11L)).thenReturn(true);
+        when(reviewStateRepository.save(any(CardReviewState.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ReviewStateDTO result = studyService.review(new ReviewRequestDTO(11L, ReviewRequestDTO.Grade.AGAIN));
+
+        assertThat(result.getLapses()).isEqualTo(1);
+        verify(cardsRepository).getReferenceById(11L);
+        verify(userRepository).getReferenceById(7L);
+    }
+
+    @Test
+    void review_whenCardMissing_shouldThrowNotFound() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(reviewStateRepository.findById(any())).thenReturn(Optional.empty());
+        when(cardsRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> studyService.review(new ReviewRequestDTO(99L, ReviewRequestDTO.Grade.GOOD)));
+        verify(reviewStateRepository, never()).save(any());
+    }
+
+    @Test
+    void review_withoutGrade_shouldThrowIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> studyService.review(new ReviewRequestDTO(11L, null)));
+        verifyNoInteractions(reviewStateRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reviewBatch_shouldApplyInClientOrderWithSingleUpsert() {
+        OffsetDateTime now = OffsetDateTime.now();
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(reviewStateRepository.insertReviewLog(anyList())).thenReturn(Set.of("a", "b"));
+        when(reviewStateRepository.lockStates(eq(7L), anyCollection(), any())).thenReturn(List.of(newRow(7L, 11L)));
+
+        ReviewBatchResultDTO result = studyService.reviewBatch(List.of(
+                new ReviewBatchItemDTO("b", 11L, ReviewRequestDTO.Grade.GOOD, now.minusHours(1)),
+                new ReviewBatchItemDTO("a", 11L, ReviewRequestDTO.Grade.GOOD, now.minusHours(2))));
+
+        assertThat(result).extracting(ReviewBatchResultDTO::getApplied, ReviewBatchResultDTO::getDuplicates, ReviewBatchResultDTO::getSkipped)
+                .containsExactly(2, 0, 0);
+        ArgumentCaptor<List<ReviewLogRow>> logRows = ArgumentCaptor.forClass(List.class);
+        verify(reviewStateRepository).insertReviewLog(logRows.capture());
+        assertThat(logRows.getValue()).extracting(ReviewLogRow::idempotencyKey).containsExactly("a", "b");
+        ArgumentCaptor<List<ReviewStateRow>> stateRows = ArgumentCaptor.forClass(List.class);
+        verify(reviewStateRepository).upsertAll(stateRows.capture());
+        assertThat(stateRows.getValue()).singleElement()
+                .extracting(ReviewStateRow::cardId, ReviewStateRow::repetitions, ReviewStateRow::intervalDays)
+                .containsExactly(11L, 2, 6);
+        verify(studyQueueCache).invalidate(7L);
+    }
+
+    @Test
+    void reviewBatch_whenKeysAlreadyAccepted_shouldCountDuplicates() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(reviewStateRepository.insertReviewLog(anyList())).thenReturn(Set.of());
+
+        ReviewBatchResultDTO result = studyService.reviewBatch(List.of(
+                new ReviewBatchItemDTO("a", 11L, ReviewRequestDTO.Grade.GOOD, null),
+                new ReviewBatchItemDTO("a", 11L, ReviewRequestDTO.Grade.GOOD, null)));
+
+        assertThat(result).extracting(ReviewBatchResultDTO::getApplied, ReviewBatchResultDTO::getDuplicates)
+                .containsExactly(0, 2);
+        verify(reviewStateRepository, never()).lockStates(any(), anyCollection(), any());
+        verifyNoInteractions(studyQueueCache);
+    }
+
+    @Test
+    void reviewBatch_whenCardDeleted_shouldSkipReview() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(reviewStateRepository.insertReviewLog(anyList())).thenReturn(Set.of("a"));
+        when(reviewStateRepository.lockStates(eq(7L), anyCollection(), any())).thenReturn(List.of());
+
+        ReviewBatchResultDTO result = studyService.reviewBatch(List.of(new ReviewBatchItemDTO("a", 99L, ReviewRequestDTO.Grade.GOOD, null)));
+
+        assertThat(result).extracting(ReviewBatchResultDTO::getApplied, ReviewBatchResultDTO::getSkipped).containsExactly(0, 1);
+        assertThat(result.getStates()).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reviewBatch_whenReviewNotNewerThanLastReview_shouldRecordOnly() {
+        LocalDateTime lastReviewedAt = LocalDateTime.now().minusHours(1);
+        ReviewStateRow current = new ReviewStateRow(7L, 11L, 2.5, 6, 2, 0, lastReviewedAt.plusDays(6), lastReviewedAt);
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(reviewStateRepository.insertReviewLog(anyList())).thenReturn(Set.of("old", "same", "new"));
+        when(reviewStateRepository.lockStates(eq(7L), anyCollection(), any())).thenReturn(List.of(current));
+
+        ReviewBatchResultDTO result = studyService.reviewBatch(List.of(
+                new ReviewBatchItemDTO("old", 11L, ReviewRequestDTO.Grade.AGAIN, offset(lastReviewedAt.minusHours(1))),
+                new ReviewBatchItemDTO("same", 11L, ReviewRequestDTO.Grade.AGAIN, offset(lastReviewedAt)),
+                new ReviewBatchItemDTO("new", 11L, ReviewRequestDTO.Grade.GOOD, offset(lastReviewedAt.plusMinutes(30)))));
+
+        assertThat(result).extracting(ReviewBatchResultDTO::getApplied, ReviewBatchResultDTO::getDuplicates, ReviewBatchResultDTO::getSkipped)
+                .containsExactly(1, 0, 2);
+        ArgumentCaptor<List<ReviewLogRow>> logRows = ArgumentCaptor.forClass(List.class);
+        verify(reviewStateRepository).insertReviewLog(logRows.capture());
+        assertThat(logRows.getValue()).extracting(ReviewLogRow::idempotencyKey).containsExactly("old", "same", "new");
+        ArgumentCaptor<List<ReviewStateRow>> stateRows = ArgumentCaptor.forClass(List.class);
+        verify(reviewStateRepository).upsertAll(stateRows.capture());
+        assertThat(stateRows.getValue()).singleElement()
+                .extracting(ReviewStateRow::repetitions, ReviewStateRow::lapses)
+                .containsExactly(3, 0);
+    }
+
+    @Test
+    void reviewBatch_whenAllReviewsStale_shouldNotWriteStates() {
+        LocalDateTime lastReviewedAt = LocalDateTime.now().minusHours(1);
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(reviewStateRepository.insertReviewLog(anyList())).thenReturn(Set.of("a"));
+        when(reviewStateRepository.lockStates(eq(7L), anyCollection(), any()))
+                .thenReturn(List.of(new ReviewStateRow(7L, 11L, 2.5, 1, 1, 0, lastReviewedAt.plusDays(1), lastReviewedAt)));
+
+        ReviewBatchResultDTO result = studyService.reviewBatch(List.of(
+                new ReviewBatchItemDTO("a", 11L, ReviewRequestDTO.Grade.AGAIN, offset(lastReviewedAt.minusDays(1)))));
+
+        assertThat(result).extracting(ReviewBatchResultDTO::getApplied, ReviewBatchResultDTO::getSkipped).containsExactly(0, 1);
+        assertThat(result.getStates()).isEmpty();
+        verify(reviewStateRepository).upsertAll(List.of());
+        verifyNoInteractions(studyQueueCache);
+    }
+
+    @Test
+    void reviewBatch_withoutIdempotencyKey_shouldThrowIllegalArgument() {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+
+        assertThrows(IllegalArgumentException.class, () -> studyService.reviewBatch(
+                List.of(new ReviewBatchItemDTO(" ", 11L, ReviewRequestDTO.Grade.GOOD, null))));
+        verifyNoInteractions(reviewStateRepository);
+    }
+
+    @Test
+    void enrollFlashcardSet_whenCardsAdded_shouldResetQueue() {
+        when(flashcardSetRepository.existsById(1L)).thenReturn(true);
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(reviewStateRepository.enrollFlashcardSet(eq(7L), eq(1L), any())).thenReturn(3);
+
+        assertThat(studyService.enrollFlashcardSet(1L)).isEqualTo(3);
+        verify(studyQueueCache).invalidate(7L);
+    }
+
+    @Test
+    void enrollFlashcardSet_whenSetMissing_shouldThrowNotFound() {
+        when(flashcardSetRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> studyService.enrollFlashcardSet(1L));
+        verifyNoInteractions(reviewStateRepository, studyQueueCache);
+    }
+
+    // ---------------- фабрики ----------------
+    private ReviewStateRow newRow(Long userId, Long cardId) {
+        return new ReviewStateRow(userId, cardId, CardReviewState.INITIAL_EASE_FACTOR, 0, 0, 0, LocalDateTime.now(), null);
+    }
+
+    private OffsetDateTime offset(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+
+    private CardReviewState makeState(Long userId, Long cardId) {
+        CardReviewState state = new CardReviewState();
+        state.setId(new CardReviewState.CardReviewStateId(userId, cardId));
+        state.setDueAt(LocalDateTime.now());
+        return state;
+    }
+}
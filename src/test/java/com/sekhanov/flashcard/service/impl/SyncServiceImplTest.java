@@ -0,0 +1,138 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.dto.SyncCardDTO;
+import com.sekhanov.flashcard.dto.SyncDTO;
+import com.sekhanov.flashcard.dto.SyncSetDTO;
+import com.sekhanov.flashcard.repository.CardsRepository;
+import com.sekhanov.flashcard.repository.FlashcardSetRepository;
+import com.sekhanov.flashcard.repository.SyncTombstoneRepository;
+import com.sekhanov.flashcard.repository.projection.SyncCardRow;
+import com.sekhanov.flashcard.repository.projection.SyncSetRow;
+import com.sekhanov.flashcard.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceImplTest {
+    private static final Duration OVERLAP = Duration.ofMinutes(5);
+    private static final Duration RETENTION = Duration.ofDays(30);
+
+    @Mock
+    private FlashcardSetRepository flashcardSetRepository;
+    @Mock
+    private CardsRepository cardsRepository;
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+    @Mock
+    private UserService userService;
+
+    private SyncServiceImpl syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new SyncServiceImpl(flashcardSetRepository, cardsRepository, syncTombstoneRepository, userService,
+                OVERLAP, RETENTION);
+    }
+
+    @Test
+    void sync_withoutToken_shouldReturnAllVisibleSets() {
+        givenVisibleSets(List.of(1L), List.of(1L, 2L));
+        when(flashcardSetRepository.findSyncRowsByIdIn(List.of(1L, 2L))).thenReturn(List.of(makeSetRow(1L), makeSetRow(2L)));
+        when(cardsRepository.findSyncRowsByFlashcardSetIdIn(List.of(1L, 2L))).thenReturn(List.of(makeCardRow(10L, 1L)));
+        long before = System.currentTimeMillis();
+
+        SyncDTO result = syncService.sync(null);
+
+        assertThat(result.isFull()).isTrue();
+        assertThat(result.getToken()).isBetween(before, System.currentTimeMillis());
+        assertThat(result.getSets()).extracting(SyncSetDTO::getId).containsExactly(1L, 2L);
+        assertThat(result.getCards()).extracting(SyncCardDTO::getId).containsExactly(10L);
+        assertThat(result.getDeletedSetIds()).isEmpty();
+        verifyNoInteractions(syncTombstoneRepository);
+    }
+
+    @Test
+    void sync_withToken_shouldReturnChangesSinceTokenMinusOverlap() {
+        givenVisibleSets(List.of(1L), List.of(1L, 2L, 3L));
+        long since = System.currentTimeMillis() - Duration.ofHours(1).toMillis();
+        when(flashcardSetRepository.findIdsLinkedSince(eq(7L), any())).thenReturn(List.of(3L));
+        when(flashcardSetRepository.findSyncRowsByOwnerIdChangedSince(eq(7L), any())).thenReturn(List.of(makeSetRow(1L)));
+        when(flashcardSetRepository.findSyncRowsByIdInChangedSince(eq(List.of(2L)), any())).thenReturn(List.of());
+        when(flashcardSetRepository.findSyncRowsByIdIn(List.of(3L))).thenReturn(List.of(makeSetRow(3L)));
+        when(cardsRepository.findSyncRowsChangedSince(eq(List.of(1L, 2L)), any())).thenReturn(List.of(makeCardRow(10L, 1L)));
+        when(cardsRepository.findSyncRowsByFlashcardSetIdIn(List.of(3L))).thenReturn(List.of(makeCardRow(30L, 3L)));
+        // набор 2 был отвязан и снова добавлен, набор 4 удалён
+        when(syncTombstoneRepository.findDeletedSetIds(eq(7L), any())).thenReturn(List.of(2L, 4L));
+        when(syncTombstoneRepository.findDeletedCardIds(eq(List.of(1L, 2L)), any())).thenReturn(List.of(11L));
+
+        SyncDTO result = syncService.sync(since);
+
+        assertThat(result.isFull()).isFalse();
+        assertThat(result.getSets()).extracting(SyncSetDTO::getId).containsExactly(1L, 3L);
+        assertThat(result.getCards()).extracting(SyncCardDTO::getId).containsExactly(10L, 30L);
+        assertThat(result.getDeletedSetIds()).containsExactly(4L);
+        assertThat(result.getDeletedCardIds()).containsExactly(11L);
+        LocalDateTime expectedFrom = LocalDateTime.now().minusHours(1).minus(OVERLAP);
+        verify(flashcardSetRepository).findSyncRowsByOwnerIdChangedSince(eq(7L),
+                argThat((LocalDateTime from) -> Duration.between(from, expectedFrom).abs().toSeconds() < 5));
+    }
+
+    @Test
+    void sync_withTokenOlderThanRetention_shouldFallBackToFullSync() {
+        givenVisibleSets(List.of(1L), List.of(1L, 2L));
+        when(flashcardSetRepository.findSyncRowsByIdIn(List.of(1L, 2L))).thenReturn(List.of(makeSetRow(1L), makeSetRow(2L)));
+        when(cardsRepository.findSyncRowsByFlashcardSetIdIn(List.of(1L, 2L))).thenReturn(List.of());
+        long since = System.currentTimeMillis() - RETENTION.plusDays(1).toMillis();
+
+        SyncDTO result = syncService.sync(since);
+
+        assertThat(result.isFull()).isTrue();
+        verify(flashcardSetRepository, never()).findIdsLinkedSince(any(), any());
+        verifyNoInteractions(syncTombstoneRepository);
+    }
+
+    @Test
+    void sync_withTokenFromFuture_shouldFallBackToFullSync() {
+        givenVisibleSets(List.of(1L), List.of(1L, 2L));
+        when(flashcardSetRepository.findSyncRowsByIdIn(List.of(1L, 2L))).thenReturn(List.of());
+        when(cardsRepository.findSyncRowsByFlashcardSetIdIn(List.of(1L, 2L))).thenReturn(List.of());
+
+        SyncDTO result = syncService.sync(System.currentTimeMillis() + Duration.ofDays(1).toMillis());
+
+        assertThat(result.isFull()).isTrue();
+    }
+
+    @Test
+    void purgeTombstones_shouldDeleteOlderThanRetention() {
+        when(syncTombstoneRepository.deleteOlderThan(any())).thenReturn(3);
+
+        assertThat(syncService.purgeTombstones()).isEqualTo(3);
+        LocalDateTime expectedBefore = LocalDateTime.now().minus(RETENTION);
+        verify(syncTombstoneRepository).deleteOlderThan(
+                argThat((LocalDateTime before) -> Duration.between(before, expectedBefore).abs().toSeconds() < 5));
+    }
+
+    // ---------------- фабрики ----------------
+
+    private void givenVisibleSets(List<Long> ownedIds, List<Long> linkedIds) {
+        when(userService.getCurrentUserId()).thenReturn(7L);
+        when(flashcardSetRepository.findIdsByOwnerId(7L)).thenReturn(ownedIds);
+        when(flashcardSetRepository.findLinkedIds(7L)).thenReturn(linkedIds);
+    }
+
+    private SyncSetRow makeSetRow(Long id) {
+        return new SyncSetRow(id, 7L, "set-" + id, null, false, 0, LocalDateTime.now(), 0L);
+    }
+
+    private SyncCardRow makeCardRow(Long id, Long setId) {
+        return new SyncCardRow(id, setId, "term-" + id, "def-" + id, LocalDateTime.now(), 0L);
+    }
+}
@@ -0,0 +1,138 @@
+package com.sekhanov.flashcard.service.impl;
+
+import com.sekhanov.flashcard.event.CardTermsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TermSuggestIndexTest {
+
+    private TermSuggestIndex index;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        index = new TermSuggestIndex(100, Duration.ofMinutes(15));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void suggest_whenCalledTwice_shouldLoadTermsOnce() {
+        Function<Long, List<String>> loader = countingLoader(List.of("apple", "apricot", "banana"));
+
+        index.suggest(1L, "ap", 10, loader);
+        List<String> result = index.suggest(1L, "ap", 10, loader);
+
+        assertThat(result).containsExactly("apple", "apricot");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void suggest_shouldIgnoreCaseAndDeduplicate() {
+        List<String> result = index.suggest(1L, "APP", 10, countingLoader(List.of("Apple", "apple", "Apple", "application")));
+
+        assertThat(result).containsExactly("Apple", "apple", "application");
+    }
+
+    @Test
+    void suggest_shouldRespectLimit() {
+        List<String> result = index.suggest(1L, "a", 2, countingLoader(List.of("ac", "ab", "aa", "b")));
+
+        assertThat(result).containsExactly("aa", "ab");
+    }
+
+    @Test
+    void suggest_shouldKeepIndexesOfUsersSeparate() {
+        index.suggest(1L, "a", 10, countingLoader(List.of("alpha")));
+
+        assertThat(index.suggest(2L, "a", 10, countingLoader(List.of("atom")))).containsExactly("atom");
+    }
+
+    @Test
+    void onCardTermsChanged_whenIndexBuilt_shouldApplyChangesWithoutReload() {
+        index.suggest(1L, "ca", 10, countingLoader(List.of("cat", "car")));
+
+        index.onCardTermsChanged(CardTermsChangedEvent.replaced(1L, List.of("car"), List.of("cart")));
+
+        assertThat(index.suggest(1L, "ca", 10, countingLoader(List.of()))).containsExactly("cart", "cat");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void onCardTermsChanged_whenDuplicateTermRemoved_shouldKeepTermOfRemainingCard() {
+        index.suggest(1L, "b", 10, countingLoader(List.of("bird", "bird", "bee")));
+
+        index.onCardTermsChanged(CardTermsChangedEvent.removed(1L, List.of("bird", "bee")));
+
+        assertThat(index.suggest(1L, "b", 10, countingLoader(List.of()))).containsExactly("bird");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void onCardTermsChanged_duringBuild_shouldNotKeepStaleIndex() {
+        index.suggest(1L, "d", 10, userId -> {
+            loads.incrementAndGet();
+            // изменение закоммитилось, пока термины ещё читались
+            index.onCardTermsChanged(CardTermsChangedEvent.added(1L, List.of("dog")));
+            return List.of("duck");
+        });
+
+        assertThat(index.suggest(1L, "d", 10, countingLoader(List.of("dog", "duck")))).containsExactly("dog", "duck");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void onCardTermsChanged_afterRebuiltIndex_shouldApplyChanges() {
+        index.suggest(1L, "d", 10, userId -> {
+            loads.incrementAndGet();
+            index.onCardTermsChanged(CardTermsChangedEvent.added(1L, List.of("dog")));
+            return List.of("duck");
+        });
+        index.suggest(1L, "d", 10, countingLoader(List.of("dog", "duck")));
+
+        index.onCardTermsChanged(CardTermsChangedEvent.removed(1L, List.of("duck")));
+
+        assertThat(index.suggest(1L, "d", 10, countingLoader(List.of()))).containsExactly("dog");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void suggest_whenLoaderFails_shouldRetryOnNextCall() {
+        Function<Long, List<String>> failing = userId -> {
+            throw new IllegalStateException("db down");
+        };
+
+        assertThatThrownBy(() -> index.suggest(1L, "a", 10, failing)).isInstanceOf(IllegalStateException.class);
+        assertThat(index.suggest(1L, "a", 10, countingLoader(List.of("alpha")))).containsExactly("alpha");
+    }
+
+    @Test
+    void onCardTermsChanged_whenIndexNotBuilt_shouldLoadFromDatabaseLater() {
+        index.onCardTermsChanged(CardTermsChangedEvent.added(1L, List.of("dog")));
+
+        assertThat(index.suggest(1L, "d", 10, countingLoader(List.of("duck")))).containsExactly("duck");
+    }
+
+    @Test
+    void onCardTermsChanged_withRebuild_shouldReloadOnNextSuggest() {
+        index.suggest(1L, "a", 10, countingLoader(List.of("alpha")));
+
+        index.onCardTermsChanged(CardTermsChangedEvent.rebuild(1L));
+
+        assertThat(index.suggest(1L, "a", 10, countingLoader(List.of("atom")))).containsExactly("atom");
+        assertThat(loads).hasValue(2);
+    }
+
+    // ---------------- фабрики ----------------
+    private Function<Long, List<String>> countingLoader(List<String> terms) {
+        return userId -> {
+            loads.incrementAndGet();
+            return terms;
+        };
+    }
+}
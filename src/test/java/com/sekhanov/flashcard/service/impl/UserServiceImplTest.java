@@ -1,8 +1,10 @@
 package com.sekhanov.flashcard.service.impl;
 
+import com.sekhanov.flashcard.config.SecurityConfig;
 import com.sekhanov.flashcard.dto.CreateUserDTO;
 import com.sekhanov.flashcard.dto.UserDTO;
 import com.sekhanov.flashcard.entity.User;
+import com.sekhanov.flashcard.event.UserChangedEvent;
 import com.sekhanov.flashcard.repository.UserRepository;
 import com.sekhanov.flashcard.service.MailService;
 import jakarta.mail.MessagingException;
@@ -12,11 +14,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -32,6 +36,8 @@ class UserServiceImplTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private MailService mailService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -70,6 +76,7 @@ class UserServiceImplTest {
         assertThat(user.getIsEmailConfirmed()).isTrue();
         assertThat(user.getConfirmationToken()).isNull();
         verify(userRepository).save(user);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(2L, "test", false));
     }
 
     @Test
@@ -77,6 +84,7 @@ class UserServiceImplTest {
         when(userRepository.findByConfirmationToken("bad")).thenReturn(Optional.empty());
         assertThatThrownBy(() -> userService.confirmEmail("bad")).isInstanceOf(IllegalArgumentException.class);
         verify(userRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -95,6 +103,21 @@ class UserServiceImplTest {
         assertThat(userService.findCurrentUserEntity()).isEmpty();
     }
 
+    @Test
+    void getCurrentUserId_whenAuthenticated_shouldReadIdFromPrincipalWithoutRepository() {
+        SecurityConfig.CustomUserDetails principal = new SecurityConfig.CustomUserDetails(7L, "ivan", "Ivan", "Petrov", "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(principal, null, "ROLE_USER"));
+
+        assertThat(userService.getCurrentUserId()).isEqualTo(7L);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getCurrentUserId_whenAnonymous_shouldThrow() {
+        SecurityContextHolder.clearContext();
+        assertThatThrownBy(() -> userService.getCurrentUserId()).isInstanceOf(IllegalStateException.class);
+    }
+
     // ---------------- фабрики ----------------
     private User makeUser(Long id, String name, String email, String password) {
         User u = new User();